@@ -1,6 +1,7 @@
 package com.butent.bee.client;
 
 import com.google.gwt.core.client.EntryPoint;
+import com.google.gwt.core.client.JavaScriptException;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.user.client.Window;
@@ -59,6 +60,13 @@ import java.util.Map;
 
 public class Bee implements EntryPoint, ClosingHandler {
 
+  /**
+   * Static parts of the login and init responses are kept in the local storage and are not sent
+   * again, while the server version matches.
+   */
+  private static final String BOOTSTRAP_DATA_PREFIX = "bootstrap-data-";
+  private static final String BOOTSTRAP_VERSION_PREFIX = "bootstrap-version-";
+
   public static void exit() {
     setState(State.UNLOADING);
 
@@ -114,6 +122,17 @@ public class Bee implements EntryPoint, ClosingHandler {
     }
   }
 
+  private static void addBootstrapVersions(ParameterList params) {
+    Storage storage = BeeKeeper.getStorage();
+
+    Map<String, String> versions = storage.getSubMap(BOOTSTRAP_VERSION_PREFIX);
+    versions.keySet().removeIf(key -> !storage.hasItem(BOOTSTRAP_DATA_PREFIX + key));
+
+    if (!versions.isEmpty()) {
+      params.addDataItem(Service.VAR_BOOTSTRAP, Codec.beeSerialize(versions));
+    }
+  }
+
   private static void initWorkspace() {
     List<String> spaces = new ArrayList<>();
     JSONObject onStartup = Settings.getOnStartup();
@@ -167,6 +186,8 @@ public class Bee implements EntryPoint, ClosingHandler {
   }
 
   private static void load(Map<String, String> data) {
+    restoreBootstrap(data);
+
     for (Map.Entry<String, String> entry : data.entrySet()) {
       String value = entry.getValue();
 
@@ -313,11 +334,43 @@ public class Bee implements EntryPoint, ClosingHandler {
     setState(State.CLOSED);
   }
 
+  private static void restoreBootstrap(Map<String, String> data) {
+    Map<String, String> versions = Codec.deserializeHashMap(data.remove(Service.VAR_BOOTSTRAP));
+    Storage storage = BeeKeeper.getStorage();
+
+    versions.forEach((key, version) -> {
+      String dataKey = BOOTSTRAP_DATA_PREFIX + key;
+      String versionKey = BOOTSTRAP_VERSION_PREFIX + key;
+
+      if (data.containsKey(key)) {
+        try {
+          storage.set(dataKey, data.get(key));
+          storage.set(versionKey, version);
+
+        } catch (JavaScriptException ex) {
+          storage.remove(dataKey);
+          storage.remove(versionKey);
+
+          LogUtils.getRootLogger().warning("cannot store", key, ex.getMessage());
+        }
+
+      } else if (storage.hasItem(dataKey)) {
+        data.put(key, storage.get(dataKey));
+
+      } else {
+        storage.remove(versionKey);
+        LogUtils.getRootLogger().severe(key, "not found in storage");
+      }
+    });
+  }
+
   private static void setState(State state) {
     Bee.state = state;
   }
 
   private static void start() {
+    Global.restoreCache();
+
     BeeKeeper.getScreen().onLoad();
 
     ModuleManager.onLoad();
@@ -378,6 +431,7 @@ public class Bee implements EntryPoint, ClosingHandler {
     }
 
     ParameterList params = BeeKeeper.getRpc().createParameters(Service.LOGIN);
+    addBootstrapVersions(params);
 
     BeeKeeper.getRpc().makeRequest(params, response -> {
       load(Codec.deserializeLinkedHashMap(response.getResponseAsString()));
@@ -411,6 +465,7 @@ public class Bee implements EntryPoint, ClosingHandler {
 
     ParameterList params = BeeKeeper.getRpc().createParameters(Service.INIT);
     params.addQueryItem(Service.VAR_UI, BeeKeeper.getScreen().getUserInterface().getShortName());
+    addBootstrapVersions(params);
 
     BeeKeeper.getRpc().makeRequest(params, response -> {
       load(Codec.deserializeLinkedHashMap(response.getResponseAsString()));
@@ -14,6 +14,7 @@ import static com.butent.bee.shared.modules.administration.AdministrationConstan
 import com.butent.bee.client.communication.ParameterList;
 import com.butent.bee.client.communication.ResponseCallback;
 import com.butent.bee.client.data.ClientDefaults;
+import com.butent.bee.client.data.RowSetStore;
 import com.butent.bee.client.dialog.ChoiceCallback;
 import com.butent.bee.client.dialog.ConfirmationCallback;
 import com.butent.bee.client.dialog.DecisionCallback;
@@ -627,6 +628,15 @@ public final class Global {
     exportMethods();
   }
 
+  static void restoreCache() {
+    if (Features.supportsIndexedDB()) {
+      RowSetStore store = new RowSetStore();
+
+      getCache().setStore(store);
+      store.open();
+    }
+  }
+
   //@formatter:off
   // CHECKSTYLE:OFF
   private static native void exportMethods() /*-{
@@ -640,6 +650,11 @@ public final class Global {
 //@formatter:on
 
   private static void initCache() {
+    int budget = Settings.getCacheBudgetMegabytes();
+    if (budget > 0) {
+      getCache().setBudget(budget * 1024L * 1024L);
+    }
+
     BeeKeeper.getBus().registerDataHandler(getCache(), true);
   }
 
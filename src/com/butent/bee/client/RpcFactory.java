@@ -1,6 +1,7 @@
 package com.butent.bee.client;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.http.client.Request;
 import com.google.gwt.http.client.RequestBuilder;
 import com.google.gwt.http.client.RequestException;
@@ -10,12 +11,16 @@ import com.butent.bee.client.communication.ParameterList;
 import com.butent.bee.client.communication.ResponseCallback;
 import com.butent.bee.client.communication.RpcInfo;
 import com.butent.bee.client.communication.RpcList;
+import com.butent.bee.client.communication.RpcParameter.Section;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.Service;
 import com.butent.bee.shared.State;
+import com.butent.bee.shared.communication.BatchPart;
 import com.butent.bee.shared.communication.CommUtils;
 import com.butent.bee.shared.communication.ContentType;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.rights.Module;
@@ -40,6 +45,8 @@ public class RpcFactory {
   private final RpcList rpcList = new RpcList();
   private final AsyncCallback reqCallBack = new AsyncCallback();
 
+  private final List<RpcInfo> batch = new ArrayList<>();
+
   public RpcFactory() {
     this.rpcUrl = GWT.getHostPageBaseURL() + GWT.getModuleName();
   }
@@ -255,6 +262,86 @@ public class RpcFactory {
     return makePostRequest(params, ContentType.TEXT, data, callback);
   }
 
+  private static boolean isBatchable(RpcInfo info) {
+    if (Settings.getRpcBatchMaxSize() <= 1) {
+      return false;
+    }
+    if (BeeUtils.inList(info.getService(), Service.LOGIN, Service.LOGOUT, Service.INIT,
+        Service.BATCH)) {
+      return false;
+    }
+    return !info.getReqParams().hasParameter(CommUtils.CONTENT_TYPE_HEADER);
+  }
+
+  private static void writePart(WireWriter writer, RpcInfo info) {
+    boolean hasContent = info.getReqType() != null
+        && !RequestBuilder.GET.equals(info.getMethod());
+
+    BatchPart part = new BatchPart(BeeUtils.toString(info.getId()), info.getMethodString(),
+        info.getReqParams().getItemsExcept(Section.QUERY),
+        info.getReqParams().getItemsExcept(Section.HEADER, Service.RPC_VAR_QID,
+            Service.RPC_VAR_CTP, CommUtils.CONTENT_TYPE_HEADER),
+        hasContent ? info.getReqType().name() : null, hasContent ? info.getReqData() : null);
+
+    part.write(writer);
+  }
+
+  private void enqueue(RpcInfo info) {
+    batch.add(info);
+    info.setState(State.OPEN);
+
+    if (batch.size() >= Settings.getRpcBatchMaxSize()) {
+      flushBatch();
+    } else if (batch.size() == 1) {
+      Scheduler.get().scheduleFinally(this::flushBatch);
+    }
+  }
+
+  /**
+   * Sends requests, collected during the current event loop turn, as a single
+   * {@link Service#BATCH} request, or as a plain request, if there is only one of them.
+   */
+  private void flushBatch() {
+    List<RpcInfo> parts = new ArrayList<>();
+
+    for (RpcInfo info : batch) {
+      if (info.isCanceled()) {
+        info.done();
+      } else {
+        parts.add(info);
+      }
+    }
+    batch.clear();
+
+    if (parts.size() == 1) {
+      sendRequest(parts.get(0), BeeConst.UNDEF);
+
+    } else if (parts.size() > 1) {
+      StringBuilder sb = new StringBuilder();
+      WireWriter writer = new WireWriter(sb::append);
+
+      writer.writePrefix();
+      writer.writeCount(parts.size());
+
+      for (RpcInfo part : parts) {
+        writePart(writer, part);
+        logger.info(">", part.getId(), part.getService(), part.getSubService(),
+            part.getSummary());
+      }
+      writer.flush();
+
+      ParameterList params = createParameters(Service.BATCH);
+      params.setSummary(BeeUtils.toString(parts.size()));
+
+      RpcInfo info = new RpcInfo(RequestBuilder.POST, Service.BATCH, params, ContentType.TEXT,
+          sb.toString(), null);
+      info.setParts(parts);
+
+      sendRequest(info, BeeConst.UNDEF);
+      rpcList.put(info.getId(), info);
+    }
+  }
+
   private int makeRequest(RequestBuilder.Method method, ParameterList params,
       ContentType type, String reqData, ResponseCallback callback, int timeout) {
 
@@ -264,8 +351,6 @@ public class RpcFactory {
     String svc = params.getService();
     Assert.notEmpty(svc);
 
-    boolean debug = Global.isDebug();
-
     ContentType ctp = type;
     String data;
     if (BeeUtils.isEmpty(reqData)) {
@@ -284,6 +369,26 @@ public class RpcFactory {
     RpcInfo info = new RpcInfo(method, svc, params, ctp, data, callback);
     int id = info.getId();
 
+    if (timeout <= 0 && isBatchable(info)) {
+      enqueue(info);
+    } else {
+      sendRequest(info, timeout);
+    }
+
+    rpcList.put(id, info);
+    return id;
+  }
+
+  private void sendRequest(RpcInfo info, int timeout) {
+    RequestBuilder.Method method = info.getMethod();
+    ParameterList params = info.getReqParams();
+
+    ContentType ctp = info.getReqType();
+    String data = info.getReqData();
+
+    int id = info.getId();
+    boolean debug = Global.isDebug();
+
     String qs = params.getQuery();
     String url = CommUtils.addQueryString(rpcUrl, qs);
 
@@ -298,6 +403,7 @@ public class RpcFactory {
       bld.setHeader(Service.RPC_VAR_SID, sid);
     }
     bld.setHeader(Service.RPC_VAR_QID, BeeUtils.toString(id));
+    bld.setHeader(Service.RPC_VAR_WIRE, WireReader.VERSION);
     String cth = null;
 
     if (ctp != null) {
@@ -319,7 +425,7 @@ public class RpcFactory {
     if (debug) {
       logger.info("request", id, method.toString(), url);
     } else {
-      logger.info(">", id, svc, params.getSubService(), params.getSummary());
+      logger.info(">", id, info.getService(), params.getSubService(), params.getSummary());
     }
 
     String content = null;
@@ -348,9 +454,12 @@ public class RpcFactory {
     } catch (RequestException ex) {
       info.endError(ex);
       logger.severe("send request error", id, ex);
-    }
 
-    rpcList.put(id, info);
-    return id;
+      if (info.isBatch()) {
+        for (RpcInfo part : info.getParts()) {
+          part.endError(ex);
+        }
+      }
+    }
   }
 }
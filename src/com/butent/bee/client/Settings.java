@@ -52,6 +52,10 @@ public final class Settings {
     return getString("build");
   }
 
+  public static int getCacheBudgetMegabytes() {
+    return getInt("cacheBudgetMegabytes");
+  }
+
   public static String getChildEditWindow() {
     return getString("childEditWindow");
   }
@@ -253,6 +257,10 @@ public final class Settings {
     return getString("releaseDate");
   }
 
+  public static int getRpcBatchMaxSize() {
+    return getInt("rpcBatchMaxSize");
+  }
+
   public static List<String> getScripts() {
     return getList("scripts");
   }
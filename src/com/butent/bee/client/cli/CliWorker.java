@@ -567,6 +567,9 @@ public final class CliWorker {
     } else if ("sql".equals(z)) {
       doSql(args);
 
+    } else if (z.startsWith("sqlprof")) {
+      BeeKeeper.getRpc().makeGetRequest(Service.GET_SQL_PROFILES, ResponseHandler.callback(z));
+
     } else if ("stacking".equals(z) || z.startsWith("zind") || z.startsWith("z-ind")) {
       showPropData(v, Stacking.getInfo());
 
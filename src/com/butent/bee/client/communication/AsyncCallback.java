@@ -18,6 +18,7 @@ import com.butent.bee.shared.communication.CommUtils;
 import com.butent.bee.shared.communication.ContentType;
 import com.butent.bee.shared.communication.ResponseMessage;
 import com.butent.bee.shared.communication.ResponseObject;
+import com.butent.bee.shared.communication.WireReader;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.BeeUtils;
@@ -25,6 +26,7 @@ import com.butent.bee.shared.utils.EnumUtils;
 import com.butent.bee.shared.utils.NameUtils;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Manages responses to RPC calls on the client side.
@@ -59,6 +61,13 @@ public class AsyncCallback implements RequestCallback {
       if (info != null) {
         info.done();
         info.setState(State.CLOSED);
+
+        if (info.isBatch()) {
+          for (RpcInfo part : info.getParts()) {
+            part.done();
+            part.setState(State.CLOSED);
+          }
+        }
       }
       return;
     }
@@ -93,6 +102,12 @@ public class AsyncCallback implements RequestCallback {
 
       if (info != null) {
         info.endError(msg);
+
+        if (info.isBatch()) {
+          for (RpcInfo part : info.getParts()) {
+            part.endError(msg);
+          }
+        }
       }
       finalizeResponse();
       return;
@@ -106,6 +121,75 @@ public class AsyncCallback implements RequestCallback {
     ContentType ctp = CommUtils.getContentType(resp.getHeader(Service.RPC_VAR_CTP));
 
     String txt = CommUtils.getContent(ctp, resp.getText());
+
+    if (info != null && info.isBatch()) {
+      onBatchResponse(info, ctp, txt, resp);
+    } else {
+      onResponse(id, info, svc, sub, summary, ctp, txt, resp);
+    }
+  }
+
+  private static void finalizeResponse() {
+    logger.addSeparator();
+  }
+
+  /**
+   * Splits the response to a batch request and processes the response to each part, as if it was
+   * received separately.
+   */
+  private static void onBatchResponse(RpcInfo info, ContentType ctp, String txt, Response resp) {
+    List<RpcInfo> parts = info.getParts();
+
+    if (!WireReader.isWire(txt)) {
+      ResponseObject response = ResponseObject.restore(txt);
+      info.end(ctp, txt, BeeUtils.length(txt), response.getMessages());
+
+      RpcUtils.dispatchMessages(response);
+
+      String msg = BeeUtils.joinWords(Service.BATCH, "request failed");
+      for (RpcInfo part : parts) {
+        part.endError(msg);
+      }
+
+      logger.severe(info.getId(), msg);
+      finalizeResponse();
+      return;
+    }
+
+    info.end(ctp, null, BeeUtils.length(txt), null);
+
+    WireReader reader = new WireReader(txt);
+    int count = reader.readCount();
+
+    if (count != parts.size()) {
+      String msg = BeeUtils.joinWords(Service.BATCH, "expected", parts.size(), "responses,",
+          "received", count);
+      for (RpcInfo part : parts) {
+        part.endError(msg);
+      }
+
+      logger.severe(info.getId(), msg);
+      finalizeResponse();
+      return;
+    }
+
+    for (RpcInfo part : parts) {
+      String partText = reader.readValue();
+
+      if (part.isCanceled()) {
+        part.done();
+        logger.debug("<", part.getId(), "canceled");
+
+      } else {
+        onResponse(part.getId(), part, part.getService(), part.getSubService(),
+            part.getSummary(), ctp, partText, resp);
+      }
+    }
+  }
+
+  private static void onResponse(int id, RpcInfo info, String svc, String sub, String summary,
+      ContentType ctp, String txt, Response resp) {
+
     int len = BeeUtils.length(txt);
 
     if (Global.isDebug()) {
@@ -165,8 +249,4 @@ public class AsyncCallback implements RequestCallback {
         BeeUtils.bracket(duration.getCompletedTime()));
     finalizeResponse();
   }
-
-  private static void finalizeResponse() {
-    logger.addSeparator();
-  }
 }
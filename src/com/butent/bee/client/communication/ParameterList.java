@@ -215,6 +215,36 @@ public class ParameterList extends ArrayList<RpcParameter> {
     }
   }
 
+  public Map<String, String> getItemsExcept(Section section, String... ignore) {
+    Assert.notNull(section);
+    prepare();
+
+    List<RpcParameter> items;
+    switch (section) {
+      case HEADER:
+        items = headerItems;
+        break;
+      case QUERY:
+        items = queryItems;
+        break;
+      default:
+        items = dataItems;
+    }
+
+    Map<String, String> result = new LinkedHashMap<>();
+    int n = (ignore == null) ? 0 : ignore.length;
+
+    for (RpcParameter item : items) {
+      if (item.isReady()) {
+        if (n > 0 && ArrayUtils.containsSame(ignore, item.getName())) {
+          continue;
+        }
+        result.put(item.getName(), item.getValue());
+      }
+    }
+    return result;
+  }
+
   public String getParameter(String name) {
     Assert.notEmpty(name);
     String value = null;
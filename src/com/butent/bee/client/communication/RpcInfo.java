@@ -15,6 +15,7 @@ import com.butent.bee.shared.utils.ExtendedProperty;
 
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -88,6 +89,8 @@ public class RpcInfo {
 
   private ResponseCallback respCallback;
 
+  private List<RpcInfo> parts;
+
   public RpcInfo(RequestBuilder.Method method, String service,
       ParameterList params, ContentType ctp, String data, ResponseCallback callback) {
     this.id = ++counter;
@@ -204,6 +207,10 @@ public class RpcInfo {
     }
   }
 
+  public List<RpcInfo> getParts() {
+    return parts;
+  }
+
   public RequestBuilder getReqBuilder() {
     return reqBuilder;
   }
@@ -335,6 +342,10 @@ public class RpcInfo {
     return duration.getTimeoutAsTime();
   }
 
+  public boolean isBatch() {
+    return parts != null;
+  }
+
   public boolean isCanceled() {
     return getStates().contains(State.CANCELED);
   }
@@ -359,6 +370,10 @@ public class RpcInfo {
     this.method = method;
   }
 
+  public void setParts(List<RpcInfo> parts) {
+    this.parts = parts;
+  }
+
   public void setReqBuilder(RequestBuilder reqBuilder) {
     this.reqBuilder = reqBuilder;
   }
@@ -13,10 +13,12 @@ import com.butent.bee.client.event.logical.SortEvent;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.NotificationListener;
+import com.butent.bee.shared.Service;
 import com.butent.bee.shared.State;
 import com.butent.bee.shared.data.BeeColumn;
 import com.butent.bee.shared.data.BeeRow;
 import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.IsRow;
 import com.butent.bee.shared.data.cache.CachingPolicy;
 import com.butent.bee.shared.data.event.ModificationPreviewer;
 import com.butent.bee.shared.data.event.MultiDeleteEvent;
@@ -27,8 +29,11 @@ import com.butent.bee.shared.data.view.RowInfo;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.Codec;
+import com.butent.bee.shared.utils.Property;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -133,6 +138,7 @@ public class AsyncProvider extends Provider {
 
     private int queryOffset;
     private int queryLimit;
+    private String querySeek;
 
     private CachingPolicy caching;
 
@@ -153,8 +159,13 @@ public class AsyncProvider extends Provider {
     public void run() {
       onStateChange(State.LOADING);
 
+      Collection<Property> options = getQueryOptions();
+      if (!BeeUtils.isEmpty(querySeek)) {
+        options.add(new Property(Service.VAR_VIEW_SEEK, querySeek));
+      }
+
       int rpcId = Queries.getRowSet(getViewName(), null, queryFilter, queryOrder,
-          queryOffset, queryLimit, caching, getQueryOptions(), callback);
+          queryOffset, queryLimit, caching, options, callback);
 
       if (!Queries.isResponseFromCache(rpcId)) {
         callback.setStartTime(System.currentTimeMillis());
@@ -172,8 +183,8 @@ public class AsyncProvider extends Provider {
       return active;
     }
 
-    private void scheduleQuery(Filter flt, Order ord, int offset, int limit, CachingPolicy cp,
-        QueryCallback cb) {
+    private void scheduleQuery(Filter flt, Order ord, int offset, int limit, String seek,
+        CachingPolicy cp, QueryCallback cb) {
 
       cancel();
 
@@ -181,6 +192,7 @@ public class AsyncProvider extends Provider {
       this.queryOrder = ord;
       this.queryOffset = offset;
       this.queryLimit = limit;
+      this.querySeek = seek;
       this.caching = cp;
       this.callback = cb;
 
@@ -229,6 +241,7 @@ public class AsyncProvider extends Provider {
   private final RequestScheduler requestScheduler = new RequestScheduler();
 
   private int lastOffset;
+  private int dataOffset = BeeConst.UNDEF;
 
   private int rpcCount;
   private long rpcMillis;
@@ -511,10 +524,12 @@ public class AsyncProvider extends Provider {
       }
     }
 
+    String seek = BeeUtils.isTrue(forward) ? getSeek(ord, queryOffset - 1) : null;
+
     Range<Integer> queryRange = createRange(queryOffset, queryLimit);
     QueryCallback callback = new QueryCallback(queryRange, displayRange, preserveActiveRow);
 
-    requestScheduler.scheduleQuery(flt, ord, queryOffset, queryLimit, caching, callback);
+    requestScheduler.scheduleQuery(flt, ord, queryOffset, queryLimit, seek, caching, callback);
   }
 
   private int averageRpcDuration() {
@@ -546,6 +561,10 @@ public class AsyncProvider extends Provider {
     }
   }
 
+  private int getDataOffset() {
+    return dataOffset;
+  }
+
   private int getLastOffset() {
     return lastOffset;
   }
@@ -562,6 +581,54 @@ public class AsyncProvider extends Provider {
     return getDisplay().getRowCount();
   }
 
+  /**
+   * Returns order key values of the displayed row at {@code position}, which let the server
+   * select the following rows without OFFSET. The server appends the id column to the order, so
+   * the row id follows the values of order columns.
+   */
+  private String getSeek(Order order, int position) {
+    if (order == null || order.isEmpty() || BeeConst.isUndef(getDataOffset())) {
+      return null;
+    }
+    List<? extends IsRow> data = getDisplay().getRowData();
+    int index = position - getDataOffset();
+
+    if (data == null || index < 0 || index >= data.size()) {
+      return null;
+    }
+    IsRow row = data.get(index);
+
+    List<String> values = new ArrayList<>();
+    boolean idUsed = false;
+
+    for (Order.Column column : order.getColumns()) {
+      String name = column.getName();
+      if (column.getSources().size() != 1 || !BeeUtils.same(name, column.getSources().get(0))) {
+        return null;
+      }
+
+      if (BeeUtils.same(name, getIdColumnName())) {
+        values.add(BeeUtils.toString(row.getId()));
+        idUsed = true;
+
+      } else if (BeeUtils.same(name, getVersionColumnName())) {
+        values.add(BeeUtils.toString(row.getVersion()));
+
+      } else {
+        int colIndex = getColumnIndex(name);
+        if (BeeConst.isUndef(colIndex)) {
+          return null;
+        }
+        values.add(row.getString(colIndex));
+      }
+    }
+
+    if (!idUsed) {
+      values.add(BeeUtils.toString(row.getId()));
+    }
+    return Codec.beeSerialize(values);
+  }
+
   private int getRpcCount() {
     return rpcCount;
   }
@@ -668,10 +735,15 @@ public class AsyncProvider extends Provider {
     cancelPendingRequests();
 
     setLastOffset(0);
+    setDataOffset(BeeConst.UNDEF);
     resetRepeat();
     setPrefetchPending(false);
   }
 
+  private void setDataOffset(int dataOffset) {
+    this.dataOffset = dataOffset;
+  }
+
   private void setLastOffset(int lastOffset) {
     this.lastOffset = lastOffset;
   }
@@ -733,6 +805,7 @@ public class AsyncProvider extends Provider {
       getDisplay().preserveActiveRow(rows);
     }
     getDisplay().setRowData(rows, true);
+    setDataOffset(displayOffset);
 
     onStateChange(State.LOADED);
   }
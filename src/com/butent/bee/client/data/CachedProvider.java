@@ -9,10 +9,12 @@ import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.NotificationListener;
 import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.Service;
 import com.butent.bee.shared.data.BeeColumn;
 import com.butent.bee.shared.data.BeeRow;
 import com.butent.bee.shared.data.BeeRowSet;
 import com.butent.bee.shared.data.DataUtils;
+import com.butent.bee.shared.data.RowOrdering;
 import com.butent.bee.shared.data.cache.CachingPolicy;
 import com.butent.bee.shared.data.event.CellUpdateEvent;
 import com.butent.bee.shared.data.event.ModificationPreviewer;
@@ -28,24 +30,41 @@ import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.BeeUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * Extends {@code Provider} class, enables to manage data ranges from sources stored directly in
  * memory.
+ * <p>
+ * Filters on large tables are evaluated with the help of column indexes, and rows changed after
+ * sorting are moved to their place in the last order instead of sorting the whole table again.
  */
 
 public class CachedProvider extends Provider {
 
   private static final BeeLogger logger = LogUtils.getLogger(CachedProvider.class);
 
+  private static final int INDEX_MIN_ROWS = 1000;
+  private static final int MAX_INCREMENTAL_SORT_ROWS = 100;
+
   private BeeRowSet table;
+  private final TableIndex index;
+
+  private Comparator<BeeRow> rowOrdering;
   private boolean complete;
 
+  private long snapshotVersion;
+
+  private Filter tableFilter;
+
   private final Set<Long> filteredRowIds = new HashSet<>();
   private final List<BeeRow> viewRows = new ArrayList<>();
 
@@ -80,17 +99,20 @@ public class CachedProvider extends Provider {
 
     Assert.notNull(table);
     this.table = table;
+    this.index = new TableIndex(table);
     this.complete = userFilter == null;
+    this.snapshotVersion = getSnapshotVersion(table);
   }
 
   public void addRow(BeeRow row) {
     if (row != null) {
-      table.addRow(row);
+      insertRow(getTable().getRows(), row);
+      index.invalidate();
 
       if (isComplete() && getUserFilter() != null
           && getUserFilter().isMatch(getTable().getColumns(), row)) {
         filteredRowIds.add(row.getId());
-        viewRows.add(row);
+        insertRow(viewRows, row);
       }
     }
   }
@@ -104,6 +126,8 @@ public class CachedProvider extends Provider {
     filteredRowIds.clear();
     viewRows.clear();
 
+    index.invalidate();
+
     super.clear();
   }
 
@@ -120,17 +144,7 @@ public class CachedProvider extends Provider {
       callback.accept(true);
 
     } else {
-      boolean ok = false;
-      List<BeeColumn> columns = getTable().getColumns();
-
-      for (BeeRow row : getTable()) {
-        if (filter.isMatch(columns, row)) {
-          ok = true;
-          break;
-        }
-      }
-
-      callback.accept(ok);
+      callback.accept(containsMatch(filter));
     }
   }
 
@@ -140,7 +154,10 @@ public class CachedProvider extends Provider {
       long id = event.getRowId();
       for (BeeRow row : getTable().getRows()) {
         if (row.getId() == id) {
-          event.applyTo(row);
+          if (event.applyTo(row)) {
+            index.invalidateColumns();
+            repositionRow(row);
+          }
           break;
         }
       }
@@ -200,6 +217,9 @@ public class CachedProvider extends Provider {
           for (int i = 0; i < getTable().getNumberOfColumns(); i++) {
             oldRow.setValue(i, newRow.getString(i));
           }
+
+          index.invalidateColumns();
+          repositionRow(oldRow);
           break;
         }
       }
@@ -211,36 +231,15 @@ public class CachedProvider extends Provider {
   @Override
   public void onSort(SortEvent event) {
     Order order = event.getOrder();
+    boolean sorted = rowOrdering != null && Objects.equals(order, getOrder());
+
     setOrder(order);
     if (getTable().getNumberOfRows() <= 1) {
       return;
     }
 
-    if (order == null || order.isEmpty()) {
-      getTable().sortByRowId(true);
-    } else {
-      List<Pair<Integer, Boolean>> sortList = new ArrayList<>();
-      int index;
-
-      for (Order.Column sortInfo : order.getColumns()) {
-        for (String source : sortInfo.getSources()) {
-          if (BeeUtils.same(source, getIdColumnName())) {
-            index = DataUtils.ID_INDEX;
-          } else if (BeeUtils.same(source, getVersionColumnName())) {
-            index = DataUtils.VERSION_INDEX;
-          } else {
-            index = getTable().getColumnIndex(source);
-            if (index < 0) {
-              logger.warning("onSort: source", source, "not found");
-              continue;
-            }
-          }
-          sortList.add(Pair.of(index, sortInfo.isAscending()));
-        }
-      }
-      if (!sortList.isEmpty()) {
-        getTable().sort(sortList, Collator.DEFAULT);
-      }
+    if (!sorted) {
+      sortTable(order);
     }
 
     if (viewRows.size() > 1) {
@@ -316,9 +315,11 @@ public class CachedProvider extends Provider {
     viewRows.clear();
 
     if (newFilter != null) {
+      Set<Long> matches = findMatches(newFilter);
       List<BeeColumn> columns = getTable().getColumns();
+
       for (BeeRow row : getTable().getRows()) {
-        if (newFilter.isMatch(columns, row)) {
+        if ((matches == null) ? newFilter.isMatch(columns, row) : matches.contains(row.getId())) {
           filteredRowIds.add(row.getId());
           viewRows.add(row);
         }
@@ -326,8 +327,24 @@ public class CachedProvider extends Provider {
     }
   }
 
+  private boolean containsMatch(Filter filter) {
+    Set<Long> matches = findMatches(filter);
+    if (matches != null) {
+      return !matches.isEmpty();
+    }
+
+    List<BeeColumn> columns = getTable().getColumns();
+    for (BeeRow row : getTable().getRows()) {
+      if (filter.isMatch(columns, row)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void deleteRow(long rowId) {
     getTable().removeRowById(rowId);
+    index.invalidate();
 
     if (filteredRowIds.contains(rowId)) {
       filteredRowIds.remove(rowId);
@@ -346,6 +363,14 @@ public class CachedProvider extends Provider {
     }
   }
 
+  private Set<Long> findMatches(Filter filter) {
+    if (getTable().getNumberOfRows() < INDEX_MIN_ROWS) {
+      return null;
+    } else {
+      return filter.findMatches(getTable().getColumns(), index);
+    }
+  }
+
   private int getRowCount() {
     if (getUserFilter() != null && isComplete()) {
       return viewRows.size();
@@ -362,39 +387,155 @@ public class CachedProvider extends Provider {
     }
   }
 
+  private void insertRow(List<BeeRow> rows, BeeRow row) {
+    if (rowOrdering == null) {
+      rows.add(row);
+    } else {
+      int position = Collections.binarySearch(rows, row, rowOrdering);
+      rows.add((position < 0) ? -position - 1 : position, row);
+    }
+  }
+
   private boolean isComplete() {
     return complete;
   }
 
+  /**
+   * Returns the server time of the read, which is the baseline for the next delta. Versions of
+   * rows held by the client can not be used, because updates made by this client raise them.
+   */
+  private static long getSnapshotVersion(BeeRowSet rowSet) {
+    return BeeUtils.toLong(rowSet.getTableProperty(Service.VAR_VIEW_VERSION));
+  }
+
+  private void mergeDelta(BeeRowSet delta) {
+    snapshotVersion = getSnapshotVersion(delta);
+
+    List<BeeRow> rows = getTable().getRows();
+
+    Set<Long> deleted = DataUtils.parseIdSet(delta.getTableProperty(Service.VAR_VIEW_DELETED));
+    if (!deleted.isEmpty()) {
+      rows.removeIf(row -> deleted.contains(row.getId()));
+    }
+
+    if (delta.isEmpty()) {
+      index.invalidate();
+
+    } else if (rowOrdering != null && delta.getNumberOfRows() <= MAX_INCREMENTAL_SORT_ROWS) {
+      Set<Long> changed = new HashSet<>(delta.getRowIds());
+      rows.removeIf(row -> changed.contains(row.getId()));
+      index.invalidate();
+
+      for (BeeRow row : delta) {
+        insertRow(rows, row);
+      }
+
+    } else {
+      Map<Long, Integer> positions = new HashMap<>();
+      for (int i = 0; i < rows.size(); i++) {
+        positions.put(rows.get(i).getId(), i);
+      }
+
+      for (BeeRow row : delta) {
+        Integer position = positions.get(row.getId());
+
+        if (position == null) {
+          rows.add(row);
+        } else {
+          rows.set(position, row);
+        }
+      }
+      index.invalidate();
+
+      if (getOrder() != null && !getOrder().isEmpty()) {
+        sortTable(getOrder());
+      } else if (rowOrdering != null) {
+        rows.sort(rowOrdering);
+      }
+    }
+  }
+
+  private void onRefresh(int oldPageSize, int oldTableSize, boolean preserveActiveRow,
+      ScheduledCommand callback) {
+
+    applyFilter(getUserFilter());
+
+    int newTableSize = getTable().getNumberOfRows();
+
+    int oldRc = getDisplay().getRowCount();
+    int newRc = getRowCount();
+
+    if (newTableSize != oldTableSize && oldPageSize >= oldTableSize) {
+      getDisplay().setPageSize(newTableSize, oldRc == newRc);
+    }
+    getDisplay().setRowCount(newRc, true);
+
+    updateDisplay(preserveActiveRow);
+
+    if (callback != null) {
+      callback.execute();
+    }
+  }
+
+  /**
+   * Asks the server for rows changed since the last read of the table, if the table was loaded
+   * with the same query filter, otherwise reloads it.
+   */
   private void refresh(final boolean preserveActiveRow, final ScheduledCommand callback) {
     final int oldPageSize = getPageSize();
     final int oldTableSize = getTable().getNumberOfRows();
 
-    Queries.getRowSet(getViewName(), null, getQueryFilter(null), getOrder(),
+    final Filter queryFilter = getQueryFilter(null);
+    long version = snapshotVersion;
+
+    if (isComplete() && version > 0 && Objects.equals(queryFilter, tableFilter)) {
+      Queries.getRowSetDelta(getViewName(), queryFilter, version, getQueryOptions(),
+          (RowSetCallback) delta -> {
+            if (delta == null) {
+              reload(queryFilter, oldPageSize, oldTableSize, preserveActiveRow, callback);
+            } else {
+              mergeDelta(delta);
+              onRefresh(oldPageSize, oldTableSize, preserveActiveRow, callback);
+            }
+          });
+
+    } else {
+      reload(queryFilter, oldPageSize, oldTableSize, preserveActiveRow, callback);
+    }
+  }
+
+  private void reload(final Filter queryFilter, final int oldPageSize, final int oldTableSize,
+      final boolean preserveActiveRow, final ScheduledCommand callback) {
+
+    Queries.getRowSet(getViewName(), null, queryFilter, getOrder(),
         BeeConst.UNDEF, BeeConst.UNDEF, CachingPolicy.NONE, getQueryOptions(),
         (RowSetCallback) rowSet -> {
           Assert.notNull(rowSet);
           setTable(rowSet);
           setComplete(true);
 
-          applyFilter(getUserFilter());
+          tableFilter = queryFilter;
 
-          int newTableSize = rowSet.getNumberOfRows();
-
-          int oldRc = getDisplay().getRowCount();
-          int newRc = getRowCount();
+          onRefresh(oldPageSize, oldTableSize, preserveActiveRow, callback);
+        });
+  }
 
-          if (newTableSize != oldTableSize && oldPageSize >= oldTableSize) {
-            getDisplay().setPageSize(newTableSize, oldRc == newRc);
-          }
-          getDisplay().setRowCount(newRc, true);
+  /**
+   * Moves a changed row to its place in the last order.
+   */
+  private void repositionRow(BeeRow row) {
+    if (rowOrdering == null) {
+      return;
+    }
 
-          updateDisplay(preserveActiveRow);
+    List<BeeRow> rows = getTable().getRows();
+    if (rows.remove(row)) {
+      insertRow(rows, row);
+    }
 
-          if (callback != null) {
-            callback.execute();
-          }
-        });
+    if (filteredRowIds.contains(row.getId()) && viewRows.remove(row)) {
+      insertRow(viewRows, row);
+    }
   }
 
   private void setComplete(boolean complete) {
@@ -403,19 +544,50 @@ public class CachedProvider extends Provider {
 
   private void setTable(BeeRowSet table) {
     this.table = table;
+    index.setTable(table);
+
+    // rows come in server order, which may differ from the client collation
+    rowOrdering = null;
+
+    snapshotVersion = getSnapshotVersion(table);
   }
 
-  private void tryNotEmptyFilter(Filter newFilter, Consumer<Boolean> callback, boolean notify) {
-    boolean ok = false;
-    List<BeeColumn> columns = getTable().getColumns();
-    for (BeeRow row : getTable().getRows()) {
-      if (newFilter.isMatch(columns, row)) {
-        ok = true;
-        break;
+  private void sortTable(Order order) {
+    if (order == null || order.isEmpty()) {
+      rowOrdering = Comparator.comparingLong(BeeRow::getId);
+      getTable().sortByRowId(true);
+      return;
+    }
+
+    List<Pair<Integer, Boolean>> sortList = new ArrayList<>();
+    int index;
+
+    for (Order.Column sortInfo : order.getColumns()) {
+      for (String source : sortInfo.getSources()) {
+        if (BeeUtils.same(source, getIdColumnName())) {
+          index = DataUtils.ID_INDEX;
+        } else if (BeeUtils.same(source, getVersionColumnName())) {
+          index = DataUtils.VERSION_INDEX;
+        } else {
+          index = getTable().getColumnIndex(source);
+          if (index < 0) {
+            logger.warning("sort: source", source, "not found");
+            continue;
+          }
+        }
+        sortList.add(Pair.of(index, sortInfo.isAscending()));
       }
     }
+    if (sortList.isEmpty()) {
+      rowOrdering = null;
+    } else {
+      rowOrdering = new RowOrdering<>(getTable().getColumns(), sortList, Collator.DEFAULT);
+      getTable().getRows().sort(rowOrdering);
+    }
+  }
 
-    if (ok) {
+  private void tryNotEmptyFilter(Filter newFilter, Consumer<Boolean> callback, boolean notify) {
+    if (containsMatch(newFilter)) {
       acceptFilter(newFilter);
       if (callback != null) {
         callback.accept(true);
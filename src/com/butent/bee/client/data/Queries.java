@@ -12,6 +12,7 @@ import com.butent.bee.client.communication.RpcCallback;
 import com.butent.bee.client.communication.RpcParameter;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Holder;
 import com.butent.bee.shared.communication.ResponseObject;
 import com.butent.bee.shared.data.BeeColumn;
 import com.butent.bee.shared.data.BeeRow;
@@ -283,14 +284,19 @@ public final class Queries {
     final List<String> viewList = new ArrayList<>();
 
     if (cachingPolicy != null && cachingPolicy.doRead()) {
+      List<String> restorable = new ArrayList<>();
+
       for (String viewName : viewNames) {
-        BeeRowSet rowSet = BeeUtils.containsKey(filters, viewName)
-            ? null : Global.getCache().getRowSet(viewName);
+        boolean filtered = BeeUtils.containsKey(filters, viewName);
+        BeeRowSet rowSet = filtered ? null : Global.getCache().getRowSet(viewName);
 
         if (rowSet != null) {
           result.add(rowSet);
         } else {
           viewList.add(viewName);
+          if (!filtered) {
+            restorable.add(viewName);
+          }
         }
       }
 
@@ -299,6 +305,10 @@ public final class Queries {
         return RESPONSE_FROM_CACHE;
       }
 
+      if (restore(restorable, () -> getData(viewNames, filters, cachingPolicy, callback))) {
+        return RESPONSE_FROM_CACHE;
+      }
+
     } else {
       viewList.addAll(viewNames);
     }
@@ -561,6 +571,12 @@ public final class Queries {
         callback.onSuccess(rowSet);
         return RESPONSE_FROM_CACHE;
       }
+
+      if (filter == null && order == null && offset <= 0 && limit <= 0
+          && restore(Collections.singletonList(viewName), () -> getRowSet(viewName, columns,
+              filter, order, offset, limit, cachingPolicy, options, callback))) {
+        return RESPONSE_FROM_CACHE;
+      }
     }
 
     List<Property> lst = PropertyUtils.createProperties(VAR_VIEW_NAME, viewName);
@@ -639,6 +655,49 @@ public final class Queries {
     return getRowSet(viewName, columns, null, null, callback);
   }
 
+  /**
+   * Requests rows of the view, inserted or updated since the {@code version}. Ids of deleted rows
+   * are passed in the {@code VAR_VIEW_DELETED} table property. Server time of the read is passed
+   * in the {@code VAR_VIEW_VERSION} table property, as it is for full reads of the view, and
+   * should be the {@code version} of the next request.
+   * <p>
+   * The callback receives {@code null}, if the server can not track changes of the view and the
+   * data must be reloaded.
+   */
+  public static void getRowSetDelta(final String viewName, Filter filter, long version,
+      Collection<Property> options, final RpcCallback<BeeRowSet> callback) {
+
+    Assert.notEmpty(viewName);
+    Assert.notNull(callback);
+
+    List<Property> lst = PropertyUtils.createProperties(VAR_VIEW_NAME, viewName,
+        VAR_VIEW_VERSION, BeeUtils.toString(version));
+    if (filter != null) {
+      PropertyUtils.addProperties(lst, VAR_VIEW_WHERE, filter.serialize());
+    }
+    if (!BeeUtils.isEmpty(options)) {
+      lst.addAll(options);
+    }
+
+    ParameterList params = new ParameterList(GET_VIEW_DELTA, RpcParameter.Section.DATA, lst);
+    params.setSummary(viewName, filter, version);
+
+    BeeKeeper.getRpc().makeRequest(params, new ResponseCallbackWithId() {
+      @Override
+      public void onResponse(ResponseObject response) {
+        if (checkResponse(GET_VIEW_DELTA, getRpcId(), viewName, response, BeeRowSet.class,
+            callback)) {
+
+          if (response.hasResponse()) {
+            callback.onSuccess(BeeRowSet.restore(response.getResponseAsString()));
+          } else {
+            callback.onSuccess(null);
+          }
+        }
+      }
+    });
+  }
+
   public static void getValue(final String viewName, long rowId, String column,
       final RpcCallback<String> callback) {
 
@@ -1152,6 +1211,28 @@ public final class Queries {
     }
   }
 
+  /**
+   * Restores complete row sets of the views from the cache store, {@code onRestore} is run after
+   * all of them are read.
+   */
+  private static boolean restore(Collection<String> viewNames, final Runnable onRestore) {
+    final Holder<Integer> pending = Holder.of(0);
+
+    Runnable callback = () -> {
+      pending.set(pending.get() - 1);
+      if (pending.get() == 0) {
+        onRestore.run();
+      }
+    };
+
+    for (String viewName : viewNames) {
+      if (Global.getCache().restore(viewName, callback)) {
+        pending.set(pending.get() + 1);
+      }
+    }
+    return pending.get() > 0;
+  }
+
   private Queries() {
   }
 }
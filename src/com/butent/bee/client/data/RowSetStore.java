@@ -0,0 +1,250 @@
+package com.butent.bee.client.data;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+import com.butent.bee.client.Global;
+import com.butent.bee.client.Storage;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.DataUtils;
+import com.butent.bee.shared.data.cache.CacheStore;
+import com.butent.bee.shared.data.view.DataInfo;
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persists complete row sets of cached reference views in the IndexedDB of the browser. Reference
+ * views are those with a configured cache maximum size.
+ * <p>
+ * Records are keyed by user and view and keep the server time of the read, so after a reload only
+ * the rows changed or deleted since then are requested from the server. A view is restored when it
+ * is first looked up in the cache, not when the store is opened.
+ */
+
+public class RowSetStore implements CacheStore {
+
+  private static final BeeLogger logger = LogUtils.getLogger(RowSetStore.class);
+
+  private static final String DATABASE = "bee-cache";
+  private static final int DATABASE_VERSION = 1;
+
+  private static final String KEY_PREFIX = "rowset";
+
+  private final String prefix = Storage.getUserKey(KEY_PREFIX, null) + BeeConst.STRING_MINUS;
+
+  private JavaScriptObject db;
+
+  public RowSetStore() {
+    super();
+  }
+
+  @Override
+  public void clear() {
+    if (db != null) {
+      clearImpl(db, prefix);
+    }
+  }
+
+  public void open() {
+    openImpl(DATABASE, DATABASE_VERSION);
+  }
+
+  @Override
+  public void put(BeeRowSet rowSet) {
+    if (db == null || rowSet == null || !isReference(rowSet.getViewName())) {
+      return;
+    }
+
+    String version = rowSet.getTableProperty(Service.VAR_VIEW_VERSION);
+    if (BeeUtils.isPositive(BeeUtils.toLongOrNull(version))) {
+      putImpl(db, key(rowSet.getViewName()), rowSet.getViewName(), version, rowSet.serialize());
+    }
+  }
+
+  @Override
+  public void remove(String viewName) {
+    if (db != null && !BeeUtils.isEmpty(viewName)) {
+      removeImpl(db, key(viewName));
+    }
+  }
+
+  @Override
+  public boolean restore(String viewName, Runnable callback) {
+    if (db == null || !isReference(viewName)) {
+      return false;
+    }
+
+    getImpl(db, key(viewName), viewName, callback);
+    return true;
+  }
+
+  private static boolean columnsMatch(DataInfo dataInfo, BeeRowSet rowSet) {
+    List<BeeColumn> columns = dataInfo.getColumns();
+    if (columns.size() != rowSet.getNumberOfColumns()) {
+      return false;
+    }
+
+    for (int i = 0; i < columns.size(); i++) {
+      if (!BeeUtils.same(columns.get(i).getId(), rowSet.getColumnId(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isReference(String viewName) {
+    DataInfo dataInfo = BeeUtils.isEmpty(viewName) ? null : Data.getDataInfo(viewName, false);
+    return dataInfo != null && BeeUtils.isPositive(dataInfo.getCacheMaximumSize());
+  }
+
+  private static void merge(BeeRowSet rowSet, BeeRowSet delta) {
+    Set<Long> deleted = DataUtils.parseIdSet(delta.getTableProperty(Service.VAR_VIEW_DELETED));
+    for (Long id : deleted) {
+      rowSet.removeRowById(id);
+    }
+
+    for (BeeRow row : delta) {
+      if (!rowSet.updateRow(row)) {
+        rowSet.addRow(row);
+      }
+    }
+    rowSet.setTableProperty(Service.VAR_VIEW_VERSION,
+        delta.getTableProperty(Service.VAR_VIEW_VERSION));
+  }
+
+  private String key(String viewName) {
+    return prefix + BeeUtils.normalize(viewName);
+  }
+
+  private void onError(String message) {
+    logger.warning(DATABASE, message);
+  }
+
+  private void onOpen(JavaScriptObject database) {
+    this.db = database;
+    logger.info(DATABASE, "opened");
+  }
+
+  private void onRestore(final String viewName, String version, String data,
+      final Runnable callback) {
+
+    final DataInfo dataInfo = BeeUtils.isEmpty(data) ? null : Data.getDataInfo(viewName, false);
+    if (dataInfo == null || Global.getCache().getRowSet(viewName) != null) {
+      callback.run();
+      return;
+    }
+
+    final BeeRowSet rowSet = BeeRowSet.restore(data);
+    if (!columnsMatch(dataInfo, rowSet)) {
+      remove(viewName);
+      callback.run();
+      return;
+    }
+
+    Queries.getRowSetDelta(viewName, null, BeeUtils.toLong(version), null,
+        new Queries.RowSetCallback() {
+          @Override
+          public void onFailure(String... reason) {
+            Queries.RowSetCallback.super.onFailure(reason);
+            callback.run();
+          }
+
+          @Override
+          public void onSuccess(BeeRowSet delta) {
+            if (delta == null) {
+              remove(viewName);
+
+            } else if (Global.getCache().getRowSet(viewName) == null) {
+              merge(rowSet, delta);
+              Global.getCache().add(dataInfo, rowSet);
+
+              logger.debug(DATABASE, viewName, "restored", rowSet.getNumberOfRows(), "rows");
+            }
+            callback.run();
+          }
+        });
+  }
+
+//@formatter:off
+  // CHECKSTYLE:OFF
+  private static native void clearImpl(JavaScriptObject database, String from) /*-{
+    var store = database.transaction("rowsets", "readwrite").objectStore("rowsets");
+    store["delete"]($wnd.IDBKeyRange.bound(from, from + "\uffff"));
+  }-*/;
+
+  private native void getImpl(JavaScriptObject database, String key, String view,
+      Runnable callback) /*-{
+    var self = this;
+
+    var request;
+    try {
+      request = database.transaction("rowsets", "readonly").objectStore("rowsets").get(key);
+    } catch (err) {
+      self.@com.butent.bee.client.data.RowSetStore::onError(Ljava/lang/String;)(String(err));
+      callback.@java.lang.Runnable::run()();
+      return;
+    }
+
+    request.onerror = $entry(function(event) {
+      self.@com.butent.bee.client.data.RowSetStore::onError(Ljava/lang/String;)(String(request.error));
+      callback.@java.lang.Runnable::run()();
+    });
+
+    request.onsuccess = $entry(function(event) {
+      var value = request.result;
+      if (value) {
+        self.@com.butent.bee.client.data.RowSetStore::onRestore(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;Ljava/lang/Runnable;)(view, value.version, value.data, callback);
+      } else {
+        self.@com.butent.bee.client.data.RowSetStore::onRestore(Ljava/lang/String;Ljava/lang/String;Ljava/lang/String;Ljava/lang/Runnable;)(view, null, null, callback);
+      }
+    });
+  }-*/;
+
+  private native void openImpl(String name, int version) /*-{
+    var self = this;
+
+    var request;
+    try {
+      request = $wnd.indexedDB.open(name, version);
+    } catch (err) {
+      self.@com.butent.bee.client.data.RowSetStore::onError(Ljava/lang/String;)(String(err));
+      return;
+    }
+
+    request.onupgradeneeded = function(event) {
+      var database = event.target.result;
+      if (!database.objectStoreNames.contains("rowsets")) {
+        database.createObjectStore("rowsets");
+      }
+    };
+
+    request.onerror = $entry(function(event) {
+      self.@com.butent.bee.client.data.RowSetStore::onError(Ljava/lang/String;)(String(request.error));
+    });
+
+    request.onsuccess = $entry(function(event) {
+      var database = request.result;
+      self.@com.butent.bee.client.data.RowSetStore::onOpen(Lcom/google/gwt/core/client/JavaScriptObject;)(database);
+    });
+  }-*/;
+
+  private static native void putImpl(JavaScriptObject database, String key, String view,
+      String version, String data) /*-{
+    var store = database.transaction("rowsets", "readwrite").objectStore("rowsets");
+    store.put({view: view, version: version, data: data}, key);
+  }-*/;
+
+  private static native void removeImpl(JavaScriptObject database, String key) /*-{
+    var store = database.transaction("rowsets", "readwrite").objectStore("rowsets");
+    store["delete"](key);
+  }-*/;
+  // CHECKSTYLE:ON
+//@formatter:on
+}
@@ -0,0 +1,269 @@
+package com.butent.bee.client.data;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.IsRow;
+import com.butent.bee.shared.data.filter.FilterIndex;
+import com.butent.bee.shared.data.value.Value;
+import com.butent.bee.shared.data.value.ValueType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column indexes of an in-memory row set, built on first use: hash maps for equality lookups,
+ * sorted arrays for ranges and prefixes. Decimals equal by value may differ in scale and hash
+ * code, so their equality lookups use the sorted arrays too.
+ * <p>
+ * Values are read and compared the same way as in {@code ColumnValueFilter.isMatch}, empty
+ * values are not indexed.
+ */
+
+class TableIndex implements FilterIndex {
+
+  private static final class ColumnIndex {
+
+    private Map<Value, Set<Long>> hash;
+
+    private Value[] values;
+    private Long[] valueIds;
+
+    private String[] keys;
+    private Long[] keyIds;
+  }
+
+  private BeeRowSet table;
+  private int rowCount = BeeConst.UNDEF;
+
+  private Map<Long, BeeRow> rows;
+  private Set<Long> ids;
+
+  private final Map<Integer, ColumnIndex> columns = new HashMap<>();
+
+  TableIndex(BeeRowSet table) {
+    this.table = table;
+  }
+
+  @Override
+  public Set<Long> getEqual(int colIndex, Value value) {
+    if (!isIndexable(colIndex)) {
+      return null;
+    }
+    if (value == null || value.isNull()) {
+      return Collections.emptySet();
+    }
+
+    if (value.getType() != getType(colIndex) || value.getType() == ValueType.DECIMAL) {
+      return getInRange(colIndex, Range.singleton(value));
+    }
+
+    ColumnIndex columnIndex = getColumnIndex(colIndex);
+    if (columnIndex.hash == null) {
+      columnIndex.hash = new HashMap<>();
+
+      for (BeeRow row : table) {
+        Value v = row.getValue(colIndex, getType(colIndex));
+        if (!v.isNull()) {
+          columnIndex.hash.computeIfAbsent(v, k -> new HashSet<>()).add(row.getId());
+        }
+      }
+    }
+
+    Set<Long> result = columnIndex.hash.get(value);
+    return (result == null) ? Collections.emptySet() : result;
+  }
+
+  @Override
+  public Set<Long> getIds() {
+    if (ids == null) {
+      ids = getRows().keySet();
+    }
+    return ids;
+  }
+
+  @Override
+  public Set<Long> getInRange(int colIndex, Range<Value> range) {
+    if (!isIndexable(colIndex) || range == null) {
+      return null;
+    }
+    if (range.hasLowerBound() && range.lowerEndpoint().isNull()
+        || range.hasUpperBound() && range.upperEndpoint().isNull()) {
+      return Collections.emptySet();
+    }
+
+    ColumnIndex columnIndex = getColumnIndex(colIndex);
+    if (columnIndex.values == null) {
+      List<Pair<Value, Long>> entries = new ArrayList<>();
+
+      for (BeeRow row : table) {
+        Value v = row.getValue(colIndex, getType(colIndex));
+        if (!v.isNull()) {
+          entries.add(Pair.of(v, row.getId()));
+        }
+      }
+      entries.sort((e1, e2) -> e1.getA().compareTo(e2.getA()));
+
+      columnIndex.values = new Value[entries.size()];
+      columnIndex.valueIds = new Long[entries.size()];
+
+      for (int i = 0; i < entries.size(); i++) {
+        columnIndex.values[i] = entries.get(i).getA();
+        columnIndex.valueIds[i] = entries.get(i).getB();
+      }
+    }
+
+    Value[] values = columnIndex.values;
+
+    int from;
+    if (range.hasLowerBound()) {
+      from = lowerBound(values, range.lowerEndpoint(),
+          range.lowerBoundType() == BoundType.CLOSED);
+    } else {
+      from = 0;
+    }
+
+    Set<Long> result = new HashSet<>();
+
+    for (int i = from; i < values.length; i++) {
+      if (range.hasUpperBound()) {
+        int z = values[i].compareTo(range.upperEndpoint());
+
+        if (z > 0 || z == 0 && range.upperBoundType() == BoundType.OPEN) {
+          break;
+        }
+      }
+      result.add(columnIndex.valueIds[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public IsRow getRow(long id) {
+    return getRows().get(id);
+  }
+
+  @Override
+  public Set<Long> getStartingWith(int colIndex, String prefix) {
+    if (!isIndexable(colIndex) || prefix == null) {
+      return null;
+    }
+
+    ColumnIndex columnIndex = getColumnIndex(colIndex);
+    if (columnIndex.keys == null) {
+      List<Pair<String, Long>> entries = new ArrayList<>();
+
+      for (BeeRow row : table) {
+        Value v = row.getValue(colIndex, getType(colIndex));
+        if (!v.isNull()) {
+          entries.add(Pair.of(v.toString().toLowerCase(), row.getId()));
+        }
+      }
+      entries.sort((e1, e2) -> e1.getA().compareTo(e2.getA()));
+
+      columnIndex.keys = new String[entries.size()];
+      columnIndex.keyIds = new Long[entries.size()];
+
+      for (int i = 0; i < entries.size(); i++) {
+        columnIndex.keys[i] = entries.get(i).getA();
+        columnIndex.keyIds[i] = entries.get(i).getB();
+      }
+    }
+
+    String[] keys = columnIndex.keys;
+    String key = prefix.toLowerCase();
+
+    int low = 0;
+    int high = keys.length;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    Set<Long> result = new HashSet<>();
+    for (int i = low; i < keys.length && keys[i].startsWith(key); i++) {
+      result.add(columnIndex.keyIds[i]);
+    }
+    return result;
+  }
+
+  void invalidate() {
+    rows = null;
+    ids = null;
+    rowCount = BeeConst.UNDEF;
+
+    invalidateColumns();
+  }
+
+  void invalidateColumns() {
+    columns.clear();
+  }
+
+  void setTable(BeeRowSet table) {
+    this.table = table;
+    invalidate();
+  }
+
+  private static int lowerBound(Value[] values, Value value, boolean inclusive) {
+    int low = 0;
+    int high = values.length;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int z = values[mid].compareTo(value);
+
+      if (z < 0 || z == 0 && !inclusive) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void checkRowCount() {
+    if (table.getNumberOfRows() != rowCount) {
+      invalidate();
+      rowCount = table.getNumberOfRows();
+    }
+  }
+
+  private ColumnIndex getColumnIndex(int colIndex) {
+    return columns.computeIfAbsent(colIndex, k -> new ColumnIndex());
+  }
+
+  private Map<Long, BeeRow> getRows() {
+    checkRowCount();
+
+    if (rows == null) {
+      rows = new HashMap<>();
+      for (BeeRow row : table) {
+        rows.put(row.getId(), row);
+      }
+    }
+    return rows;
+  }
+
+  private ValueType getType(int colIndex) {
+    return table.getColumn(colIndex).getType();
+  }
+
+  private boolean isIndexable(int colIndex) {
+    checkRowCount();
+    return colIndex >= 0 && colIndex < table.getNumberOfColumns();
+  }
+}
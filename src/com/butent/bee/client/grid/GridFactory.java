@@ -29,6 +29,7 @@ import com.butent.bee.client.presenter.PresenterCallback;
 import com.butent.bee.client.render.AbstractCellRenderer;
 import com.butent.bee.client.render.RenderableCell;
 import com.butent.bee.client.render.RenderableColumn;
+import com.butent.bee.client.ui.DescriptionStorage;
 import com.butent.bee.client.ui.UiOption;
 import com.butent.bee.client.view.ViewFactory;
 import com.butent.bee.client.view.ViewHelper;
@@ -62,6 +63,7 @@ import com.butent.bee.shared.data.view.Order;
 import com.butent.bee.shared.i18n.Localized;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.modules.administration.SysObject;
 import com.butent.bee.shared.news.Feed;
 import com.butent.bee.shared.ui.CellType;
 import com.butent.bee.shared.ui.Flexibility;
@@ -722,13 +724,14 @@ public final class GridFactory {
 
     ParameterList params = new ParameterList(Service.GET_GRID);
     params.setSummary(name);
+    DescriptionStorage.addVersion(params, SysObject.GRID, name);
 
     BeeKeeper.getRpc().sendText(params, name, response -> {
       Assert.notNull(response);
+      String data = DescriptionStorage.restore(SysObject.GRID, name, response);
 
-      if (response.hasResponse(GridDescription.class)) {
-        GridDescription gridDescription =
-            GridDescription.restore((String) response.getResponse());
+      if (data != null) {
+        GridDescription gridDescription = GridDescription.restore(data);
         callback.onSuccess(gridDescription);
         if (!BeeUtils.isFalse(gridDescription.getCacheDescription())) {
           descriptionCache.put(gridDescriptionKey(name), gridDescription);
@@ -0,0 +1,91 @@
+package com.butent.bee.client.ui;
+
+import com.google.gwt.core.client.JavaScriptException;
+
+import com.butent.bee.client.BeeKeeper;
+import com.butent.bee.client.Storage;
+import com.butent.bee.client.communication.ParameterList;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.communication.ResponseObject;
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.modules.administration.SysObject;
+import com.butent.bee.shared.utils.BeeUtils;
+
+/**
+ * Keeps form and grid descriptions in the local storage, so that a description is downloaded
+ * again only when its version on the server changes.
+ */
+
+public final class DescriptionStorage {
+
+  private static final BeeLogger logger = LogUtils.getLogger(DescriptionStorage.class);
+
+  private static final String DATA_PREFIX = "ui-data-";
+  private static final String VERSION_PREFIX = "ui-version-";
+
+  /**
+   * Adds the version of the stored description, or zero, if there is none, to the request.
+   */
+  public static void addVersion(ParameterList params, SysObject type, String name) {
+    Storage storage = BeeKeeper.getStorage();
+    String version = null;
+
+    if (storage.hasItem(dataKey(type, name))) {
+      version = storage.get(versionKey(type, name));
+    }
+    params.addQueryItem(Service.VAR_UI_VERSION, BeeUtils.notEmpty(version, BeeConst.STRING_ZERO));
+  }
+
+  /**
+   * @return description, received from the server or restored from the storage, if the server
+   *         version is the same; {@code null} on error
+   */
+  public static String restore(SysObject type, String name, ResponseObject response) {
+    if (response == null || response.hasErrors()) {
+      return null;
+    }
+
+    Storage storage = BeeKeeper.getStorage();
+
+    String dataKey = dataKey(type, name);
+    String versionKey = versionKey(type, name);
+
+    if (!response.hasResponse()) {
+      String data = storage.get(dataKey);
+
+      if (data == null) {
+        storage.remove(versionKey);
+        logger.severe(type.getName(), name, "not found in storage");
+      }
+      return data;
+    }
+
+    Pair<String, String> received = Pair.restore(response.getResponseAsString());
+
+    try {
+      storage.set(dataKey, received.getB());
+      storage.set(versionKey, received.getA());
+
+    } catch (JavaScriptException ex) {
+      storage.remove(dataKey);
+      storage.remove(versionKey);
+
+      logger.warning("cannot store", type.getName(), name, ex.getMessage());
+    }
+    return received.getB();
+  }
+
+  private static String dataKey(SysObject type, String name) {
+    return Storage.getUserKey(DATA_PREFIX + type.getName(), BeeUtils.normalize(name));
+  }
+
+  private static String versionKey(SysObject type, String name) {
+    return Storage.getUserKey(VERSION_PREFIX + type.getName(), BeeUtils.normalize(name));
+  }
+
+  private DescriptionStorage() {
+  }
+}
@@ -29,6 +29,7 @@ import com.butent.bee.shared.data.ProviderType;
 import com.butent.bee.shared.data.cache.CachingPolicy;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.modules.administration.SysObject;
 import com.butent.bee.shared.ui.Preloader;
 import com.butent.bee.shared.ui.UiConstants;
 import com.butent.bee.shared.utils.BeeUtils;
@@ -388,10 +389,13 @@ public final class FormFactory {
 
     ParameterList params = new ParameterList(Service.GET_FORM);
     params.setSummary(name);
+    DescriptionStorage.addVersion(params, SysObject.FORM, name);
 
     BeeKeeper.getRpc().sendText(params, BeeUtils.trim(name), response -> {
-      if (response.hasResponse(String.class)) {
-        FormDescription fd = parseFormDescription((String) response.getResponse());
+      String data = DescriptionStorage.restore(SysObject.FORM, name, response);
+
+      if (data != null) {
+        FormDescription fd = parseFormDescription(data);
         if (fd == null) {
           callback.onFailure("form", name, "description not created");
         } else {
@@ -989,6 +989,7 @@ public class CellGrid extends Widget implements IdentifiableWidget, HasDataTable
   private boolean wasLayoutDone;
 
   private final List<Long> renderedRows = new ArrayList<>();
+  private final Map<String, Element[]> cellElements = new HashMap<>();
 
   private RenderMode renderMode;
 
@@ -3068,7 +3069,27 @@ public class CellGrid extends Widget implements IdentifiableWidget, HasDataTable
     return getCellElement(BeeUtils.toString(rowIndex), col);
   }
 
+  /**
+   * Looks up the cell in the pool of rendered cell elements, which is rebuilt whenever it turns
+   * out to be stale, so that patching a row does not query the whole grid for every cell.
+   */
   private Element getCellElement(String rowIdx, int col) {
+    if (cellElements.isEmpty()) {
+      collectCellElements();
+    }
+
+    Element[] elements = cellElements.get(rowIdx);
+    if (elements != null && col >= 0 && col < elements.length) {
+      Element cell = elements[col];
+
+      if (cell != null && cell.getParentElement() == getElement()
+          && BeeUtils.same(DomUtils.getDataRow(cell), rowIdx)
+          && BeeUtils.toInt(DomUtils.getDataColumn(cell)) == col) {
+        return cell;
+      }
+    }
+
+    cellElements.clear();
     return Selectors.getElement(getElement(), getCellSelector(rowIdx, col));
   }
 
@@ -3076,6 +3097,25 @@ public class CellGrid extends Widget implements IdentifiableWidget, HasDataTable
     return getColumnInfo(col).getColumn();
   }
 
+  private void collectCellElements() {
+    int columnCount = getColumnCount();
+    NodeList<Element> children = DomUtils.getChildren(getElement());
+
+    for (int i = 0; i < children.getLength(); i++) {
+      Element cell = children.getItem(i);
+
+      String rx = DomUtils.getDataRow(cell);
+      String cx = DomUtils.getDataColumn(cell);
+
+      if (!BeeUtils.isEmpty(rx) && BeeUtils.isDigit(cx)) {
+        int c = BeeUtils.toInt(cx);
+        if (c < columnCount) {
+          cellElements.computeIfAbsent(rx, k -> new Element[columnCount])[c] = cell;
+        }
+      }
+    }
+  }
+
   private NodeList<Element> getColumnElements(int col) {
     return Selectors.getNodes(getElement(),
         Selectors.attributeEquals(DomUtils.ATTRIBUTE_DATA_COLUMN, col));
@@ -4390,6 +4430,7 @@ public class CellGrid extends Widget implements IdentifiableWidget, HasDataTable
   }
 
   private void replaceAllChildren(SafeHtml html) {
+    cellElements.clear();
     getElement().setInnerHTML(html.asString());
   }
 
@@ -4429,7 +4470,7 @@ public class CellGrid extends Widget implements IdentifiableWidget, HasDataTable
       CellContext context = new CellContext(this, rowValue, c);
       SafeHtml cellHtml = getColumn(c).renderSafeHtml(context);
 
-      cell.setInnerHTML(cellHtml.asString());
+      updateContent(cell, cellHtml.asString());
 
       if (checkSelection) {
         boolean was = isRowSelected(getRenderedRows().get(r));
@@ -377,10 +377,10 @@ final class MessageDispatcher {
         ModificationMessage modificationMessage = (ModificationMessage) message;
 
         if (modificationMessage.isValid()) {
-          ModificationEvent<?> event = modificationMessage.getEvent();
-          event.setLocality(Locality.ENTANGLED);
-
-          BeeKeeper.getBus().fireEvent(modificationMessage.getEvent());
+          for (ModificationEvent<?> event : modificationMessage.getEvents()) {
+            event.setLocality(Locality.ENTANGLED);
+            BeeKeeper.getBus().fireEvent(event);
+          }
 
         } else {
           WsUtils.onEmptyMessage(message);
@@ -1,12 +1,18 @@
 package com.butent.bee.server;
 
+import com.google.common.net.HttpHeaders;
+
 import com.butent.bee.server.http.HttpUtils;
 import com.butent.bee.server.http.RequestInfo;
+import com.butent.bee.server.http.ResponseOutputStream;
+import com.butent.bee.server.jdbc.SqlProfile;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.Service;
 import com.butent.bee.shared.communication.CommUtils;
 import com.butent.bee.shared.communication.ContentType;
 import com.butent.bee.shared.communication.ResponseObject;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.data.UserData;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
@@ -15,7 +21,9 @@ import com.butent.bee.shared.utils.BeeUtils;
 import com.butent.bee.shared.utils.Codec;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.Map;
 
 import javax.ejb.EJB;
@@ -37,6 +45,10 @@ public class BeeServlet extends LoginServlet {
 
   private static BeeLogger logger = LogUtils.getLogger(BeeServlet.class);
 
+  private static final int DEFAULT_COMPRESSION_THRESHOLD = 8192;
+
+  private static Integer compressionThreshold;
+
   @EJB
   DispatcherBean dispatcher;
 
@@ -44,6 +56,10 @@ public class BeeServlet extends LoginServlet {
   protected void doService(HttpServletRequest req, HttpServletResponse resp) {
     long start = System.currentTimeMillis();
 
+    if (HttpUtils.rejectLargeContent(req, resp)) {
+      return;
+    }
+
     HttpSession session = req.getSession();
     String sessionId = session.getId();
 
@@ -57,112 +73,197 @@ public class BeeServlet extends LoginServlet {
     boolean debug = reqInfo.isDebug();
 
     logger.info("<", rid, meth, svc, sub);
-    if (debug) {
-      reqInfo.logParams(logger);
-      reqInfo.logVars(logger);
-      reqInfo.logHeaders(logger);
-    }
+    SqlProfile.start(rid, svc);
 
-    if (reqInfo.getContentLen() > 0) {
-      logger.info("<", rid, reqInfo.getContentTypeHeader(), reqInfo.getContentType(),
-          BeeUtils.bracket(reqInfo.getContentLen()));
+    ContentType ctp = null;
+    boolean wire = false;
+    ResponseOutputStream output = null;
+    long length = 0;
+
+    try {
       if (debug) {
-        logger.info(reqInfo.getContent());
+        reqInfo.logParams(logger);
+        reqInfo.logVars(logger);
+        reqInfo.logHeaders(logger);
       }
-    }
-
-    String reqSid = reqInfo.getParameter(Service.RPC_VAR_SID);
 
-    boolean doLogin = false;
-    boolean doLogout = false;
+      if (reqInfo.getContentLen() > 0) {
+        logger.info("<", rid, reqInfo.getContentTypeHeader(), reqInfo.getContentType(),
+            BeeUtils.bracket(reqInfo.getContentLen()));
+        if (debug) {
+          logger.info(reqInfo.getContent());
+        }
+      }
 
-    if (BeeUtils.same(svc, Service.LOGIN)) {
-      doLogin = session.getAttribute(Service.VAR_USER) == null;
-      doLogout = !doLogin;
+      String reqSid = reqInfo.getParameter(Service.RPC_VAR_SID);
 
-    } else if (BeeUtils.same(svc, Service.LOGOUT)) {
-      doLogout = true;
+      boolean doLogin = false;
+      boolean doLogout = false;
 
-    } else if (BeeUtils.isEmpty(reqSid)) {
-      doLogout = session.getAttribute(Service.VAR_USER) != null;
+      if (BeeUtils.same(svc, Service.LOGIN)) {
+        doLogin = session.getAttribute(Service.VAR_USER) == null;
+        doLogout = !doLogin;
 
-    } else if (!BeeUtils.same(reqSid, sessionId)) {
-      doLogout = true;
-      logger.severe("session id:", "request =", reqSid, "current =", sessionId);
-    }
+      } else if (BeeUtils.same(svc, Service.LOGOUT)) {
+        doLogout = true;
 
-    ResponseObject response;
+      } else if (BeeUtils.isEmpty(reqSid)) {
+        doLogout = session.getAttribute(Service.VAR_USER) != null;
 
-    if (doLogin) {
-      try {
-        response = dispatcher.doLogin(reqInfo);
-      } catch (EJBException ex) {
-        response = ResponseObject.error(ex);
+      } else if (!BeeUtils.same(reqSid, sessionId)) {
+        doLogout = true;
+        logger.severe("session id:", "request =", reqSid, "current =", sessionId);
       }
 
-      if (response.hasErrors()) {
-        response.log(logger);
+      ResponseObject response;
+      List<ResponseObject> batch = null;
+
+      if (doLogin) {
+        try {
+          response = dispatcher.doLogin(reqInfo);
+        } catch (EJBException ex) {
+          response = ResponseObject.error(ex);
+        }
+
+        if (response.hasErrors()) {
+          response.log(logger);
+          logout(req, session);
+
+        } else {
+          session.setMaxInactiveInterval(Config.getDefaultSessionTimeout()
+              * TimeUtils.SECONDS_PER_MINUTE);
+
+          Object userData = ((Map<?, ?>) response.getResponse()).get(Service.VAR_USER);
+
+          if (userData instanceof UserData) {
+            session.setAttribute(Service.VAR_USER, ((UserData) userData).getUserId());
+            session.setAttribute(Service.VAR_FILE_ID,
+                BeeUtils.toLong(((UserData) userData).getProperty(Service.VAR_FILE_ID)));
+          }
+          resp.setHeader(Service.RPC_VAR_SID, sessionId);
+          resp.setHeader(Service.RPC_VAR_QID, rid);
+
+          logger.debug("session id:", sessionId);
+        }
+
+      } else if (doLogout) {
+        dispatcher.beforeLogout(reqInfo);
         logout(req, session);
 
-      } else {
-        session.setMaxInactiveInterval(Config.getDefaultSessionTimeout()
-            * TimeUtils.SECONDS_PER_MINUTE);
+        try {
+          req.getRequestDispatcher(req.getRequestURI()).forward(req, resp);
+        } catch (ServletException | IOException ex) {
+          logger.error(ex);
+        }
+        return;
 
-        Object userData = ((Map<?, ?>) response.getResponse()).get(Service.VAR_USER);
+      } else if (BeeUtils.same(svc, Service.BATCH)) {
+        List<RequestInfo> parts = reqInfo.getBatchParts();
+        for (RequestInfo part : parts) {
+          logger.info("<", rid, part.getId(), part.getService(), part.getSubService());
+        }
 
-        if (userData instanceof UserData) {
-          session.setAttribute(Service.VAR_USER, ((UserData) userData).getUserId());
-          session.setAttribute(Service.VAR_FILE_ID,
-              BeeUtils.toLong(((UserData) userData).getProperty(Service.VAR_FILE_ID)));
+        try {
+          batch = dispatcher.doBatch(parts);
+          response = null;
+        } catch (EJBException ex) {
+          response = ResponseObject.error(ex);
         }
-        resp.setHeader(Service.RPC_VAR_SID, sessionId);
+
         resp.setHeader(Service.RPC_VAR_QID, rid);
 
-        logger.debug("session id:", sessionId);
+      } else {
+        try {
+          response = dispatcher.doService(svc, reqInfo);
+        } catch (EJBException ex) {
+          response = ResponseObject.error(ex);
+        }
+
+        resp.setHeader(Service.RPC_VAR_QID, rid);
       }
 
-    } else if (doLogout) {
-      dispatcher.beforeLogout(reqInfo);
-      logout(req, session);
+      ctp = CommUtils.DEFAULT_RESPONSE_CONTENT_TYPE;
 
-      try {
-        req.getRequestDispatcher(req.getRequestURI()).forward(req, resp);
-      } catch (ServletException | IOException ex) {
-        logger.error(ex);
+      boolean wireAccepted = !CommUtils.isHtml(ctp)
+          && BeeUtils.same(reqInfo.getParameter(Service.RPC_VAR_WIRE), WireReader.VERSION);
+      wire = batch != null
+          || wireAccepted && response != null && response.isStreamable();
+
+      HttpUtils.setDefaultHeaders(resp, ctp);
+      resp.setHeader(Service.RPC_VAR_CTP, ctp.name());
+
+      if (wire) {
+        resp.setHeader(Service.RPC_VAR_WIRE, WireReader.VERSION);
       }
-      return;
 
-    } else {
+      output = new ResponseOutputStream(resp,
+          req.getHeader(HttpHeaders.ACCEPT_ENCODING), getCompressionThreshold());
+
       try {
-        response = dispatcher.doService(svc, reqInfo);
-      } catch (EJBException ex) {
-        response = ResponseObject.error(ex);
-      }
+        PrintWriter out =
+            new PrintWriter(new OutputStreamWriter(output, resp.getCharacterEncoding()));
 
-      resp.setHeader(Service.RPC_VAR_QID, rid);
-    }
+        if (batch != null) {
+          WireWriter writer = new WireWriter(out::write);
+          writer.writePrefix();
+          writer.writeCount(batch.size());
 
-    ContentType ctp = CommUtils.DEFAULT_RESPONSE_CONTENT_TYPE;
+          for (ResponseObject part : batch) {
+            writer.writeValue(serialize(part, wireAccepted));
+          }
+          writer.flush();
 
-    HttpUtils.setDefaultHeaders(resp, ctp);
-    resp.setHeader(Service.RPC_VAR_CTP, ctp.name());
+          length = writer.getLength();
 
-    String s;
-    if (response != null) {
-      s = CommUtils.prepareContent(ctp, Codec.beeSerialize(response));
-    } else {
-      s = BeeConst.STRING_EMPTY;
-    }
+        } else if (wire) {
+          WireWriter writer = new WireWriter(out::write);
+          response.write(writer);
 
-    logger.info(">", rid, svc, sub, TimeUtils.elapsedSeconds(start), ctp, s.length());
+          length = writer.getLength();
 
-    try {
-      PrintWriter out = resp.getWriter();
-      out.print(s);
-      out.flush();
-    } catch (IOException ex) {
-      logger.error(ex);
+        } else {
+          String s;
+          if (response != null) {
+            s = CommUtils.prepareContent(ctp, Codec.beeSerialize(response));
+          } else {
+            s = BeeConst.STRING_EMPTY;
+          }
+
+          out.print(s);
+          length = s.length();
+        }
+
+        out.close();
+        if (out.checkError()) {
+          logger.warning(rid, svc, sub, "response not completed");
+        }
+
+      } catch (IOException ex) {
+        logger.error(ex);
+      }
+
+    } finally {
+      SqlProfile profile = SqlProfile.finish();
+
+      logger.info(">", rid, svc, sub, TimeUtils.elapsedSeconds(start), ctp, wire ? "wire" : null,
+          length, (output == null) ? null : output.getEncoding(),
+          (output == null) ? null : output.getContentLength(), profile);
+
+      if (profile != null) {
+        for (String repeated : profile.getRepeated()) {
+          logger.warning(rid, svc, sub, "repeated sql:", repeated);
+        }
+      }
+    }
+  }
+
+  private static int getCompressionThreshold() {
+    if (compressionThreshold == null) {
+      Integer threshold =
+          BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_COMPRESSION_THRESHOLD));
+      compressionThreshold = (threshold == null) ? DEFAULT_COMPRESSION_THRESHOLD : threshold;
     }
+    return compressionThreshold;
   }
 
   private static void logout(HttpServletRequest req, HttpSession session) {
@@ -174,4 +275,18 @@ public class BeeServlet extends LoginServlet {
       logger.warning("logout", ex);
     }
   }
+
+  private static String serialize(ResponseObject response, boolean wire) {
+    if (response == null) {
+      return null;
+
+    } else if (wire && response.isStreamable()) {
+      StringBuilder sb = new StringBuilder();
+      response.write(new WireWriter(sb::append));
+      return sb.toString();
+
+    } else {
+      return Codec.beeSerialize(response);
+    }
+  }
 }
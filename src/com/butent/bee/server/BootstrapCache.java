@@ -0,0 +1,73 @@
+package com.butent.bee.server;
+
+import com.google.common.hash.Hashing;
+
+import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.utils.Codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps static parts of the login and init responses, versioned by a hash of their content.
+ * <p>
+ * A client holding the same version of a part does not receive it again.
+ */
+
+public final class BootstrapCache {
+
+  static final class Part {
+
+    private final Object data;
+    private final String version;
+
+    private Part(Object data) {
+      this.data = data;
+      this.version = Hashing.murmur3_128()
+          .hashString(Codec.beeSerialize(data), StandardCharsets.UTF_8).toString();
+    }
+
+    Object getData() {
+      return data;
+    }
+
+    String getVersion() {
+      return version;
+    }
+  }
+
+  private static final Map<String, Pair<Object, Part>> parts = new ConcurrentHashMap<>();
+
+  public static void clear() {
+    parts.clear();
+  }
+
+  /**
+   * @param stamp changes whenever the source of the part changes
+   * @return cached part, or a new one, if the stamp has changed; {@code null}, if the supplier
+   *         returns no data
+   */
+  static Part get(String key, Object stamp, Supplier<?> supplier) {
+    Pair<Object, Part> entry = parts.get(key);
+
+    if (entry != null && Objects.equals(entry.getA(), stamp)) {
+      return entry.getB();
+    }
+
+    Part part = of(supplier.get());
+    if (part != null) {
+      parts.put(key, Pair.of(stamp, part));
+    }
+    return part;
+  }
+
+  static Part of(Object data) {
+    return (data == null) ? null : new Part(data);
+  }
+
+  private BootstrapCache() {
+  }
+}
@@ -1,26 +1,43 @@
 package com.butent.bee.server;
 
+import com.butent.bee.server.jdbc.JdbcUtils;
 import com.butent.bee.server.sql.SqlBuilderFactory;
 import com.butent.bee.server.utils.BeeDataSource;
 import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.BeeConst.SqlEngine;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.time.TimeUtils;
 import com.butent.bee.shared.utils.BeeUtils;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.ejb.Lock;
 import javax.ejb.LockType;
+import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 
 /**
- * Manages the data source (DSN) that the system is using.
+ * Manages the data source (DSN) that the system is using and optional read replicas of it.
+ * <p>
+ * Replicas must be configured as non transactional data sources, because they are read inside
+ * transactions of the primary data source.
  */
 
 @Singleton
@@ -28,11 +45,49 @@ import javax.sql.DataSource;
 public class DataSourceBean {
 
   private static final String PROPERTY_DSN = "DataSourceName";
+  private static final String PROPERTY_REPLICA_DSN = "ReplicaDataSourceName";
+  private static final String PROPERTY_REPLICA_LAG = "ReplicaMaxLagInSeconds";
+
+  private static final int DEFAULT_REPLICA_LAG = 10;
+  private static final int REPLICA_CHECK_TIMEOUT = 5;
+
+  private static final String POSTGRESQL_REPLICA_LAG = "SELECT CASE"
+      + " WHEN NOT pg_is_in_recovery() THEN NULL"
+      + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+      + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
   private static BeeLogger logger = LogUtils.getLogger(DataSourceBean.class);
 
   private final List<BeeDataSource> bds = new ArrayList<>();
   private int defaultDataSourceIndex = -1;
 
+  private final List<BeeDataSource> replicas = new ArrayList<>();
+  private final List<BeeDataSource> healthyReplicas = new CopyOnWriteArrayList<>();
+  private final AtomicInteger replicaCounter = new AtomicInteger();
+  private final AtomicBoolean checkingReplicas = new AtomicBoolean();
+  private final Map<Long, Long> userWrites = new ConcurrentHashMap<>();
+
+  private long maxLagMillis;
+
+  /**
+   * Checks availability and replication lag of replicas. Replicas lagging behind more than
+   * {@code ReplicaMaxLagInSeconds} are not used until they catch up.
+   * <p>
+   * Runs under the read lock, because probes may take several seconds and replica state is kept in
+   * concurrent collections. Overlapping checks are skipped.
+   */
+  @Schedule(hour = "*", minute = "*", second = "*/15", persistent = false)
+  public void checkReplicas() {
+    if (replicas.isEmpty() || !checkingReplicas.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      probeReplicas();
+    } finally {
+      checkingReplicas.set(false);
+    }
+  }
+
   @PreDestroy
   public void destroy() {
     if (!bds.isEmpty()) {
@@ -78,6 +133,38 @@ public class DataSourceBean {
     return dsns;
   }
 
+  /**
+   * @return a healthy replica in round robin order or {@code null}, if there are none
+   */
+  public BeeDataSource getReplica() {
+    int size = healthyReplicas.size();
+
+    if (size <= 0) {
+      return null;
+    }
+    try {
+      return healthyReplicas.get(Math.floorMod(replicaCounter.getAndIncrement(), size));
+    } catch (IndexOutOfBoundsException ex) {
+      return null;
+    }
+  }
+
+  public boolean hasReplicas() {
+    return !healthyReplicas.isEmpty();
+  }
+
+  /**
+   * Tells whether reads of the user must go to the primary, because the user modified data
+   * recently and replicas might not have the changes yet.
+   */
+  public boolean isPrimaryRequired(Long userId) {
+    if (userId == null) {
+      return false;
+    }
+    Long time = userWrites.get(userId);
+    return time != null && System.currentTimeMillis() - time < maxLagMillis;
+  }
+
   public BeeDataSource locateDs(String dsn) {
     Assert.notEmpty(dsn);
     BeeDataSource z = null;
@@ -95,6 +182,95 @@ public class DataSourceBean {
     return z;
   }
 
+  public void markWrite(Long userId) {
+    if (userId != null && !replicas.isEmpty()) {
+      userWrites.put(userId, System.currentTimeMillis());
+    }
+  }
+
+  private boolean isHealthy(BeeDataSource replica) {
+    Connection con = null;
+    Statement stmt = null;
+    ResultSet rs = null;
+
+    try {
+      con = replica.getDs().getConnection();
+
+      if (!con.isValid(REPLICA_CHECK_TIMEOUT)) {
+        return false;
+      }
+      SqlEngine engine = SqlEngine.detectEngine(con.getMetaData().getDatabaseProductName());
+
+      if (engine != SqlEngine.POSTGRESQL) {
+        return true;
+      }
+      stmt = con.createStatement();
+      stmt.setQueryTimeout(REPLICA_CHECK_TIMEOUT);
+      rs = stmt.executeQuery(POSTGRESQL_REPLICA_LAG);
+
+      double lag = rs.next() ? rs.getDouble(1) : BeeConst.DOUBLE_ZERO;
+      boolean ok = lag * TimeUtils.MILLIS_PER_SECOND <= maxLagMillis;
+
+      if (!ok) {
+        logger.warning("replica", replica.getDsn(), "lag", lag, "seconds");
+      }
+      return ok;
+
+    } catch (SQLException ex) {
+      logger.warning("replica", replica.getDsn(), ex.getMessage());
+      return false;
+
+    } finally {
+      JdbcUtils.closeResultSet(rs);
+      JdbcUtils.closeStatement(stmt);
+      JdbcUtils.closeConnection(con);
+    }
+  }
+
+  private void probeReplicas() {
+    List<BeeDataSource> healthy = new ArrayList<>();
+
+    for (BeeDataSource replica : replicas) {
+      if (isHealthy(replica)) {
+        healthy.add(replica);
+      }
+    }
+    if (healthy.size() != healthyReplicas.size()) {
+      logger.info("healthy replicas:", healthy.size(), "of", replicas.size());
+    }
+    healthyReplicas.retainAll(healthy);
+
+    for (BeeDataSource replica : healthy) {
+      if (!healthyReplicas.contains(replica)) {
+        healthyReplicas.add(replica);
+      }
+    }
+    long time = System.currentTimeMillis() - maxLagMillis;
+    userWrites.values().removeIf(value -> value < time);
+  }
+
+  private static DataSource lookup(String nm) {
+    DataSource ds;
+
+    try {
+      ds = (DataSource) InitialContext.doLookup("java:comp/env/" + nm);
+    } catch (NamingException ex) {
+      ds = null;
+    }
+    if (ds == null) {
+      try {
+        ds = (DataSource) InitialContext.doLookup("jdbc/" + nm);
+      } catch (NamingException ex) {
+        try {
+          ds = (DataSource) InitialContext.doLookup("java:/jdbc/" + nm);
+        } catch (NamingException ex2) {
+          logger.error(ex);
+        }
+      }
+    }
+    return ds;
+  }
+
   @PostConstruct
   private void init() {
     String dsn = Config.getProperty(PROPERTY_DSN);
@@ -116,22 +292,8 @@ public class DataSourceBean {
       if (isDef) {
         nm = BeeUtils.removePrefixAndSuffix(nm, defChar);
       }
-      try {
-        ds = (DataSource) InitialContext.doLookup("java:comp/env/" + nm);
-      } catch (NamingException ex) {
-        ds = null;
-      }
-      if (ds == null) {
-        try {
-          ds = (DataSource) InitialContext.doLookup("jdbc/" + nm);
-        } catch (NamingException ex) {
-          try {
-            ds = (DataSource) InitialContext.doLookup("java:/jdbc/" + nm);
-          } catch (NamingException ex2) {
-            logger.error(ex);
-          }
-        }
-      }
+      ds = lookup(nm);
+
       if (ds != null) {
         bds.add(new BeeDataSource(nm, ds));
         if (isDef) {
@@ -142,5 +304,25 @@ public class DataSourceBean {
         }
       }
     }
+
+    Integer lag = BeeUtils.toIntOrNull(Config.getProperty(PROPERTY_REPLICA_LAG));
+    if (lag == null) {
+      lag = DEFAULT_REPLICA_LAG;
+    }
+    maxLagMillis = (long) TimeUtils.MILLIS_PER_SECOND * lag;
+
+    String replicaDsn = Config.getProperty(PROPERTY_REPLICA_DSN);
+
+    if (!BeeUtils.isEmpty(replicaDsn)) {
+      for (String z : replicaDsn.split(",")) {
+        nm = z.trim();
+        ds = lookup(nm);
+
+        if (ds != null) {
+          replicas.add(new BeeDataSource(nm, ds));
+        }
+      }
+      checkReplicas();
+    }
   }
 }
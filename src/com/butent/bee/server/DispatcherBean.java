@@ -10,6 +10,7 @@ import com.butent.bee.server.data.UserServiceBean;
 import com.butent.bee.server.http.RequestInfo;
 import com.butent.bee.server.i18n.LocalizationBean;
 import com.butent.bee.server.i18n.Localizations;
+import com.butent.bee.server.jdbc.SqlProfile;
 import com.butent.bee.server.modules.ModuleHolderBean;
 import com.butent.bee.server.modules.ParamHolderBean;
 import com.butent.bee.server.modules.mail.MailModuleBean;
@@ -37,16 +38,26 @@ import com.butent.bee.shared.time.TimeUtils;
 import com.butent.bee.shared.ui.UserInterface;
 import com.butent.bee.shared.ui.UserInterface.Component;
 import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.Codec;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.ejb.EJBException;
+import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 
 /**
  * Receives a service request and then passes it along, depending on service name structure, to an
@@ -87,6 +98,11 @@ public class DispatcherBean {
   @EJB
   LocalizationBean loc;
 
+  @Resource
+  ManagedExecutorService executor;
+  @Resource
+  SessionContext ctx;
+
   public void beforeLogout(RequestInfo reqInfo) {
     String workspace = reqInfo.getParameter(COL_LAST_WORKSPACE);
 
@@ -95,6 +111,34 @@ public class DispatcherBean {
     }
   }
 
+  /**
+   * Executes the parts of a batch request in order, each of them in its own transaction, the same
+   * way as separate requests. Consecutive read-only parts are executed concurrently.
+   */
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public List<ResponseObject> doBatch(List<RequestInfo> parts) {
+    DispatcherBean proxy = getProxy();
+
+    List<ResponseObject> responses = new ArrayList<>();
+    List<Future<ResponseObject>> running = new ArrayList<>();
+
+    for (int i = 0; i < parts.size(); i++) {
+      RequestInfo part = parts.get(i);
+
+      if (Service.isReadOnly(part.getService()) && (!running.isEmpty()
+          || i < parts.size() - 1 && Service.isReadOnly(parts.get(i + 1).getService()))) {
+        running.add(executor.submit(() -> doPart(proxy, part)));
+
+      } else {
+        collect(running, responses);
+        responses.add(doPart(proxy, part));
+      }
+    }
+
+    collect(running, responses);
+    return responses;
+  }
+
   public ResponseObject doLogin(RequestInfo reqInfo) {
     ResponseObject response = new ResponseObject();
     Map<String, Object> data = new HashMap<>();
@@ -133,7 +177,14 @@ public class DispatcherBean {
     SupportedLocale locale = userService.getSupportedLocale();
     data.put(VAR_LOCALE, locale.getLanguage());
 
-    data.put(TBL_DICTIONARY, Localizations.getGlossary(locale));
+    Map<String, String> versions = new HashMap<>();
+
+    putPart(data, versions, getClientVersions(reqInfo), TBL_DICTIONARY,
+        BootstrapCache.get(BeeUtils.join(BeeConst.STRING_MINUS, TBL_DICTIONARY,
+            locale.getLanguage()), Localizations.getGlossaryVersion(),
+            () -> Localizations.getGlossary(locale)));
+
+    data.put(Service.VAR_BOOTSTRAP, versions);
 
     SupportedLocale dateTimeFormatLocale = userService.getDateTimeFormatLocale();
     data.put(COL_USER_DATE_FORMAT, dateTimeFormatLocale.getLanguage());
@@ -191,6 +242,49 @@ public class DispatcherBean {
     return response;
   }
 
+  private static void collect(List<Future<ResponseObject>> running,
+      List<ResponseObject> responses) {
+
+    for (Future<ResponseObject> future : running) {
+      ResponseObject response;
+
+      try {
+        response = future.get();
+      } catch (InterruptedException | ExecutionException ex) {
+        logger.error(ex, Service.BATCH);
+        response = ResponseObject.error(ex);
+      }
+
+      responses.add(response);
+    }
+
+    running.clear();
+  }
+
+  private static Map<String, String> getClientVersions(RequestInfo reqInfo) {
+    return Codec.deserializeHashMap(reqInfo.getParameter(Service.VAR_BOOTSTRAP));
+  }
+
+  private static ResponseObject notEmpty(BeeRowSet rowSet) {
+    return DataUtils.isEmpty(rowSet) ? null : ResponseObject.response(rowSet);
+  }
+
+  /**
+   * Puts the version of a part into {@code versions} and the part itself into {@code data}, unless
+   * the client already holds the same version.
+   */
+  private static void putPart(Map<String, Object> data, Map<String, String> versions,
+      Map<String, String> clientVersions, String key, BootstrapCache.Part part) {
+
+    if (part != null) {
+      versions.put(key, part.getVersion());
+
+      if (!part.getVersion().equals(clientVersions.get(key))) {
+        data.put(key, part.getData());
+      }
+    }
+  }
+
   private ResponseObject doInit(RequestInfo reqInfo) {
     ResponseObject response = new ResponseObject();
     Map<String, Object> data = new HashMap<>();
@@ -221,153 +315,203 @@ public class DispatcherBean {
     }
 
     if (!BeeUtils.isEmpty(components)) {
-      for (Component component : components) {
-        long millis = System.currentTimeMillis();
+      Map<String, String> clientVersions = getClientVersions(reqInfo);
+      Map<String, String> versions = new HashMap<>();
 
-        switch (component) {
-          case AUTOCOMPLETE:
-            ResponseObject acData = uiService.getAutocomplete();
-            if (acData != null) {
-              response.addMessagesFrom(acData);
-              if (!acData.hasErrors() && acData.hasResponse()) {
-                data.put(component.key(), acData.getResponse());
-              }
-            }
-            break;
-
-          case CHATS:
-            ResponseObject chats = chat.getChats();
-            if (chats != null) {
-              response.addMessagesFrom(chats);
-              if (!chats.hasErrors() && chats.hasResponse()) {
-                data.put(component.key(), chats.getResponse());
-              }
-            }
-            break;
+      Map<Component, Future<ResponseObject>> futures = new LinkedHashMap<>();
 
+      for (Component component : components) {
+        switch (component) {
           case DATA_INFO:
-            data.put(component.key(), sys.getDataInfo());
+            putPart(data, versions, clientVersions, component.key(),
+                BootstrapCache.get(component.key(), sys.getDataInfoVersion(), sys::getDataInfo));
             break;
 
           case DECORATORS:
-            ResponseObject decorators = uiService.getDecorators();
-            if (decorators != null) {
-              response.addMessagesFrom(decorators);
-              if (!decorators.hasErrors() && decorators.hasResponse()) {
-                data.put(component.key(), decorators.getResponse());
-              }
-            }
+            putPart(data, versions, clientVersions, component.key(),
+                BootstrapCache.get(component.key(), uiService.getDecoratorsVersion(), () -> {
+                  ResponseObject decorators = uiService.getDecorators();
+                  if (decorators == null) {
+                    return null;
+                  }
+
+                  response.addMessagesFrom(decorators);
+                  return decorators.hasErrors() ? null : decorators.getResponse();
+                }));
             break;
 
-          case DIMENSIONS:
-            BeeRowSet dimensionNames = qs.getViewData(Dimensions.VIEW_NAMES);
-            if (dimensionNames != null) {
-              Integer count = prm.getInteger(Dimensions.PRM_DIMENSIONS);
-              if (BeeUtils.isPositive(count)) {
-                dimensionNames.setTableProperty(Dimensions.PRM_DIMENSIONS,
-                    BeeUtils.toString(count));
-              }
-              data.put(component.key(), dimensionNames);
-            }
-            break;
+          default:
+            String service = reqInfo.getService();
+            futures.put(component, executor.submit(() -> getComponent(service, component)));
+        }
+      }
 
-          case FAVORITES:
-            BeeRowSet favorites = uiService.getFavorites();
-            if (!DataUtils.isEmpty(favorites)) {
-              data.put(component.key(), favorites);
-            }
-            break;
+      futures.forEach((component, future) -> {
+        ResponseObject componentData;
 
-          case FILTERS:
-            BeeRowSet filters = uiService.getFilters();
-            if (!DataUtils.isEmpty(filters)) {
-              data.put(component.key(), filters);
-            }
-            break;
+        try {
+          componentData = future.get();
+        } catch (InterruptedException | ExecutionException ex) {
+          logger.error(ex, reqInfo.getService(), component);
+          componentData = ResponseObject.error(ex);
+        }
 
-          case GRIDS:
-            ResponseObject settingsData = uiService.getGridAndColumnSettings();
-            if (settingsData != null && settingsData.hasResponse()) {
-              data.put(component.key(), settingsData.getResponse());
-            }
-            break;
+        response.addMessagesFrom(componentData);
 
-          case MAIL:
-            int unread = mail.countUnread();
-            if (unread > 0) {
-              data.put(component.key(), unread);
-            }
-            break;
+        if (!componentData.hasErrors() && componentData.hasResponse()) {
+          if (component == Component.MENU) {
+            putPart(data, versions, clientVersions, component.key(),
+                BootstrapCache.of(componentData.getResponse()));
+          } else {
+            data.put(component.key(), componentData.getResponse());
+          }
+        }
+      });
 
-          case MENU:
-            ResponseObject menuData = uiHolder.getMenu(true, true);
-            if (menuData != null) {
-              response.addMessagesFrom(menuData);
-              if (!menuData.hasErrors() && menuData.hasResponse()) {
-                data.put(component.key(), menuData.getResponse());
-              }
-            }
-            break;
+      if (!versions.isEmpty()) {
+        data.put(Service.VAR_BOOTSTRAP, versions);
+      }
+    }
 
-          case MONEY:
-            BeeRowSet rates = qs.getViewData(VIEW_CURRENCY_RATES);
-            if (!DataUtils.isEmpty(rates)) {
-              data.put(component.key(), rates);
-            }
-            break;
+    if (!data.isEmpty()) {
+      response.setResponse(data);
+    }
+    return response;
+  }
 
-          case NEWS:
-            ResponseObject newsData = news.getNews(Feed.ALL);
-            if (newsData != null) {
-              response.addMessagesFrom(newsData);
-              if (!newsData.hasErrors() && newsData.hasResponse()) {
-                data.put(component.key(), newsData.getResponse());
-              }
-            }
-            break;
+  /**
+   * @return the container view of this bean, so that its transaction attributes apply to calls
+   */
+  DispatcherBean getProxy() {
+    return ctx.getBusinessObject(DispatcherBean.class);
+  }
 
-          case REPORTS:
-            BeeRowSet reportSettings = uiService.getReportSettings();
-            if (!DataUtils.isEmpty(reportSettings)) {
-              data.put(component.key(), reportSettings);
-            }
-            break;
+  /**
+   * Executes a part of a batch request through the {@code proxy}, so that each part runs in its
+   * own transaction, profiling its SQL separately, since parts may run on executor threads and are
+   * independent of each other.
+   */
+  private static ResponseObject doPart(DispatcherBean proxy, RequestInfo part) {
+    long start = System.currentTimeMillis();
+    SqlProfile.start(part.getId(), part.getService());
 
-          case SETTINGS:
-            BeeRowSet userSettings = userService.ensureUserSettings();
-            if (!DataUtils.isEmpty(userSettings)) {
-              Long themeId = userSettings.getLong(0, COL_UI_THEME);
-              BeeRowSet theme;
+    ResponseObject response;
+    try {
+      response = proxy.doService(part.getService(), part);
+    } catch (EJBException ex) {
+      response = ResponseObject.error(ex);
+
+    } finally {
+      SqlProfile profile = SqlProfile.finish();
+      logger.info(">", part.getId(), part.getService(), part.getSubService(),
+          TimeUtils.elapsedSeconds(start), profile);
+
+      if (profile != null) {
+        for (String repeated : profile.getRepeated()) {
+          logger.warning(part.getId(), part.getService(), part.getSubService(), "repeated sql:",
+              repeated);
+        }
+      }
+    }
+    return response;
+  }
 
-              if (DataUtils.isId(themeId)) {
-                theme = qs.getViewData(VIEW_UI_THEMES, Filter.compareId(themeId));
-              } else {
-                theme = null;
-              }
+  /**
+   * Loads a user specific part of the init response, called concurrently for all components.
+   */
+  private ResponseObject getComponent(String service, Component component) {
+    long millis = System.currentTimeMillis();
+    ResponseObject result = null;
+
+    switch (component) {
+      case AUTOCOMPLETE:
+        result = uiService.getAutocomplete();
+        break;
+
+      case CHATS:
+        result = chat.getChats();
+        break;
+
+      case DATA_INFO:
+      case DECORATORS:
+        break;
+
+      case DIMENSIONS:
+        BeeRowSet dimensionNames = qs.getViewData(Dimensions.VIEW_NAMES);
+        if (dimensionNames != null) {
+          Integer count = prm.getInteger(Dimensions.PRM_DIMENSIONS);
+          if (BeeUtils.isPositive(count)) {
+            dimensionNames.setTableProperty(Dimensions.PRM_DIMENSIONS,
+                BeeUtils.toString(count));
+          }
+          result = ResponseObject.response(dimensionNames);
+        }
+        break;
 
-              data.put(component.key(), Pair.of(userSettings, theme));
-            }
-            break;
+      case FAVORITES:
+        result = notEmpty(uiService.getFavorites());
+        break;
 
-          case USERS:
-            data.put(component.key(), userService.getAllUserData());
-            break;
+      case FILTERS:
+        result = notEmpty(uiService.getFilters());
+        break;
 
-          case WORKSPACES:
-            BeeRowSet workspaces = uiService.getWorkspaces();
-            if (!DataUtils.isEmpty(workspaces)) {
-              data.put(component.key(), workspaces);
-            }
-            break;
+      case GRIDS:
+        ResponseObject settingsData = uiService.getGridAndColumnSettings();
+        if (settingsData != null && settingsData.hasResponse()) {
+          result = ResponseObject.response(settingsData.getResponse());
         }
+        break;
 
-        logger.debug(reqInfo.getService(), component, TimeUtils.elapsedMillis(millis));
-      }
-    }
+      case MAIL:
+        int unread = mail.countUnread();
+        if (unread > 0) {
+          result = ResponseObject.response(unread);
+        }
+        break;
+
+      case MENU:
+        result = uiHolder.getMenu(true, true);
+        break;
+
+      case MONEY:
+        result = notEmpty(qs.getViewData(VIEW_CURRENCY_RATES));
+        break;
+
+      case NEWS:
+        result = news.getNews(Feed.ALL);
+        break;
+
+      case REPORTS:
+        result = notEmpty(uiService.getReportSettings());
+        break;
+
+      case SETTINGS:
+        BeeRowSet userSettings = userService.ensureUserSettings();
+        if (!DataUtils.isEmpty(userSettings)) {
+          Long themeId = userSettings.getLong(0, COL_UI_THEME);
+          BeeRowSet theme;
+
+          if (DataUtils.isId(themeId)) {
+            theme = qs.getViewData(VIEW_UI_THEMES, Filter.compareId(themeId));
+          } else {
+            theme = null;
+          }
 
-    if (!data.isEmpty()) {
-      response.setResponse(data);
+          result = ResponseObject.response(Pair.of(userSettings, theme));
+        }
+        break;
+
+      case USERS:
+        result = ResponseObject.response(userService.getAllUserData());
+        break;
+
+      case WORKSPACES:
+        result = notEmpty(uiService.getWorkspaces());
+        break;
     }
-    return response;
+
+    logger.debug(service, component, TimeUtils.elapsedMillis(millis));
+    return (result == null) ? ResponseObject.emptyResponse() : result;
   }
 }
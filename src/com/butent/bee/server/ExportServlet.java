@@ -619,6 +619,10 @@ public class ExportServlet extends LoginServlet {
   protected void doService(HttpServletRequest req, HttpServletResponse resp) {
     long start = System.currentTimeMillis();
 
+    if (HttpUtils.rejectLargeContent(req, resp)) {
+      return;
+    }
+
     RequestInfo reqInfo = new RequestInfo(req, false);
 
     String svc = BeeUtils.trim(reqInfo.getService());
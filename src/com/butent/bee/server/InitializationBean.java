@@ -1,5 +1,7 @@
 package com.butent.bee.server;
 
+import com.butent.bee.server.cluster.Cluster;
+import com.butent.bee.server.cluster.ClusterBean;
 import com.butent.bee.server.communication.ChatBean;
 import com.butent.bee.server.concurrency.ConcurrencyBean;
 import com.butent.bee.server.data.SystemBean;
@@ -46,11 +48,14 @@ public class InitializationBean {
   UiHolderBean ui;
   @EJB
   LocalizationBean loc;
+  @EJB
+  ClusterBean cluster;
 
   @PostConstruct
   public void init() {
     stop();
     Config.setInitialized(false);
+    BootstrapCache.clear();
 
     LogUtils.setLoggerFactory(new LogbackFactory());
     Config.init();
@@ -76,6 +81,7 @@ public class InitializationBean {
 
     sys.initViews();
     chat.init();
+    cluster.init();
 
     moduleBean.initModules();
 
@@ -96,6 +102,7 @@ public class InitializationBean {
 
   @PreDestroy
   public void stop() {
+    Cluster.disconnect();
     LogUtils.stopLogger();
   }
 }
@@ -9,6 +9,7 @@ import com.butent.bee.server.data.UserServiceBean;
 import com.butent.bee.server.http.RequestInfo;
 import com.butent.bee.server.io.FileUtils;
 import com.butent.bee.server.io.Filter;
+import com.butent.bee.server.jdbc.SqlProfile;
 import com.butent.bee.server.modules.administration.FileStorageBean;
 import com.butent.bee.server.ui.UiHolderBean;
 import com.butent.bee.server.utils.ClassUtils;
@@ -110,6 +111,9 @@ public class SystemServiceBean {
     } else if (BeeUtils.same(svc, GET_FLAGS)) {
       response = getFlags();
 
+    } else if (BeeUtils.same(svc, GET_SQL_PROFILES)) {
+      response = getSqlProfiles();
+
     } else if (BeeUtils.same(svc, RUN)) {
       response = run(reqInfo);
 
@@ -513,6 +517,18 @@ public class SystemServiceBean {
     return response.setCollection(result, Property.class);
   }
 
+  private ResponseObject getSqlProfiles() {
+    if (!usr.isAdministrator()) {
+      return ResponseObject.error(usr.getDictionary().actionNotAllowed());
+    }
+    List<ExtendedProperty> profiles = SqlProfile.getHistory();
+
+    if (profiles.isEmpty()) {
+      return ResponseObject.info("no sql profiles");
+    }
+    return ResponseObject.collection(profiles, ExtendedProperty.class);
+  }
+
   private static ResponseObject run(RequestInfo reqInfo) {
     String content = reqInfo.getContent();
     if (BeeUtils.isEmpty(content)) {
@@ -0,0 +1,100 @@
+package com.butent.bee.server.cluster;
+
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Routes messages between the local subsystems and the connected {@link ClusterBus}.
+ * <p>
+ * Without a bus the application runs as a single node and publishing does nothing.
+ */
+
+public final class Cluster {
+
+  public static final String CHANNEL_BOOTSTRAP = "bootstrap";
+  public static final String CHANNEL_CACHE = "cache";
+  public static final String CHANNEL_DATA = "data";
+  public static final String CHANNEL_RIGHTS = "rights";
+  public static final String CHANNEL_UI = "ui";
+  public static final String CHANNEL_USERS = "users";
+  public static final String CHANNEL_WEBSOCKET = "ws";
+
+  private static final BeeLogger logger = LogUtils.getLogger(Cluster.class);
+
+  private static final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+  private static volatile ClusterBus bus;
+
+  public static synchronized void connect(ClusterBus clusterBus) {
+    disconnect();
+
+    if (clusterBus != null) {
+      clusterBus.start(Cluster::deliver);
+      bus = clusterBus;
+
+      logger.info("cluster node", clusterBus.getNodeId(), "connected");
+    }
+  }
+
+  public static synchronized void disconnect() {
+    if (bus != null) {
+      ClusterBus clusterBus = bus;
+      bus = null;
+
+      try {
+        clusterBus.stop();
+        logger.info("cluster node", clusterBus.getNodeId(), "disconnected");
+      } catch (RuntimeException ex) {
+        logger.error(ex, "cluster disconnect");
+      }
+    }
+  }
+
+  public static String getNodeId() {
+    ClusterBus clusterBus = bus;
+    return (clusterBus == null) ? null : clusterBus.getNodeId();
+  }
+
+  public static boolean isActive() {
+    return bus != null;
+  }
+
+  public static void publish(String channel, String payload) {
+    ClusterBus clusterBus = bus;
+
+    if (clusterBus != null && !BeeUtils.isEmpty(payload)) {
+      clusterBus.publish(channel, payload);
+    }
+  }
+
+  public static void subscribe(String channel, Consumer<String> handler) {
+    if (handler == null) {
+      handlers.remove(channel);
+    } else {
+      handlers.put(channel, handler);
+    }
+  }
+
+  private static void deliver(String channel, String payload) {
+    Consumer<String> handler = handlers.get(channel);
+
+    if (handler == null) {
+      logger.warning("cluster channel", channel, "has no handler");
+
+    } else {
+      try {
+        handler.accept(payload);
+      } catch (RuntimeException ex) {
+        logger.error(ex, "cluster channel", channel);
+      }
+    }
+  }
+
+  private Cluster() {
+  }
+}
@@ -0,0 +1,239 @@
+package com.butent.bee.server.cluster;
+
+import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
+
+import com.butent.bee.server.BootstrapCache;
+import com.butent.bee.server.Config;
+import com.butent.bee.server.data.QueryCache;
+import com.butent.bee.server.data.QueryServiceBean;
+import com.butent.bee.server.data.SystemBean;
+import com.butent.bee.server.data.UserServiceBean;
+import com.butent.bee.server.i18n.LocalizationBean;
+import com.butent.bee.server.sql.SqlDelete;
+import com.butent.bee.server.sql.SqlInsert;
+import com.butent.bee.server.sql.SqlSelect;
+import com.butent.bee.server.sql.SqlUtils;
+import com.butent.bee.server.ui.UiHolderBean;
+import com.butent.bee.server.websocket.Endpoint;
+import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.data.SimpleRowSet;
+import com.butent.bee.shared.data.SimpleRowSet.SimpleRow;
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.time.TimeUtils;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Resource;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TimedObject;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+
+/**
+ * Cluster bus, backed by the {@code ClusterEvents} table of the shared database.
+ * <p>
+ * Published messages are written in batches and the table is polled for messages of other nodes,
+ * so it works with every supported database engine. Rows are read with an overlap, covering
+ * transactions committed after a later poll and moderate clock differences between nodes, and are
+ * purged after a minute. Rows read more than once are delivered once, by row id. Identical
+ * messages published by this node are all delivered.
+ */
+
+@Singleton
+@LocalBean
+@Lock(LockType.READ)
+public class ClusterBean implements ClusterBus, TimedObject {
+
+  public static final String BUS_TABLE = "table";
+
+  static final long READ_OVERLAP_MILLIS = 10 * TimeUtils.MILLIS_PER_SECOND;
+
+  private static final BeeLogger logger = LogUtils.getLogger(ClusterBean.class);
+
+  private static final int DEFAULT_POLLING_MILLIS = 500;
+
+  private static final long RETENTION_MILLIS = TimeUtils.MILLIS_PER_MINUTE;
+
+  @EJB
+  QueryServiceBean qs;
+  @EJB
+  SystemBean sys;
+  @EJB
+  UserServiceBean usr;
+  @EJB
+  UiHolderBean ui;
+  @EJB
+  LocalizationBean loc;
+
+  @Resource
+  TimerService timerService;
+  @Resource
+  SessionContext ctx;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final Queue<Pair<String, String>> outgoing = new ConcurrentLinkedQueue<>();
+  private final Map<Long, Long> received = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean polling = new AtomicBoolean();
+
+  private volatile BiConsumer<String, String> listener;
+  private volatile Timer timer;
+
+  private volatile long lastPoll;
+  private volatile long lastPurge;
+
+  @Override
+  public void ejbTimeout(Timer t) {
+    if (polling.compareAndSet(false, true)) {
+      try {
+        poll();
+      } catch (RuntimeException ex) {
+        logger.error(ex, "cluster poll");
+      } finally {
+        polling.set(false);
+      }
+    }
+  }
+
+  @Override
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public void init() {
+    subscribe();
+
+    String type = Config.getProperty(Service.PROPERTY_CLUSTER_BUS);
+
+    if (BeeUtils.same(type, BUS_TABLE)) {
+      Cluster.connect(ctx.getBusinessObject(ClusterBean.class));
+
+    } else {
+      Cluster.disconnect();
+
+      if (!BeeUtils.isEmpty(type)) {
+        logger.severe(Service.PROPERTY_CLUSTER_BUS, type, "not supported");
+      }
+    }
+  }
+
+  @Override
+  public void publish(String channel, String payload) {
+    if (listener != null) {
+      outgoing.add(Pair.of(channel, payload));
+    }
+  }
+
+  @Override
+  public void start(BiConsumer<String, String> consumer) {
+    start(consumer, BeeUtils.positive(BeeUtils.toInt(
+        Config.getProperty(Service.PROPERTY_CLUSTER_POLLING)), DEFAULT_POLLING_MILLIS));
+  }
+
+  /**
+   * Routes each channel to the cache or subsystem it keeps in sync.
+   */
+  void subscribe() {
+    Cluster.subscribe(Cluster.CHANNEL_BOOTSTRAP, language -> {
+      loc.reloadGlossary(language);
+      BootstrapCache.clear();
+    });
+    Cluster.subscribe(Cluster.CHANNEL_CACHE, QueryCache::invalidate);
+    Cluster.subscribe(Cluster.CHANNEL_DATA, sys::postRemoteEvent);
+    Cluster.subscribe(Cluster.CHANNEL_RIGHTS, payload -> usr.reloadRights());
+    Cluster.subscribe(Cluster.CHANNEL_UI, ui::reload);
+    Cluster.subscribe(Cluster.CHANNEL_USERS, payload -> usr.reloadUsers());
+    Cluster.subscribe(Cluster.CHANNEL_WEBSOCKET, Endpoint::onClusterMessage);
+  }
+
+  void start(BiConsumer<String, String> consumer, int interval) {
+    stop();
+
+    lastPoll = System.currentTimeMillis();
+    listener = consumer;
+
+    timer = timerService.createIntervalTimer(interval, interval, new TimerConfig(null, false));
+    logger.info("cluster node", nodeId, "polling interval", interval);
+  }
+
+  @Override
+  public void stop() {
+    listener = null;
+
+    if (timer != null) {
+      try {
+        timer.cancel();
+      } catch (IllegalStateException ex) {
+        logger.warning("cluster timer", ex.getMessage());
+      }
+      timer = null;
+    }
+
+    outgoing.clear();
+    received.clear();
+  }
+
+  private void poll() {
+    BiConsumer<String, String> consumer = listener;
+    if (consumer == null) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    Pair<String, String> message;
+
+    while ((message = outgoing.poll()) != null) {
+      qs.insertData(new SqlInsert(TBL_CLUSTER_EVENTS)
+          .addConstant(COL_CLUSTER_NODE, nodeId)
+          .addConstant(COL_CLUSTER_CHANNEL, message.getA())
+          .addConstant(COL_CLUSTER_PAYLOAD, message.getB())
+          .addConstant(COL_CLUSTER_PUBLISHED, now));
+    }
+
+    String idName = sys.getIdName(TBL_CLUSTER_EVENTS);
+
+    SimpleRowSet data = qs.getData(new SqlSelect()
+        .addFields(TBL_CLUSTER_EVENTS, idName, COL_CLUSTER_CHANNEL, COL_CLUSTER_PAYLOAD,
+            COL_CLUSTER_PUBLISHED)
+        .addFrom(TBL_CLUSTER_EVENTS)
+        .setWhere(SqlUtils.and(SqlUtils.notEqual(TBL_CLUSTER_EVENTS, COL_CLUSTER_NODE, nodeId),
+            SqlUtils.moreEqual(TBL_CLUSTER_EVENTS, COL_CLUSTER_PUBLISHED,
+                lastPoll - READ_OVERLAP_MILLIS)))
+        .addOrder(TBL_CLUSTER_EVENTS, COL_CLUSTER_PUBLISHED, idName));
+
+    lastPoll = now;
+
+    for (SimpleRow row : data) {
+      Long published = row.getLong(COL_CLUSTER_PUBLISHED);
+
+      if (received.putIfAbsent(row.getLong(idName), published) == null) {
+        consumer.accept(row.getValue(COL_CLUSTER_CHANNEL), row.getValue(COL_CLUSTER_PAYLOAD));
+      }
+    }
+
+    received.values().removeIf(published -> published < now - READ_OVERLAP_MILLIS);
+
+    if (now - lastPurge > RETENTION_MILLIS) {
+      qs.updateData(new SqlDelete(TBL_CLUSTER_EVENTS)
+          .setWhere(SqlUtils.less(TBL_CLUSTER_EVENTS, COL_CLUSTER_PUBLISHED,
+              now - RETENTION_MILLIS)));
+      lastPurge = now;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.butent.bee.server.cluster;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Carries messages between application nodes, serving the same database.
+ * <p>
+ * A message is delivered to every node except the one which published it, so that a handler never
+ * has to guard against its own broadcasts.
+ */
+
+public interface ClusterBus {
+
+  String getNodeId();
+
+  void publish(String channel, String payload);
+
+  /**
+   * @param listener receives channel and payload of messages, published by other nodes
+   */
+  void start(BiConsumer<String, String> listener);
+
+  void stop();
+}
@@ -0,0 +1,64 @@
+package com.butent.bee.server.cluster;
+
+import com.butent.bee.shared.Assert;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Connects nodes living in the same JVM, delivering messages synchronously.
+ * <p>
+ * Intended for tests: nodes joined to each other behave as separate application nodes.
+ */
+
+public class LoopbackBus implements ClusterBus {
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final List<LoopbackBus> nodes;
+
+  private volatile BiConsumer<String, String> listener;
+
+  public LoopbackBus() {
+    this(new CopyOnWriteArrayList<>());
+  }
+
+  private LoopbackBus(List<LoopbackBus> nodes) {
+    this.nodes = nodes;
+    nodes.add(this);
+  }
+
+  @Override
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * @return a new node, connected to the same loop
+   */
+  public LoopbackBus join() {
+    return new LoopbackBus(nodes);
+  }
+
+  @Override
+  public void publish(String channel, String payload) {
+    for (LoopbackBus node : nodes) {
+      BiConsumer<String, String> consumer = node.listener;
+
+      if (node != this && consumer != null) {
+        consumer.accept(channel, payload);
+      }
+    }
+  }
+
+  @Override
+  public void start(BiConsumer<String, String> consumer) {
+    this.listener = Assert.notNull(consumer);
+  }
+
+  @Override
+  public void stop() {
+    this.listener = null;
+  }
+}
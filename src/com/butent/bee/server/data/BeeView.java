@@ -9,6 +9,7 @@ import com.butent.bee.server.Invocation;
 import com.butent.bee.server.data.BeeTable.BeeField;
 import com.butent.bee.server.data.BeeTable.BeeRelation;
 import com.butent.bee.server.i18n.Localizations;
+import com.butent.bee.server.sql.FromTemplate;
 import com.butent.bee.server.sql.HasConditions;
 import com.butent.bee.server.sql.IsCondition;
 import com.butent.bee.server.sql.IsExpression;
@@ -69,6 +70,7 @@ import com.butent.bee.shared.data.filter.IsTrueFilter;
 import com.butent.bee.shared.data.filter.Operator;
 import com.butent.bee.shared.data.filter.VersionFilter;
 import com.butent.bee.shared.data.value.Value;
+import com.butent.bee.shared.data.value.ValueType;
 import com.butent.bee.shared.data.view.Order;
 import com.butent.bee.shared.data.view.ViewColumn;
 import com.butent.bee.shared.i18n.Localized;
@@ -76,10 +78,12 @@ import com.butent.bee.shared.i18n.SupportedLocale;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.modules.administration.AdministrationConstants;
+import com.butent.bee.shared.time.TimeUtils;
 import com.butent.bee.shared.utils.BeeUtils;
 import com.butent.bee.shared.utils.EnumUtils;
 import com.butent.bee.shared.utils.ExtendedProperty;
 import com.butent.bee.shared.utils.NameUtils;
+import com.butent.bee.shared.utils.NullOrdering;
 import com.butent.bee.shared.utils.PropertyUtils;
 
 import org.w3c.dom.Node;
@@ -380,12 +384,57 @@ public class BeeView implements BeeObject, HasExtendedInfo {
     }
   }
 
+  /**
+   * Base query of one user with resolved join filters and the parsed view filter. Shared by
+   * concurrent requests, which take copies of the query. The from clause is rendered once and
+   * reused by the copies, as long as they do not change it.
+   */
+  private static final class CompiledQuery {
+    private final String timeKey;
+    private final SqlSelect query;
+    private final Filter filter;
+    private final FromTemplate from;
+
+    private CompiledQuery(String timeKey, SqlSelect query, Filter filter) {
+      this.timeKey = timeKey;
+      this.query = query;
+      this.filter = filter;
+      this.from = new FromTemplate(query.getFrom());
+    }
+
+    /**
+     * Copies lists and conditions of the query, sharing only its from items, which are never
+     * changed after compilation.
+     */
+    private SqlSelect copyQuery() {
+      SqlSelect ss = query.copyOf();
+
+      if (ss.getWhere() != null) {
+        ss.setWhere(ss.getWhere().copyOf());
+      }
+      if (ss.getHaving() != null) {
+        ss.setHaving(ss.getHaving().copyOf());
+      }
+      return ss.setFromTemplate(from);
+    }
+  }
+
   private enum JoinType {
     INNER, RIGHT, LEFT, FULL
   }
 
   private static BeeLogger logger = LogUtils.getLogger(BeeView.class);
 
+  private static final int SEEK_EQUAL = 0;
+  private static final int SEEK_AFTER = 1;
+  private static final int SEEK_BOUND = 2;
+
+  private static final int MAX_COMPILED_QUERIES = 1000;
+
+  private static final String FILTER_USER = "{u}";
+  private static final String FILTER_TODAY = "{d}";
+  private static final String FILTER_NOW = "{t}";
+
   private static final Map<String, ConditionProvider> conditionProviders =
       new ConcurrentHashMap<>();
 
@@ -437,6 +486,7 @@ public class BeeView implements BeeObject, HasExtendedInfo {
   private final Integer cacheMaximumSize;
 
   private final String cacheEviction;
+  private final boolean serverCached;
   private boolean hasAggregate;
   private final boolean hasGrouping;
   private final SqlSelect query;
@@ -446,6 +496,10 @@ public class BeeView implements BeeObject, HasExtendedInfo {
 
   private Order order;
 
+  private final Map<Long, CompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+  private boolean compilable;
+  private String timeFilter;
+
   BeeView(String module, XmlView xmlView, Map<String, BeeTable> tables) {
     Assert.notNull(xmlView);
     this.module = BeeUtils.notEmpty(xmlView.module, module);
@@ -468,6 +522,7 @@ public class BeeView implements BeeObject, HasExtendedInfo {
 
     this.cacheMaximumSize = xmlView.cacheMaximumSize;
     this.cacheEviction = xmlView.cacheEviction;
+    this.serverCached = BeeUtils.unbox(xmlView.serverCache);
 
     this.source = tables.get(BeeUtils.normalize(xmlView.source));
     Assert.notNull(source);
@@ -500,6 +555,89 @@ public class BeeView implements BeeObject, HasExtendedInfo {
         order.add(ord.column, !ord.descending, ord.nulls);
       }
     }
+    initCompilation();
+  }
+
+  /**
+   * Restricts {@code ss} to rows following the row with order key values {@code seek}, so that the
+   * next page can be read without skipping rows with OFFSET.
+   *
+   * @param ord the order of {@code ss}, as passed to {@link #getQuery}
+   * @param seek values of order columns in {@code BeeRowSet} format, followed by the row id unless
+   *          the order contains it
+   * @return {@code false}, if the order can not be used for seeking
+   */
+  public boolean applySeek(SqlSelect ss, Order ord, List<String> seek) {
+    if (hasGrouping || hasAggregate || BeeUtils.isEmpty(seek)) {
+      return false;
+    }
+    Order o = BeeUtils.nvl(ord, order);
+
+    String src = getSourceAlias();
+    String idCol = getSourceIdName();
+    String verCol = getSourceVersionName();
+
+    SqlEngine engine = SqlBuilderFactory.getBuilder().getEngine();
+    boolean nullsLargest = engine == SqlEngine.POSTGRESQL || engine == SqlEngine.ORACLE;
+
+    List<IsCondition[]> keys = new ArrayList<>();
+    boolean idUsed = false;
+
+    if (o != null) {
+      for (Order.Column ordCol : o.getColumns()) {
+        String col = ordCol.getName();
+
+        if (keys.size() >= seek.size() || ordCol.getSources().size() != 1
+            || !BeeUtils.same(col, ordCol.getSources().get(0))) {
+          return false;
+        }
+        String value = seek.get(keys.size());
+
+        if (hasColumn(col)) {
+          if (isColAggregate(col) || Objects.nonNull(getColumnExpression(col))) {
+            return false;
+          }
+          keys.add(getSeekKey(getColumnSource(col), getColumnField(col),
+              getColumnType(col).toValueType(), ordCol.isAscending(), ordCol.getNullOrdering(),
+              value, nullsLargest));
+
+        } else if (BeeUtils.same(col, idCol)) {
+          keys.add(getSeekKey(src, idCol, ValueType.LONG, ordCol.isAscending(),
+              ordCol.getNullOrdering(), value, nullsLargest));
+          idUsed = true;
+
+        } else if (BeeUtils.same(col, verCol)) {
+          keys.add(getSeekKey(src, verCol, ValueType.LONG, ordCol.isAscending(),
+              ordCol.getNullOrdering(), value, nullsLargest));
+        } else {
+          return false;
+        }
+      }
+    }
+    if (!idUsed) {
+      if (keys.size() >= seek.size()) {
+        return false;
+      }
+      keys.add(getSeekKey(src, idCol, ValueType.LONG, true, null, seek.get(keys.size()),
+          nullsLargest));
+    }
+    if (keys.size() != seek.size()) {
+      return false;
+    }
+    HasConditions following = SqlUtils.or();
+    List<IsCondition> equal = new ArrayList<>();
+
+    for (IsCondition[] key : keys) {
+      if (key[SEEK_AFTER] != null) {
+        following.add(SqlUtils.and(equal.toArray(new IsCondition[0])).add(key[SEEK_AFTER]));
+      }
+      equal.add(key[SEEK_EQUAL]);
+    }
+    if (following.isEmpty()) {
+      return false;
+    }
+    ss.setWhere(SqlUtils.and(ss.getWhere(), keys.get(0)[SEEK_BOUND], following));
+    return true;
   }
 
   public BeeColumn getBeeColumn(String colName) {
@@ -727,19 +865,17 @@ public class BeeView implements BeeObject, HasExtendedInfo {
 
   public SqlSelect getQuery(Long userId, Filter flt, Order ord, Collection<String> cols) {
 
+    CompiledQuery compiled = compilable ? compileQuery(userId) : null;
+
     SqlSelect ss;
+    Filter viewFilter;
 
-    if (!BeeUtils.isEmpty(joinFilters)) {
-      synchronized (this) {
-        for (Entry<HasConditions, String> joinFilter : joinFilters.entrySet()) {
-          HasConditions join = joinFilter.getKey();
-          join.clear();
-          join.add(getCondition(parseFilter(joinFilter.getValue(), userId)));
-        }
-        ss = query.copyOf(true);
-      }
+    if (compiled != null) {
+      ss = compiled.copyQuery();
+      viewFilter = compiled.filter;
     } else {
-      ss = query.copyOf();
+      ss = resolveJoinFilters(userId);
+      viewFilter = BeeUtils.isEmpty(filter) ? null : parseFilter(filter, userId);
     }
     Collection<String> activeCols = null;
 
@@ -755,7 +891,7 @@ public class BeeView implements BeeObject, HasExtendedInfo {
         }
       }
     }
-    setFilter(ss, flt, userId);
+    setFilter(ss, flt, viewFilter);
 
     String src = getSourceAlias();
     String idCol = getSourceIdName();
@@ -969,6 +1105,13 @@ public class BeeView implements BeeObject, HasExtendedInfo {
     return readOnly;
   }
 
+  /**
+   * @return whether query results of the view are kept in the server side query cache
+   */
+  public boolean isServerCached() {
+    return serverCached;
+  }
+
   public Filter parseFilter(String flt, Long userId) {
     Assert.notEmpty(flt);
     List<IsColumn> cols = Lists.newArrayListWithCapacity(columns.size());
@@ -1320,11 +1463,121 @@ public class BeeView implements BeeObject, HasExtendedInfo {
     }
   }
 
-  private void setFilter(SqlSelect ss, Filter flt, Long userId) {
+  private CompiledQuery compileQuery(Long userId) {
+    Long key = BeeUtils.nvl(userId, 0L);
+    String timeKey;
+
+    if (BeeUtils.isEmpty(timeFilter)) {
+      timeKey = null;
+    } else if (FILTER_NOW.equals(timeFilter)) {
+      timeKey = BeeUtils.toString(TimeUtils.nowMinutes().getTime());
+    } else {
+      timeKey = BeeUtils.toString(TimeUtils.today().getDays());
+    }
+    CompiledQuery compiled = compiledQueries.get(key);
+
+    if (compiled == null || !Objects.equals(compiled.timeKey, timeKey)) {
+      SqlSelect ss = BeeUtils.isEmpty(joinFilters) ? query : resolveJoinFilters(userId);
+      Filter viewFilter = BeeUtils.isEmpty(filter) ? null : parseFilter(filter, userId);
+
+      compiled = new CompiledQuery(timeKey, ss, viewFilter);
+
+      if (compiledQueries.size() >= MAX_COMPILED_QUERIES) {
+        compiledQueries.clear();
+      }
+      compiledQueries.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * @return conditions for rows equal to the value, rows following it and an optional range
+   *         condition, which can be satisfied with an index
+   */
+  private static IsCondition[] getSeekKey(String source, String field, ValueType type,
+      boolean ascending, NullOrdering nullOrdering, String input, boolean nullsLargest) {
+
+    Value value = Value.parseValue(type, input, false, null);
+    Object x;
+
+    if (value == null || value.isNull()
+        || type == ValueType.BOOLEAN && !BeeUtils.isTrue(value.getBoolean())) {
+      x = null;
+    } else {
+      x = value.getObjectValue();
+    }
+    boolean nullsFirst = (nullOrdering == null)
+        ? ascending != nullsLargest : nullOrdering == NullOrdering.NULLS_FIRST;
+
+    IsCondition[] key = new IsCondition[3];
+
+    if (x == null) {
+      key[SEEK_EQUAL] = SqlUtils.isNull(source, field);
+      key[SEEK_AFTER] = nullsFirst ? SqlUtils.notNull(source, field) : null;
+
+    } else {
+      key[SEEK_EQUAL] = SqlUtils.equals(source, field, x);
+
+      IsCondition after = ascending
+          ? SqlUtils.more(source, field, x) : SqlUtils.less(source, field, x);
+
+      if (nullsFirst) {
+        key[SEEK_AFTER] = after;
+        key[SEEK_BOUND] = ascending
+            ? SqlUtils.moreEqual(source, field, x) : SqlUtils.lessEqual(source, field, x);
+      } else {
+        key[SEEK_AFTER] = SqlUtils.or(after, SqlUtils.isNull(source, field));
+      }
+    }
+    return key;
+  }
+
+  /**
+   * Base queries can be compiled once per user, unless view or join filters contain custom
+   * filters, whose conditions are provided on every request.
+   */
+  private void initCompilation() {
+    List<String> filters = new ArrayList<>(joinFilters.values());
+
+    if (!BeeUtils.isEmpty(filter)) {
+      filters.add(filter);
+    }
+    compilable = true;
+    timeFilter = null;
+
+    for (String flt : filters) {
+      if (flt.contains(FILTER_NOW)) {
+        timeFilter = FILTER_NOW;
+      } else if (flt.contains(FILTER_TODAY) && timeFilter == null) {
+        timeFilter = FILTER_TODAY;
+      }
+      String s = flt.replace(FILTER_USER, "").replace(FILTER_TODAY, "").replace(FILTER_NOW, "");
+
+      if (s.indexOf('{') >= 0) {
+        compilable = false;
+      }
+    }
+  }
+
+  private SqlSelect resolveJoinFilters(Long userId) {
+    if (BeeUtils.isEmpty(joinFilters)) {
+      return query.copyOf();
+    }
+    synchronized (this) {
+      for (Entry<HasConditions, String> joinFilter : joinFilters.entrySet()) {
+        HasConditions join = joinFilter.getKey();
+        join.clear();
+        join.add(getCondition(parseFilter(joinFilter.getValue(), userId)));
+      }
+      return query.copyOf(true);
+    }
+  }
+
+  private void setFilter(SqlSelect ss, Filter flt, Filter viewFilter) {
     CompoundFilter f = Filter.and();
 
-    if (filter != null) {
-      f.add(parseFilter(filter, userId));
+    if (viewFilter != null) {
+      f.add(viewFilter);
     }
     if (flt != null) {
       f.add(flt);
@@ -24,11 +24,27 @@ public abstract class DataEvent {
     private final IsQuery query;
     private int updateCount;
 
+    private final boolean remote;
+
     TableModifyEvent(String targetName, IsQuery query) {
       super(targetName);
       this.query = query;
+      this.remote = false;
     }
 
+    /**
+     * Creates an after event for a modification, committed by another cluster node.
+     */
+    TableModifyEvent(String targetName) {
+      super(targetName);
+      this.query = null;
+      this.remote = true;
+      setAfter();
+    }
+
+    /**
+     * @return the modification query or {@code null}, if the event is remote
+     */
     public IsQuery getQuery() {
       return query;
     }
@@ -37,6 +53,13 @@ public abstract class DataEvent {
       return updateCount;
     }
 
+    /**
+     * @return {@code true} if the table was modified by another cluster node
+     */
+    public boolean isRemote() {
+      return remote;
+    }
+
     void setUpdateCount(int updateCount) {
       this.updateCount = updateCount;
       setAfter();
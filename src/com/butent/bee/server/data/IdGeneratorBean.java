@@ -5,15 +5,24 @@ import com.butent.bee.server.sql.SqlInsert;
 import com.butent.bee.server.sql.SqlSelect;
 import com.butent.bee.server.sql.SqlUpdate;
 import com.butent.bee.server.sql.SqlUtils;
+import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.time.TimeUtils;
 import com.butent.bee.shared.utils.BeeUtils;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.SessionContext;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -21,39 +30,110 @@ import javax.ejb.TransactionAttributeType;
 /**
  * Generates new ID values for database fields, ensuring integrity and uniqueness requirements of a
  * database.
+ * <p>
+ * Values are taken without locking from ranges reserved per table. Ranges are reserved in
+ * separate transactions, the next one in background when the current range is running out. Range
+ * size grows with allocation rate of the table and shrinks back to the table ID chunk when
+ * allocation slows down.
  */
 
 @Singleton
+@Lock(LockType.READ)
 @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
 public class IdGeneratorBean {
 
+  private static final class IdRange {
+    private final AtomicLong lastTaken;
+    private final long last;
+    private final long prefetchAt;
+
+    private IdRange(long last, int size) {
+      this.lastTaken = new AtomicLong(last - size);
+      this.last = last;
+      this.prefetchAt = last - size / PREFETCH_DIVISOR;
+    }
+  }
+
+  private static final class IdHolder {
+    private final int minChunk;
+
+    private volatile IdRange current;
+    private IdRange prefetched;
+
+    private final AtomicBoolean prefetching = new AtomicBoolean();
+
+    private int chunk;
+    private long refillTime;
+
+    private IdHolder(int minChunk) {
+      this.minChunk = Math.max(minChunk, 1);
+      this.chunk = this.minChunk;
+    }
+
+    /**
+     * Adjusts range size to the time spent on the previous range. Must be called while holding
+     * the monitor of the holder.
+     */
+    private int nextChunk() {
+      long now = System.currentTimeMillis();
+
+      if (refillTime > 0) {
+        long elapsed = now - refillTime;
+
+        if (elapsed < FAST_REFILL_MILLIS) {
+          chunk = Math.min(chunk * 2, Math.max(minChunk, MAX_CHUNK));
+        } else if (elapsed > SLOW_REFILL_MILLIS) {
+          chunk = Math.max(chunk / 2, minChunk);
+        }
+      }
+      refillTime = now;
+      return chunk;
+    }
+  }
+
   private static BeeLogger logger = LogUtils.getLogger(IdGeneratorBean.class);
 
   private static final String ID_TABLE = "Sequences";
   private static final String ID_KEY = "Name";
   private static final String ID_LAST = "LastValue";
 
-  private static final int NEXT_ID_INDEX = 0;
-  private static final int LAST_ID_INDEX = 1;
+  private static final int MAX_CHUNK = 10000;
+  private static final int PREFETCH_DIVISOR = 4;
+
+  private static final long FAST_REFILL_MILLIS = 10 * TimeUtils.MILLIS_PER_SECOND;
+  private static final long SLOW_REFILL_MILLIS = 10 * TimeUtils.MILLIS_PER_MINUTE;
 
   @EJB
   QueryServiceBean qs;
   @EJB
   SystemBean sys;
+  @Resource
+  SessionContext ctx;
 
-  private final Map<String, long[]> idCache = new HashMap<>();
+  private final Map<String, IdHolder> holders = new ConcurrentHashMap<>();
 
   // TODO @PreDestroy
+  @Lock(LockType.WRITE)
   public void destroy() {
-    for (Entry<String, long[]> entry : idCache.entrySet()) {
+    for (Entry<String, IdHolder> entry : holders.entrySet()) {
       String source = entry.getKey();
+      IdHolder holder = entry.getValue();
+
+      IdRange reserved;
+
+      synchronized (holder) {
+        reserved = (holder.prefetched == null) ? holder.current : holder.prefetched;
+      }
+      if (reserved == null) {
+        continue;
+      }
       IsCondition wh = SqlUtils.equals(ID_TABLE, ID_KEY, source);
 
       long lastId = BeeUtils.unbox(qs.getLong(new SqlSelect()
           .addFields(ID_TABLE, ID_LAST)
           .addFrom(ID_TABLE).setWhere(wh)));
 
-      if (entry.getValue()[LAST_ID_INDEX] == lastId) {
+      if (reserved.last == lastId) {
         String idFld = sys.getIdName(source);
 
         lastId = BeeUtils.unbox(qs.getLong(new SqlSelect()
@@ -65,24 +145,116 @@ public class IdGeneratorBean {
             .setWhere(wh));
       }
     }
-    idCache.clear();
+    holders.clear();
     logger.debug(this.getClass().getName(), "destroyed");
   }
 
+  @TransactionAttribute(TransactionAttributeType.SUPPORTS)
   public long getId(String source) {
     BeeTable table = sys.getTable(source);
+    IdHolder holder =
+        holders.computeIfAbsent(table.getName(), key -> new IdHolder(table.getIdChunk()));
+
+    while (true) {
+      IdRange range = holder.current;
 
-    long[] ids = idCache.get(table.getName());
+      if (range != null) {
+        long id = range.lastTaken.incrementAndGet();
 
-    if (ids == null || ids[NEXT_ID_INDEX] >= ids[LAST_ID_INDEX]) {
-      ids = prepareId(table);
+        if (id <= range.last) {
+          if (id == range.prefetchAt) {
+            prefetch(table.getName(), holder);
+          }
+          return id;
+        }
+      }
+      refill(table.getName(), holder, range);
     }
-    return ++ids[NEXT_ID_INDEX];
   }
 
-  private long[] prepareId(BeeTable table) {
+  /**
+   * Reserves a contiguous range of ID values.
+   *
+   * @param source the table name
+   * @param count number of values to reserve
+   * @return the first value of the range
+   */
+  public long getIds(String source, int count) {
+    Assert.isPositive(count);
+    return reserve(sys.getTable(source), count) - count + 1;
+  }
+
+  /**
+   * Reserves the next range of {@code source} in background, see {@link #getId}.
+   */
+  @Asynchronous
+  public void prefetchRange(String source, int chunk) {
+    IdHolder holder = holders.get(source);
+
+    if (holder == null) {
+      return;
+    }
+    try {
+      IdRange range = new IdRange(reserve(sys.getTable(source), chunk), chunk);
+
+      synchronized (holder) {
+        if (holder.prefetched == null) {
+          holder.prefetched = range;
+        }
+      }
+    } finally {
+      holder.prefetching.set(false);
+    }
+  }
+
+  /**
+   * Reserves a range of {@code chunk} values in a separate transaction.
+   *
+   * @return the last value of the range
+   */
+  public long reserveRange(String source, int chunk) {
+    return reserve(sys.getTable(source), chunk);
+  }
+
+  private IdGeneratorBean getProxy() {
+    return ctx.getBusinessObject(IdGeneratorBean.class);
+  }
+
+  private void prefetch(String source, IdHolder holder) {
+    int chunk;
+
+    synchronized (holder) {
+      if (holder.prefetched != null || !holder.prefetching.compareAndSet(false, true)) {
+        return;
+      }
+      chunk = holder.nextChunk();
+    }
+    try {
+      getProxy().prefetchRange(source, chunk);
+    } catch (RuntimeException ex) {
+      holder.prefetching.set(false);
+      logger.warning(ex, "could not prefetch", source, "ids");
+    }
+  }
+
+  private void refill(String source, IdHolder holder, IdRange exhausted) {
+    synchronized (holder) {
+      if (holder.current != exhausted) {
+        return;
+      }
+      IdRange range = holder.prefetched;
+      holder.prefetched = null;
+
+      if (range == null) {
+        int chunk = holder.nextChunk();
+        range = new IdRange(getProxy().reserveRange(source, chunk), chunk);
+      }
+      holder.current = range;
+    }
+  }
+
+  private long reserve(BeeTable table, int chunk) {
     String source = table.getName();
-    int chunk = table.getIdChunk();
     IsCondition wh = SqlUtils.equals(ID_TABLE, ID_KEY, source);
 
     SqlUpdate su = new SqlUpdate(ID_TABLE)
@@ -110,11 +282,6 @@ public class IdGeneratorBean {
       lastId = BeeUtils.unbox(qs.getLong(new SqlSelect()
           .addFields(ID_TABLE, ID_LAST).addFrom(ID_TABLE).setWhere(wh)));
     }
-    long[] ids = new long[2];
-    ids[NEXT_ID_INDEX] = lastId - chunk;
-    ids[LAST_ID_INDEX] = lastId;
-
-    idCache.put(source, ids);
-    return ids;
+    return lastId;
   }
 }
@@ -76,6 +76,10 @@ public class MetaDataBean {
     try {
       prp = ds.getDbInfo(reqInfo.getParameter(0));
 
+      if (prp != null) {
+        prp.addAll(QueryCache.getInfo());
+      }
+
     } catch (SQLException ex) {
       logger.error(ex);
       response.addError(ex);
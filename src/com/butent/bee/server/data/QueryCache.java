@@ -0,0 +1,341 @@
+package com.butent.bee.server.data;
+
+import com.butent.bee.server.Config;
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.DataUtils;
+import com.butent.bee.shared.data.IsRow;
+import com.butent.bee.shared.data.SimpleRowSet;
+import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.ExtendedProperty;
+import com.butent.bee.shared.utils.PropertyUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps results of read only queries, keyed by SQL text with serialized parameter values and
+ * tagged with source tables of the query.
+ * <p>
+ * Entries are private snapshots: results are copied, including column metadata, when stored and
+ * when returned, so callers may modify them freely.
+ * <p>
+ * Every modification of a table increments its version and drops entries reading from it. A result
+ * is stored only if none of its tables were modified since the query was started, so results read
+ * concurrently with a modification are never cached. Entries are evicted in least recently used
+ * order, when either the entry count or the estimated memory limit is exceeded.
+ * <p>
+ * Invalidating {@link #ALL_TABLES} drops every entry, for writes whose tables are not known.
+ */
+
+public final class QueryCache {
+
+  private static final class Entry {
+    private final Object data;
+    private final Collection<String> tables;
+    private final long weight;
+
+    private Entry(Object data, Collection<String> tables, long weight) {
+      this.data = data;
+      this.tables = tables;
+      this.weight = weight;
+    }
+  }
+
+  public static final String ALL_TABLES = "*";
+
+  private static final Pattern WRITE_TARGET = Pattern.compile(
+      "^\\s*(INSERT\\s+INTO|UPDATE|DELETE\\s+FROM|TRUNCATE\\s+TABLE)\\s+([\\w.\"\\[\\]]+)(.*)$",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private static final Pattern JOINED_WRITE = Pattern.compile("\\b(?:FROM|USING)\\b",
+      Pattern.CASE_INSENSITIVE);
+
+  private static final int DEFAULT_SIZE = 1000;
+  private static final int DEFAULT_MEMORY_MB = 32;
+
+  private static final int ROW_WEIGHT = 32;
+  private static final int CELL_WEIGHT = 48;
+
+  private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private static final Map<String, Set<String>> tableKeys = new HashMap<>();
+  private static final Map<String, Long> tableVersions = new HashMap<>();
+
+  private static long version;
+  private static long clearVersion;
+  private static long weight;
+
+  private static long hits;
+  private static long misses;
+  private static long evictions;
+  private static long invalidations;
+
+  private static Integer maxSize;
+  private static Long maxWeight;
+
+  public static synchronized void clear() {
+    entries.clear();
+    tableKeys.clear();
+    weight = 0;
+    clearVersion = ++version;
+  }
+
+  /**
+   * @return a copy of the cached result or {@code null}, if there is no such entry
+   */
+  public static synchronized BeeRowSet getBeeRowSet(String key) {
+    Object data = lookup(key);
+    return (data instanceof BeeRowSet) ? copyOf((BeeRowSet) data) : null;
+  }
+
+  public static synchronized List<ExtendedProperty> getInfo() {
+    List<ExtendedProperty> info = new ArrayList<>();
+
+    PropertyUtils.addProperties(info, false,
+        "Query Cache Entries", entries.size(),
+        "Query Cache Memory", weight,
+        "Query Cache Hits", hits,
+        "Query Cache Misses", misses,
+        "Query Cache Evictions", evictions,
+        "Query Cache Invalidations", invalidations);
+
+    return info;
+  }
+
+  /**
+   * @return a copy of the cached result or {@code null}, if there is no such entry
+   */
+  public static synchronized SimpleRowSet getSimpleRowSet(String key) {
+    Object data = lookup(key);
+    return (data instanceof SimpleRowSet) ? copyOf((SimpleRowSet) data) : null;
+  }
+
+  /**
+   * Returns the current version, which must be obtained before executing a query and passed to
+   * {@link #put}.
+   */
+  public static synchronized long getVersion() {
+    return version;
+  }
+
+  public static synchronized void invalidate(String table) {
+    if (BeeUtils.isEmpty(table)) {
+      return;
+    }
+    if (ALL_TABLES.equals(table)) {
+      invalidations += entries.size();
+      clear();
+      return;
+    }
+    String tbl = BeeUtils.normalize(table);
+    tableVersions.put(tbl, ++version);
+
+    Set<String> keys = tableKeys.remove(tbl);
+
+    if (keys != null) {
+      for (String key : keys) {
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+          remove(key, entry);
+          invalidations++;
+        }
+      }
+    }
+  }
+
+  public static boolean isEnabled() {
+    return getMaxSize() > 0 && getMaxWeight() > 0;
+  }
+
+  public static synchronized void put(String key, Collection<String> tables, long startVersion,
+      BeeRowSet data) {
+    if (data != null) {
+      store(key, tables, startVersion, copyOf(data), weigh(data));
+    }
+  }
+
+  public static synchronized void put(String key, Collection<String> tables, long startVersion,
+      SimpleRowSet data) {
+    if (data != null) {
+      store(key, tables, startVersion, copyOf(data), weigh(data));
+    }
+  }
+
+  private static BeeRowSet copyOf(BeeRowSet data) {
+    List<BeeColumn> columns = new ArrayList<>();
+
+    for (BeeColumn column : data.getColumns()) {
+      columns.add(column.copy());
+    }
+    BeeRowSet copy = new BeeRowSet(data.getViewName(), columns);
+
+    for (BeeRow row : data.getRows()) {
+      copy.addRow(DataUtils.cloneRow(row));
+    }
+    if (data.getTableProperties() != null) {
+      copy.setTableProperties(data.getTableProperties().copy());
+    }
+    return copy;
+  }
+
+  private static SimpleRowSet copyOf(SimpleRowSet data) {
+    SimpleRowSet copy = new SimpleRowSet(data.getColumnNames());
+
+    for (String[] row : data.getRows()) {
+      copy.addRow(row.clone());
+    }
+    return copy;
+  }
+
+  /**
+   * Returns the table written by a single INSERT, UPDATE, DELETE or TRUNCATE statement, without
+   * schema and quotes. Updates and deletes joining other tables are not parsed, because the
+   * written table may be named by an alias.
+   *
+   * @return the table or {@link #ALL_TABLES}, if the statement may write other tables
+   */
+  static String getWriteTarget(String sql) {
+    Matcher matcher = (sql == null) ? null : WRITE_TARGET.matcher(sql);
+
+    if (matcher == null || !matcher.matches() || matcher.group(3).indexOf(';') >= 0) {
+      return ALL_TABLES;
+    }
+    if (!BeeUtils.startsSame(matcher.group(1), "INSERT")
+        && JOINED_WRITE.matcher(matcher.group(3)).find()) {
+      return ALL_TABLES;
+    }
+    String target = matcher.group(2).replaceAll("[\"\\[\\]]", "");
+    target = target.substring(target.lastIndexOf('.') + 1);
+
+    return target.isEmpty() ? ALL_TABLES : target;
+  }
+
+  private static int getMaxSize() {
+    if (maxSize == null) {
+      Integer size = BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_QUERY_CACHE_SIZE));
+      maxSize = (size == null) ? DEFAULT_SIZE : size;
+    }
+    return maxSize;
+  }
+
+  private static long getMaxWeight() {
+    if (maxWeight == null) {
+      Integer mb = BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_QUERY_CACHE_MEMORY));
+      maxWeight = ((mb == null) ? DEFAULT_MEMORY_MB : mb) * 1024L * 1024L;
+    }
+    return maxWeight;
+  }
+
+  private static Object lookup(String key) {
+    Entry entry = entries.get(key);
+
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.data;
+  }
+
+  private static void remove(String key, Entry entry) {
+    entries.remove(key);
+    weight -= entry.weight;
+
+    for (String table : entry.tables) {
+      Set<String> keys = tableKeys.get(table);
+
+      if (keys != null) {
+        keys.remove(key);
+
+        if (keys.isEmpty()) {
+          tableKeys.remove(table);
+        }
+      }
+    }
+  }
+
+  private static void store(String key, Collection<String> tables, long startVersion, Object data,
+      long dataWeight) {
+
+    Assert.notEmpty(key);
+
+    if (BeeUtils.isEmpty(tables) || startVersion < clearVersion || !isEnabled()
+        || dataWeight > getMaxWeight() / 10) {
+      return;
+    }
+    Set<String> tbls = new HashSet<>();
+
+    for (String table : tables) {
+      String tbl = BeeUtils.normalize(table);
+
+      if (BeeUtils.unbox(tableVersions.get(tbl)) > startVersion) {
+        return;
+      }
+      tbls.add(tbl);
+    }
+    Entry old = entries.get(key);
+
+    if (old != null) {
+      remove(key, old);
+    }
+    entries.put(key, new Entry(data, tbls, dataWeight));
+    weight += dataWeight;
+
+    for (String tbl : tbls) {
+      Set<String> keys = tableKeys.get(tbl);
+
+      if (keys == null) {
+        keys = new HashSet<>();
+        tableKeys.put(tbl, keys);
+      }
+      keys.add(key);
+    }
+    while ((entries.size() > getMaxSize() || weight > getMaxWeight()) && entries.size() > 1) {
+      Map.Entry<String, Entry> eldest = entries.entrySet().iterator().next();
+
+      remove(eldest.getKey(), eldest.getValue());
+      evictions++;
+    }
+  }
+
+  private static long weigh(BeeRowSet data) {
+    long w = 0;
+
+    for (IsRow row : data.getRows()) {
+      w += ROW_WEIGHT;
+
+      for (int i = 0; i < row.getNumberOfCells(); i++) {
+        w += CELL_WEIGHT + BeeUtils.length(row.getString(i)) * 2;
+      }
+    }
+    return w;
+  }
+
+  private static long weigh(SimpleRowSet data) {
+    long w = 0;
+
+    for (String[] row : data.getRows()) {
+      w += ROW_WEIGHT;
+
+      for (String value : row) {
+        w += CELL_WEIGHT + BeeUtils.length(value) * 2;
+      }
+    }
+    return w;
+  }
+
+  private QueryCache() {
+  }
+}
@@ -1,23 +1,31 @@
 package com.butent.bee.server.data;
 
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
 
+import com.butent.bee.server.Config;
 import com.butent.bee.server.DataSourceBean;
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.server.data.BeeTable.BeeField;
 import com.butent.bee.server.data.BeeTable.BeeRelation;
 import com.butent.bee.server.data.DataEvent.TableModifyEvent;
 import com.butent.bee.server.data.DataEvent.ViewQueryEvent;
 import com.butent.bee.server.jdbc.JdbcUtils;
+import com.butent.bee.server.jdbc.SqlProfile;
+import com.butent.bee.server.jdbc.StatementCache;
 import com.butent.bee.server.modules.ParamHolderBean;
 import com.butent.bee.server.sql.HasTarget;
 import com.butent.bee.server.sql.IsCondition;
 import com.butent.bee.server.sql.IsExpression;
 import com.butent.bee.server.sql.IsQuery;
+import com.butent.bee.server.sql.SqlBuilder;
 import com.butent.bee.server.sql.SqlBuilderFactory;
 import com.butent.bee.server.sql.SqlCreate;
 import com.butent.bee.server.sql.SqlDelete;
 import com.butent.bee.server.sql.SqlInsert;
 import com.butent.bee.server.sql.SqlSelect;
+import com.butent.bee.server.sql.SqlStatement;
 import com.butent.bee.server.sql.SqlUpdate;
 import com.butent.bee.server.sql.SqlUtils;
 import com.butent.bee.server.utils.BeeDataSource;
@@ -25,6 +33,7 @@ import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.BeeConst.SqlEngine;
 import com.butent.bee.shared.Pair;
+import com.butent.bee.shared.Service;
 import com.butent.bee.shared.communication.ResponseObject;
 import com.butent.bee.shared.data.BeeColumn;
 import com.butent.bee.shared.data.BeeRow;
@@ -62,25 +71,37 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 /**
  * Manages SQL related requests from client side.
@@ -108,29 +129,17 @@ public class QueryServiceBean {
     T processResultSet(ResultSet rs) throws SQLException;
   }
 
+  /**
+   * Receives rows of a query one at a time, see {@link QueryServiceBean#forEachRow}.
+   */
+  public interface RowConsumer {
+    void accept(SimpleRow row);
+  }
+
   private abstract class SqlHandler<T> implements ResultSetProcessor<T> {
 
     public T processError(SQLException ex) {
-      String error = null;
-
-      Map<String, String> params = prm.getMap(BeeUtils.join(BeeConst.STRING_EMPTY,
-          AdministrationConstants.PRM_SQL_MESSAGES, SqlBuilderFactory.getBuilder().getEngine()));
-
-      if (!BeeUtils.isEmpty(params)) {
-        String msg = ex.getMessage();
-
-        for (String key : params.keySet()) {
-          if (msg.matches("(?s)" + key)) {
-            error = msg.replaceAll("(?s)" + key, params.get(key));
-            break;
-          }
-        }
-      }
-      if (error != null) {
-        throw new BeeRuntimeException(error);
-      } else {
-        throw new BeeRuntimeException(ex);
-      }
+      throw sqlError(ex);
     }
 
     public abstract T processUpdateCount(int updateCount);
@@ -138,6 +147,19 @@ public class QueryServiceBean {
 
   private static final Map<String, ViewDataProvider> viewDataProviders = new ConcurrentHashMap<>();
 
+  private static final int DEFAULT_STATEMENT_CACHE_SIZE = 100;
+  private static final int DEFAULT_FETCH_SIZE = 1000;
+  private static final int LOAD_BATCH_SIZE = 1000;
+
+  private static final long DELTA_OVERLAP = TimeUtils.MILLIS_PER_MINUTE;
+  private static final String AUDIT_DELETE = "D";
+
+  private static final String PENDING_INVALIDATIONS = "QueryCacheInvalidations";
+  private static final String PENDING_MESSAGES = "ClusterMessages";
+  private static final String PRIMARY_READS = "PrimaryReads";
+
+  private static final ThreadLocal<Boolean> replicaReads = new ThreadLocal<>();
+
   private static BeeLogger logger = LogUtils.getLogger(QueryServiceBean.class);
 
   @EJB
@@ -151,6 +173,9 @@ public class QueryServiceBean {
   @EJB
   ParamHolderBean prm;
 
+  @Resource
+  TransactionSynchronizationRegistry txRegistry;
+
   @TransactionAttribute(TransactionAttributeType.MANDATORY)
   public ResponseObject copyData(String tableName, String filterColumn, Object filterValue,
       Object newValue) {
@@ -339,11 +364,27 @@ public class QueryServiceBean {
       @Override
       public Object processUpdateCount(int updateCount) {
         logger.debug("affected rows:", updateCount);
+        invalidateCache(QueryCache.getWriteTarget(sql));
         return updateCount;
       }
     });
   }
 
+  /**
+   * Passes rows of {@code query} to {@code consumer} without materializing the whole result.
+   */
+  public void forEachRow(IsQuery query, RowConsumer consumer) {
+    Assert.notNull(consumer);
+
+    try (SqlCursor cursor = openCursor(query)) {
+      for (SimpleRow row = cursor.next(); row != null; row = cursor.next()) {
+        consumer.accept(row);
+      }
+    } catch (SQLException ex) {
+      throw sqlError(ex);
+    }
+  }
+
   public Boolean getBoolean(IsQuery query) {
     return getSingleValue(query).getBoolean(0, 0);
   }
@@ -378,6 +419,60 @@ public class QueryServiceBean {
     return getSingleColumn(query).getColumn(0);
   }
 
+  /**
+   * Returns the result of a read only query from {@link QueryCache}, if it was read before and
+   * none of the query sources were modified since then. Results must not depend on the current user or
+   * time, unless those are part of the query.
+   */
+  public SimpleRowSet getCachedData(IsQuery query) {
+    Assert.notNull(query);
+    Assert.state(!query.isEmpty());
+
+    if (!isCacheable()) {
+      return getData(query);
+    }
+    activateTables(query);
+
+    SqlStatement statement = getStatement(query, SqlBuilderFactory.getBuilder());
+    String key = cacheKey(statement);
+
+    SimpleRowSet data = QueryCache.getSimpleRowSet(key);
+
+    if (data == null) {
+      long version = QueryCache.getVersion();
+
+      data = processSql(null, statement, new SqlHandler<SimpleRowSet>() {
+        @Override
+        public SimpleRowSet processResultSet(ResultSet rs) throws SQLException {
+          return rsToSimpleRowSet(rs);
+        }
+
+        @Override
+        public SimpleRowSet processUpdateCount(int updateCount) {
+          throw new BeeRuntimeException("Query must return a ResultSet");
+        }
+      });
+      QueryCache.put(key, query.getSources(), version, data);
+    }
+    return data;
+  }
+
+  /**
+   * Same as {@link #getViewData(String, Filter)}, but reads rows through {@link QueryCache}
+   * regardless of the view settings.
+   */
+  public BeeRowSet getCachedViewData(String viewName, Filter filter) {
+    BeeView view = sys.getView(viewName);
+    SqlSelect query = getViewQuery(view, filter, null, BeeConst.UNDEF, BeeConst.UNDEF, null, null);
+
+    ViewDataProvider provider = viewDataProviders.get(viewName);
+
+    if (provider != null) {
+      return provider.getViewData(view, query, filter);
+    }
+    return getViewData(query, view, true, null, true);
+  }
+
   public SimpleRowSet getData(IsQuery query) {
     return getData(null, query, new ResultSetProcessor<SimpleRowSet>() {
       @Override
@@ -391,15 +486,18 @@ public class QueryServiceBean {
     Assert.notNull(query);
     Assert.state(!query.isEmpty());
 
-    String sql;
+    SqlStatement statement;
+    DataSource dataSource;
 
     if (ds == null) {
       activateTables(query);
-      sql = query.getQuery();
+      statement = getStatement(query, SqlBuilderFactory.getBuilder());
+      dataSource = (query instanceof SqlSelect) ? getReadDataSource() : null;
     } else {
-      sql = query.getSqlString(SqlBuilderFactory.getBuilder(dbEngine(ds)));
+      statement = getStatement(query, SqlBuilderFactory.getBuilder(dbEngine(ds)));
+      dataSource = ds;
     }
-    return processSql(ds, sql, new SqlHandler<T>() {
+    return processSql(dataSource, statement, new SqlHandler<T>() {
       @Override
       public T processResultSet(ResultSet rs) throws SQLException {
         return callback.processResultSet(rs);
@@ -819,53 +917,207 @@ public class QueryServiceBean {
   public BeeRowSet getViewData(String viewName, Filter filter, Order order, int limit, int offset,
       List<String> columns, Object eventOptions) {
 
+    return getViewData(viewName, filter, order, limit, offset, columns, eventOptions, null);
+  }
+
+  /**
+   * @param seek order key values of the row preceding {@code offset}, see
+   *          {@link BeeView#applySeek}; if the view order allows it, rows are selected by those
+   *          values instead of OFFSET
+   */
+  public BeeRowSet getViewData(String viewName, Filter filter, Order order, int limit, int offset,
+      List<String> columns, Object eventOptions, List<String> seek) {
+
     BeeView view = sys.getView(viewName);
-    SqlSelect query = view.getQuery(usr.getCurrentUserId(), filter, order, columns);
+    SqlSelect query = getViewQuery(view, filter, order, limit, offset, columns, seek);
 
-    if (limit > 0) {
-      query.setLimit(limit);
+    ViewDataProvider provider = viewDataProviders.get(viewName);
+
+    if (provider != null) {
+      return provider.getViewData(view, query, filter);
     }
-    if (offset > 0) {
-      query.setOffset(offset);
+
+    boolean postEvent = BeeUtils.isEmpty(columns) || eventOptions != null;
+    return getViewData(query, view, postEvent, eventOptions);
+  }
+
+  public BeeRowSet getViewData(final SqlSelect query, final BeeView view, boolean postEvent,
+      Object eventOptions) {
+
+    Assert.noNulls(query, view);
+    return getViewData(query, view, postEvent, eventOptions, view.isServerCached());
+  }
+
+  public BeeRowSet getViewDataById(String viewName, long id) {
+    return getViewData(viewName, Filter.compareId(id));
+  }
+
+  /**
+   * Returns rows of the view, which match the filter and were inserted or updated after the
+   * {@code version}. Ids of rows, which were deleted or no longer match the filter, are listed in
+   * the {@link Service#VAR_VIEW_DELETED} table property.
+   * <p>
+   * Deletions are taken from the audit table, so the source table must be auditable. Changes of
+   * joined tables do not touch the version of the source row, so if any of them was modified, the
+   * delta is not available as well as for views with calculated or aggregate columns.
+   *
+   * @return {@code null}, if changes of the view can not be tracked and it must be reloaded
+   */
+  public BeeRowSet getViewDelta(String viewName, Filter filter, long version,
+      Object eventOptions) {
+
+    BeeView view = sys.getView(viewName);
+    String source = view.getSourceName();
+
+    if (version <= 0 || view.isServerCached() || viewDataProviders.containsKey(viewName)
+        || !sys.isAuditable(source)) {
+      return null;
     }
-    if (!usr.isAdministrator()) {
-      Pair<String, String> sourcePair = getDependencies(viewName, query);
-      String tableName = sourcePair.getA();
-      String tableAlias = sourcePair.getB();
 
-      sys.filterVisibleState(query, tableName, tableAlias);
+    Set<String> joinedTables = new HashSet<>();
 
-      BeeTable table = sys.getTable(tableName);
+    for (String colName : view.getColumnNames()) {
+      if (view.isColAggregate(colName) || view.isColCalculated(colName)) {
+        return null;
+      }
+      String tblName = view.getColumnTable(colName);
 
-      for (RightsState state : EnumSet.of(RightsState.EDIT, RightsState.DELETE)) {
-        String stateAlias = table.joinState(query, tableAlias, state);
+      if (!BeeUtils.same(tblName, source) && sys.isTable(tblName)) {
+        joinedTables.add(tblName);
+      }
+    }
 
-        if (!BeeUtils.isEmpty(stateAlias)) {
-          IsExpression xpr = SqlUtils.sqlIf(table.checkState(stateAlias, state,
-              usr.getUserRoles()), true, false);
+    // versions are taken at the start of a transaction, so rows committed a bit later than the
+    // client has read its data may carry an older version
+    long since = version - DELTA_OVERLAP;
 
-          if (!BeeUtils.isEmpty(query.getGroupBy())) {
-            query.addMax(xpr, state.name());
-          } else {
-            query.addExpr(xpr, state.name());
+    for (String tblName : joinedTables) {
+      if (sqlExists(tblName, SqlUtils.more(tblName, sys.getVersionName(tblName), since))) {
+        return null;
+      }
+    }
+
+    BeeRowSet rowSet = getViewData(viewName,
+        Filter.and(filter, Filter.compareVersion(Operator.GT, since)), null, BeeConst.UNDEF,
+        BeeConst.UNDEF, null, eventOptions);
+
+    Set<Long> deleted = getLongSet(new SqlSelect()
+        .addFields(source, view.getSourceIdName())
+        .addFrom(source)
+        .setWhere(SqlUtils.more(source, view.getSourceVersionName(), since)));
+
+    deleted.removeAll(rowSet.getRowIds());
+
+    String auditSource = sys.getAuditSource(source);
+
+    deleted.addAll(getLongSet(new SqlSelect()
+        .addFields(auditSource, AdministrationConstants.AUDIT_FLD_ID)
+        .addFrom(auditSource)
+        .setWhere(SqlUtils.and(
+            SqlUtils.equals(auditSource, AdministrationConstants.AUDIT_FLD_MODE, AUDIT_DELETE),
+            SqlUtils.more(auditSource, AdministrationConstants.AUDIT_FLD_TIME, since)))));
+
+    if (!deleted.isEmpty()) {
+      rowSet.setTableProperty(Service.VAR_VIEW_DELETED, DataUtils.buildIdList(deleted));
+    }
+    return rowSet;
+  }
+
+  /**
+   * Drops cached results reading from {@code tblName} or from tables, which the database changes
+   * together with it (see {@link SystemBean#getDependentTables}). Inside a transaction they are
+   * dropped once more on completion, so that results read before the commit are not kept.
+   */
+  public void invalidateCache(String tblName) {
+    Collection<String> affected;
+
+    if (sys.isTable(tblName)) {
+      affected = sys.getDependentTables(tblName);
+
+      if (affected == null) {
+        affected = Collections.singleton(QueryCache.ALL_TABLES);
+      }
+    } else {
+      affected = Collections.singleton(tblName);
+    }
+    for (String table : affected) {
+      QueryCache.invalidate(table);
+    }
+
+    if (txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      for (String table : affected) {
+        publishInvalidation(table);
+      }
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<String> pending = (Set<String>) txRegistry.getResource(PENDING_INVALIDATIONS);
+
+    if (pending == null) {
+      final Set<String> tables = new HashSet<>();
+
+      txRegistry.putResource(PENDING_INVALIDATIONS, tables);
+      txRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          for (String table : tables) {
+            QueryCache.invalidate(table);
+
+            if (status == Status.STATUS_COMMITTED) {
+              publishInvalidation(table);
+            }
           }
         }
-      }
+
+        @Override
+        public void beforeCompletion() {
+        }
+      });
+      pending = tables;
     }
-    ViewDataProvider provider = viewDataProviders.get(viewName);
+    pending.addAll(affected);
+  }
 
-    if (provider != null) {
-      return provider.getViewData(view, query, filter);
+  /**
+   * Publishes a message to other cluster nodes, once the current transaction commits, so that
+   * they read the committed state. Identical messages of a transaction are published once.
+   */
+  public void publishOnCommit(String channel, String payload) {
+    if (!Cluster.isActive()) {
+      return;
+    }
+    if (txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      Cluster.publish(channel, payload);
+      return;
     }
+    @SuppressWarnings("unchecked")
+    Multimap<String, String> pending =
+        (Multimap<String, String>) txRegistry.getResource(PENDING_MESSAGES);
 
-    boolean postEvent = BeeUtils.isEmpty(columns) || eventOptions != null;
-    return getViewData(query, view, postEvent, eventOptions);
+    if (pending == null) {
+      final Multimap<String, String> messages = LinkedHashMultimap.create();
+
+      txRegistry.putResource(PENDING_MESSAGES, messages);
+      txRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          if (status == Status.STATUS_COMMITTED) {
+            messages.forEach(Cluster::publish);
+          }
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+      });
+      pending = messages;
+    }
+    pending.put(channel, payload);
   }
 
-  public BeeRowSet getViewData(final SqlSelect query, final BeeView view, boolean postEvent,
-      Object eventOptions) {
+  private BeeRowSet getViewData(SqlSelect query, final BeeView view, boolean postEvent,
+      Object eventOptions, boolean cached) {
 
-    Assert.noNulls(query, view);
     Assert.state(!query.isEmpty());
 
     activateTables(query);
@@ -875,10 +1127,36 @@ public class QueryServiceBean {
     if (postEvent) {
       sys.postDataEvent(event);
     }
-    return processSql(null, query.getQuery(), new SqlHandler<BeeRowSet>() {
+    SqlStatement statement = getStatement(query, SqlBuilderFactory.getBuilder());
+
+    // column metadata depends on the user
+    final String key = (cached && isCacheable())
+        ? cacheKey(statement, usr.getCurrentUserId()) : null;
+
+    if (key != null) {
+      BeeRowSet rowSet = QueryCache.getBeeRowSet(key);
+
+      if (rowSet != null) {
+        event.setRowset(rowSet);
+
+        if (postEvent) {
+          sys.postDataEvent(event);
+        }
+        return event.getRowset();
+      }
+    }
+    final long version = QueryCache.getVersion();
+    DataSource dataSource = (key == null) ? getReadDataSource() : null;
+
+    return processSql(dataSource, statement, new SqlHandler<BeeRowSet>() {
       @Override
       public BeeRowSet processResultSet(ResultSet rs) throws SQLException {
-        event.setRowset(rsToBeeRowSet(rs, view));
+        BeeRowSet rowSet = rsToBeeRowSet(rs, view);
+
+        if (key != null) {
+          QueryCache.put(key, query.getSources(), version, rowSet);
+        }
+        event.setRowset(rowSet);
 
         if (postEvent) {
           sys.postDataEvent(event);
@@ -893,8 +1171,43 @@ public class QueryServiceBean {
     });
   }
 
-  public BeeRowSet getViewDataById(String viewName, long id) {
-    return getViewData(viewName, Filter.compareId(id));
+  private SqlSelect getViewQuery(BeeView view, Filter filter, Order order, int limit, int offset,
+      List<String> columns, List<String> seek) {
+
+    String viewName = view.getName();
+    SqlSelect query = view.getQuery(usr.getCurrentUserId(), filter, order, columns);
+
+    if (limit > 0) {
+      query.setLimit(limit);
+    }
+    if (offset > 0 && !view.applySeek(query, order, seek)) {
+      query.setOffset(offset);
+    }
+    if (!usr.isAdministrator()) {
+      Pair<String, String> sourcePair = getDependencies(viewName, query);
+      String tableName = sourcePair.getA();
+      String tableAlias = sourcePair.getB();
+
+      sys.filterVisibleState(query, tableName, tableAlias);
+
+      BeeTable table = sys.getTable(tableName);
+
+      for (RightsState state : EnumSet.of(RightsState.EDIT, RightsState.DELETE)) {
+        String stateAlias = table.joinState(query, tableAlias, state);
+
+        if (!BeeUtils.isEmpty(stateAlias)) {
+          IsExpression xpr = SqlUtils.sqlIf(table.checkState(stateAlias, state,
+              usr.getUserRoles()), true, false);
+
+          if (!BeeUtils.isEmpty(query.getGroupBy())) {
+            query.addMax(xpr, state.name());
+          } else {
+            query.addExpr(xpr, state.name());
+          }
+        }
+      }
+    }
+    return query;
   }
 
   public int getViewSize(String viewName, Filter filter) {
@@ -931,6 +1244,115 @@ public class QueryServiceBean {
     return sqlExists(query);
   }
 
+  /**
+   * Inserts rows with one prepared statement, sending them to the database in batches. When
+   * {@code target} is a base table and {@code columns} do not contain its id field, ids are
+   * reserved once per batch.
+   *
+   * @param columns target fields
+   * @param rows values in order of {@code columns}
+   * @param batchSize number of rows sent at once
+   * @return number of inserted rows
+   */
+  @TransactionAttribute(TransactionAttributeType.MANDATORY)
+  public int insertBatch(String target, List<String> columns, Iterator<Object[]> rows,
+      int batchSize) {
+
+    Assert.notEmpty(target);
+    Assert.notEmpty(columns);
+    Assert.notNull(rows);
+    Assert.isPositive(batchSize);
+
+    String idName = sys.isTable(target) ? sys.getIdName(target) : null;
+    boolean requiresId = idName != null && !BeeUtils.containsSame(columns, idName);
+
+    SqlInsert insert = new SqlInsert(target);
+
+    if (requiresId) {
+      insert.addConstant(idName, SqlUtils.expression("?"));
+    }
+    for (String column : columns) {
+      insert.addConstant(column, SqlUtils.expression("?"));
+    }
+    String dsn = SqlBuilderFactory.getDsn();
+    BeeDataSource bds = dsb.locateDs(dsn);
+
+    if (bds == null) {
+      throw sqlError(new SQLException("Data source [" + dsn + "] not found"));
+    }
+    setAuditUser();
+    activateTables(insert);
+    invalidateCache(target);
+    markWrite();
+
+    SqlBuilder builder = SqlBuilderFactory.getBuilder();
+    String sql = insert.getSqlString(builder);
+    logger.debug("SQL:", sql);
+
+    boolean untypedStrings = builder.getEngine() == SqlEngine.POSTGRESQL;
+
+    Connection con = null;
+    PreparedStatement stmt = null;
+
+    List<Object[]> batch = new ArrayList<>();
+    List<Object> parameters = new ArrayList<>();
+    int count = 0;
+
+    try {
+      con = bds.getDs().getConnection();
+      boolean batched = JdbcUtils.supportsBatchUpdates(con);
+
+      stmt = con.prepareStatement(sql);
+      int[] nullTypes = untypedStrings ? null : JdbcUtils.getParameterTypes(stmt);
+
+      while (rows.hasNext()) {
+        Object[] row = rows.next();
+        Assert.isTrue(row.length == columns.size(), "Row does not match columns");
+        batch.add(row);
+
+        if (batch.size() < batchSize && rows.hasNext()) {
+          continue;
+        }
+        long id = requiresId ? ig.getIds(target, batch.size()) : 0L;
+        long start = System.nanoTime();
+
+        for (Object[] values : batch) {
+          parameters.clear();
+
+          if (requiresId) {
+            parameters.add(id++);
+          }
+          for (Object value : values) {
+            parameters.add(builder.getBindValue(value));
+          }
+          JdbcUtils.bindParameters(stmt, parameters, untypedStrings, nullTypes);
+
+          if (batched) {
+            stmt.addBatch();
+          } else {
+            count += stmt.executeUpdate();
+          }
+        }
+        if (batched) {
+          for (int cnt : stmt.executeBatch()) {
+            count += (cnt == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(cnt, 0);
+          }
+        }
+        long nanos = System.nanoTime() - start;
+        logger.debug(String.format("[%.6f]", nanos / 1e9), "rows:", batch.size());
+        SqlProfile.record(sql, nanos, 0);
+
+        batch.clear();
+      }
+    } catch (SQLException ex) {
+      throw sqlError(BeeUtils.nvl(ex.getNextException(), ex));
+    } finally {
+      JdbcUtils.closeStatement(stmt);
+      JdbcUtils.closeConnection(con);
+    }
+    return count;
+  }
+
   @TransactionAttribute(TransactionAttributeType.MANDATORY)
   public long insertData(SqlInsert si) {
     return insertDataWithResponse(si).getResponse(-1L, logger);
@@ -987,7 +1409,6 @@ public class QueryServiceBean {
     int tot = 0;
 
     SimpleRowSet data = null;
-    SqlInsert insert = null;
 
     do {
       if (chunk > 0) {
@@ -995,30 +1416,16 @@ public class QueryServiceBean {
       }
       data = getData(sourceQuery);
 
-      if (insert == null) {
-        insert = new SqlInsert(target)
-            .addFields(sys.getIdName(target))
-            .addFields(data.getColumnNames());
-      }
-      boolean isDebugEnabled = debugOff();
-
-      for (String[] row : data.getRows()) {
-        Object[] values = new Object[row.length + 1];
-        values[0] = ig.getId(target);
-        System.arraycopy(row, 0, values, 1, row.length);
-        insert.addValues(values);
-
-        if (++tot % 1e4 == 0) {
-          insertData(insert);
-          insert.resetValues();
-          logger.info("Inserted", tot, "records into table", target);
-        }
-      }
-      if (tot % 1e4 > 0) {
-        insertData(insert);
+      if (!data.isEmpty()) {
+        List<Object[]> rows = new ArrayList<>(data.getRows());
+        boolean isDebugEnabled = debugOff();
+
+        tot += insertBatch(target, Arrays.asList(data.getColumnNames()), rows.iterator(),
+            LOAD_BATCH_SIZE);
+
+        debugOn(isDebugEnabled);
         logger.info("Inserted", tot, "records into table", target);
       }
-      debugOn(isDebugEnabled);
       offset += chunk;
     } while (chunk > 0 && data.getNumberOfRows() == chunk);
 
@@ -1136,6 +1543,28 @@ public class QueryServiceBean {
     return ResponseObject.response(updatedTables).setSize(updatedTables.size());
   }
 
+  /**
+   * Runs {@code reader} with read only queries routed to a replica data source, if one is
+   * available. Queries following a modification in the same transaction, or by the same user
+   * within the allowed replica lag, still read from the primary data source.
+   */
+  public <T> T readFromReplica(Supplier<T> reader) {
+    Assert.notNull(reader);
+
+    Boolean previous = replicaReads.get();
+    replicaReads.set(true);
+
+    try {
+      return reader.get();
+    } finally {
+      if (previous == null) {
+        replicaReads.remove();
+      } else {
+        replicaReads.set(previous);
+      }
+    }
+  }
+
   public static void registerViewDataProvider(String viewName, ViewDataProvider provider) {
     Assert.notEmpty(viewName);
     viewDataProviders.put(viewName, Assert.notNull(provider));
@@ -1254,6 +1683,34 @@ public class QueryServiceBean {
         .setWhere(sys.idEquals(source, id)));
   }
 
+  /**
+   * Returns rows of {@code query}, read lazily from an open cursor. The stream holds a database
+   * connection and must be closed, preferably with try-with-resources.
+   */
+  public Stream<SimpleRow> stream(IsQuery query) {
+    final SqlCursor cursor = openCursor(query);
+
+    Spliterator<SimpleRow> spliterator = new Spliterators.AbstractSpliterator<SimpleRow>(
+        Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super SimpleRow> action) {
+        SimpleRow row;
+
+        try {
+          row = cursor.next();
+        } catch (SQLException ex) {
+          throw sqlError(ex);
+        }
+        if (row == null) {
+          return false;
+        }
+        action.accept(row);
+        return true;
+      }
+    };
+    return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+  }
+
   public void tweakSql(boolean on) {
     if (SqlEngine.POSTGRESQL != SqlBuilderFactory.getBuilder().getEngine()) {
       return;
@@ -1283,6 +1740,8 @@ public class QueryServiceBean {
 
       logger.debug("SQL:", sql);
 
+      markWrite();
+
       con = dataSource.getConnection();
       stmt = con.prepareStatement(sql);
       stmt.setBinaryStream(1, data, data.available());
@@ -1318,17 +1777,7 @@ public class QueryServiceBean {
     Assert.notNull(query);
     Assert.state(!query.isEmpty());
 
-    boolean isDebugEnabled = logger.isDebugEnabled();
-
-    if (isDebugEnabled) {
-      logger.setLevel(LogLevel.INFO);
-    }
-    doSql(SqlUtils.setSqlParameter(AdministrationConstants.AUDIT_USER,
-        usr.getCurrentUserId()).getQuery());
-
-    if (isDebugEnabled) {
-      logger.setLevel(LogLevel.DEBUG);
-    }
+    setAuditUser();
     activateTables(query);
 
     final TableModifyEvent event;
@@ -1348,7 +1797,9 @@ public class QueryServiceBean {
     } else {
       event = null;
     }
-    ResponseObject res = processSql(null, query.getQuery(), new SqlHandler<ResponseObject>() {
+    SqlStatement statement = getStatement(query, SqlBuilderFactory.getBuilder());
+
+    ResponseObject res = processSql(null, statement, new SqlHandler<ResponseObject>() {
       @Override
       public ResponseObject processError(SQLException ex) {
         if (errorHandler != null) {
@@ -1371,6 +1822,10 @@ public class QueryServiceBean {
         if (event != null) {
           event.setUpdateCount(updateCount);
           sys.postDataEvent(event);
+
+          if (!BeeUtils.same(event.getTargetName(), AdministrationConstants.TBL_CLUSTER_EVENTS)) {
+            publishOnCommit(Cluster.CHANNEL_DATA, event.getTargetName());
+          }
         }
         logger.debug("affected rows:", updateCount);
         return ResponseObject.response(updateCount);
@@ -1395,6 +1850,47 @@ public class QueryServiceBean {
     }
   }
 
+  /**
+   * Builds a {@link QueryCache} key from {@code qualifiers}, SQL and parameters. Every part is
+   * written with its type and length, so different parameter lists never produce the same key.
+   */
+  private static String cacheKey(SqlStatement statement, Object... qualifiers) {
+    StringBuilder sb = new StringBuilder();
+
+    for (Object qualifier : qualifiers) {
+      appendKeyPart(sb, qualifier);
+    }
+    appendKeyPart(sb, statement.getSql());
+
+    if (statement.hasParameters()) {
+      for (Object parameter : statement.getParameters()) {
+        appendKeyPart(sb, parameter);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static void appendKeyPart(StringBuilder sb, Object value) {
+    if (value == null) {
+      sb.append(BeeConst.CHAR_MINUS);
+      return;
+    }
+    String s = (value instanceof byte[]) ? Codec.toBase64((byte[]) value) : value.toString();
+
+    sb.append(value.getClass().getSimpleName()).append(BeeConst.CHAR_COLON).append(s.length())
+        .append(BeeConst.CHAR_COLON).append(s);
+  }
+
+  private static int countRows(Object result) {
+    if (result instanceof SimpleRowSet) {
+      return ((SimpleRowSet) result).getNumberOfRows();
+    } else if (result instanceof BeeRowSet) {
+      return ((BeeRowSet) result).getNumberOfRows();
+    } else {
+      return 0;
+    }
+  }
+
   private Pair<String, String> getDependencies(String viewName, SqlSelect query) {
     BeeView vw = sys.getView(viewName);
     String tableName = vw.getSourceName();
@@ -1433,6 +1929,43 @@ public class QueryServiceBean {
     return Pair.of(tableName, tableAlias);
   }
 
+  private static SqlStatement getStatement(IsQuery query, SqlBuilder builder) {
+    if (BeeUtils.toBoolean(Config.getProperty(Service.PROPERTY_SQL_BINDING_OFF))) {
+      return SqlStatement.of(query.getSqlString(builder));
+    }
+    return builder.getStatement(query);
+  }
+
+  private static int getFetchSize() {
+    Integer size = BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_SQL_FETCH_SIZE));
+    return BeeUtils.isPositive(size) ? size : DEFAULT_FETCH_SIZE;
+  }
+
+  private static int getStatementCacheSize() {
+    Integer size = BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_SQL_STATEMENT_CACHE));
+    return (size == null) ? DEFAULT_STATEMENT_CACHE_SIZE : size;
+  }
+
+  /**
+   * Returns a replica for reads outside of transactions or inside {@link #readFromReplica}, or
+   * {@code null} for the primary data source.
+   */
+  private DataSource getReadDataSource() {
+    if (!dsb.hasReplicas()) {
+      return null;
+    }
+    if (txRegistry != null && txRegistry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+      if (!BeeUtils.unbox(replicaReads.get()) || txRegistry.getResource(PRIMARY_READS) != null) {
+        return null;
+      }
+    }
+    if (dsb.isPrimaryRequired(usr.getCurrentUserId())) {
+      return null;
+    }
+    BeeDataSource replica = dsb.getReplica();
+    return (replica == null) ? null : replica.getDs();
+  }
+
   private SimpleRowSet getSingleColumn(IsQuery query) {
     SimpleRowSet res = getData(query);
     Assert.notNull(res);
@@ -1448,6 +1981,21 @@ public class QueryServiceBean {
     return res;
   }
 
+  private boolean isCacheable() {
+    if (!QueryCache.isEnabled()) {
+      return false;
+    }
+    return txRegistry == null || txRegistry.getTransactionStatus() != Status.STATUS_ACTIVE
+        || txRegistry.getResource(PENDING_INVALIDATIONS) == null;
+  }
+
+  private void markWrite() {
+    if (txRegistry != null && txRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      txRegistry.putResource(PRIMARY_READS, Boolean.TRUE);
+    }
+    dsb.markWrite(usr.getCurrentUserId());
+  }
+
   private ResponseObject mergeCheckUniqueness(BeeTable table, String fieldName,
       long from, long into, boolean mock) {
 
@@ -1524,10 +2072,16 @@ public class QueryServiceBean {
 
   private <T> T processSql(DataSource ds, String sql, SqlHandler<T> callback) {
     Assert.notEmpty(sql);
+    return processSql(ds, SqlStatement.of(sql), callback);
+  }
+
+  private <T> T processSql(DataSource ds, SqlStatement statement, SqlHandler<T> callback) {
+    Assert.notNull(statement);
     Assert.notNull(callback);
 
     Connection con = null;
     Statement stmt = null;
+    StatementCache cache = null;
     ResultSet rs = null;
     T result = null;
     DataSource dataSource = ds;
@@ -1542,21 +2096,44 @@ public class QueryServiceBean {
       }
       dataSource = bds.getDs();
     }
+    String sql = statement.getSql();
     logger.debug("SQL:", sql);
 
     try {
       con = dataSource.getConnection();
-      stmt = con.createStatement();
 
-      long start = System.nanoTime();
-      boolean isResultSet = stmt.execute(sql);
+      long start;
+      boolean isResultSet;
+
+      if (statement.hasParameters()) {
+        logger.debug("parameters:", statement.getParameters());
+
+        cache = StatementCache.get(con, getStatementCacheSize());
+        PreparedStatement ps = (cache == null) ? con.prepareStatement(sql) : cache.prepare(sql);
+        stmt = ps;
+
+        JdbcUtils.applyFetchSize(ps, getFetchSize());
+        JdbcUtils.bindParameters(ps, statement.getParameters(), untypedStrings(statement));
+
+        start = System.nanoTime();
+        isResultSet = ps.execute();
+      } else {
+        stmt = con.createStatement();
+        JdbcUtils.applyFetchSize(stmt, getFetchSize());
+
+        start = System.nanoTime();
+        isResultSet = stmt.execute(sql);
+      }
       logger.debug(String.format("[%.6f]", (System.nanoTime() - start) / 1e9));
 
       if (isResultSet) {
         rs = stmt.getResultSet();
         result = callback.processResultSet(rs);
+        SqlProfile.record(sql, System.nanoTime() - start, countRows(result));
       } else {
+        markWrite();
         int cnt = stmt.getUpdateCount();
+        SqlProfile.record(sql, System.nanoTime() - start, 0);
         result = callback.processUpdateCount(cnt < 0 ? 0 : cnt);
       }
 
@@ -1564,12 +2141,64 @@ public class QueryServiceBean {
       result = callback.processError(ex);
     } finally {
       JdbcUtils.closeResultSet(rs);
-      JdbcUtils.closeStatement(stmt);
+
+      if (cache == null) {
+        JdbcUtils.closeStatement(stmt);
+      } else {
+        cache.release((PreparedStatement) stmt);
+      }
       JdbcUtils.closeConnection(con);
     }
     return result;
   }
 
+  /**
+   * Opens a cursor on the primary data source. Inside a transaction the data source hands out the
+   * connection of that transaction, so the cursor sees its uncommitted rows and temporary tables.
+   */
+  private SqlCursor openCursor(IsQuery query) {
+    Assert.notNull(query);
+    Assert.state(!query.isEmpty());
+
+    activateTables(query);
+    SqlStatement statement = getStatement(query, SqlBuilderFactory.getBuilder());
+
+    String dsn = SqlBuilderFactory.getDsn();
+    BeeDataSource bds = dsb.locateDs(dsn);
+
+    if (bds == null) {
+      throw sqlError(new SQLException("Data source [" + dsn + "] not found"));
+    }
+    logger.debug("SQL:", statement.getSql());
+
+    try {
+      return SqlCursor.open(bds.getDs().getConnection(), statement, getFetchSize());
+    } catch (SQLException ex) {
+      throw sqlError(ex);
+    }
+  }
+
+  private static void publishInvalidation(String tblName) {
+    if (QueryCache.isEnabled()
+        && !BeeUtils.same(tblName, AdministrationConstants.TBL_CLUSTER_EVENTS)) {
+      Cluster.publish(Cluster.CHANNEL_CACHE, tblName);
+    }
+  }
+
+  static String[] readRow(ResultSet rs, boolean[] blobs) throws SQLException {
+    String[] row = new String[blobs.length];
+
+    for (int i = 0; i < blobs.length; i++) {
+      if (blobs[i]) {
+        byte[] bytes = rs.getBytes(i + 1);
+        row[i] = bytes != null ? Codec.toBase64(bytes) : null;
+      } else {
+        row[i] = rs.getString(i + 1);
+      }
+    }
+    return row;
+  }
+
   private BeeRowSet rsToBeeRowSet(ResultSet rs, BeeView view) throws SQLException {
     List<BeeColumn> rsCols = JdbcUtils.getColumns(rs);
 
@@ -1654,7 +2283,7 @@ public class QueryServiceBean {
             break;
 
           case BLOB:
-            byte[] bytes = rs.getBytes(i + 1);
+            byte[] bytes = rs.getBytes(colIndex);
             values[i] = bytes != null ? Codec.toBase64(bytes) : null;
             break;
 
@@ -1696,26 +2325,59 @@ public class QueryServiceBean {
     List<BeeColumn> rsCols = JdbcUtils.getColumns(rs);
     int cc = rsCols.size();
     String[] columns = new String[cc];
+    boolean[] blobs = new boolean[cc];
 
     for (int i = 0; i < cc; i++) {
       columns[i] = rsCols.get(i).getId();
+      blobs[i] = rsCols.get(i).getType() == ValueType.BLOB;
     }
     SimpleRowSet res = new SimpleRowSet(columns);
 
     while (rs.next()) {
-      String[] row = new String[cc];
+      res.addRow(readRow(rs, blobs));
+    }
+    logger.debug("cols:", res.getNumberOfColumns(), "rows:", res.getNumberOfRows());
+    return res;
+  }
 
-      for (int i = 0; i < cc; i++) {
-        if (rsCols.get(i).getType() == ValueType.BLOB) {
-          byte[] bytes = rs.getBytes(i + 1);
-          row[i] = bytes != null ? Codec.toBase64(bytes) : null;
-        } else {
-          row[i] = rs.getString(i + 1);
+  private void setAuditUser() {
+    boolean isDebugEnabled = logger.isDebugEnabled();
+
+    if (isDebugEnabled) {
+      logger.setLevel(LogLevel.INFO);
+    }
+    doSql(SqlUtils.setSqlParameter(AdministrationConstants.AUDIT_USER,
+        usr.getCurrentUserId()).getQuery());
+
+    if (isDebugEnabled) {
+      logger.setLevel(LogLevel.DEBUG);
+    }
+  }
+
+  static boolean untypedStrings(SqlStatement statement) {
+    return statement.getEngine() == SqlEngine.POSTGRESQL;
+  }
+
+  private BeeRuntimeException sqlError(SQLException ex) {
+    String error = null;
+
+    Map<String, String> params = prm.getMap(BeeUtils.join(BeeConst.STRING_EMPTY,
+        AdministrationConstants.PRM_SQL_MESSAGES, SqlBuilderFactory.getBuilder().getEngine()));
+
+    if (!BeeUtils.isEmpty(params)) {
+      String msg = ex.getMessage();
+
+      for (String key : params.keySet()) {
+        if (msg.matches("(?s)" + key)) {
+          error = msg.replaceAll("(?s)" + key, params.get(key));
+          break;
         }
       }
-      res.addRow(row);
     }
-    logger.debug("cols:", res.getNumberOfColumns(), "rows:", res.getNumberOfRows());
-    return res;
+    if (error != null) {
+      return new BeeRuntimeException(error);
+    } else {
+      return new BeeRuntimeException(ex);
+    }
   }
 }
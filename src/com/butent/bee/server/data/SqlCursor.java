@@ -0,0 +1,178 @@
+package com.butent.bee.server.data;
+
+import com.butent.bee.server.jdbc.JdbcUtils;
+import com.butent.bee.server.jdbc.SqlProfile;
+import com.butent.bee.server.sql.SqlStatement;
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.SimpleRowSet;
+import com.butent.bee.shared.data.SimpleRowSet.SimpleRow;
+import com.butent.bee.shared.data.value.ValueType;
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads a forward only result set in chunks of fetch size rows, so that only one chunk is held
+ * in memory at a time.
+ * <p>
+ * The cursor reads on the connection it is given, so inside a transaction it sees the data and
+ * temporary tables of that transaction. Auto commit is switched off while the cursor is open,
+ * because the PostgreSQL driver ignores fetch size and reads the whole result in auto commit
+ * mode.
+ */
+
+final class SqlCursor implements AutoCloseable {
+
+  private static final BeeLogger logger = LogUtils.getLogger(SqlCursor.class);
+
+  /**
+   * Executes {@code statement} on {@code con}. The cursor takes over the connection and closes it
+   * on {@link #close()}, also when opening fails.
+   */
+  static SqlCursor open(Connection con, SqlStatement statement, int fetchSize)
+      throws SQLException {
+
+    Assert.notNull(con);
+    Assert.notNull(statement);
+
+    String sql = statement.getSql();
+
+    PreparedStatement stmt = null;
+    ResultSet rs = null;
+    boolean restoreAutoCommit = false;
+
+    try {
+      if (con.getAutoCommit()) {
+        con.setAutoCommit(false);
+        restoreAutoCommit = true;
+      }
+      stmt = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      JdbcUtils.applyFetchSize(stmt, fetchSize);
+
+      if (statement.hasParameters()) {
+        logger.debug("parameters:", statement.getParameters());
+        JdbcUtils.bindParameters(stmt, statement.getParameters(),
+            QueryServiceBean.untypedStrings(statement));
+      }
+      long start = System.nanoTime();
+      rs = stmt.executeQuery();
+
+      return new SqlCursor(con, stmt, rs, restoreAutoCommit, fetchSize, sql,
+          System.nanoTime() - start);
+
+    } catch (SQLException ex) {
+      JdbcUtils.closeResultSet(rs);
+      JdbcUtils.closeStatement(stmt);
+
+      if (restoreAutoCommit) {
+        restoreAutoCommit(con, false);
+      }
+      JdbcUtils.closeConnection(con);
+      throw ex;
+    }
+  }
+
+  private static void restoreAutoCommit(Connection con, boolean commit) {
+    try {
+      if (commit) {
+        con.commit();
+      } else {
+        con.rollback();
+      }
+      con.setAutoCommit(true);
+    } catch (SQLException ex) {
+      logger.warning(ex, "Could not restore auto commit");
+    }
+  }
+
+  private final Connection con;
+  private final PreparedStatement stmt;
+  private final ResultSet rs;
+  private final boolean restoreAutoCommit;
+  private final int fetchSize;
+
+  private final String sql;
+  private long nanos;
+  private int rowCount;
+
+  private final String[] columns;
+  private final boolean[] blobs;
+
+  private SimpleRowSet chunk;
+  private int position;
+  private boolean exhausted;
+
+  private SqlCursor(Connection con, PreparedStatement stmt, ResultSet rs,
+      boolean restoreAutoCommit, int fetchSize, String sql, long nanos) throws SQLException {
+
+    this.con = con;
+    this.stmt = stmt;
+    this.rs = rs;
+    this.restoreAutoCommit = restoreAutoCommit;
+    this.fetchSize = fetchSize;
+
+    this.sql = sql;
+    this.nanos = nanos;
+
+    List<BeeColumn> rsCols = JdbcUtils.getColumns(rs);
+    int cc = rsCols.size();
+
+    this.columns = new String[cc];
+    this.blobs = new boolean[cc];
+
+    for (int i = 0; i < cc; i++) {
+      columns[i] = rsCols.get(i).getId();
+      blobs[i] = rsCols.get(i).getType() == ValueType.BLOB;
+    }
+  }
+
+  @Override
+  public void close() {
+    SqlProfile.record(sql, nanos, rowCount);
+
+    JdbcUtils.closeResultSet(rs);
+    JdbcUtils.closeStatement(stmt);
+
+    if (restoreAutoCommit) {
+      restoreAutoCommit(con, true);
+    }
+    JdbcUtils.closeConnection(con);
+  }
+
+  /**
+   * Returns the next row or {@code null} after the last one. Rows of the previous chunk are
+   * released when the next chunk is fetched.
+   */
+  SimpleRow next() throws SQLException {
+    if (chunk == null || position >= chunk.getNumberOfRows()) {
+      if (exhausted) {
+        return null;
+      }
+      chunk = new SimpleRowSet(columns);
+      position = 0;
+
+      long start = System.nanoTime();
+
+      while (chunk.getNumberOfRows() < fetchSize) {
+        if (!rs.next()) {
+          exhausted = true;
+          break;
+        }
+        chunk.addRow(QueryServiceBean.readRow(rs, blobs));
+      }
+      nanos += System.nanoTime() - start;
+      rowCount += chunk.getNumberOfRows();
+
+      if (chunk.isEmpty()) {
+        return null;
+      }
+    }
+    return chunk.getRow(position++);
+  }
+}
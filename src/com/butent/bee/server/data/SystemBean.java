@@ -6,7 +6,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
 
 import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
 import static com.butent.bee.shared.modules.cars.CarsConstants.*;
@@ -21,6 +23,8 @@ import com.butent.bee.server.data.BeeTable.BeeIndex;
 import com.butent.bee.server.data.BeeTable.BeeRelation;
 import com.butent.bee.server.data.BeeTable.BeeTrigger;
 import com.butent.bee.server.data.BeeTable.BeeUniqueKey;
+import com.butent.bee.server.data.DataEvent.TableModifyEvent;
+import com.butent.bee.server.data.DataEvent.ViewModifyEvent;
 import com.butent.bee.server.io.FileUtils;
 import com.butent.bee.server.modules.ModuleHolderBean;
 import com.butent.bee.server.modules.administration.FileStorageBean;
@@ -96,6 +100,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ejb.EJB;
 import javax.ejb.Lock;
@@ -133,10 +138,14 @@ public class SystemBean {
   private String dbAuditSchema;
   private final Map<String, BeeTable> tableCache = new HashMap<>();
   private final Map<String, BeeView> viewCache = new HashMap<>();
+  private final AtomicLong dataInfoVersion = new AtomicLong();
 
   private EventBus dataEventBus;
   private final Multimap<String, String> fileReferences = HashMultimap.create();
 
+  private final Multimap<String, String> dependentTables = HashMultimap.create();
+  private final Set<String> customTriggerTables = new HashSet<>();
+
   public List<Property> checkTables(List<String> tbls, String progressId) {
     List<Property> diff = new ArrayList<>();
     List<String> tables;
@@ -297,6 +306,13 @@ public class SystemBean {
         columns, viewColumns, view.getRelationInfo());
   }
 
+  /**
+   * @return a number, changed whenever tables or views are registered
+   */
+  public long getDataInfoVersion() {
+    return dataInfoVersion.get();
+  }
+
   public String getDbName() {
     return dbName;
   }
@@ -305,6 +321,30 @@ public class SystemBean {
     return dbSchema;
   }
 
+  /**
+   * Returns {@code tblName} and tables, whose rows the database changes together with its rows:
+   * tables referencing it with cascading foreign keys and tables cleaned up by its relation
+   * triggers, recursively.
+   *
+   * @return table names or {@code null}, if custom triggers may change any table
+   */
+  public Set<String> getDependentTables(String tblName) {
+    Set<String> tables = new HashSet<>();
+    List<String> pending = Lists.newArrayList(BeeUtils.normalize(tblName));
+
+    while (!pending.isEmpty()) {
+      String table = pending.remove(pending.size() - 1);
+
+      if (tables.add(table)) {
+        if (customTriggerTables.contains(table)) {
+          return null;
+        }
+        pending.addAll(dependentTables.get(table));
+      }
+    }
+    return tables;
+  }
+
   public int getFieldPrecision(String tblName, String fldName) {
     return getTable(tblName).getField(fldName).getPrecision();
   }
@@ -358,6 +398,7 @@ public class SystemBean {
     if (view == null) {
       view = getDefaultView(viewName);
       SysObject.register(view, viewCache, true, logger);
+      dataInfoVersion.incrementAndGet();
     }
     return view;
   }
@@ -396,6 +437,24 @@ public class SystemBean {
   public void init() {
     auditOff = BeeUtils.toBoolean(Config.getProperty(Service.PROPERTY_AUDIT_OFF));
     dataEventBus = new EventBus(logger::error);
+
+    registerDataEventHandler(new DataEventHandler() {
+      @Subscribe
+      @AllowConcurrentEvents
+      public void invalidateTableCache(TableModifyEvent event) {
+        if (event.isAfter() && !event.isRemote()) {
+          qs.invalidateCache(event.getTargetName());
+        }
+      }
+
+      @Subscribe
+      @AllowConcurrentEvents
+      public void invalidateViewCache(ViewModifyEvent event) {
+        if (event.isAfter() && isView(event.getTargetName())) {
+          qs.invalidateCache(getView(event.getTargetName()).getSourceName());
+        }
+      }
+    });
     initTables();
   }
 
@@ -411,6 +470,7 @@ public class SystemBean {
     dbSchema = qs.dbSchema();
     dbAuditSchema = BeeUtils.join("_", dbSchema, AUDIT_SUFFIX);
     fileReferences.clear();
+    QueryCache.clear();
 
     initObjects(SysObject.TABLE);
 
@@ -435,6 +495,7 @@ public class SystemBean {
     }
     initDbTables();
     initDbTriggers();
+    initDependentTables();
     updateTransformations();
   }
 
@@ -535,6 +596,16 @@ public class SystemBean {
     dataEventBus.post(event);
   }
 
+  /**
+   * Notifies local handlers about a modification of {@code tblName}, committed by another cluster
+   * node.
+   */
+  public void postRemoteEvent(String tblName) {
+    if (dataEventBus != null && isTable(tblName)) {
+      dataEventBus.post(new TableModifyEvent(tblName));
+    }
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   @Lock(LockType.WRITE)
   public void rebuildActiveTables() {
@@ -1079,6 +1150,7 @@ public class SystemBean {
       String resource, boolean initial) {
 
     String schema = Config.getSchemaPath(obj.getSchemaName());
+    dataInfoVersion.incrementAndGet();
 
     try {
       switch (obj) {
@@ -1180,6 +1252,42 @@ public class SystemBean {
     }
   }
 
+  private void initDependentTables() {
+    dependentTables.clear();
+    customTriggerTables.clear();
+
+    for (BeeTable table : getTables()) {
+      for (BeeForeignKey fKey : table.getForeignKeys()) {
+        if (fKey.getCascade() != null) {
+          dependentTables.put(BeeUtils.normalize(fKey.getRefTable()),
+              BeeUtils.normalize(fKey.getTable()));
+        }
+      }
+      for (BeeTrigger trigger : table.getTriggers()) {
+        String tblName = BeeUtils.normalize(trigger.getTable());
+
+        switch (trigger.getType()) {
+          case RELATION:
+            @SuppressWarnings("unchecked")
+            List<Map<String, String>> fields =
+                (List<Map<String, String>>) trigger.getParameters().get("fields");
+
+            for (Map<String, String> field : fields) {
+              dependentTables.put(tblName, BeeUtils.normalize(field.get("relTable")));
+            }
+            break;
+
+          case CUSTOM:
+            customTriggerTables.add(tblName);
+            break;
+
+          default:
+            break;
+        }
+      }
+    }
+  }
+
   private void initObjects(SysObject obj) {
     Assert.notNull(obj);
 
@@ -1193,6 +1301,8 @@ public class SystemBean {
       default:
         Assert.unsupported("Not a data object: " + obj.getName());
     }
+    dataInfoVersion.incrementAndGet();
+
     int cnt = 0;
     String ext = "." + obj.getFileExtension();
 
@@ -11,6 +11,7 @@ import com.google.common.primitives.Longs;
 import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
 import static com.butent.bee.shared.modules.classifiers.ClassifierConstants.*;
 
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.server.i18n.I18nUtils;
 import com.butent.bee.server.i18n.Localizations;
 import com.butent.bee.server.sql.HasConditions;
@@ -22,6 +23,7 @@ import com.butent.bee.server.sql.SqlUpdate;
 import com.butent.bee.server.sql.SqlUtils;
 import com.butent.bee.server.websocket.Endpoint;
 import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.Service;
 import com.butent.bee.shared.communication.ResponseObject;
 import com.butent.bee.shared.data.BeeRowSet;
@@ -50,6 +52,7 @@ import com.butent.bee.shared.utils.Wildcards;
 
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -59,6 +62,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Resource;
 import javax.ejb.EJB;
@@ -217,6 +221,8 @@ public class UserServiceBean {
   private final Table<RightsObjectType, String, Multimap<RightsState, Long>> rightsCache =
       HashBasedTable.create();
 
+  private final AtomicLong rightsVersion = new AtomicLong();
+
   @Lock(LockType.WRITE)
   public boolean authenticateUser(String name, String password) {
     if (BeeUtils.isEmpty(userCache)) {
@@ -369,6 +375,27 @@ public class UserServiceBean {
     return roleCache.get(roleId);
   }
 
+  /**
+   * @return key of the current user rights, shared by users with the same roles, valid until the
+   *         rights version changes; empty string, if there is no current user
+   */
+  public String getRightsKey() {
+    UserInfo info = getCurrentUserInfo();
+
+    if (info == null) {
+      return BeeConst.STRING_EMPTY;
+    }
+    long[] roles = Longs.toArray(info.getRoles());
+    Arrays.sort(roles);
+
+    return BeeUtils.join(BeeConst.STRING_COLON, Longs.join(BeeConst.STRING_COMMA, roles),
+        info.getUserData().hasAuthoritah());
+  }
+
+  public long getRightsVersion() {
+    return rightsVersion.get();
+  }
+
   public ResponseObject getRoleRights(RightsObjectType type, Long roleId) {
     Assert.notNull(type);
     Assert.notNull(roleId);
@@ -629,6 +656,7 @@ public class UserServiceBean {
   @Lock(LockType.WRITE)
   public void initRights() {
     rightsCache.clear();
+    rightsVersion.incrementAndGet();
 
     SqlSelect ss = new SqlSelect()
         .addFields(TBL_OBJECTS, COL_OBJECT_NAME)
@@ -668,6 +696,7 @@ public class UserServiceBean {
   @Lock(LockType.WRITE)
   public void initUsers() {
     roleCache.clear();
+    rightsVersion.incrementAndGet();
     userCache.clear();
     Map<String, UserInfo> expiredCache = infoCache;
     infoCache = new HashMap<>();
@@ -867,6 +896,29 @@ public class UserServiceBean {
     }
   }
 
+  /**
+   * Reloads rights, changed by another cluster node, and sends them to users of this node.
+   */
+  @Lock(LockType.WRITE)
+  public void reloadRights() {
+    initRights();
+
+    for (Entry<String, UserInfo> entry : infoCache.entrySet()) {
+      entry.getValue().setRights(getUserRights(userCache.inverse().get(entry.getKey())));
+    }
+    Endpoint.updateUserData(getAllUserData());
+  }
+
+  /**
+   * Reloads users and roles, changed by another cluster node, and sends them to users of this
+   * node.
+   */
+  @Lock(LockType.WRITE)
+  public void reloadUsers() {
+    initUsers();
+    Endpoint.updateUserData(getAllUserData());
+  }
+
   public ResponseObject respectMyAuthoritah() {
     UserInfo info = getCurrentUserInfo();
 
@@ -1147,10 +1199,14 @@ public class UserServiceBean {
       }
     }
     if (cnt > 0) {
+      rightsVersion.incrementAndGet();
+
       for (Entry<String, UserInfo> entry : infoCache.entrySet()) {
         entry.getValue().setRights(getUserRights(userCache.inverse().get(entry.getKey())));
       }
       Endpoint.updateUserData(getAllUserData());
+
+      qs.publishOnCommit(Cluster.CHANNEL_RIGHTS, TBL_RIGHTS);
     }
     return ResponseObject.response(cnt);
   }
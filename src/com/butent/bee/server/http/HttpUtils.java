@@ -3,12 +3,15 @@ package com.butent.bee.server.http;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
 
+import com.butent.bee.server.Config;
 import com.butent.bee.server.concurrency.Counter;
 import com.butent.bee.server.io.FileUtils;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Service;
 import com.butent.bee.shared.communication.CommUtils;
 import com.butent.bee.shared.communication.ContentType;
+import com.butent.bee.shared.exceptions.BeeRuntimeException;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.ArrayUtils;
@@ -18,10 +21,13 @@ import com.butent.bee.shared.utils.ExtendedProperty;
 import com.butent.bee.shared.utils.NameUtils;
 import com.butent.bee.shared.utils.PropertyUtils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -51,6 +57,11 @@ public final class HttpUtils {
 
   private static BeeLogger logger = LogUtils.getLogger(HttpUtils.class);
 
+  private static final int READ_BUFFER_SIZE = 8192;
+  private static final int DEFAULT_MAX_REQUEST_MB = 100;
+
+  private static Long maxContentLength;
+
   public static void badRequest(HttpServletResponse resp, String... messages) {
     sendError(resp, HttpServletResponse.SC_BAD_REQUEST, ArrayUtils.joinWords(messages));
   }
@@ -475,29 +486,30 @@ public final class HttpUtils {
   public static String readContent(HttpServletRequest req) {
     Assert.notNull(req);
 
-    StringBuffer sb = new StringBuffer();
-    int cbSize = 2048;
-    char[] cbuf = new char[cbSize];
-    int len;
+    try {
+      return read(req.getReader(), req.getContentLength());
+    } catch (IOException ex) {
+      logger.error(ex);
+      return BeeConst.STRING_EMPTY;
+    }
+  }
+
+  /**
+   * Reads Base64 encoded UTF-8 content, decoding it while reading, so that neither the encoded
+   * text nor the decoded bytes are held in memory.
+   */
+  public static String readEncodedContent(HttpServletRequest req) {
+    Assert.notNull(req);
 
     try {
-      BufferedReader reader = req.getReader();
-
-      do {
-        len = reader.read(cbuf, 0, cbSize);
-        if (len > 0) {
-          sb.append(cbuf, 0, len);
-        } else {
-          break;
-        }
-      } while (len > 0);
+      Reader reader = new InputStreamReader(Base64.getDecoder().wrap(req.getInputStream()),
+          StandardCharsets.UTF_8);
+      return read(reader, req.getContentLength() / 4 * 3);
 
-      reader.close();
     } catch (IOException ex) {
       logger.error(ex);
+      return BeeConst.STRING_EMPTY;
     }
-
-    return sb.toString();
   }
 
   public static String readPart(HttpServletRequest req, String name) {
@@ -518,6 +530,27 @@ public final class HttpUtils {
     return content;
   }
 
+  /**
+   * Rejects the request with status 413, if its declared content length exceeds
+   * {@code MaxRequestSizeInMegabytes}. Nothing is read from the request in that case. Content of
+   * unknown length is checked while reading, see {@link #readContent}.
+   *
+   * @return {@code true} if the request was rejected
+   */
+  public static boolean rejectLargeContent(HttpServletRequest req, HttpServletResponse resp) {
+    long max = getMaxContentLength();
+
+    long length = req.getContentLengthLong();
+
+    if (max > 0 && length > max) {
+      sendError(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          BeeUtils.joinWords("request content length", length, "exceeds", max));
+      return true;
+    } else {
+      return false;
+    }
+  }
+
   public static void sendError(HttpServletResponse resp, int errorCode, String err) {
     try {
       logger.severe(err);
@@ -549,6 +582,33 @@ public final class HttpUtils {
     resp.setCharacterEncoding(CommUtils.getCharacterEncoding(ctp));
   }
 
+  private static long getMaxContentLength() {
+    if (maxContentLength == null) {
+      Integer mb = BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_MAX_REQUEST_SIZE));
+      maxContentLength = ((mb == null) ? DEFAULT_MAX_REQUEST_MB : mb) * 1024L * 1024L;
+    }
+    return maxContentLength;
+  }
+
+  private static String read(Reader reader, int expectedLength) throws IOException {
+    long max = getMaxContentLength();
+
+    StringBuilder sb = new StringBuilder(Math.max(expectedLength, READ_BUFFER_SIZE));
+    char[] cbuf = new char[READ_BUFFER_SIZE];
+    int len;
+
+    while ((len = reader.read(cbuf, 0, READ_BUFFER_SIZE)) > 0) {
+      if (max > 0 && sb.length() + len > max) {
+        reader.close();
+        throw new BeeRuntimeException(BeeUtils.joinWords("request content exceeds", max));
+      }
+      sb.append(cbuf, 0, len);
+    }
+    reader.close();
+
+    return sb.toString();
+  }
+
   private static String[] splitValue(String s) {
     if (BeeUtils.isEmpty(s)) {
       return null;
@@ -7,8 +7,10 @@ import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.HasExtendedInfo;
 import com.butent.bee.shared.HasOptions;
 import com.butent.bee.shared.Service;
+import com.butent.bee.shared.communication.BatchPart;
 import com.butent.bee.shared.communication.CommUtils;
 import com.butent.bee.shared.communication.ContentType;
+import com.butent.bee.shared.communication.WireReader;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.rights.SubModule;
 import com.butent.bee.shared.time.DateTime;
@@ -20,7 +22,7 @@ import com.butent.bee.shared.utils.PropertyUtils;
 
 import java.security.Principal;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -43,7 +45,7 @@ public class RequestInfo implements HasExtendedInfo, HasOptions {
   private final Map<String, String> headers;
   private final Map<String, String> params;
 
-  private final Map<String, String> vars;
+  private Map<String, String> vars;
 
   private final int contentLen;
 
@@ -87,8 +89,7 @@ public class RequestInfo implements HasExtendedInfo, HasOptions {
     if (req.getContentLength() > 0) {
       this.contentTypeHeader = req.getContentType();
       if (encoded) {
-        this.content = CommUtils.getContent(getContentType(),
-            Codec.fromBytes(Base64.getDecoder().decode(HttpUtils.readContent(req))));
+        this.content = CommUtils.getContent(getContentType(), HttpUtils.readEncodedContent(req));
       } else {
         this.content = CommUtils.getContent(getContentType(), HttpUtils.readContent(req));
       }
@@ -97,12 +98,65 @@ public class RequestInfo implements HasExtendedInfo, HasOptions {
       this.content = null;
     }
     this.contentLen = BeeUtils.length(this.content);
+  }
 
-    if (isData()) {
-      this.vars = Codec.deserializeLinkedHashMap(content);
-    } else {
-      this.vars = null;
+  private RequestInfo(RequestInfo batch, String httpMethod, Map<String, String> params,
+      Map<String, String> headers, String content) {
+    super();
+    counter++;
+
+    this.request = batch.getRequest();
+
+    this.httpMethod = httpMethod;
+    this.query = CommUtils.buildQueryString(params, false);
+
+    this.headers = new HashMap<>(batch.getHeaders());
+    this.headers.remove(Service.RPC_VAR_CTP);
+    this.headers.putAll(headers);
+
+    this.params = params;
+
+    for (Map.Entry<String, String> el : this.headers.entrySet()) {
+      setRpcInfo(el.getKey(), el.getValue());
+    }
+    for (Map.Entry<String, String> el : params.entrySet()) {
+      setRpcInfo(el.getKey(), el.getValue());
     }
+
+    this.contentTypeHeader = null;
+    this.content = content;
+    this.contentLen = BeeUtils.length(content);
+  }
+
+  /**
+   * Splits the content of a {@link Service#BATCH} request into separate requests, which share the
+   * HTTP request, session and headers of the batch.
+   * <p>
+   * Each part is written by the client as a {@link BatchPart}.
+   */
+  public List<RequestInfo> getBatchParts() {
+    List<RequestInfo> parts = new ArrayList<>();
+    if (!WireReader.isWire(getContent())) {
+      return parts;
+    }
+
+    WireReader reader = new WireReader(getContent());
+    int count = reader.readCount();
+
+    for (int i = 0; i < count; i++) {
+      BatchPart part = BatchPart.read(reader);
+
+      Map<String, String> partHeaders = part.getHeaders();
+      partHeaders.put(Service.RPC_VAR_QID, part.getId());
+
+      if (!BeeUtils.isEmpty(part.getContentType())) {
+        partHeaders.put(Service.RPC_VAR_CTP, part.getContentType());
+      }
+
+      parts.add(new RequestInfo(this, part.getMethod(), part.getQuery(), partHeaders,
+          part.getContent()));
+    }
+    return parts;
   }
 
   public String getContent() {
@@ -320,7 +374,13 @@ public class RequestInfo implements HasExtendedInfo, HasOptions {
     return request.getHeader(HttpHeaders.USER_AGENT);
   }
 
+  /**
+   * @return variables sent as request content, parsed on first access
+   */
   public Map<String, String> getVars() {
+    if (vars == null && isData()) {
+      vars = Codec.deserializeLinkedHashMap(content);
+    }
     return vars;
   }
 
@@ -0,0 +1,182 @@
+package com.butent.bee.server.http;
+
+import com.google.common.io.CountingOutputStream;
+import com.google.common.net.HttpHeaders;
+
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes response content to the servlet output stream, compressed with gzip or deflate, if the
+ * client accepts one of them and the content reaches the threshold.
+ * <p>
+ * Content is buffered until the threshold is reached, so small responses are sent uncompressed
+ * and with exact content length, while large ones are compressed on the fly without being held in
+ * memory.
+ */
+
+public class ResponseOutputStream extends OutputStream {
+
+  public static final String ENCODING_GZIP = "gzip";
+  public static final String ENCODING_DEFLATE = "deflate";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * @return {@code gzip} or {@code deflate}, if accepted by the client, {@code null} otherwise
+   */
+  public static String negotiate(String acceptEncoding) {
+    if (BeeUtils.isEmpty(acceptEncoding)) {
+      return null;
+    }
+    boolean deflate = false;
+
+    for (String item : acceptEncoding.split(",")) {
+      String[] parts = item.split(";");
+      String coding = parts[0].trim();
+
+      if (parts.length > 1 && isRefused(parts[1])) {
+        continue;
+      }
+
+      if (BeeUtils.same(coding, ENCODING_GZIP)) {
+        return ENCODING_GZIP;
+      } else if (BeeUtils.same(coding, ENCODING_DEFLATE)) {
+        deflate = true;
+      }
+    }
+    return deflate ? ENCODING_DEFLATE : null;
+  }
+
+  private static boolean isRefused(String parameter) {
+    String[] parts = parameter.split("=");
+
+    if (parts.length == 2 && BeeUtils.same(parts[0].trim(), "q")) {
+      Double q = BeeUtils.toDoubleOrNull(parts[1].trim());
+      return q != null && q <= 0;
+    }
+    return false;
+  }
+
+  private final HttpServletResponse response;
+  private final String encoding;
+  private final int threshold;
+
+  private ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+
+  private CountingOutputStream counter;
+  private OutputStream target;
+
+  private long rawLength;
+  private boolean compressed;
+
+  /**
+   * @param acceptEncoding value of the {@code Accept-Encoding} request header
+   * @param threshold minimal content length in bytes for compression, non-positive value disables
+   *          compression
+   */
+  public ResponseOutputStream(HttpServletResponse response, String acceptEncoding,
+      int threshold) {
+    this.response = response;
+    this.encoding = (threshold > 0) ? negotiate(acceptEncoding) : null;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (target == null) {
+      start(false, true);
+    }
+
+    if (target instanceof DeflaterOutputStream) {
+      ((DeflaterOutputStream) target).finish();
+    }
+    target.flush();
+    target.close();
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (target != null) {
+      target.flush();
+    }
+  }
+
+  /**
+   * @return number of bytes sent to the client, after compression
+   */
+  public long getContentLength() {
+    if (counter == null) {
+      return (buffer == null) ? 0 : buffer.size();
+    } else {
+      return counter.getCount();
+    }
+  }
+
+  /**
+   * @return content encoding used for the response or {@code null}, if it was not compressed
+   */
+  public String getEncoding() {
+    return compressed ? encoding : null;
+  }
+
+  /**
+   * @return number of bytes written to this stream, before compression
+   */
+  public long getRawLength() {
+    return rawLength;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    rawLength += len;
+
+    if (target != null) {
+      target.write(b, off, len);
+
+    } else {
+      buffer.write(b, off, len);
+
+      if (buffer.size() >= threshold) {
+        start(encoding != null, false);
+      }
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  private void start(boolean compress, boolean complete) throws IOException {
+    counter = new CountingOutputStream(response.getOutputStream());
+
+    if (compress) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+      response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+      if (ENCODING_GZIP.equals(encoding)) {
+        target = new GZIPOutputStream(counter, BUFFER_SIZE);
+      } else {
+        target = new DeflaterOutputStream(counter);
+      }
+      compressed = true;
+
+    } else {
+      if (complete) {
+        response.setContentLength(buffer.size());
+      }
+      target = counter;
+    }
+
+    buffer.writeTo(target);
+    buffer = null;
+  }
+}
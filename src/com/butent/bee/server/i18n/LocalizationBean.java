@@ -2,6 +2,7 @@ package com.butent.bee.server.i18n;
 
 import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
 
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.server.data.QueryServiceBean;
 import com.butent.bee.server.data.UserServiceBean;
 import com.butent.bee.server.http.RequestInfo;
@@ -85,18 +86,28 @@ public class LocalizationBean {
     return response;
   }
 
+  /**
+   * Reloads the custom glossary of a locale, customized on another cluster node.
+   */
+  @Lock(LockType.WRITE)
+  public void reloadGlossary(String language) {
+    SupportedLocale locale = SupportedLocale.getByLanguage(language);
+
+    if (locale == null) {
+      logger.warning("cannot reload glossary", language);
+    } else {
+      customizeGlossary(locale);
+    }
+  }
+
   private ResponseObject customizeDictionary(RequestInfo reqInfo) {
     SupportedLocale locale = SupportedLocale.getByLanguage(reqInfo.getParameter(VAR_LOCALE));
     if (locale == null) {
       return ResponseObject.parameterNotFound(reqInfo.getService(), VAR_LOCALE);
     }
 
-    Localizations.setCustomGlossary(locale,
-        getDictionaryData(locale.getDictionaryCustomColumnName()));
-
-    if (locale.isUserDefault() || locale == SupportedLocale.DICTIONARY_DEFAULT) {
-      Localized.setGlossary(Localizations.getGlossary(SupportedLocale.getUserDefault()));
-    }
+    customizeGlossary(locale);
+    qs.publishOnCommit(Cluster.CHANNEL_BOOTSTRAP, locale.getLanguage());
 
     SupportedLocale userLocale = usr.getSupportedLocale();
     if (userLocale != null
@@ -109,6 +120,15 @@ public class LocalizationBean {
     }
   }
 
+  private void customizeGlossary(SupportedLocale locale) {
+    Localizations.setCustomGlossary(locale,
+        getDictionaryData(locale.getDictionaryCustomColumnName()));
+
+    if (locale.isUserDefault() || locale == SupportedLocale.DICTIONARY_DEFAULT) {
+      Localized.setGlossary(Localizations.getGlossary(SupportedLocale.getUserDefault()));
+    }
+  }
+
   private Map<String, String> getDictionaryData(String column) {
     Map<String, String> result = new HashMap<>();
 
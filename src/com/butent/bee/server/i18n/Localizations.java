@@ -12,6 +12,7 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public final class Localizations {
 
@@ -25,6 +26,8 @@ public final class Localizations {
   private static final EnumMap<SupportedLocale, Dictionary> dictionaries =
       new EnumMap<>(SupportedLocale.class);
 
+  private static final AtomicLong glossaryVersion = new AtomicLong();
+
   public static Dictionary getDictionary(SupportedLocale supportedLocale) {
     return dictionaries.get(supportedLocale);
   }
@@ -73,6 +76,13 @@ public final class Localizations {
     return getGlossary(SupportedLocale.parse(language));
   }
 
+  /**
+   * @return a number, changed whenever default or custom glossaries are reloaded
+   */
+  public static long getGlossaryVersion() {
+    return glossaryVersion.get();
+  }
+
   public static List<Property> getInfo() {
     List<Property> result = new ArrayList<>();
 
@@ -106,12 +116,14 @@ public final class Localizations {
     } else if (BeeUtils.isEmpty(glossary)) {
       if (customGlossaries.containsKey(supportedLocale)) {
         customGlossaries.remove(supportedLocale);
+        glossaryVersion.incrementAndGet();
         logger.info("removed custom glossary", supportedLocale);
       }
 
     } else {
       customGlossaries.put(supportedLocale, glossary);
       putDictionaryIfAbsent(supportedLocale);
+      glossaryVersion.incrementAndGet();
 
       logger.info("Localizations:", glossary.size(), "entries put into custom glossary",
           supportedLocale);
@@ -174,6 +186,7 @@ public final class Localizations {
 
       putDictionaryIfAbsent(supportedLocale);
     }
+    glossaryVersion.incrementAndGet();
   }
 
   private static void putDictionaryIfAbsent(SupportedLocale supportedLocale) {
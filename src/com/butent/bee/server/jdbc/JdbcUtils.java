@@ -16,6 +16,8 @@ import com.butent.bee.shared.utils.PropertyUtils;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -91,6 +93,64 @@ public final class JdbcUtils {
     }
   }
 
+  public static void bindParameters(PreparedStatement stmt, List<Object> parameters)
+      throws JdbcException {
+    bindParameters(stmt, parameters, false);
+  }
+
+  /**
+   * Binds {@code parameters} in order of appearance.
+   *
+   * @param untypedStrings bind strings without a declared type, so that the server infers the type
+   *          from context as it does for literals (PostgreSQL does not cast varchar implicitly)
+   */
+  public static void bindParameters(PreparedStatement stmt, List<Object> parameters,
+      boolean untypedStrings) throws JdbcException {
+
+    int[] nullTypes = (untypedStrings || parameters == null || !parameters.contains(null))
+        ? null : getParameterTypes(stmt);
+    bindParameters(stmt, parameters, untypedStrings, nullTypes);
+  }
+
+  /**
+   * Binds {@code parameters} in order of appearance. Nulls are bound with
+   * {@link PreparedStatement#setNull}, because some drivers (Oracle, older SQL Server) reject
+   * untyped nulls.
+   *
+   * @param untypedStrings bind strings and nulls without a declared type, so that the server
+   *          infers the type from context as it does for literals
+   * @param nullTypes SQL types of parameters, see {@link #getParameterTypes}; nulls of unknown
+   *          type are bound as {@code VARCHAR}
+   */
+  public static void bindParameters(PreparedStatement stmt, List<Object> parameters,
+      boolean untypedStrings, int[] nullTypes) throws JdbcException {
+    Assert.notNull(stmt);
+
+    if (parameters != null) {
+      try {
+        for (int i = 0; i < parameters.size(); i++) {
+          Object value = parameters.get(i);
+
+          if (value == null) {
+            if (untypedStrings) {
+              stmt.setNull(i + 1, Types.OTHER);
+            } else if (nullTypes != null && i < nullTypes.length) {
+              stmt.setNull(i + 1, nullTypes[i]);
+            } else {
+              stmt.setNull(i + 1, Types.VARCHAR);
+            }
+          } else if (untypedStrings && value instanceof String) {
+            stmt.setObject(i + 1, value, Types.OTHER);
+          } else {
+            stmt.setObject(i + 1, value);
+          }
+        }
+      } catch (SQLException ex) {
+        throw new JdbcException(ex);
+      }
+    }
+  }
+
   public static void closeConnection(Connection con) {
     if (con != null) {
       try {
@@ -349,6 +409,33 @@ public final class JdbcUtils {
     return mr;
   }
 
+  /**
+   * Returns SQL types of parameters of {@code stmt}, as described by the driver.
+   *
+   * @return parameter types or {@code null}, if the driver does not describe parameters
+   */
+  public static int[] getParameterTypes(PreparedStatement stmt) {
+    Assert.notNull(stmt);
+
+    try {
+      ParameterMetaData md = stmt.getParameterMetaData();
+
+      if (md == null) {
+        return null;
+      }
+      int[] types = new int[md.getParameterCount()];
+
+      for (int i = 0; i < types.length; i++) {
+        types[i] = md.getParameterType(i + 1);
+      }
+      return types;
+
+    } catch (SQLException ex) {
+      logger.debug("parameter types not available:", ex.getMessage());
+      return null;
+    }
+  }
+
   public static ResultSet getResultSet(Statement stmt) throws JdbcException {
     Assert.notNull(stmt);
     ResultSet rs = null;
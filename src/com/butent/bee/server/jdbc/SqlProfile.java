@@ -0,0 +1,201 @@
+package com.butent.bee.server.jdbc;
+
+import com.butent.bee.server.Config;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.ExtendedProperty;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects statistics of SQL statements executed by the current thread while serving one request:
+ * statement count, database time, fetched rows and execution counts per statement template.
+ * <p>
+ * Templates executed more than {@code SqlRepeatThreshold} times in one request usually come from
+ * a query inside a loop over rows, which can be replaced by a single query. Finished profiles are
+ * kept in a bounded history for administrators.
+ */
+
+public final class SqlProfile {
+
+  private static final class Template {
+    private final String sql;
+    private int count;
+    private long nanos;
+
+    private Template(String sql) {
+      this.sql = sql;
+    }
+  }
+
+  private static final int DEFAULT_REPEAT_THRESHOLD = 20;
+  private static final int HISTORY_SIZE = 100;
+  private static final int TOP_TEMPLATES = 3;
+  private static final int MAX_SQL_LENGTH = 200;
+
+  private static final ThreadLocal<SqlProfile> current = new ThreadLocal<>();
+  private static final Deque<SqlProfile> history = new ArrayDeque<>();
+
+  private static Integer repeatThreshold;
+
+  /**
+   * Ends profiling of the current thread and resumes the profile, which was current when it was
+   * started.
+   *
+   * @return the finished profile or {@code null}, if profiling was not started
+   */
+  public static SqlProfile finish() {
+    SqlProfile profile = current.get();
+
+    if (profile == null || profile.parent == null) {
+      current.remove();
+    } else {
+      current.set(profile.parent);
+    }
+
+    if (profile != null && profile.count > 0) {
+      synchronized (history) {
+        if (history.size() >= HISTORY_SIZE) {
+          history.removeFirst();
+        }
+        history.addLast(profile);
+      }
+    }
+    return profile;
+  }
+
+  /**
+   * @return profiles of recent requests, most recent first
+   */
+  public static List<ExtendedProperty> getHistory() {
+    List<SqlProfile> profiles;
+
+    synchronized (history) {
+      profiles = new ArrayList<>(history);
+    }
+    List<ExtendedProperty> info = new ArrayList<>();
+
+    for (int i = profiles.size() - 1; i >= 0; i--) {
+      SqlProfile profile = profiles.get(i);
+      String name = BeeUtils.joinWords(profile.requestId, profile.service);
+
+      info.add(new ExtendedProperty(name, "Statements", BeeUtils.toString(profile.count)));
+      info.add(new ExtendedProperty(name, "Time", profile.getSeconds()));
+      info.add(new ExtendedProperty(name, "Rows", BeeUtils.toString(profile.rows)));
+
+      for (Template template : profile.getTopTemplates()) {
+        info.add(new ExtendedProperty(name,
+            profile.isRepeated(template) ? "Repeated" : "Template",
+            BeeUtils.joinWords(template.count, "x", formatSeconds(template.nanos),
+                BeeUtils.left(template.sql, MAX_SQL_LENGTH))));
+      }
+    }
+    return info;
+  }
+
+  /**
+   * Adds an executed statement to the profile of the current thread, if there is one.
+   */
+  public static void record(String sql, long nanos, int rows) {
+    SqlProfile profile = current.get();
+
+    if (profile != null && !BeeUtils.isEmpty(sql)) {
+      profile.count++;
+      profile.nanos += nanos;
+      profile.rows += Math.max(rows, 0);
+
+      Template template = profile.templates.get(sql);
+
+      if (template == null) {
+        template = new Template(sql);
+        profile.templates.put(sql, template);
+      }
+      template.count++;
+      template.nanos += nanos;
+    }
+  }
+
+  /**
+   * Starts profiling of the current thread, statements are not added to an already started
+   * profile until this one is finished.
+   */
+  public static void start(String requestId, String service) {
+    current.set(new SqlProfile(requestId, service, current.get()));
+  }
+
+  private static String formatSeconds(long nanos) {
+    return BeeUtils.bracket(String.format("%.3f", nanos / 1e9));
+  }
+
+  private static int getRepeatThreshold() {
+    if (repeatThreshold == null) {
+      Integer threshold =
+          BeeUtils.toIntOrNull(Config.getProperty(Service.PROPERTY_SQL_REPEAT_THRESHOLD));
+      repeatThreshold = BeeUtils.isPositive(threshold) ? threshold : DEFAULT_REPEAT_THRESHOLD;
+    }
+    return repeatThreshold;
+  }
+
+  private final String requestId;
+  private final String service;
+
+  private final SqlProfile parent;
+
+  private int count;
+  private long nanos;
+  private long rows;
+
+  private final Map<String, Template> templates = new HashMap<>();
+
+  private SqlProfile(String requestId, String service, SqlProfile parent) {
+    this.requestId = requestId;
+    this.service = service;
+    this.parent = parent;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * @return templates executed more times than the repeat threshold, formatted for logging
+   */
+  public List<String> getRepeated() {
+    List<String> repeated = new ArrayList<>();
+
+    for (Template template : getTopTemplates()) {
+      if (isRepeated(template)) {
+        repeated.add(BeeUtils.joinWords(template.count, "x", formatSeconds(template.nanos),
+            BeeUtils.left(template.sql, MAX_SQL_LENGTH)));
+      }
+    }
+    return repeated;
+  }
+
+  public String getSeconds() {
+    return formatSeconds(nanos);
+  }
+
+  @Override
+  public String toString() {
+    return (count > 0)
+        ? BeeUtils.joinWords("sql", count, getSeconds(), "rows", rows) : BeeConst.STRING_EMPTY;
+  }
+
+  private List<Template> getTopTemplates() {
+    List<Template> top = new ArrayList<>(templates.values());
+    top.sort((t1, t2) -> Integer.compare(t2.count, t1.count));
+
+    return (top.size() > TOP_TEMPLATES) ? top.subList(0, TOP_TEMPLATES) : top;
+  }
+
+  private boolean isRepeated(Template template) {
+    return template.count > getRepeatThreshold();
+  }
+}
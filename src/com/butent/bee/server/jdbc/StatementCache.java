@@ -0,0 +1,231 @@
+package com.butent.bee.server.jdbc;
+
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a bounded, least recently used set of prepared statements per physical database
+ * connection, keyed by SQL text.
+ * <p>
+ * Pooled data sources hand out a new logical connection for every request, so statements are
+ * prepared on the vendor connection behind it. When the driver connection cannot be unwrapped,
+ * statements are not cached and pool level statement caching applies instead.
+ * <p>
+ * Logical connections of one transaction share the physical connection, so a statement may still
+ * be executing, with its result set open, when a nested query asks for the same SQL. Such callers
+ * get a fresh statement, which is closed on release.
+ */
+
+public final class StatementCache {
+
+  private static final BeeLogger logger = LogUtils.getLogger(StatementCache.class);
+
+  private static final String[] DRIVER_CONNECTIONS = new String[] {
+      "org.postgresql.PGConnection",
+      "com.microsoft.sqlserver.jdbc.ISQLServerConnection",
+      "oracle.jdbc.OracleConnection"};
+
+  private static final int PURGE_INTERVAL = 100;
+
+  private static final Map<Connection, StatementCache> caches = new IdentityHashMap<>();
+  private static int requests;
+
+  private static List<Class<?>> driverConnections;
+
+  /**
+   * Returns the cache of the physical connection behind {@code con}.
+   *
+   * @param con a logical or physical connection
+   * @param maxSize maximum number of statements to keep open on the connection
+   * @return the cache or {@code null}, if caching is disabled or the physical connection is not
+   *         accessible
+   */
+  public static StatementCache get(Connection con, int maxSize) {
+    Assert.notNull(con);
+
+    if (maxSize <= 0) {
+      return null;
+    }
+    Connection physical = unwrap(con);
+
+    if (physical == null) {
+      return null;
+    }
+    synchronized (caches) {
+      if (++requests % PURGE_INTERVAL == 0) {
+        purge();
+      }
+      StatementCache cache = caches.get(physical);
+
+      if (cache == null) {
+        cache = new StatementCache(physical, maxSize);
+        caches.put(physical, cache);
+      }
+      return cache;
+    }
+  }
+
+  public static int getSize() {
+    synchronized (caches) {
+      int size = 0;
+
+      for (StatementCache cache : caches.values()) {
+        size += cache.statements.size();
+      }
+      return size;
+    }
+  }
+
+  private static List<Class<?>> getDriverConnections() {
+    if (driverConnections == null) {
+      List<Class<?>> classes = new ArrayList<>();
+
+      for (String name : DRIVER_CONNECTIONS) {
+        try {
+          classes.add(Class.forName(name));
+        } catch (ClassNotFoundException | LinkageError ex) {
+          logger.debug("driver connection not available:", name);
+        }
+      }
+      driverConnections = classes;
+    }
+    return driverConnections;
+  }
+
+  private static void purge() {
+    Iterator<Map.Entry<Connection, StatementCache>> it = caches.entrySet().iterator();
+
+    while (it.hasNext()) {
+      Map.Entry<Connection, StatementCache> entry = it.next();
+      boolean closed;
+
+      try {
+        closed = entry.getKey().isClosed();
+      } catch (SQLException ex) {
+        closed = true;
+      }
+      if (closed) {
+        entry.getValue().clear();
+        it.remove();
+      }
+    }
+  }
+
+  private static Connection unwrap(Connection con) {
+    for (Class<?> iface : getDriverConnections()) {
+      try {
+        if (con.isWrapperFor(iface)) {
+          Object physical = con.unwrap(iface);
+
+          if (physical instanceof Connection && physical != con) {
+            return (Connection) physical;
+          }
+        }
+      } catch (SQLException | AbstractMethodError ex) {
+        logger.debug(ex);
+      }
+    }
+    return null;
+  }
+
+  private final Connection connection;
+  private final LinkedHashMap<String, PreparedStatement> statements;
+
+  private final Set<PreparedStatement> busy = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  StatementCache(Connection connection, final int maxSize) {
+    this.connection = connection;
+
+    this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+        boolean remove = size() > maxSize;
+
+        if (remove && !busy.contains(eldest.getValue())) {
+          JdbcUtils.closeStatement(eldest.getValue());
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Returns a cached statement for {@code sql} or prepares a new one. The statement must be
+   * handed back with {@link #release(PreparedStatement)} and never closed by the caller.
+   * <p>
+   * If the cached statement is in use, an uncached one is prepared.
+   */
+  public synchronized PreparedStatement prepare(String sql) throws SQLException {
+    Assert.notEmpty(sql);
+
+    PreparedStatement stmt = statements.get(sql);
+
+    if (stmt != null && busy.contains(stmt)) {
+      return connection.prepareStatement(sql);
+    }
+
+    if (stmt != null && stmt.isClosed()) {
+      statements.remove(sql);
+      stmt = null;
+    }
+    if (stmt == null) {
+      stmt = connection.prepareStatement(sql);
+      statements.put(sql, stmt);
+    }
+
+    busy.add(stmt);
+    return stmt;
+  }
+
+  public synchronized void release(PreparedStatement stmt) {
+    if (stmt == null) {
+      return;
+    }
+
+    if (!busy.remove(stmt) || !isCached(stmt)) {
+      JdbcUtils.closeStatement(stmt);
+      return;
+    }
+
+    try {
+      stmt.clearParameters();
+    } catch (SQLException ex) {
+      logger.warning(ex, "Could not clear JDBC Statement parameters");
+      statements.values().remove(stmt);
+      JdbcUtils.closeStatement(stmt);
+    }
+  }
+
+  private synchronized void clear() {
+    for (PreparedStatement stmt : statements.values()) {
+      if (!busy.contains(stmt)) {
+        JdbcUtils.closeStatement(stmt);
+      }
+    }
+    statements.clear();
+  }
+
+  private boolean isCached(PreparedStatement stmt) {
+    for (PreparedStatement cached : statements.values()) {
+      if (cached == stmt) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
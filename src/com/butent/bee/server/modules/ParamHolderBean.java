@@ -438,7 +438,7 @@ public class ParamHolderBean {
     if (DataUtils.isId(relation)) {
       Pair<String, String> relInfo = Pair.restore(param.getOptions());
 
-      BeeRowSet data = qs.getViewData(relInfo.getA(), Filter.compareId(relation));
+      BeeRowSet data = qs.getCachedViewData(relInfo.getA(), Filter.compareId(relation));
       List<String> values = new ArrayList<>();
 
       if (!DataUtils.isEmpty(data)) {
@@ -13,6 +13,7 @@ import static com.butent.bee.shared.modules.classifiers.ClassifierConstants.*;
 import static com.butent.bee.shared.modules.trade.TradeConstants.*;
 
 import com.butent.bee.server.Config;
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.server.concurrency.ConcurrencyBean;
 import com.butent.bee.server.concurrency.ConcurrencyBean.HasTimerService;
 import com.butent.bee.server.data.BeeTable;
@@ -272,7 +273,7 @@ public class AdministrationModuleBean implements BeeModule, HasTimerService {
         .addOrderDesc(TBL_CURRENCY_RATES, COL_CURRENCY_RATE_DATE)
         .setLimit(1);
 
-    SimpleRowSet data = qs.getData(query);
+    SimpleRowSet data = qs.getCachedData(query);
     if (DataUtils.isEmpty(data)) {
       return BeeConst.DOUBLE_ONE;
 
@@ -426,9 +427,11 @@ public class AdministrationModuleBean implements BeeModule, HasTimerService {
       @Subscribe
       @AllowConcurrentEvents
       public void refreshUsersCache(TableModifyEvent event) {
-        if (event.isAfter(TBL_USERS, TBL_ROLES, TBL_USER_ROLES)) {
+        if (event.isAfter(TBL_USERS, TBL_ROLES, TBL_USER_ROLES) && !event.isRemote()) {
           usr.initUsers();
           Endpoint.updateUserData(usr.getAllUserData());
+
+          qs.publishOnCommit(Cluster.CHANNEL_USERS, event.getTargetName());
         }
       }
 
@@ -740,6 +743,8 @@ public class AdministrationModuleBean implements BeeModule, HasTimerService {
           .addConstant(COL_STATE, row.getInt(COL_STATE)));
     }
     usr.initRights();
+    qs.publishOnCommit(Cluster.CHANNEL_RIGHTS, TBL_RIGHTS);
+
     return ResponseObject.emptyResponse();
   }
 
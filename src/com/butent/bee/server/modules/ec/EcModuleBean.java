@@ -1432,7 +1432,7 @@ public class EcModuleBean implements BeeModule {
         .addFrom(TBL_TCD_CATEGORIES)
         .addOrder(TBL_TCD_CATEGORIES, idName);
 
-    SimpleRowSet data = qs.getData(query);
+    SimpleRowSet data = qs.getCachedData(query);
     if (DataUtils.isEmpty(data)) {
       String msg = TBL_TCD_CATEGORIES + ": data not available";
       logger.warning(msg);
@@ -2184,7 +2184,7 @@ public class EcModuleBean implements BeeModule {
   private ResponseObject getItemBrands() {
     String colBrandId = sys.getIdName(TBL_TCD_BRANDS);
 
-    SimpleRowSet data = qs.getData(new SqlSelect().setDistinctMode(true)
+    SimpleRowSet data = qs.getCachedData(new SqlSelect().setDistinctMode(true)
         .addFields(TBL_TCD_BRANDS, colBrandId, COL_TCD_BRAND_NAME)
         .addFrom(TBL_TCD_ARTICLES)
         .addFromInner(TBL_TCD_BRANDS,
@@ -86,13 +86,13 @@ public class FinanceModuleBean implements BeeModule {
               response = posting.postTradeDocument(id);
               break;
             case SVC_VERIFY_ANALYSIS_FORM:
-              response = analysis.verifyForm(id);
+              response = qs.readFromReplica(() -> analysis.verifyForm(id));
               break;
             case SVC_CALCULATE_ANALYSIS_FORM:
-              response = analysis.calculateForm(id);
+              response = qs.readFromReplica(() -> analysis.calculateForm(id));
               break;
             case SVC_GET_ANALYSIS_RESULTS:
-              response = analysis.getResults(id);
+              response = qs.readFromReplica(() -> analysis.getResults(id));
               break;
             default:
               Assert.untouchable();
@@ -77,6 +77,10 @@ public class TradeReportsBean {
   AdministrationModuleBean adm;
 
   public ResponseObject doService(String service, RequestInfo reqInfo) {
+    return qs.readFromReplica(() -> doReport(service, reqInfo));
+  }
+
+  private ResponseObject doReport(String service, RequestInfo reqInfo) {
     ResponseObject response;
 
     String svc = BeeUtils.trim(service);
@@ -344,10 +344,10 @@ public class TransportModuleBean implements BeeModule {
           BeeUtils.toBoolean(reqInfo.getParameter(Service.VAR_CHECK)));
 
     } else if (BeeUtils.same(svc, SVC_TRIP_PROFIT_REPORT)) {
-      response = rep.getTripProfitReport(reqInfo);
+      response = qs.readFromReplica(() -> rep.getTripProfitReport(reqInfo));
 
     } else if (BeeUtils.same(svc, SVC_FUEL_USAGE_REPORT)) {
-      response = rep.getFuelUsageReport(reqInfo);
+      response = qs.readFromReplica(() -> rep.getFuelUsageReport(reqInfo));
 
     } else if (BeeUtils.same(svc, SVC_GET_VEHICLE_BUSY_DATES)) {
       response = getVehicleBusyDates(BeeUtils.toLongOrNull(reqInfo.getParameter(COL_VEHICLE)),
@@ -364,13 +364,13 @@ public class TransportModuleBean implements BeeModule {
       response = createUser(reqInfo);
 
     } else if (BeeUtils.same(svc, SVC_GET_TRIP_INFO)) {
-      response = rep.getTripInfo(reqInfo);
+      response = qs.readFromReplica(() -> rep.getTripInfo(reqInfo));
 
     } else if (BeeUtils.same(svc, SVC_GET_TEXT_CONSTANT)) {
       response = getTextConstant(reqInfo);
 
     } else if (BeeUtils.same(svc, SVC_TRIP_COSTS_REPORT)) {
-      response = rep.getTripCostsReport(reqInfo);
+      response = qs.readFromReplica(() -> rep.getTripCostsReport(reqInfo));
 
     } else if (BeeUtils.same(svc, SVC_GET_SETTINGS)) {
       return ResponseObject.response(getSettings());
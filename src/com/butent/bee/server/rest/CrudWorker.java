@@ -129,7 +129,8 @@ public abstract class CrudWorker {
     if (sys.getView(getViewName()).hasColumn(CONTACT_VERSION)) {
       filter = Filter.or(filter, Filter.isMore(CONTACT_VERSION, Value.getValue(sync)));
     }
-    return get(filter);
+    Filter flt = filter;
+    return qs.readFromReplica(() -> get(flt));
   }
 
   @POST
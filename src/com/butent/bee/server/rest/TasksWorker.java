@@ -200,7 +200,7 @@ public class TasksWorker extends CrudWorker {
     filter.add(Filter.isNull(COL_LAST_ACCESS))
         .add(Filter.compareWithColumn(COL_PUBLISH_TIME, Operator.GT, COL_LAST_ACCESS));
 
-    return get(filter);
+    return qs.readFromReplica(() -> get(filter));
   }
 
   @GET
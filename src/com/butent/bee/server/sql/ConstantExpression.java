@@ -16,7 +16,7 @@ class ConstantExpression implements IsExpression {
 
   @Override
   public String getSqlString(SqlBuilder builder) {
-    return builder.sqlTransform(constant);
+    return builder.sqlParameter(constant);
   }
 
   @Override
@@ -0,0 +1,73 @@
+package com.butent.bee.server.sql;
+
+import com.butent.bee.shared.BeeConst.SqlEngine;
+import com.butent.bee.shared.data.value.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the rendered FROM clause of a query shared by many requests, so that its joins are
+ * rendered once per SQL engine. Values of parameter markers in the clause are kept in order of
+ * appearance and added to the statement being built, whenever the clause is reused.
+ * <p>
+ * The template applies to queries, whose from list holds the same items as the list it was
+ * created from. The items must not be changed afterwards.
+ */
+
+public final class FromTemplate {
+
+  static final class Rendered {
+    private final String sql;
+    private final List<Value> values;
+
+    private Rendered(String sql, List<Value> values) {
+      this.sql = sql;
+      this.values = (values == null) ? Collections.emptyList() : new ArrayList<>(values);
+    }
+
+    String getSql() {
+      return sql;
+    }
+
+    List<Value> getValues() {
+      return values;
+    }
+  }
+
+  private static String key(SqlEngine engine, boolean parameterized) {
+    return parameterized ? engine.name() + "?" : engine.name();
+  }
+
+  private final List<IsFrom> fromList;
+  private final Map<String, Rendered> rendered = new ConcurrentHashMap<>();
+
+  public FromTemplate(List<IsFrom> fromList) {
+    this.fromList = (fromList == null) ? Collections.emptyList() : new ArrayList<>(fromList);
+  }
+
+  Rendered get(SqlEngine engine, boolean parameterized) {
+    return rendered.get(key(engine, parameterized));
+  }
+
+  boolean matches(List<IsFrom> froms) {
+    if (froms == null || froms.size() != fromList.size()) {
+      return false;
+    }
+    for (int i = 0; i < froms.size(); i++) {
+      if (froms.get(i) != fromList.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  Rendered put(SqlEngine engine, boolean parameterized, String sql, List<Value> values) {
+    Rendered value = new Rendered(sql, values);
+    rendered.put(key(engine, parameterized), value);
+    return value;
+  }
+}
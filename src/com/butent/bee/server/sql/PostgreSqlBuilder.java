@@ -11,6 +11,7 @@ import com.butent.bee.shared.data.SqlConstants.SqlFunction;
 import com.butent.bee.shared.data.SqlConstants.SqlKeyword;
 import com.butent.bee.shared.data.SqlConstants.SqlTriggerEvent;
 import com.butent.bee.shared.data.filter.Operator;
+import com.butent.bee.shared.data.value.Value;
 import com.butent.bee.shared.utils.BeeUtils;
 import com.butent.bee.shared.utils.Codec;
 import com.butent.bee.shared.utils.NameUtils;
@@ -93,10 +94,10 @@ class PostgreSqlBuilder extends SqlBuilder {
     String sql = super.getSelect(ss);
 
     if (BeeUtils.isPositive(limit)) {
-      sql += " LIMIT " + limit;
+      sql += " LIMIT " + sqlParameter(Value.getValue(limit));
     }
     if (BeeUtils.isPositive(offset)) {
-      sql += " OFFSET " + offset;
+      sql += " OFFSET " + sqlParameter(Value.getValue(offset));
     }
     return sql;
   }
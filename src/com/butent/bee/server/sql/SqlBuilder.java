@@ -35,8 +35,83 @@ import java.util.Map;
 
 public abstract class SqlBuilder {
 
+  /**
+   * Limits the number of bound parameters in one statement, leaving a margin below the smallest
+   * driver limit (2100 for SQL Server). Larger statements are rendered with inline literals.
+   */
+  private static final int MAX_PARAMETERS = 2000;
+
+  private static final char PARAMETER_MARK = '\u0001';
+
+  private static final ThreadLocal<List<Value>> parameters = new ThreadLocal<>();
+
+  /**
+   * Converts {@code value} to the JDBC type it is bound as, like constants of a parameterized
+   * statement.
+   *
+   * @return the value to bind or {@code null} for SQL NULL
+   */
+  public Object getBindValue(Object value) {
+    return sqlBindValue(value);
+  }
+
   public abstract SqlEngine getEngine();
 
+  /**
+   * Renders {@code query} to an SQL template with {@code ?} markers instead of constant literals.
+   * Only {@code SqlSelect}, {@code SqlInsert}, {@code SqlUpdate} and {@code SqlDelete} are
+   * parameterized, other queries are returned with inline literals.
+   *
+   * @param query the query to render
+   * @return SQL template and values to bind
+   */
+  public SqlStatement getStatement(IsQuery query) {
+    Assert.notNull(query);
+
+    if (!(query instanceof SqlSelect || query instanceof SqlInsert
+        || query instanceof SqlUpdate || query instanceof SqlDelete)) {
+      return SqlStatement.of(query.getSqlString(this));
+    }
+    List<Value> previous = parameters.get();
+    List<Value> values = new ArrayList<>();
+    String template;
+
+    parameters.set(values);
+    try {
+      template = query.getSqlString(this);
+    } finally {
+      if (previous == null) {
+        parameters.remove();
+      } else {
+        parameters.set(previous);
+      }
+    }
+    if (values.isEmpty()) {
+      return SqlStatement.of(template);
+    }
+    if (values.size() > MAX_PARAMETERS) {
+      return SqlStatement.of(inlineParameters(template, values));
+    }
+    StringBuilder sql = new StringBuilder(template.length());
+    List<Object> bindings = new ArrayList<>(values.size());
+    int pos = 0;
+    int start = template.indexOf(PARAMETER_MARK);
+
+    while (start >= 0) {
+      int end = template.indexOf(PARAMETER_MARK, start + 1);
+      Value value = values.get(Integer.parseInt(template.substring(start + 1, end)));
+
+      sql.append(template, pos, start).append(BeeConst.CHAR_QUESTION);
+      bindings.add(sqlBindValue(value));
+
+      pos = end + 1;
+      start = template.indexOf(PARAMETER_MARK, pos);
+    }
+    sql.append(template, pos, template.length());
+
+    return new SqlStatement(getEngine(), sql.toString(), bindings);
+  }
+
   protected abstract String getAuditTrigger(String auditTable, String idName,
       Collection<String> fields);
 
@@ -214,7 +289,7 @@ public abstract class SqlBuilder {
       }
       IsExpression[] fldEntry = fieldList.get(i);
       IsExpression field = fldEntry[SqlSelect.FIELD_EXPR];
-      query.append(field.getSqlString(this));
+      query.append(getInlineSqlString(field));
 
       IsExpression alias = fldEntry[SqlSelect.FIELD_ALIAS];
 
@@ -226,9 +301,14 @@ public abstract class SqlBuilder {
 
     if (!BeeUtils.isEmpty(fromList)) {
       query.append(" FROM ");
+      FromTemplate template = ss.getFromTemplate();
 
-      for (IsFrom from : fromList) {
-        query.append(from.getSqlString(this));
+      if (template != null && template.matches(fromList)) {
+        query.append(getFromSqlString(template, fromList));
+      } else {
+        for (IsFrom from : fromList) {
+          query.append(from.getSqlString(this));
+        }
       }
     }
     IsCondition whereClause = ss.getWhere();
@@ -249,7 +329,7 @@ public abstract class SqlBuilder {
         if (i > 0) {
           query.append(", ");
         }
-        String group = groupList.get(i).getSqlString(this);
+        String group = getInlineSqlString(groupList.get(i));
         query.append(group);
       }
     }
@@ -377,6 +457,34 @@ public abstract class SqlBuilder {
 
   protected abstract String getVersionTrigger(String versionName);
 
+  /**
+   * Renders {@code sql} with constants as literals even while a parameterized template is being
+   * built. Used for select list and GROUP BY expressions, which must stay textually identical for
+   * the server to match them.
+   */
+  protected String getInlineSqlString(IsSql sql) {
+    List<Value> values = parameters.get();
+
+    if (values == null) {
+      return sql.getSqlString(this);
+    }
+    parameters.remove();
+    try {
+      return sql.getSqlString(this);
+    } finally {
+      parameters.set(values);
+    }
+  }
+
+  protected String inlineParameters(String sql) {
+    List<Value> values = parameters.get();
+
+    if (values == null || sql == null || sql.indexOf(PARAMETER_MARK) < 0) {
+      return sql;
+    }
+    return inlineParameters(sql, values);
+  }
+
   protected boolean isEmpty(Object x) {
     boolean ok;
 
@@ -440,6 +548,7 @@ public abstract class SqlBuilder {
       case MATCHES:
       case FULL_TEXT:
         boolean matches = operator == Operator.MATCHES;
+        value = inlineParameters(value);
         value = value.replace("|", "||").replace("%", "|%").replace("_", "|_");
 
         if (matches) {
@@ -882,6 +991,47 @@ public abstract class SqlBuilder {
     return null;
   }
 
+  protected Object sqlBindValue(Object x) {
+    Object val = (x instanceof Value) ? ((Value) x).getObjectValue() : x;
+
+    if (val instanceof Boolean) {
+      return (Boolean) val ? 1 : null;
+
+    } else if (val instanceof JustDate) {
+      return ((JustDate) val).getTime();
+
+    } else if (val instanceof Date) {
+      return ((Date) val).getTime();
+
+    } else if (val instanceof DateTime) {
+      return ((DateTime) val).getTime();
+
+    } else if (val instanceof Number) {
+      return val;
+
+    } else if (val instanceof Enum<?>) {
+      return ((Enum<?>) val).ordinal();
+
+    } else if (val instanceof CharSequence) {
+      return val.toString();
+    }
+    return null;
+  }
+
+  /**
+   * Returns a parameter marker for {@code value} while a parameterized template is being built,
+   * otherwise the value literal. Nulls and values without a JDBC counterpart are always inlined.
+   */
+  protected String sqlParameter(Value value) {
+    List<Value> values = parameters.get();
+
+    if (values == null || sqlBindValue(value) == null) {
+      return sqlTransform(value);
+    }
+    values.add(value);
+    return PARAMETER_MARK + BeeUtils.toString(values.size() - 1) + PARAMETER_MARK;
+  }
+
   protected abstract String sqlQuote(String value);
 
   protected String sqlTransform(Object x) {
@@ -963,4 +1113,74 @@ public abstract class SqlBuilder {
       return x.toString();
     }
   }
+
+  /**
+   * Returns the from clause rendered once per engine. Parameter markers of the clause are
+   * renumbered to follow the parameters collected so far.
+   */
+  private String getFromSqlString(FromTemplate template, List<IsFrom> fromList) {
+    List<Value> values = parameters.get();
+    FromTemplate.Rendered rendered = template.get(getEngine(), values != null);
+
+    if (rendered == null) {
+      List<Value> local = (values == null) ? null : new ArrayList<>();
+      StringBuilder sb = new StringBuilder();
+
+      if (local != null) {
+        parameters.set(local);
+      }
+      try {
+        for (IsFrom from : fromList) {
+          sb.append(from.getSqlString(this));
+        }
+      } finally {
+        if (local != null) {
+          parameters.set(values);
+        }
+      }
+      rendered = template.put(getEngine(), values != null, sb.toString(), local);
+    }
+    if (values == null || rendered.getValues().isEmpty()) {
+      return rendered.getSql();
+    }
+    int offset = values.size();
+    values.addAll(rendered.getValues());
+
+    if (offset == 0) {
+      return rendered.getSql();
+    }
+    String sql = rendered.getSql();
+    StringBuilder sb = new StringBuilder(sql.length());
+    int pos = 0;
+    int start = sql.indexOf(PARAMETER_MARK);
+
+    while (start >= 0) {
+      int end = sql.indexOf(PARAMETER_MARK, start + 1);
+      int index = Integer.parseInt(sql.substring(start + 1, end));
+
+      sb.append(sql, pos, start).append(PARAMETER_MARK).append(index + offset)
+          .append(PARAMETER_MARK);
+
+      pos = end + 1;
+      start = sql.indexOf(PARAMETER_MARK, pos);
+    }
+    return sb.append(sql, pos, sql.length()).toString();
+  }
+
+  private String inlineParameters(String template, List<Value> values) {
+    StringBuilder sql = new StringBuilder(template.length());
+    int pos = 0;
+    int start = template.indexOf(PARAMETER_MARK);
+
+    while (start >= 0) {
+      int end = template.indexOf(PARAMETER_MARK, start + 1);
+      Value value = values.get(Integer.parseInt(template.substring(start + 1, end)));
+
+      sql.append(template, pos, start).append(sqlTransform(value));
+
+      pos = end + 1;
+      start = template.indexOf(PARAMETER_MARK, pos);
+    }
+    return sql.append(template, pos, template.length()).toString();
+  }
 }
@@ -28,6 +28,13 @@ abstract class SqlQuery<T> implements IsQuery {
     return builder.getQuery(this);
   }
 
+  /**
+   * @return a parameterized statement using a currently set builder.
+   */
+  public SqlStatement getStatement() {
+    return SqlBuilderFactory.getBuilder().getStatement(this);
+  }
+
   public abstract T reset();
 
   @SuppressWarnings("unchecked")
@@ -39,6 +39,8 @@ public class SqlSelect extends HasFrom<SqlSelect> implements IsCloneable<SqlSele
   private int limit;
   private int offset;
 
+  private FromTemplate fromTemplate;
+
   /**
    * Adds all friend from {@code source} table.
    * <p>
@@ -664,6 +666,9 @@ public class SqlSelect extends HasFrom<SqlSelect> implements IsCloneable<SqlSele
     query.setLimit(limit);
     query.setOffset(offset);
 
+    if (!deep) {
+      query.setFromTemplate(fromTemplate);
+    }
     return query;
   }
 
@@ -675,6 +680,13 @@ public class SqlSelect extends HasFrom<SqlSelect> implements IsCloneable<SqlSele
     return fieldList;
   }
 
+  /**
+   * @return the rendered from clause to reuse, see {@link FromTemplate}
+   */
+  public FromTemplate getFromTemplate() {
+    return fromTemplate;
+  }
+
   /**
    * @return the current group by list {@code groupList}.
    */
@@ -853,6 +865,17 @@ public class SqlSelect extends HasFrom<SqlSelect> implements IsCloneable<SqlSele
     return getReference();
   }
 
+  /**
+   * Sets the rendered from clause to reuse while the from list holds the same items.
+   *
+   * @param template the template or {@code null}
+   * @return object's SqlSelect instance.
+   */
+  public SqlSelect setFromTemplate(FromTemplate template) {
+    this.fromTemplate = template;
+    return getReference();
+  }
+
   /**
    * Sets the having clause.
    *
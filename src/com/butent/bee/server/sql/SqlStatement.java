@@ -0,0 +1,60 @@
+package com.butent.bee.server.sql;
+
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.BeeConst.SqlEngine;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contains an SQL template with {@code ?} parameter markers and the values, already converted to
+ * JDBC types, which must be bound to those markers in order of appearance.
+ */
+
+public final class SqlStatement {
+
+  private final SqlEngine engine;
+  private final String sql;
+  private final List<Object> parameters;
+
+  SqlStatement(SqlEngine engine, String sql, List<Object> parameters) {
+    this.engine = engine;
+    this.sql = Assert.notEmpty(sql);
+
+    if (BeeUtils.isEmpty(parameters)) {
+      this.parameters = Collections.emptyList();
+    } else {
+      this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+    }
+  }
+
+  public static SqlStatement of(String sql) {
+    return new SqlStatement(null, sql, null);
+  }
+
+  /**
+   * @return the engine the statement was built for or {@code null}, if it has no parameters
+   */
+  public SqlEngine getEngine() {
+    return engine;
+  }
+
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public boolean hasParameters() {
+    return !parameters.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return hasParameters() ? BeeUtils.joinWords(sql, parameters) : sql;
+  }
+}
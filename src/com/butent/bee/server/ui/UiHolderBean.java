@@ -3,6 +3,7 @@ package com.butent.bee.server.ui;
 import com.google.common.base.Splitter;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.Hashing;
 
 import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
 
@@ -46,6 +47,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -56,6 +58,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ejb.EJB;
 import javax.ejb.Lock;
@@ -71,15 +75,56 @@ import javax.ejb.Singleton;
 @Lock(LockType.READ)
 public class UiHolderBean {
 
+  /**
+   * Descriptions, filtered by user rights, valid within a generation of rights, data info and
+   * hidden columns.
+   */
+  private static final class Variants<V> {
+
+    private final Map<String, V> values = new ConcurrentHashMap<>();
+    private String generation;
+
+    private synchronized void clear() {
+      values.clear();
+      generation = null;
+    }
+
+    private V get(String gen, String key) {
+      synchronized (this) {
+        if (!Objects.equals(generation, gen)) {
+          values.clear();
+          generation = gen;
+        }
+      }
+      return values.get(key);
+    }
+
+    private synchronized V put(String gen, String key, V value) {
+      if (Objects.equals(generation, gen)) {
+        values.put(key, value);
+      }
+      return value;
+    }
+  }
+
   private static final class UiObjectInfo implements BeeObject {
 
+    private final SysObject type;
     private final String module;
     private final String name;
     private final String resource;
+
+    private Document document;
+    private long modified;
+
+    private String rootName;
     private String viewName;
-    boolean viewSet;
+    private boolean userFilter;
+
+    private final Variants<Pair<String, String>> variants = new Variants<>();
 
-    private UiObjectInfo(String module, String name, String resource) {
+    private UiObjectInfo(SysObject type, String module, String name, String resource) {
+      this.type = Assert.notNull(type);
       this.module = Assert.notEmpty(module);
       this.name = Assert.notEmpty(name);
       this.resource = Assert.notEmpty(resource);
@@ -95,21 +140,73 @@ public class UiHolderBean {
       return name;
     }
 
+    private synchronized Document copyDocument() {
+      return (document == null) ? null : (Document) document.cloneNode(true);
+    }
+
     private String getResource() {
       return resource;
     }
 
-    private String getViewName() {
+    private synchronized String getRootName() {
+      return rootName;
+    }
+
+    private Pair<String, String> getVariant(String generation, String key) {
+      return variants.get(generation, key);
+    }
+
+    private synchronized String getViewName() {
       return viewName;
     }
 
-    private boolean isViewSet() {
-      return viewSet;
+    /**
+     * @return {@code true} if the description contains filters, parsed for the current user
+     */
+    private synchronized boolean hasUserFilter() {
+      return userFilter;
     }
 
-    private void setViewName(String viewName) {
-      this.viewName = viewName;
-      this.viewSet = true;
+    private Pair<String, String> putVariant(String generation, String key, String content) {
+      String version = Hashing.murmur3_128().hashString(content, StandardCharsets.UTF_8)
+          .toString();
+      return variants.put(generation, key, Pair.of(version, content));
+    }
+
+    /**
+     * Parses and validates the resource on first use and whenever the resource file is modified.
+     *
+     * @return {@code true} if the resource is valid
+     */
+    private synchronized boolean refresh() {
+      long time = FileUtils.isInputFile(resource) ? new File(resource).lastModified() : 0L;
+
+      if (document == null || time != modified) {
+        document = XmlUtils.getXmlResource(resource, Config.getSchemaPath(type.getSchemaName()));
+        modified = time;
+
+        variants.clear();
+
+        if (document != null) {
+          Element root = document.getDocumentElement();
+
+          rootName = root.getAttribute(UiConstants.ATTR_NAME);
+          viewName = root.getAttribute(UiConstants.ATTR_VIEW_NAME);
+
+          if (type == SysObject.FORM && BeeUtils.isEmpty(viewName)) {
+            viewName = root.getAttribute(UiConstants.ATTR_DATA);
+          }
+
+          userFilter = false;
+          for (Element element : XmlUtils.getAllDescendantElements(document)) {
+            if (element.hasAttribute(UiConstants.ATTR_FILTER)) {
+              userFilter = true;
+              break;
+            }
+          }
+        }
+      }
+      return document != null;
     }
   }
 
@@ -148,6 +245,37 @@ public class UiHolderBean {
     }
   }
 
+  /**
+   * @param version description version, held by the client; {@code null} means that the client
+   *          does not keep descriptions and gets the content only
+   */
+  private static ResponseObject response(Pair<String, String> variant, String version,
+      Class<?> clazz) {
+
+    if (version == null) {
+      return ResponseObject.response(variant.getB(), clazz);
+    } else if (variant.aEquals(version)) {
+      return ResponseObject.emptyResponse();
+    } else {
+      return ResponseObject.response(variant);
+    }
+  }
+
+  private static Menu transform(Menu entry) {
+    if (entry instanceof MenuEntry && !BeeUtils.isEmpty(((MenuEntry) entry).getItems())) {
+      List<Menu> output = new ArrayList<>();
+
+      for (Menu item : ((MenuEntry) entry).getItems()) {
+        List<Menu> list = maybeTransform(transform(item));
+        if (list != null) {
+          output.addAll(list);
+        }
+      }
+      ((MenuEntry) entry).setItems(output);
+    }
+    return entry;
+  }
+
   @EJB
   ModuleHolderBean moduleBean;
   @EJB
@@ -166,28 +294,53 @@ public class UiHolderBean {
   private final Map<String, Menu> menuCache = new HashMap<>();
   private final Map<String, UiObjectInfo> reportCache = new HashMap<>();
 
+  private final Variants<List<Menu>> menuVariants = new Variants<>();
+
   public void checkWidgetChildrenVisibility(Element parent, Set<String> hiddenColumns) {
     checkWidgetChildrenVisibility(parent, null, hiddenColumns);
   }
 
   public ResponseObject getForm(String formName) {
-    Document doc = getFormDocument(formName, true);
+    return getForm(formName, null);
+  }
+
+  /**
+   * Form xml is parsed and validated once, variants filtered by user rights are cached per rights
+   * key and versioned by a hash of their content.
+   *
+   * @param version form version, held by the client, if any
+   */
+  public ResponseObject getForm(String formName, String version) {
+    UiObjectInfo formInfo = isForm(formName) ? formCache.get(key(formName)) : null;
 
-    if (doc == null) {
+    if (formInfo == null || !formInfo.refresh()) {
       return ResponseObject.error("Not a form:", formName);
     }
-    Element formElement = doc.getDocumentElement();
-
-    if (!BeeUtils.same(formElement.getAttribute(UiConstants.ATTR_NAME), formName)) {
+    if (!BeeUtils.same(formInfo.getRootName(), formName)) {
       return ResponseObject.error("From name doesn't match resource name:",
-          formElement.getAttribute(UiConstants.ATTR_NAME), "!=", formName);
+          formInfo.getRootName(), "!=", formName);
     }
-    String viewName = getFormViewName(formName);
-    BeeView view = sys.isView(viewName) ? sys.getView(viewName) : null;
+    Set<String> hiddenColumns = getHiddenColumns();
+
+    String generation = getGeneration(hiddenColumns);
+    String key = usr.getRightsKey();
+
+    Pair<String, String> variant = formInfo.getVariant(generation, key);
+
+    if (variant == null) {
+      Document doc = formInfo.copyDocument();
+
+      if (doc == null) {
+        return ResponseObject.error("Not a form:", formName);
+      }
+      String viewName = formInfo.getViewName();
+      BeeView view = sys.isView(viewName) ? sys.getView(viewName) : null;
 
-    checkWidgetChildrenVisibility(formElement, view, getHiddenColumns());
+      checkWidgetChildrenVisibility(doc.getDocumentElement(), view, hiddenColumns);
 
-    return ResponseObject.response(XmlUtils.toString(doc, false));
+      variant = formInfo.putVariant(generation, key, XmlUtils.toString(doc, false));
+    }
+    return response(variant, version, String.class);
   }
 
   public DataNameProvider getFormDataNameProvider() {
@@ -201,38 +354,65 @@ public class UiHolderBean {
     };
   }
 
+  /**
+   * @return a copy of the form document, which the caller may modify
+   */
   public Document getFormDocument(String formName, boolean respectSchema) {
     if (!isForm(formName)) {
       return null;
     }
-    return XmlUtils.getXmlResource(formCache.get(key(formName)).getResource(),
-        respectSchema ? Config.getSchemaPath(SysObject.FORM.getSchemaName()) : null);
+    UiObjectInfo formInfo = formCache.get(key(formName));
+
+    if (respectSchema) {
+      return formInfo.refresh() ? formInfo.copyDocument() : null;
+    } else {
+      return XmlUtils.getXmlResource(formInfo.getResource(), null);
+    }
   }
 
   public ResponseObject getGrid(String gridName) {
+    return getGrid(gridName, null);
+  }
+
+  /**
+   * Grid xml is parsed and validated once, descriptions are cached per rights key (and per user,
+   * if the grid contains filters) and versioned by a hash of their content.
+   *
+   * @param version grid version, held by the client, if any
+   */
+  public ResponseObject getGrid(String gridName, String version) {
     if (!isGrid(gridName)) {
       return ResponseObject.error("Not a grid:", gridName);
     }
-    String resource = gridCache.get(key(gridName)).getResource();
-    Document doc = XmlUtils.getXmlResource(resource,
-        Config.getSchemaPath(SysObject.GRID.getSchemaName()));
+    UiObjectInfo gridInfo = gridCache.get(key(gridName));
 
-    if (doc == null) {
-      return ResponseObject.error("Cannot parse xml:", resource);
+    if (!gridInfo.refresh()) {
+      return ResponseObject.error("Cannot parse xml:", gridInfo.getResource());
     }
-    Element gridElement = doc.getDocumentElement();
-
-    if (!BeeUtils.same(gridElement.getAttribute(UiConstants.ATTR_NAME), gridName)) {
+    if (!BeeUtils.same(gridInfo.getRootName(), gridName)) {
       return ResponseObject.error("Grid name doesn't match resource name:",
-          gridElement.getAttribute(UiConstants.ATTR_NAME), "!=", gridName);
+          gridInfo.getRootName(), "!=", gridName);
     }
-    GridDescription grid = gridBean.getGridDescription(gridElement, getHiddenColumns());
+    Set<String> hiddenColumns = getHiddenColumns();
 
-    if (grid == null) {
-      return ResponseObject.error("Cannot create grid description:", gridName);
-    } else {
-      return ResponseObject.response(grid);
+    String generation = getGeneration(hiddenColumns);
+    String key = gridInfo.hasUserFilter()
+        ? BeeUtils.join(BeeConst.STRING_COLON, usr.getRightsKey(), usr.getCurrentUserId())
+        : usr.getRightsKey();
+
+    Pair<String, String> variant = gridInfo.getVariant(generation, key);
+
+    if (variant == null) {
+      Document doc = gridInfo.copyDocument();
+      GridDescription grid = (doc == null)
+          ? null : gridBean.getGridDescription(doc.getDocumentElement(), hiddenColumns);
+
+      if (grid == null) {
+        return ResponseObject.error("Cannot create grid description:", gridName);
+      }
+      variant = gridInfo.putVariant(generation, key, grid.serialize());
     }
+    return response(variant, version, GridDescription.class);
   }
 
   public DataNameProvider getGridDataNameProvider() {
@@ -246,17 +426,39 @@ public class UiHolderBean {
     };
   }
 
+  /**
+   * Menus, filtered by rights, are cached per rights key, transformers are applied on every call.
+   */
   public ResponseObject getMenu(boolean checkRights, boolean transform) {
-    Map<Integer, Menu> menus = new TreeMap<>();
+    String generation = getGeneration(Collections.emptySet());
+    String key = checkRights ? usr.getRightsKey() : BeeConst.STRING_ASTERISK;
+
+    List<Menu> menus = menuVariants.get(generation, key);
+
+    if (menus == null) {
+      Map<Integer, Menu> filtered = new TreeMap<>();
+
+      for (Menu menu : menuCache.values()) {
+        Menu entry = getMenu(null, menu.copy(), checkRights);
+
+        if (entry != null) {
+          filtered.put(Assert.notContain(filtered, entry.getOrder()), entry);
+        }
+      }
+      menus = menuVariants.put(generation, key, new ArrayList<>(filtered.values()));
+    }
 
-    for (Menu menu : menuCache.values()) {
-      Menu entry = getMenu(null, menu.copy(), checkRights, transform);
+    if (transform) {
+      List<Menu> output = new ArrayList<>();
 
-      if (entry != null) {
-        menus.put(Assert.notContain(menus, entry.getOrder()), entry);
+      for (Menu menu : menus) {
+        output.add(transform(menu.copy()));
       }
+      return ResponseObject.response(output);
+
+    } else {
+      return ResponseObject.response(menus);
     }
-    return ResponseObject.response(menus.values());
   }
 
   public Collection<? extends BeeObject> getObjects(SysObject type) {
@@ -306,6 +508,7 @@ public class UiHolderBean {
   @Lock(LockType.WRITE)
   public void initMenu() {
     initObjects(SysObject.MENU);
+    menuVariants.clear();
 
     Set<String> children = new HashSet<>();
 
@@ -390,6 +593,24 @@ public class UiHolderBean {
     return !BeeUtils.isEmpty(reportName) && reportCache.containsKey(key(reportName));
   }
 
+  /**
+   * Reloads descriptions, reloaded by another cluster node, dropping their variants.
+   *
+   * @param objName name of the {@link SysObject} type
+   */
+  @Lock(LockType.WRITE)
+  public void reload(String objName) {
+    SysObject obj = EnumUtils.getEnumByName(SysObject.class, objName);
+
+    if (obj == SysObject.MENU) {
+      initMenu();
+    } else if (obj != null) {
+      initObjects(obj);
+    } else {
+      logger.warning("cannot reload", objName);
+    }
+  }
+
   private void checkWidgetChildrenVisibility(Element parent, BeeView view,
       Set<String> hiddenColumns) {
 
@@ -414,22 +635,12 @@ public class UiHolderBean {
       return null;
     }
     UiObjectInfo formInfo = formCache.get(key(formName));
+    return formInfo.refresh() ? formInfo.getViewName() : null;
+  }
 
-    if (!formInfo.isViewSet()) {
-      Document doc = XmlUtils.getXmlResource(formInfo.getResource(),
-          Config.getSchemaPath(SysObject.FORM.getSchemaName()));
-
-      if (doc != null) {
-        Element formElement = doc.getDocumentElement();
-        String viewName = formElement.getAttribute(UiConstants.ATTR_VIEW_NAME);
-
-        if (BeeUtils.isEmpty(viewName)) {
-          viewName = formElement.getAttribute(UiConstants.ATTR_DATA);
-        }
-        formInfo.setViewName(viewName);
-      }
-    }
-    return formInfo.getViewName();
+  private String getGeneration(Collection<String> hiddenColumns) {
+    return BeeUtils.join(BeeConst.STRING_COLON, usr.getRightsVersion(), sys.getDataInfoVersion(),
+        BeeUtils.join(BeeConst.STRING_COMMA, new TreeSet<>(hiddenColumns)));
   }
 
   private String getGridViewName(String gridName) {
@@ -437,16 +648,7 @@ public class UiHolderBean {
       return null;
     }
     UiObjectInfo gridInfo = gridCache.get(key(gridName));
-
-    if (!gridInfo.isViewSet()) {
-      Document doc = XmlUtils.getXmlResource(gridInfo.getResource(),
-          Config.getSchemaPath(SysObject.GRID.getSchemaName()));
-
-      if (doc != null) {
-        gridInfo.setViewName(doc.getDocumentElement().getAttribute(UiConstants.ATTR_VIEW_NAME));
-      }
-    }
-    return gridInfo.getViewName();
+    return gridInfo.refresh() ? gridInfo.getViewName() : null;
   }
 
   private Set<String> getHiddenColumns() {
@@ -462,7 +664,7 @@ public class UiHolderBean {
     return result;
   }
 
-  private Menu getMenu(String parent, Menu entry, boolean checkRights, boolean transform) {
+  private Menu getMenu(String parent, Menu entry, boolean checkRights) {
     boolean visible;
     String ref = RightsUtils.NAME_JOINER.join(parent, entry.getName());
 
@@ -490,16 +692,8 @@ public class UiHolderBean {
           List<Menu> output = new ArrayList<>();
 
           for (Menu item : input) {
-            if (getMenu(ref, item, checkRights, transform) != null) {
-              if (transform) {
-                List<Menu> list = maybeTransform(item);
-                if (list != null) {
-                  output.addAll(list);
-                }
-
-              } else {
-                output.add(item);
-              }
+            if (getMenu(ref, item, checkRights) != null) {
+              output.add(item);
             }
           }
 
@@ -602,10 +796,10 @@ public class UiHolderBean {
 
     switch (obj) {
       case GRID:
-        UiObjectInfo grid = new UiObjectInfo(moduleName, objectName, resource);
+        UiObjectInfo grid = new UiObjectInfo(obj, moduleName, objectName, resource);
         return SysObject.register(grid, gridCache, initial, logger);
       case FORM:
-        UiObjectInfo form = new UiObjectInfo(moduleName, objectName, resource);
+        UiObjectInfo form = new UiObjectInfo(obj, moduleName, objectName, resource);
         return SysObject.register(form, formCache, initial, logger);
       case MENU:
         Menu menu;
@@ -629,7 +823,7 @@ public class UiHolderBean {
         }
         return SysObject.register(menu, menuCache, initial, logger);
       case REPORT:
-        UiObjectInfo report = new UiObjectInfo(moduleName, objectName, resource);
+        UiObjectInfo report = new UiObjectInfo(obj, moduleName, objectName, resource);
         return SysObject.register(report, reportCache, initial, logger);
       default:
         return false;
@@ -16,6 +16,7 @@ import static com.butent.bee.shared.modules.transport.TransportConstants.*;
 import com.butent.bee.server.Config;
 import com.butent.bee.server.DataSourceBean;
 import com.butent.bee.server.InitializationBean;
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.server.data.BeeTable;
 import com.butent.bee.server.data.BeeView;
 import com.butent.bee.server.data.DataEditorBean;
@@ -59,6 +60,7 @@ import com.butent.bee.shared.data.view.RowInfoList;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogLevel;
 import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.modules.administration.SysObject;
 import com.butent.bee.shared.modules.classifiers.ClassifierConstants;
 import com.butent.bee.shared.modules.ec.EcConstants;
 import com.butent.bee.shared.modules.service.ServiceConstants;
@@ -88,6 +90,7 @@ import org.w3c.dom.Element;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -160,6 +163,9 @@ public class UiServiceBean {
       case GET_VALUE:
         response = getValue(reqInfo);
         break;
+      case GET_VIEW_DELTA:
+        response = getViewDelta(reqInfo);
+        break;
       case GET_DATA:
         response = getData(reqInfo);
         break;
@@ -360,9 +366,8 @@ public class UiServiceBean {
   }
 
   public ResponseObject getDecorators() {
-    File dir = new File(Config.WEB_INF_DIR, DecoratorConstants.DIRECTORY);
-    List<File> files = FileUtils.findFiles(dir, Lists.newArrayList(FileUtils.INPUT_FILTER,
-        new ExtensionFilter(XmlUtils.DEFAULT_XML_EXTENSION)));
+    File dir = getDecoratorsDirectory();
+    List<File> files = findDecoratorFiles(dir);
     if (files.isEmpty()) {
       return ResponseObject.error("getDecorators: no xml found in", dir.getPath());
     }
@@ -395,6 +400,18 @@ public class UiServiceBean {
     return ResponseObject.response(XmlUtils.toString(dstDoc, false));
   }
 
+  /**
+   * @return a number, changed whenever decorator files are added, removed or modified
+   */
+  public long getDecoratorsVersion() {
+    long version = 0;
+
+    for (File file : findDecoratorFiles(getDecoratorsDirectory())) {
+      version = version * 31 + file.getPath().hashCode() + file.lastModified();
+    }
+    return version;
+  }
+
   public BeeRowSet getFavorites() {
     return qs.getViewData(VIEW_FAVORITES, usr.getCurrentUserFilter(COL_FAVORITE_USER));
   }
@@ -430,6 +447,15 @@ public class UiServiceBean {
     return qs.getViewData(VIEW_WORKSPACES, usr.getCurrentUserFilter(COL_USER));
   }
 
+  private static List<File> findDecoratorFiles(File dir) {
+    return FileUtils.findFiles(dir, Lists.newArrayList(FileUtils.INPUT_FILTER,
+        new ExtensionFilter(XmlUtils.DEFAULT_XML_EXTENSION)));
+  }
+
+  private static File getDecoratorsDirectory() {
+    return new File(Config.WEB_INF_DIR, DecoratorConstants.DIRECTORY);
+  }
+
   private ResponseObject copyGridSettings(RequestInfo reqInfo) {
     Long id = reqInfo.getParameterLong(VAR_ID);
     if (!DataUtils.isId(id)) {
@@ -650,12 +676,12 @@ public class UiServiceBean {
 
   private ResponseObject getForm(RequestInfo reqInfo) {
     String formName = reqInfo.getContent();
-    return ui.getForm(formName);
+    return ui.getForm(formName, reqInfo.getParameter(VAR_UI_VERSION));
   }
 
   private ResponseObject getGrid(RequestInfo reqInfo) {
     String gridName = reqInfo.getContent();
-    return ui.getGrid(gridName);
+    return ui.getGrid(gridName, reqInfo.getParameter(VAR_UI_VERSION));
   }
 
   private ResponseObject getHistogram(RequestInfo reqInfo) {
@@ -831,6 +857,14 @@ public class UiServiceBean {
     String rights = reqInfo.getParameter(VAR_RIGHTS);
     String eventOptions = reqInfo.getParameter(VAR_VIEW_EVENT_OPTIONS);
 
+    List<String> seek = null;
+    if (!BeeUtils.isEmpty(reqInfo.getParameter(VAR_VIEW_SEEK))) {
+      String[] arr = Codec.beeDeserializeCollection(reqInfo.getParameter(VAR_VIEW_SEEK));
+      if (arr != null) {
+        seek = Arrays.asList(arr);
+      }
+    }
+
     Filter filter = null;
     if (!BeeUtils.isEmpty(rowId)) {
       filter = Filter.compareId(BeeUtils.toLong(rowId));
@@ -848,7 +882,14 @@ public class UiServiceBean {
     if (!BeeUtils.isEmpty(getSize)) {
       cnt = qs.getViewSize(viewName, filter);
     }
-    BeeRowSet res = qs.getViewData(viewName, filter, order, limit, offset, colNames, eventOptions);
+    long snapshot = System.currentTimeMillis();
+
+    BeeRowSet res = qs.getViewData(viewName, filter, order, limit, offset, colNames, eventOptions,
+        seek);
+
+    if (limit <= 0 && offset <= 0 && res != null) {
+      res.setTableProperty(VAR_VIEW_VERSION, BeeUtils.toString(snapshot));
+    }
 
     if (cnt >= 0 && res != null) {
       res.setTableProperty(VAR_VIEW_SIZE, BeeUtils.toString(Math.max(cnt, res.getNumberOfRows())));
@@ -861,6 +902,30 @@ public class UiServiceBean {
     return ResponseObject.response(res);
   }
 
+  private ResponseObject getViewDelta(RequestInfo reqInfo) {
+    String viewName = reqInfo.getParameter(VAR_VIEW_NAME);
+    long version = BeeUtils.toLong(reqInfo.getParameter(VAR_VIEW_VERSION));
+
+    String where = reqInfo.getParameter(VAR_VIEW_WHERE);
+    Filter filter = BeeUtils.isEmpty(where) ? null : Filter.restore(where);
+
+    String rights = reqInfo.getParameter(VAR_RIGHTS);
+    String eventOptions = reqInfo.getParameter(VAR_VIEW_EVENT_OPTIONS);
+
+    long snapshot = System.currentTimeMillis();
+
+    BeeRowSet res = qs.getViewDelta(viewName, filter, version, eventOptions);
+    if (res == null) {
+      return ResponseObject.emptyResponse();
+    }
+    res.setTableProperty(VAR_VIEW_VERSION, BeeUtils.toString(snapshot));
+
+    if (!BeeUtils.isEmpty(rights) && !DataUtils.isEmpty(res)) {
+      getViewRights(res, rights);
+    }
+    return ResponseObject.response(res);
+  }
+
   private ResponseObject getViewInfo(RequestInfo reqInfo) {
     String viewName = reqInfo.getParameter(0);
     List<ExtendedProperty> info = new ArrayList<>();
@@ -1137,18 +1202,22 @@ public class UiServiceBean {
 
     } else if (BeeUtils.same(cmd, "grids")) {
       ui.initGrids();
+      qs.publishOnCommit(Cluster.CHANNEL_UI, SysObject.GRID.name());
       response.addInfo("Grids OK");
 
     } else if (BeeUtils.same(cmd, "forms")) {
       ui.initForms();
+      qs.publishOnCommit(Cluster.CHANNEL_UI, SysObject.FORM.name());
       response.addInfo("Forms OK");
 
     } else if (BeeUtils.same(cmd, "menu")) {
       ui.initMenu();
+      qs.publishOnCommit(Cluster.CHANNEL_UI, SysObject.MENU.name());
       response.addInfo("Menu OK");
 
     } else if (BeeUtils.same(cmd, "reports")) {
       ui.initReports();
+      qs.publishOnCommit(Cluster.CHANNEL_UI, SysObject.REPORT.name());
       response.addInfo("Reports OK");
 
     } else if (BeeUtils.same(cmd, "cacheinfo")) {
@@ -1,9 +1,9 @@
 package com.butent.bee.server.websocket;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.collect.Lists;
 
 import com.butent.bee.server.Config;
+import com.butent.bee.server.cluster.Cluster;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.communication.Chat;
 import com.butent.bee.shared.communication.Presence;
@@ -13,6 +13,7 @@ import com.butent.bee.shared.data.DataUtils;
 import com.butent.bee.shared.data.UserData;
 import com.butent.bee.shared.data.event.DataChangeEvent;
 import com.butent.bee.shared.data.event.FiresModificationEvents;
+import com.butent.bee.shared.data.event.ModificationEvent;
 import com.butent.bee.shared.data.event.RowDeleteEvent;
 import com.butent.bee.shared.data.event.RowUpdateEvent;
 import com.butent.bee.shared.logging.BeeLogger;
@@ -20,6 +21,8 @@ import com.butent.bee.shared.logging.LogLevel;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.time.TimeUtils;
 import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.Codec;
+import com.butent.bee.shared.utils.EnumUtils;
 import com.butent.bee.shared.utils.NameUtils;
 import com.butent.bee.shared.utils.Property;
 import com.butent.bee.shared.utils.PropertyUtils;
@@ -40,17 +43,22 @@ import com.butent.bee.shared.websocket.messages.ShowMessage;
 import com.butent.bee.shared.websocket.messages.ShowMessage.Subject;
 import com.butent.bee.shared.websocket.messages.UsersMessage;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
 import javax.websocket.CloseReason;
 import javax.websocket.CloseReason.CloseCodes;
 import javax.websocket.Extension;
@@ -70,24 +78,47 @@ import javax.websocket.server.ServerEndpoint;
 @ServerEndpoint("/ws/{user-id}")
 public class Endpoint {
 
+  /**
+   * Sessions of other cluster nodes, a broadcast is addressed to.
+   */
+  private enum Scope {
+    ALL, SESSION, USERS
+  }
+
   private static final String PROPERTY_USER_ID = "UserId";
   private static final String PROPERTY_USER_PRESENCE = "UserPresence";
+  private static final String PROPERTY_OUTBOUND_QUEUE = "OutboundQueue";
 
   private static final Class<? extends RemoteEndpoint> DEFAULT_REMOTE_ENDPOINT_TYPE =
       RemoteEndpoint.Async.class;
 
+  /**
+   * Modification events fired on the server are collected for this period and broadcast in batches,
+   * so that bulk operations, firing an event per row, send a few messages instead of thousands.
+   */
+  private static final long MODIFICATION_WINDOW_MILLIS = 50;
+  private static final int MAX_EVENTS_PER_MESSAGE = 500;
+
+  private static final String MODIFICATION_FLUSHER =
+      "java:comp/DefaultManagedScheduledExecutorService";
+
   private static final FiresModificationEvents MODIFICATION_SHOOTER =
-      (event, locality) -> sendToAll(new ModificationMessage(event));
+      (event, locality) -> enqueueModification(event);
 
   private static BeeLogger logger = LogUtils.getLogger(Endpoint.class);
 
-  private static Queue<Session> openSessions = new ConcurrentLinkedQueue<>();
-  private static Table<String, String, Long> progressToSession = HashBasedTable.create();
+  private static SessionRegistry sessionRegistry = new SessionRegistry();
+  private static ProgressRegistry progressRegistry = new ProgressRegistry();
+
+  private static Queue<ModificationEvent<?>> pendingModifications = new ConcurrentLinkedQueue<>();
+  private static AtomicBoolean modificationFlushScheduled = new AtomicBoolean();
+
+  private static ManagedScheduledExecutorService modificationFlusher;
 
   private static Class<? extends RemoteEndpoint> remoteEndpointType;
 
   public static void closeProgress(String progressId) {
-    Map<String, Long> sessions = progressToSession.row(progressId);
+    Map<String, Long> sessions = progressRegistry.remove(progressId);
 
     if (sessions.isEmpty()) {
       logger.info("ws session not found for progress:", progressId);
@@ -99,7 +130,6 @@ public class Endpoint {
           send(session, ProgressMessage.close(progressId));
         }
       });
-      sessions.clear();
     }
   }
 
@@ -107,7 +137,7 @@ public class Endpoint {
     ProgressMessage message = ProgressMessage.open(BeeUtils.randomString(10), label);
 
     getUserSessions(userId).forEach(session -> {
-      progressToSession.put(message.getProgressId(), session.getId(), 0L);
+      progressRegistry.add(message.getProgressId(), session.getId());
       send(session, message);
     });
     return message.getProgressId();
@@ -127,6 +157,47 @@ public class Endpoint {
     }
   }
 
+  /**
+   * Delivers a message, broadcast by another cluster node, to the sessions of this node.
+   */
+  public static void onClusterMessage(String payload) {
+    String[] arr = Codec.beeDeserializeCollection(payload);
+
+    if (arr == null || arr.length != 3) {
+      logger.warning("invalid cluster message", payload);
+      return;
+    }
+    if (sessionRegistry.isEmpty()) {
+      return;
+    }
+
+    Scope scope = EnumUtils.getEnumByName(Scope.class, arr[0]);
+    String text = arr[2];
+
+    Message message = Message.decode(text);
+    if (scope == null || message == null) {
+      logger.warning("cannot decode cluster message", arr[0]);
+      return;
+    }
+
+    switch (scope) {
+      case ALL:
+        sendToAll(message, text, null);
+        break;
+
+      case SESSION:
+        Session session = sessionRegistry.find(arr[1]);
+        if (session != null) {
+          send(session, message, text);
+        }
+        break;
+
+      case USERS:
+        sendToUsers(Codec.deserializeIdList(arr[1]), message, text, null);
+        break;
+    }
+  }
+
   public static void refreshChildren(String viewName, Collection<Long> parents) {
     if (!BeeUtils.isEmpty(viewName) && !BeeUtils.isEmpty(parents)) {
       for (Long parent : parents) {
@@ -167,15 +238,17 @@ public class Endpoint {
   }
 
   public static void sendToAll(Message message) {
-    for (Session session : openSessions) {
-      if (session.isOpen()) {
-        send(session, message);
-      }
-    }
+    String text = encode(message);
+
+    sendToAll(message, text, null);
+    publish(Scope.ALL, null, text);
   }
 
   public static void sendToUser(long userId, Message message) {
-    getUserSessions(userId).forEach(session -> send(session, message));
+    String text = encode(message);
+    getUserSessions(userId).forEach(session -> send(session, message, text));
+
+    publish(Scope.USERS, Codec.beeSerialize(Collections.singleton(userId)), text);
   }
 
   public static void sendToUsers(Collection<Long> users, Message message, String mySessionId) {
@@ -183,12 +256,10 @@ public class Endpoint {
       logger.warning("sendToUsers: users not specified");
 
     } else {
-      for (Session session : openSessions) {
-        if (session.isOpen() && !BeeUtils.equalsTrim(mySessionId, session.getId())
-            && users.contains(getUserId(session))) {
-          send(session, message);
-        }
-      }
+      String text = encode(message);
+
+      sendToUsers(users, message, text, mySessionId);
+      publish(Scope.USERS, Codec.beeSerialize(users), text);
     }
   }
 
@@ -197,7 +268,7 @@ public class Endpoint {
   }
 
   public static boolean updateProgress(String progressId, String label, double value) {
-    Map<String, Long> sessions = progressToSession.row(progressId);
+    Map<String, Long> sessions = progressRegistry.get(progressId);
 
     if (sessions.isEmpty()) {
       logger.info("ws session not found for progress:", progressId, "value", value);
@@ -224,14 +295,9 @@ public class Endpoint {
     if (BeeUtils.isEmpty(data)) {
       logger.severe("user data is empty");
 
-    } else if (!openSessions.isEmpty()) {
-      UsersMessage message = new UsersMessage(data);
-
-      for (Session session : openSessions) {
-        if (session.isOpen()) {
-          send(session, message);
-        }
-      }
+    } else if (!sessionRegistry.isEmpty()) {
+      Message message = new UsersMessage(data);
+      sendToAll(message, encode(message), null);
     }
   }
 
@@ -241,9 +307,13 @@ public class Endpoint {
       case LOCATION:
       case NOTIFICATION:
       case SIGNALING:
-        Session toSession = findOpenSession(((HasRecipient) message).getTo());
+        String to = ((HasRecipient) message).getTo();
+        Session toSession = Cluster.isActive() ? sessionRegistry.find(to) : findOpenSession(to);
+
         if (toSession != null) {
           send(toSession, message);
+        } else {
+          publish(Scope.SESSION, to, encode(message));
         }
         break;
 
@@ -335,12 +405,12 @@ public class Endpoint {
           WsUtils.onEmptyMessage(message, toLog(session));
 
         } else if (pm.isOpen()) {
-          progressToSession.put(progressId, session.getId(), 0L);
+          progressRegistry.add(progressId, session.getId());
           logger.debug("ws activated progress:", progressId, "session:", session.getId());
           send(session, ProgressMessage.activate(progressId));
 
         } else if (pm.isClosed() || pm.isCanceled()) {
-          progressToSession.row(progressId).clear();
+          progressRegistry.remove(progressId);
           logger.debug("ws removed progress:", progressId);
         } else {
           WsUtils.onInvalidState(message, toLog(session));
@@ -361,7 +431,8 @@ public class Endpoint {
               break;
 
             case OPEN_SESSIONS:
-              send(session, new InfoMessage(caption, getOpenSessionsInfo(openSessions)));
+              send(session,
+                  new InfoMessage(caption, getOpenSessionsInfo(sessionRegistry.getAll())));
               break;
 
             case SESSION:
@@ -382,14 +453,59 @@ public class Endpoint {
     }
   }
 
+  private static String encode(Message message) {
+    return (message == null) ? null : message.encode();
+  }
+
+  private static void enqueueModification(ModificationEvent<?> event) {
+    // the flush also publishes modifications to other nodes, which may have sessions
+    if (event == null || sessionRegistry.isEmpty() && !Cluster.isActive()) {
+      return;
+    }
+    pendingModifications.add(event);
+
+    if (modificationFlushScheduled.compareAndSet(false, true)) {
+      ManagedScheduledExecutorService flusher = getModificationFlusher();
+
+      if (flusher == null) {
+        flushModifications();
+      } else {
+        flusher.schedule(Endpoint::flushModifications, MODIFICATION_WINDOW_MILLIS,
+            TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
   private static Session findOpenSession(String sessionId) {
-    for (Session session : openSessions) {
-      if (session.getId().endsWith(sessionId) && session.isOpen()) {
-        return session;
+    Session session = sessionRegistry.find(sessionId);
+
+    if (session == null) {
+      logger.warning("ws open session not found", sessionId);
+    }
+    return session;
+  }
+
+  private static void flushModifications() {
+    modificationFlushScheduled.set(false);
+
+    List<ModificationEvent<?>> events = new ArrayList<>();
+    ModificationEvent<?> event;
+
+    try {
+      while ((event = pendingModifications.poll()) != null) {
+        events.add(event);
       }
+
+      if (!events.isEmpty()) {
+        for (List<ModificationEvent<?>> batch : Lists.partition(supersede(events),
+            MAX_EVENTS_PER_MESSAGE)) {
+          sendToAll(new ModificationMessage(batch));
+        }
+      }
+
+    } catch (RuntimeException ex) {
+      logger.error(ex, "flush modifications");
     }
-    logger.warning("ws open session not found", sessionId);
-    return null;
   }
 
   private static List<Property> getExtensionInfo(Extension extension) {
@@ -414,7 +530,7 @@ public class Endpoint {
   }
 
   private static List<Property> getInfo() {
-    List<Property> info = getOpenSessionsInfo(openSessions);
+    List<Property> info = getOpenSessionsInfo(sessionRegistry.getAll());
 
     LogLevel level = logger.getLevel();
     if (level != null) {
@@ -425,9 +541,59 @@ public class Endpoint {
       info.add(new Property("Remote Endpoint", NameUtils.getClassName(remoteEndpointType)));
     }
 
+    PropertyUtils.addProperties(info,
+        "Outbound Merged", OutboundQueue.getTotalMerged(),
+        "Outbound Disconnected", OutboundQueue.getTotalDisconnected(),
+        "Progresses", progressRegistry.size());
+
     return info;
   }
 
+  /**
+   * @return key of messages, which supersede each other while waiting in the outbound queue
+   */
+  private static String getMergeKey(Message message) {
+    switch (message.getType()) {
+      case PRESENCE:
+        SessionUser sessionUser = ((PresenceMessage) message).getSessionUser();
+        return (sessionUser == null) ? null
+            : BeeUtils.joinWords(message.getType(), sessionUser.getSessionId());
+
+      case PROGRESS:
+        ProgressMessage progressMessage = (ProgressMessage) message;
+        return progressMessage.isUpdate()
+            ? BeeUtils.joinWords(message.getType(), progressMessage.getProgressId()) : null;
+
+      case MODIFICATION:
+        List<ModificationEvent<?>> events = ((ModificationMessage) message).getEvents();
+
+        if (events.size() == 1 && events.get(0) instanceof RowUpdateEvent) {
+          RowUpdateEvent event = (RowUpdateEvent) events.get(0);
+          return BeeUtils.joinWords(message.getType(), event.getViewName(), event.getRowId());
+        } else {
+          return null;
+        }
+
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the default scheduled executor of the container or {@code null}, if it is not
+   *         available, in which case modifications are sent without delay
+   */
+  private static synchronized ManagedScheduledExecutorService getModificationFlusher() {
+    if (modificationFlusher == null) {
+      try {
+        modificationFlusher = InitialContext.doLookup(MODIFICATION_FLUSHER);
+      } catch (NamingException ex) {
+        logger.error(ex, "ws modification flusher not found:", MODIFICATION_FLUSHER);
+      }
+    }
+    return modificationFlusher;
+  }
+
   private static List<Property> getOpenSessionsInfo(Collection<Session> sessions) {
     int size = (sessions == null) ? 0 : sessions.size();
 
@@ -445,12 +611,33 @@ public class Endpoint {
             prefix + "User Principal", getUserName(session),
             prefix + "User Id", getUserId(session),
             prefix + "Open", session.isOpen());
+
+        OutboundQueue queue = getOutboundQueue(session);
+        PropertyUtils.addProperties(info,
+            prefix + "Outbound Queue", queue.getDepth(),
+            prefix + "Outbound Sent", queue.getSent(),
+            prefix + "Outbound Merged", queue.getMerged());
       }
     }
 
     return info;
   }
 
+  private static OutboundQueue getOutboundQueue(Session session) {
+    synchronized (session) {
+      Object queue = session.getUserProperties().get(PROPERTY_OUTBOUND_QUEUE);
+
+      if (queue instanceof OutboundQueue) {
+        return (OutboundQueue) queue;
+
+      } else {
+        OutboundQueue outboundQueue = new OutboundQueue(session);
+        session.getUserProperties().put(PROPERTY_OUTBOUND_QUEUE, outboundQueue);
+        return outboundQueue;
+      }
+    }
+  }
+
   private static synchronized Class<? extends RemoteEndpoint> getRemoteEndpointType() {
     if (remoteEndpointType == null) {
       String value = Config.getProperty(NameUtils.getClassName(RemoteEndpoint.class));
@@ -556,10 +743,11 @@ public class Endpoint {
   private static Collection<Session> getUserSessions(long userId) {
     List<Session> userSessions = new ArrayList<>();
 
-    openSessions.stream()
-        .filter(session -> session.isOpen() && Objects.equals(getUserId(session), userId))
-        .forEach(userSessions::add);
-
+    for (Session session : sessionRegistry.getUserSessions(userId)) {
+      if (session.isOpen()) {
+        userSessions.add(session);
+      }
+    }
     return userSessions;
   }
 
@@ -602,66 +790,78 @@ public class Endpoint {
     }
   }
 
+  private static void publish(Scope scope, String target, String text) {
+    if (Cluster.isActive() && text != null) {
+      Cluster.publish(Cluster.CHANNEL_WEBSOCKET,
+          Codec.beeSerialize(Arrays.asList(scope.name(), target, text)));
+    }
+  }
+
   private static void send(Session session, Message message) {
+    send(session, message, encode(message));
+  }
+
+  private static void send(Session session, Message message, String text) {
     if (message == null) {
       WsUtils.onEmptyMessage(message, toLog(session));
 
     } else {
       Class<? extends RemoteEndpoint> type = getRemoteEndpointType();
-      String text = message.encode();
-
-      final String info;
 
       if (message.isLoggable()) {
         logger.debug("->", message);
-
-        info = BeeUtils.joinWords(message.getType(), "length", text.length(), toLog(session));
-        logger.debug("->", info);
-      } else {
-        info = null;
+        logger.debug("->", message.getType(), "length", text.length(), toLog(session));
       }
 
-      if (RemoteEndpoint.Async.class.equals(type)) {
-        session.getAsyncRemote().sendText(text, result -> {
-          if (result.isOK()) {
-            if (info != null) {
-              logger.debug("transmitted", info);
-            }
-          } else {
-            logger.error(result.getException());
-          }
-        });
-
-      } else if (RemoteEndpoint.Basic.class.equals(type)) {
-        sendBasic(session, text);
-
+      if (RemoteEndpoint.Async.class.equals(type) || RemoteEndpoint.Basic.class.equals(type)) {
+        getOutboundQueue(session).offer(getMergeKey(message), text, type);
       } else {
         logger.severe(type, "not supported");
       }
     }
   }
 
-  private static synchronized void sendBasic(Session session, String text) {
-    try {
-      session.getBasicRemote().sendText(text);
-    } catch (IOException ex) {
-      logger.error(ex);
+  private static void sendToAll(Message message, String text, String mySessionId) {
+    for (Session session : sessionRegistry.getAll()) {
+      if (session.isOpen() && !BeeUtils.equalsTrim(mySessionId, session.getId())) {
+        send(session, message, text);
+      }
     }
   }
 
   private static void sendToNeighbors(Chat chat, Message message, String mySessionId) {
-    for (Session session : openSessions) {
-      if (session.isOpen() && !mySessionId.equals(session.getId())
-          && chat.hasUser(getUserId(session))) {
-        send(session, message);
+    String text = encode(message);
+
+    for (Long userId : chat.getUsers()) {
+      if (DataUtils.isId(userId)) {
+        for (Session session : getUserSessions(userId)) {
+          if (!mySessionId.equals(session.getId())) {
+            send(session, message, text);
+          }
+        }
       }
     }
+
+    publish(Scope.USERS, Codec.beeSerialize(chat.getUsers()), text);
   }
 
   private static void sendToOtherSessions(Message message, String mySessionId) {
-    for (Session session : openSessions) {
-      if (session.isOpen() && !mySessionId.equals(session.getId())) {
-        send(session, message);
+    String text = encode(message);
+
+    sendToAll(message, text, mySessionId);
+    publish(Scope.ALL, null, text);
+  }
+
+  private static void sendToUsers(Collection<Long> users, Message message, String text,
+      String mySessionId) {
+
+    for (Long userId : new HashSet<>(users)) {
+      if (DataUtils.isId(userId)) {
+        for (Session session : getUserSessions(userId)) {
+          if (!BeeUtils.equalsTrim(mySessionId, session.getId())) {
+            send(session, message, text);
+          }
+        }
       }
     }
   }
@@ -678,6 +878,26 @@ public class Endpoint {
     session.getUserProperties().put(PROPERTY_USER_PRESENCE, presence);
   }
 
+  /**
+   * Drops row updates, followed by an update of the same row later in the list.
+   */
+  private static List<ModificationEvent<?>> supersede(List<ModificationEvent<?>> events) {
+    Set<String> rows = new HashSet<>();
+    List<ModificationEvent<?>> result = new ArrayList<>();
+
+    for (int i = events.size() - 1; i >= 0; i--) {
+      ModificationEvent<?> event = events.get(i);
+
+      if (!(event instanceof RowUpdateEvent) || rows.add(BeeUtils.joinWords(
+          ((RowUpdateEvent) event).getViewName(), ((RowUpdateEvent) event).getRowId()))) {
+        result.add(event);
+      }
+    }
+
+    Collections.reverse(result);
+    return result;
+  }
+
   private static String toLog(Session session) {
     if (session == null) {
       return null;
@@ -691,8 +911,9 @@ public class Endpoint {
 
   @OnClose
   public void onClose(Session session, CloseReason closeReason) {
-    openSessions.remove(session);
-    progressToSession.column(session.getId()).clear();
+    sessionRegistry.remove(session, getUserId(session));
+    getOutboundQueue(session).close();
+    progressRegistry.removeSession(session.getId());
 
     String reasonInfo;
     if (closeReason == null) {
@@ -721,13 +942,13 @@ public class Endpoint {
 
     logger.info("ws close", reasonInfo, toLog(session));
 
-    if (!openSessions.isEmpty()) {
+    if (!sessionRegistry.isEmpty()) {
       setUserPresence(session, Presence.OFFLINE);
 
       SessionUser sessionUser = getSessionUser(session);
       PresenceMessage message = new PresenceMessage(sessionUser);
 
-      for (Session openSession : openSessions) {
+      for (Session openSession : sessionRegistry.getAll()) {
         if (openSession.isOpen()) {
           send(openSession, message);
         }
@@ -737,7 +958,8 @@ public class Endpoint {
 
   @OnError
   public void onError(Session session, Throwable thr) {
-    openSessions.remove(session);
+    sessionRegistry.remove(session, getUserId(session));
+    getOutboundQueue(session).close();
     logger.error(thr, "ws error", toLog(session));
   }
 
@@ -769,8 +991,8 @@ public class Endpoint {
 
     List<SessionUser> sessionUsers = new ArrayList<>();
 
-    if (!openSessions.isEmpty()) {
-      for (Session openSession : openSessions) {
+    if (!sessionRegistry.isEmpty()) {
+      for (Session openSession : sessionRegistry.getAll()) {
         if (openSession.isOpen()) {
           send(openSession, message);
           sessionUsers.add(getSessionUser(openSession));
@@ -778,9 +1000,13 @@ public class Endpoint {
       }
     }
 
-    openSessions.add(session);
+    sessionRegistry.add(session, userId);
 
-    logger.info("ws open", toLog(session));
+    List<String> extensions = new ArrayList<>();
+    if (session.getNegotiatedExtensions() != null) {
+      session.getNegotiatedExtensions().forEach(extension -> extensions.add(extension.getName()));
+    }
+    logger.info("ws open", toLog(session), extensions.isEmpty() ? null : extensions);
 
     sessionUsers.add(sessionUser);
 
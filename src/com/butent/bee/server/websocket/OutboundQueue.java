@@ -0,0 +1,242 @@
+package com.butent.bee.server.websocket;
+
+import com.butent.bee.shared.logging.BeeLogger;
+import com.butent.bee.shared.logging.LogUtils;
+import com.butent.bee.shared.time.TimeUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.websocket.CloseReason;
+import javax.websocket.CloseReason.CloseCodes;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+
+/**
+ * Delivers messages to a single websocket session in order, without blocking the caller.
+ * <p>
+ * A pending message is superseded by a newer one with the same merge key. When a session falls
+ * too far behind, it is closed, so that a stalled browser connection does not hold server threads
+ * or memory.
+ */
+
+class OutboundQueue {
+
+  private static final class Entry {
+    private final String key;
+    private final String text;
+
+    private Entry(String key, String text) {
+      this.key = key;
+      this.text = text;
+    }
+  }
+
+  private static final BeeLogger logger = LogUtils.getLogger(OutboundQueue.class);
+
+  private static final int MAX_PENDING_MESSAGES = 1000;
+  private static final long MAX_PENDING_CHARS = 16L * 1024 * 1024;
+  private static final long MAX_SEND_MILLIS = TimeUtils.MILLIS_PER_MINUTE;
+
+  private static final String SENDER = "java:comp/DefaultManagedExecutorService";
+
+  private static final AtomicLong totalMerged = new AtomicLong();
+  private static final AtomicLong totalDisconnected = new AtomicLong();
+
+  private static ManagedExecutorService sender;
+
+  static long getTotalDisconnected() {
+    return totalDisconnected.get();
+  }
+
+  static long getTotalMerged() {
+    return totalMerged.get();
+  }
+
+  /**
+   * Runs {@code task} on the default executor of the container, or in the calling thread, if the
+   * executor is not available.
+   */
+  private static void execute(Runnable task) {
+    ManagedExecutorService executor = getSender();
+
+    if (executor == null) {
+      task.run();
+    } else {
+      executor.execute(task);
+    }
+  }
+
+  private static synchronized ManagedExecutorService getSender() {
+    if (sender == null) {
+      try {
+        sender = InitialContext.doLookup(SENDER);
+      } catch (NamingException ex) {
+        logger.error(ex, "ws sender not found:", SENDER);
+      }
+    }
+    return sender;
+  }
+
+  private final Session session;
+
+  private final Deque<Entry> pending = new ArrayDeque<>();
+  private long pendingChars;
+
+  private boolean sending;
+  private long sendStarted;
+  private boolean closed;
+
+  private long sent;
+  private long merged;
+
+  OutboundQueue(Session session) {
+    this.session = session;
+  }
+
+  synchronized void close() {
+    closed = true;
+
+    pending.clear();
+    pendingChars = 0;
+  }
+
+  synchronized int getDepth() {
+    return pending.size();
+  }
+
+  synchronized long getMerged() {
+    return merged;
+  }
+
+  synchronized long getSent() {
+    return sent;
+  }
+
+  /**
+   * @param key merge key, a pending message with the same key is dropped; {@code null} means the
+   *          message is never superseded
+   */
+  void offer(String key, String text, Class<? extends RemoteEndpoint> type) {
+    boolean overflow;
+    boolean start;
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+
+      if (key != null) {
+        Iterator<Entry> it = pending.iterator();
+
+        while (it.hasNext()) {
+          Entry entry = it.next();
+
+          if (key.equals(entry.key)) {
+            it.remove();
+            pendingChars -= entry.text.length();
+
+            merged++;
+            totalMerged.incrementAndGet();
+            break;
+          }
+        }
+      }
+
+      pending.add(new Entry(key, text));
+      pendingChars += text.length();
+
+      overflow = pending.size() > MAX_PENDING_MESSAGES || pendingChars > MAX_PENDING_CHARS
+          || sending && System.currentTimeMillis() - sendStarted > MAX_SEND_MILLIS;
+
+      start = !overflow && !sending;
+      if (start) {
+        sending = true;
+      }
+    }
+
+    if (overflow) {
+      disconnect();
+    } else if (start) {
+      execute(() -> sendNext(type));
+    }
+  }
+
+  private void disconnect() {
+    int depth;
+
+    synchronized (this) {
+      depth = pending.size();
+      close();
+    }
+
+    totalDisconnected.incrementAndGet();
+    logger.warning("ws session", session.getId(), "is too slow, pending", depth, "closing");
+
+    execute(() -> {
+      try {
+        session.close(new CloseReason(CloseCodes.TRY_AGAIN_LATER, "outbound queue overflow"));
+      } catch (IOException ex) {
+        logger.error(ex, "ws close", session.getId());
+      }
+    });
+  }
+
+  private Entry next() {
+    synchronized (this) {
+      Entry entry = closed ? null : pending.poll();
+
+      if (entry == null) {
+        sending = false;
+      } else {
+        pendingChars -= entry.text.length();
+        sendStarted = System.currentTimeMillis();
+      }
+      return entry;
+    }
+  }
+
+  private synchronized void onSent() {
+    sent++;
+  }
+
+  private void sendNext(Class<? extends RemoteEndpoint> type) {
+    Entry entry = next();
+
+    while (entry != null) {
+      if (!session.isOpen()) {
+        close();
+        next();
+        return;
+      }
+
+      if (Objects.equals(type, RemoteEndpoint.Basic.class)) {
+        try {
+          session.getBasicRemote().sendText(entry.text);
+          onSent();
+        } catch (IOException ex) {
+          logger.error(ex, "ws send", session.getId());
+        }
+        entry = next();
+
+      } else {
+        session.getAsyncRemote().sendText(entry.text, result -> {
+          if (result.isOK()) {
+            onSent();
+          } else {
+            logger.error(result.getException(), "ws send", session.getId());
+          }
+          execute(() -> sendNext(type));
+        });
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.butent.bee.server.websocket;
+
+import com.butent.bee.shared.time.TimeUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of sessions, showing a progress, and of the time each of them was last updated.
+ * <p>
+ * Progresses, which were neither updated nor closed for a while, are expired, so that an abandoned
+ * progress does not stay in memory forever.
+ */
+
+class ProgressRegistry {
+
+  private static final class Progress {
+    private final ConcurrentMap<String, Long> sessions = new ConcurrentHashMap<>();
+    private volatile long accessed = System.currentTimeMillis();
+  }
+
+  private static final long EXPIRY_MILLIS = 30 * TimeUtils.MILLIS_PER_MINUTE;
+
+  private final ConcurrentMap<String, Progress> progresses = new ConcurrentHashMap<>();
+
+  ProgressRegistry() {
+  }
+
+  void add(String progressId, String sessionId) {
+    expire();
+
+    progresses.compute(progressId, (key, value) -> {
+      Progress progress = (value == null) ? new Progress() : value;
+      progress.sessions.put(sessionId, 0L);
+      return progress;
+    });
+  }
+
+  /**
+   * @return session ids mapped to the time of the last update sent, the entries are writable
+   */
+  Map<String, Long> get(String progressId) {
+    Progress progress = progresses.get(progressId);
+
+    if (progress == null) {
+      return Collections.emptyMap();
+    } else {
+      progress.accessed = System.currentTimeMillis();
+      return progress.sessions;
+    }
+  }
+
+  Map<String, Long> remove(String progressId) {
+    Progress progress = progresses.remove(progressId);
+    return (progress == null) ? Collections.emptyMap() : progress.sessions;
+  }
+
+  void removeSession(String sessionId) {
+    for (String progressId : progresses.keySet()) {
+      progresses.computeIfPresent(progressId, (key, progress) -> {
+        progress.sessions.remove(sessionId);
+        return progress.sessions.isEmpty() ? null : progress;
+      });
+    }
+  }
+
+  int size() {
+    return progresses.size();
+  }
+
+  private void expire() {
+    long limit = System.currentTimeMillis() - EXPIRY_MILLIS;
+
+    for (String progressId : progresses.keySet()) {
+      progresses.computeIfPresent(progressId,
+          (key, progress) -> (progress.accessed < limit) ? null : progress);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.butent.bee.server.websocket;
+
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.websocket.Session;
+
+/**
+ * Indexes open websocket sessions by session id and by user id, so that sending to a user or a
+ * recipient does not scan all sessions.
+ */
+
+class SessionRegistry {
+
+  private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Long, Set<Session>> userSessions = new ConcurrentHashMap<>();
+
+  SessionRegistry() {
+  }
+
+  void add(Session session, Long userId) {
+    sessions.put(session.getId(), session);
+
+    if (userId != null) {
+      userSessions.compute(userId, (key, value) -> {
+        Set<Session> result = (value == null) ? ConcurrentHashMap.newKeySet() : value;
+        result.add(session);
+        return result;
+      });
+    }
+  }
+
+  /**
+   * @return open session with the id, or ending with the id, or {@code null} if not found
+   */
+  Session find(String sessionId) {
+    if (BeeUtils.isEmpty(sessionId)) {
+      return null;
+    }
+
+    Session session = sessions.get(sessionId);
+
+    if (session == null) {
+      for (Session candidate : sessions.values()) {
+        if (candidate.getId().endsWith(sessionId)) {
+          session = candidate;
+          break;
+        }
+      }
+    }
+    return (session != null && session.isOpen()) ? session : null;
+  }
+
+  Collection<Session> getAll() {
+    return sessions.values();
+  }
+
+  Collection<Session> getUserSessions(long userId) {
+    Set<Session> result = userSessions.get(userId);
+    return (result == null) ? Collections.emptySet() : result;
+  }
+
+  boolean isEmpty() {
+    return sessions.isEmpty();
+  }
+
+  void remove(Session session, Long userId) {
+    sessions.remove(session.getId(), session);
+
+    if (userId != null) {
+      userSessions.computeIfPresent(userId, (key, value) -> {
+        value.remove(session);
+        return value.isEmpty() ? null : value;
+      });
+    }
+  }
+}
@@ -14,6 +14,16 @@ public final class Service {
   public static final String PROPERTY_DEFAULT_LOCALE = "DefaultLocale";
   public static final String PROPERTY_ACTIVE_LOCALES = "ActiveLocales";
   public static final String PROPERTY_IDLE_TIMEOUT = "IdleSessionTimeoutInMinutes";
+  public static final String PROPERTY_SQL_BINDING_OFF = "DisableSqlParameterBinding";
+  public static final String PROPERTY_SQL_STATEMENT_CACHE = "SqlStatementCacheSize";
+  public static final String PROPERTY_SQL_FETCH_SIZE = "SqlFetchSize";
+  public static final String PROPERTY_QUERY_CACHE_SIZE = "QueryCacheSize";
+  public static final String PROPERTY_QUERY_CACHE_MEMORY = "QueryCacheMemoryInMegabytes";
+  public static final String PROPERTY_SQL_REPEAT_THRESHOLD = "SqlRepeatThreshold";
+  public static final String PROPERTY_COMPRESSION_THRESHOLD = "ResponseCompressionThreshold";
+  public static final String PROPERTY_MAX_REQUEST_SIZE = "MaxRequestSizeInMegabytes";
+  public static final String PROPERTY_CLUSTER_BUS = "ClusterBus";
+  public static final String PROPERTY_CLUSTER_POLLING = "ClusterPollingIntervalMillis";
 
   public static final String RPC_SERVICE_PREFIX = "rpc_";
   public static final String EXPORT_SERVICE_PREFIX = "exp_";
@@ -35,6 +45,7 @@ public final class Service {
   public static final String GET_DIGEST = SYS_SERVICE_PREFIX + "get_digest";
   public static final String GET_FILES = SYS_SERVICE_PREFIX + "get_files";
   public static final String GET_FLAGS = SYS_SERVICE_PREFIX + "get_flags";
+  public static final String GET_SQL_PROFILES = SYS_SERVICE_PREFIX + "get_sql_profiles";
   public static final String RUN = SYS_SERVICE_PREFIX + "run";
 
   public static final String GET_REPORT = SYS_SERVICE_PREFIX + "get_report";
@@ -42,6 +53,7 @@ public final class Service {
 
   public static final String INIT = RPC_SERVICE_PREFIX + "init";
   public static final String INVOKE = RPC_SERVICE_PREFIX + "invoke";
+  public static final String BATCH = RPC_SERVICE_PREFIX + "batch";
 
   public static final String LOGIN = RPC_SERVICE_PREFIX + "login";
   public static final String LOGOUT = RPC_SERVICE_PREFIX + "logout";
@@ -62,6 +74,7 @@ public final class Service {
   public static final String DO_SQL = DATA_SERVICE_PREFIX + "do_sql";
   public static final String QUERY = DATA_SERVICE_PREFIX + "query";
   public static final String GET_VALUE = DATA_SERVICE_PREFIX + "get_value";
+  public static final String GET_VIEW_DELTA = DATA_SERVICE_PREFIX + "view_delta";
   public static final String GET_DATA = DATA_SERVICE_PREFIX + "get_data";
   public static final String GET_DATA_INFO = DATA_SERVICE_PREFIX + "data_info";
   public static final String GET_VIEW_INFO = DATA_SERVICE_PREFIX + "view_info";
@@ -136,6 +149,7 @@ public final class Service {
   public static final String RPC_VAR_OPT = RPC_VAR_SYS_PREFIX + "opt";
 
   public static final String RPC_VAR_CTP = RPC_VAR_SYS_PREFIX + "ctp";
+  public static final String RPC_VAR_WIRE = RPC_VAR_SYS_PREFIX + "wire";
   public static final String RPC_VAR_URI = RPC_VAR_SYS_PREFIX + "uri";
   public static final String RPC_VAR_MD5 = RPC_VAR_SYS_PREFIX + "md5";
 
@@ -177,6 +191,9 @@ public final class Service {
   public static final String VAR_VIEW_EVENT_OPTIONS = RPC_VAR_PREFIX + "view_event_options";
   public static final String VAR_VIEW_ROW_ID = RPC_VAR_PREFIX + "view_row_id";
   public static final String VAR_VIEW_LIST = RPC_VAR_PREFIX + "view_list";
+  public static final String VAR_VIEW_SEEK = RPC_VAR_PREFIX + "view_seek";
+  public static final String VAR_VIEW_VERSION = RPC_VAR_PREFIX + "view_version";
+  public static final String VAR_VIEW_DELETED = RPC_VAR_PREFIX + "view_deleted";
 
   public static final String VAR_CATALOG = RPC_VAR_PREFIX + "catalog";
   public static final String VAR_SCHEMA = RPC_VAR_PREFIX + "schema";
@@ -209,6 +226,8 @@ public final class Service {
 
   public static final String VAR_DSN = RPC_VAR_PREFIX + "dsn";
   public static final String VAR_UI = RPC_VAR_PREFIX + "ui";
+  public static final String VAR_BOOTSTRAP = RPC_VAR_PREFIX + "bootstrap";
+  public static final String VAR_UI_VERSION = RPC_VAR_PREFIX + "ui_version";
 
   public static final String VAR_PROGRESS = RPC_VAR_PREFIX + "progress";
   public static final String VAR_FEED = RPC_VAR_PREFIX + "feed";
@@ -281,6 +300,19 @@ public final class Service {
     return svc != null && svc.startsWith(L10N_SERVICE_PREFIX);
   }
 
+  /**
+   * Returns true if {@code svc} only reads data, so that it may be executed concurrently with
+   * other parts of a {@link #BATCH} request.
+   *
+   * @param svc name of service
+   * @return true if service does not modify data
+   */
+  public static boolean isReadOnly(String svc) {
+    return BeeUtils.inList(svc, GET_DATA, GET_VALUE, GET_VIEW_DELTA, GET_DATA_INFO, GET_VIEW_INFO,
+        COUNT_ROWS, HAS_ANY_ROWS, GET_DISTINCT_LONGS, GET_RELATED_VALUES, GET_LAST_UPDATED,
+        HISTOGRAM);
+  }
+
   /**
    * Returns true if {@code svc} value starts with {@link #SYS_SERVICE_PREFIX}.
    *
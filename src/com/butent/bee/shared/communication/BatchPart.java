@@ -0,0 +1,101 @@
+package com.butent.bee.shared.communication;
+
+import com.butent.bee.shared.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One request of a {@link Service#BATCH} request, streamed as request id, HTTP method, query
+ * items, header items, content type and content.
+ */
+
+public final class BatchPart {
+
+  public static BatchPart read(WireReader reader) {
+    String id = reader.readValue();
+    String method = reader.readValue();
+
+    Map<String, String> query = readItems(reader);
+    Map<String, String> headers = readItems(reader);
+
+    String contentType = reader.readValue();
+    return new BatchPart(id, method, query, headers, contentType, reader.readValue());
+  }
+
+  private static Map<String, String> readItems(WireReader reader) {
+    Map<String, String> items = new HashMap<>();
+
+    int count = reader.readCount();
+    for (int i = 0; i < count; i++) {
+      String name = reader.readValue();
+      items.put(name, reader.readValue());
+    }
+    return items;
+  }
+
+  private static void writeItems(WireWriter writer, Map<String, String> items) {
+    writer.writeCount(items.size());
+
+    for (Map.Entry<String, String> item : items.entrySet()) {
+      writer.writeValue(item.getKey());
+      writer.writeValue(item.getValue());
+    }
+  }
+
+  private final String id;
+  private final String method;
+
+  private final Map<String, String> query;
+  private final Map<String, String> headers;
+
+  private final String contentType;
+  private final String content;
+
+  public BatchPart(String id, String method, Map<String, String> query,
+      Map<String, String> headers, String contentType, String content) {
+    this.id = id;
+    this.method = method;
+
+    this.query = (query == null) ? new HashMap<>() : query;
+    this.headers = (headers == null) ? new HashMap<>() : headers;
+
+    this.contentType = contentType;
+    this.content = content;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public Map<String, String> getQuery() {
+    return query;
+  }
+
+  public void write(WireWriter writer) {
+    writer.writeValue(getId());
+    writer.writeValue(getMethod());
+
+    writeItems(writer, getQuery());
+    writeItems(writer, getHeaders());
+
+    writer.writeValue(getContentType());
+    writer.writeValue(getContent());
+  }
+}
@@ -144,6 +144,11 @@ public class ResponseObject implements BeeSerializable {
 
   @Override
   public void deserialize(String s) {
+    if (WireReader.isWire(s)) {
+      read(new WireReader(s));
+      return;
+    }
+
     Serial[] members = Serial.values();
     String[] arr = Codec.beeDeserializeCollection(s);
     Assert.lengthEquals(arr, members.length);
@@ -304,6 +309,13 @@ public class ResponseObject implements BeeSerializable {
     return !hasMessages(null) && !hasResponse();
   }
 
+  /**
+   * @return {@code true} if the response can be sent with {@link #write}
+   */
+  public boolean isStreamable() {
+    return response instanceof WireSerializable;
+  }
+
   public void log(BeeLogger logger) {
     if (logger != null && hasMessages()) {
       for (ResponseMessage message : getMessages()) {
@@ -404,6 +416,29 @@ public class ResponseObject implements BeeSerializable {
     return this;
   }
 
+  /**
+   * Streams the response in the wire format. Members are written in the same order as in
+   * {@link #serialize}, the response follows them without length prefix, so the receiver gets it
+   * as a single substring, which is then restored in the usual way.
+   */
+  public void write(WireWriter writer) {
+    Assert.state(isStreamable(), "response is not streamable");
+
+    writer.writePrefix();
+
+    writer.writeCount(messages.size());
+    for (ResponseMessage message : messages) {
+      writer.writeTrimmed(message.serialize());
+    }
+
+    writer.writeTrimmed(type);
+    writer.writeValue(BeeUtils.toString(isArrayType));
+    writer.writeValue(size);
+
+    ((WireSerializable) response).write(writer);
+    writer.flush();
+  }
+
   private String[] getMessageArray(LogLevel lvl) {
     List<String> msgs = new ArrayList<>();
 
@@ -433,6 +468,21 @@ public class ResponseObject implements BeeSerializable {
     return ok;
   }
 
+  private void read(WireReader reader) {
+    messages.clear();
+
+    int messageCount = reader.readCount();
+    for (int i = 0; i < messageCount; i++) {
+      messages.add(new ResponseMessage(reader.readValue(), true));
+    }
+
+    this.type = reader.readValue();
+    this.isArrayType = BeeUtils.toBoolean(reader.readValue());
+    this.size = BeeUtils.toInt(reader.readValue());
+
+    this.response = reader.readRemainder();
+  }
+
   private ResponseObject setType(Class<?> clazz) {
     Assert.notNull(clazz);
 
@@ -0,0 +1,100 @@
+package com.butent.bee.shared.communication;
+
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.utils.BeeUtils;
+
+/**
+ * Reads data written by {@link WireWriter}.
+ * <p>
+ * The wire format starts with {@link #PREFIX} and continues with a flat sequence of values. Each
+ * value is encoded like a leaf of {@code Codec.beeSerialize}: the number of length digits, the
+ * length and the characters, {@code 0} stands for {@code null}. Collections are written as an item
+ * count followed by the items, so neither side has to wrap nested structures into intermediate
+ * strings. The reader walks the source with a single cursor and copies only leaf values.
+ */
+
+public class WireReader {
+
+  public static final String PREFIX = "w1";
+  public static final String VERSION = "1";
+
+  public static boolean isWire(String s) {
+    return s != null && s.startsWith(PREFIX);
+  }
+
+  private final String source;
+  private int position;
+
+  public WireReader(String source) {
+    Assert.isTrue(isWire(source), "wire prefix not found");
+
+    this.source = source;
+    this.position = PREFIX.length();
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  public boolean hasMore() {
+    return position < source.length();
+  }
+
+  public int readCount() {
+    int digits = readDigits();
+    if (digits <= 0) {
+      return 0;
+    }
+
+    int len = readNumber(digits);
+    return readNumber(len);
+  }
+
+  public long readLong() {
+    return BeeUtils.toLong(readValue());
+  }
+
+  /**
+   * @return the rest of the source, the cursor is moved to the end
+   */
+  public String readRemainder() {
+    String s = hasMore() ? source.substring(position) : null;
+    position = source.length();
+    return s;
+  }
+
+  public String readValue() {
+    int digits = readDigits();
+    if (digits <= 0) {
+      return null;
+    }
+
+    int len = readNumber(digits);
+    if (len <= 0) {
+      return BeeConst.STRING_EMPTY;
+    }
+
+    String value = source.substring(position, position + len);
+    position += len;
+
+    return value;
+  }
+
+  private int readDigits() {
+    Assert.isTrue(hasMore(), "unexpected end of wire data");
+    return source.charAt(position++) - BeeConst.CHAR_ZERO;
+  }
+
+  private int readNumber(int digits) {
+    int number = 0;
+
+    for (int i = 0; i < digits; i++) {
+      int digit = source.charAt(position++) - BeeConst.CHAR_ZERO;
+      Assert.isTrue(digit >= 0 && digit <= 9, "invalid wire number");
+
+      number = number * 10 + digit;
+    }
+    return number;
+  }
+}
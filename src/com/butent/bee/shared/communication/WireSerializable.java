@@ -0,0 +1,13 @@
+package com.butent.bee.shared.communication;
+
+import com.butent.bee.shared.BeeSerializable;
+
+/**
+ * Objects, which can be streamed in the wire format. Implementations must accept the streamed
+ * form in {@link BeeSerializable#deserialize}, see {@link WireReader#isWire}.
+ */
+
+public interface WireSerializable extends BeeSerializable {
+
+  void write(WireWriter writer);
+}
@@ -0,0 +1,76 @@
+package com.butent.bee.shared.communication;
+
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * Writes values in the streaming wire format, described in {@link WireReader}.
+ * <p>
+ * Output is passed to the sink in chunks, so a large row set is never built as a single string.
+ */
+
+public class WireWriter {
+
+  private static final int CHUNK_SIZE = 8192;
+
+  private final Consumer<String> sink;
+  private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE * 2);
+
+  private long length;
+
+  public WireWriter(Consumer<String> sink) {
+    this.sink = Assert.notNull(sink);
+  }
+
+  public void flush() {
+    if (buffer.length() > 0) {
+      length += buffer.length();
+      sink.accept(buffer.toString());
+      buffer.setLength(0);
+    }
+  }
+
+  /**
+   * @return number of characters written so far, including the buffered ones
+   */
+  public long getLength() {
+    return length + buffer.length();
+  }
+
+  public WireWriter writeCount(int count) {
+    return writeValue(Integer.toString(count));
+  }
+
+  public WireWriter writePrefix() {
+    buffer.append(WireReader.PREFIX);
+    return this;
+  }
+
+  /**
+   * Writes a string trimmed on the right, the same way {@code Codec.beeSerialize} does.
+   */
+  public WireWriter writeTrimmed(String value) {
+    return writeValue((value == null) ? null : BeeUtils.trimRight(value));
+  }
+
+  public WireWriter writeValue(long value) {
+    return writeValue(Long.toString(value));
+  }
+
+  public WireWriter writeValue(String value) {
+    if (value == null) {
+      buffer.append(BeeConst.CHAR_ZERO);
+    } else {
+      String len = Integer.toString(value.length());
+      buffer.append(len.length()).append(len).append(value);
+    }
+
+    if (buffer.length() >= CHUNK_SIZE) {
+      flush();
+    }
+    return this;
+  }
+}
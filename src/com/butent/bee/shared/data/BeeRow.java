@@ -3,6 +3,8 @@ package com.butent.bee.shared.data;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.BeeSerializable;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.utils.ArrayUtils;
 import com.butent.bee.shared.utils.BeeUtils;
 import com.butent.bee.shared.utils.Codec;
@@ -45,6 +47,37 @@ public class BeeRow extends StringRow implements BeeSerializable {
     return row;
   }
 
+  public static BeeRow read(WireReader reader) {
+    BeeRow row = new BeeRow(reader.readLong(), reader.readLong());
+
+    row.setEditable(Codec.unpack(reader.readValue()));
+    row.setRemovable(Codec.unpack(reader.readValue()));
+
+    int valueCount = reader.readCount();
+    String[] values = new String[valueCount];
+
+    for (int i = 0; i < valueCount; i++) {
+      values[i] = reader.readValue();
+    }
+    row.setValues(values);
+
+    int shadowCount = reader.readCount();
+    if (shadowCount > 0) {
+      Map<Integer, String> shadow = new HashMap<>(shadowCount);
+
+      for (int i = 0; i < shadowCount; i++) {
+        shadow.put(reader.readCount(), reader.readValue());
+      }
+      row.setShadow(shadow);
+    }
+
+    String properties = reader.readValue();
+    if (!BeeUtils.isEmpty(properties)) {
+      row.setProperties(CustomProperties.restore(properties));
+    }
+    return row;
+  }
+
   public BeeRow(long id, long version) {
     this(id, BeeConst.EMPTY_STRING_ARRAY);
     setVersion(version);
@@ -188,4 +221,30 @@ public class BeeRow extends StringRow implements BeeSerializable {
       setProperty(PROPERTY_CHILDREN, Codec.beeSerialize(children));
     }
   }
+
+  public void write(WireWriter writer) {
+    writer.writeValue(getId());
+    writer.writeValue(getVersion());
+
+    writer.writeValue(Codec.pack(isEditable()));
+    writer.writeValue(Codec.pack(isRemovable()));
+
+    writer.writeCount(getNumberOfCells());
+    for (int i = 0; i < getNumberOfCells(); i++) {
+      writer.writeTrimmed(getString(i));
+    }
+
+    Map<Integer, String> shadow = getShadow();
+    writer.writeCount(BeeUtils.size(shadow));
+
+    if (!BeeUtils.isEmpty(shadow)) {
+      for (Map.Entry<Integer, String> entry : shadow.entrySet()) {
+        writer.writeCount(entry.getKey());
+        writer.writeTrimmed(entry.getValue());
+      }
+    }
+
+    CustomProperties properties = getProperties();
+    writer.writeValue((properties == null) ? null : Codec.beeSerialize(properties));
+  }
 }
@@ -2,7 +2,9 @@ package com.butent.bee.shared.data;
 
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
-import com.butent.bee.shared.BeeSerializable;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireSerializable;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.data.value.ValueType;
 import com.butent.bee.shared.utils.ArrayUtils;
 import com.butent.bee.shared.utils.BeeUtils;
@@ -17,7 +19,7 @@ import java.util.Map;
  * columns and rows.
  */
 
-public class BeeRowSet extends RowList<BeeRow, BeeColumn> implements BeeSerializable, HasViewName {
+public class BeeRowSet extends RowList<BeeRow, BeeColumn> implements WireSerializable, HasViewName {
 
   /**
    * Contains a list of items for serialization.
@@ -120,6 +122,11 @@ public class BeeRowSet extends RowList<BeeRow, BeeColumn> implements BeeSerializ
   public void deserialize(String s) {
     Assert.isTrue(getNumberOfColumns() == 0);
 
+    if (WireReader.isWire(s)) {
+      read(new WireReader(s));
+      return;
+    }
+
     String[] arr = Codec.beeDeserializeCollection(s);
     Serial[] members = Serial.values();
     Assert.lengthEquals(arr, members.length);
@@ -236,4 +243,47 @@ public class BeeRowSet extends RowList<BeeRow, BeeColumn> implements BeeSerializ
       return true;
     }
   }
+
+  @Override
+  public void write(WireWriter writer) {
+    writer.writePrefix();
+    writer.writeTrimmed(getViewName());
+
+    writer.writeCount(getNumberOfColumns());
+    for (BeeColumn column : getColumns()) {
+      writer.writeTrimmed(column.serialize());
+    }
+
+    CustomProperties properties = getTableProperties();
+    writer.writeValue((properties == null) ? null : Codec.beeSerialize(properties));
+
+    writer.writeCount(getNumberOfRows());
+    for (BeeRow row : getRows()) {
+      row.write(writer);
+    }
+  }
+
+  private void read(WireReader reader) {
+    setViewName(reader.readValue());
+
+    int columnCount = reader.readCount();
+    if (columnCount > 0) {
+      List<BeeColumn> columns = new ArrayList<>(columnCount);
+
+      for (int i = 0; i < columnCount; i++) {
+        columns.add(BeeColumn.restore(reader.readValue()));
+      }
+      setColumns(columns);
+    }
+
+    String properties = reader.readValue();
+    if (!BeeUtils.isEmpty(properties)) {
+      setTableProperties(CustomProperties.restore(properties));
+    }
+
+    int rowCount = reader.readCount();
+    for (int i = 0; i < rowCount; i++) {
+      addRow(BeeRow.read(reader));
+    }
+  }
 }
@@ -6,6 +6,9 @@ import com.google.common.collect.Maps;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.BeeSerializable;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireSerializable;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.data.SimpleRowSet.SimpleRow;
 import com.butent.bee.shared.time.DateTime;
 import com.butent.bee.shared.time.JustDate;
@@ -22,7 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-public class SimpleRowSet implements Iterable<SimpleRow>, BeeSerializable {
+public class SimpleRowSet implements Iterable<SimpleRow>, WireSerializable {
 
   public final class SimpleRow {
     private final int rowIndex;
@@ -214,6 +217,11 @@ public class SimpleRowSet implements Iterable<SimpleRow>, BeeSerializable {
   public void deserialize(String data) {
     Assert.isTrue(getNumberOfColumns() == 0);
 
+    if (WireReader.isWire(data)) {
+      read(new WireReader(data));
+      return;
+    }
+
     processMembers(Serial.class, data, (serial, value) -> {
       switch (serial) {
         case COLUMN_NAMES:
@@ -556,6 +564,23 @@ public class SimpleRowSet implements Iterable<SimpleRow>, BeeSerializable {
     setValue(rowIndex, getColumnIndex(colName), value);
   }
 
+  @Override
+  public void write(WireWriter writer) {
+    writer.writePrefix();
+
+    writer.writeCount(getNumberOfColumns());
+    for (String columnName : columnNames) {
+      writer.writeTrimmed(columnName);
+    }
+
+    writer.writeCount(getNumberOfRows());
+    for (String[] row : rows) {
+      for (String value : row) {
+        writer.writeTrimmed(value);
+      }
+    }
+  }
+
   private int getKeyIndex(String keyName, String keyValue) {
     Assert.notNull(keyValue);
     int colIndex = getColumnIndex(keyName);
@@ -582,4 +607,26 @@ public class SimpleRowSet implements Iterable<SimpleRow>, BeeSerializable {
     }
     return idx;
   }
+
+  private void read(WireReader reader) {
+    int columnCount = reader.readCount();
+    columnNames = new String[columnCount];
+
+    for (int i = 0; i < columnCount; i++) {
+      columnNames[i] = reader.readValue();
+      columns.put(columnNames[i].toLowerCase(), i);
+    }
+
+    int rowCount = reader.readCount();
+    rows = new ArrayList<>(rowCount);
+
+    for (int i = 0; i < rowCount; i++) {
+      String[] row = new String[columnCount];
+
+      for (int j = 0; j < columnCount; j++) {
+        row[j] = reader.readValue();
+      }
+      rows.add(row);
+    }
+  }
 }
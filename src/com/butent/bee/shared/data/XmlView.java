@@ -142,6 +142,8 @@ public class XmlView {
   public Integer cacheMaximumSize;
   @XmlAttribute
   public String cacheEviction;
+  @XmlAttribute
+  public Boolean serverCache;
 
   @XmlAnyElement
   public Object relation;
@@ -44,6 +44,11 @@ public class CacheManager implements HandlesAllDataEvents {
     private final CachedData dataRows;
     private final Set<CachedQuery> queries = new HashSet<>();
 
+    private long sampledBytes;
+    private long sampledRows;
+
+    private long lastAccess;
+
     private Entry(DataInfo dataInfo) {
       this.dataInfo = dataInfo;
 
@@ -65,6 +70,7 @@ public class CacheManager implements HandlesAllDataEvents {
           BeeUtils.toString(dataInfo.getColumnCount())));
 
       PropertyUtils.appendChildrenToExtended(info, pfx + " data", dataRows.getInfo());
+      info.add(new ExtendedProperty(pfx, "Estimated Bytes", BeeUtils.toString(getBytes())));
       info.add(new ExtendedProperty(pfx, "Cached Queries", BeeUtils.toString(queries.size())));
 
       int idx = 0;
@@ -102,6 +108,8 @@ public class CacheManager implements HandlesAllDataEvents {
       for (BeeRow row : rows) {
         dataRows.add(row.getId(), row);
         query.add(p++, row.getId());
+
+        sample(row);
       }
     }
 
@@ -195,6 +203,17 @@ public class CacheManager implements HandlesAllDataEvents {
       }
     }
 
+    /**
+     * @return size of cached rows, estimated from the average size of rows added to the entry
+     */
+    private long getBytes() {
+      if (sampledRows > 0) {
+        return dataRows.getSize() * (sampledBytes / sampledRows);
+      } else {
+        return 0L;
+      }
+    }
+
     private CachedQuery getQuery(Filter filter, Order order) {
       for (CachedQuery query : queries) {
         if (query.same(filter, order)) {
@@ -237,6 +256,7 @@ public class CacheManager implements HandlesAllDataEvents {
 
     private void insertRow(BeeRow row) {
       dataRows.add(row.getId(), row);
+      sample(row);
 
       for (CachedQuery query : queries) {
         query.invalidate();
@@ -266,6 +286,11 @@ public class CacheManager implements HandlesAllDataEvents {
       }
     }
 
+    private void sample(BeeRow row) {
+      sampledBytes += estimateSize(row);
+      sampledRows++;
+    }
+
     private void setRowCount(Filter filter, Order order, int rowCount) {
       boolean found = false;
 
@@ -317,7 +342,20 @@ public class CacheManager implements HandlesAllDataEvents {
   private static final ReplacementPolicy DEFAULT_REPLACEMENT_POLICY =
       ReplacementPolicy.FIRST_IN_FIRST_OUT;
 
+  private static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+
+  private static final int ROW_OVERHEAD = 64;
+  private static final int CELL_OVERHEAD = 24;
+  private static final int NULL_CELL = 8;
+
   private final Map<String, Entry> entries = new HashMap<>();
+  private final Set<String> restored = new HashSet<>();
+
+  private long budget = DEFAULT_BUDGET;
+  private long clock;
+  private int evictions;
+
+  private CacheStore store;
 
   public CacheManager() {
     super();
@@ -348,26 +386,39 @@ public class CacheManager implements HandlesAllDataEvents {
         entry = new Entry(dataInfo);
         entries.put(key, entry);
       }
+      touch(entry);
 
       if (rowCount > 0) {
         entry.addRows(rowSet.getRows(), filter, order, offset);
       }
       if (isComplete) {
         entry.setRowCount(filter, order, rowCount);
+
+        if (store != null && filter == null && order == null && rowCount > 0
+            && (entry.maximumSize <= 0 || rowCount <= entry.maximumSize)) {
+          store.put(rowSet);
+        }
       }
+
+      checkBudget();
     }
   }
 
   public void clear() {
     invalidateAll();
     entries.clear();
+    restored.clear();
+
+    if (store != null) {
+      store.clear();
+    }
   }
 
   public boolean containsRange(String viewName, Filter filter, Order order, int offset, int limit) {
     if (BeeUtils.isEmpty(viewName)) {
       return false;
     }
-    Entry entry = get(viewName);
+    Entry entry = access(viewName);
     if (entry == null) {
       return false;
     }
@@ -380,7 +431,7 @@ public class CacheManager implements HandlesAllDataEvents {
     if (BeeUtils.isEmpty(viewName)) {
       return offset;
     }
-    Entry entry = get(viewName);
+    Entry entry = access(viewName);
     if (entry == null) {
       return offset;
     }
@@ -388,9 +439,25 @@ public class CacheManager implements HandlesAllDataEvents {
     return entry.firstNotCached(filter, order, offset, limit, forward);
   }
 
+  public long getBudget() {
+    return budget;
+  }
+
+  public long getEstimatedBytes() {
+    long bytes = 0L;
+    for (Entry entry : entries.values()) {
+      bytes += entry.getBytes();
+    }
+    return bytes;
+  }
+
   public List<ExtendedProperty> getExtendedInfo() {
     List<ExtendedProperty> info = new ArrayList<>();
     info.add(new ExtendedProperty("Cache", "Entries", BeeUtils.toString(entries.size())));
+    info.add(new ExtendedProperty("Cache", "Budget", BeeUtils.toString(getBudget())));
+    info.add(new ExtendedProperty("Cache", "Estimated Bytes",
+        BeeUtils.toString(getEstimatedBytes())));
+    info.add(new ExtendedProperty("Cache", "Evictions", BeeUtils.toString(evictions)));
 
     int idx = 0;
     for (Entry entry : entries.values()) {
@@ -406,7 +473,7 @@ public class CacheManager implements HandlesAllDataEvents {
 
   public BeeRowSet getRowSet(String viewName, Filter filter, Order order, int offset, int limit) {
     Assert.notEmpty(viewName);
-    Entry entry = get(viewName);
+    Entry entry = access(viewName);
     if (entry == null) {
       return null;
     }
@@ -475,6 +542,84 @@ public class CacheManager implements HandlesAllDataEvents {
       entries.remove(normalizeKey(key));
       logger.info("Cache", key, "removed");
     }
+
+    if (store != null && !BeeUtils.isEmpty(key)) {
+      store.remove(key);
+    }
+  }
+
+  /**
+   * Reads the complete row set of a view from the store on the first lookup, which misses the
+   * cache, so that only the views actually used are restored.
+   *
+   * @return true if the store is being read, {@code callback} is then run when it is done
+   */
+  public boolean restore(String viewName, Runnable callback) {
+    if (store == null || BeeUtils.isEmpty(viewName) || contains(viewName)) {
+      return false;
+    }
+
+    String key = normalizeKey(viewName);
+    if (!restored.add(key)) {
+      return false;
+    }
+
+    if (store.restore(viewName, callback)) {
+      return true;
+    } else {
+      restored.remove(key);
+      return false;
+    }
+  }
+
+  /**
+   * @param budget estimated size of all cached rows in bytes, least recently used views are
+   *          evicted when it is exceeded
+   */
+  public void setBudget(long budget) {
+    this.budget = budget;
+    checkBudget();
+  }
+
+  public void setStore(CacheStore store) {
+    this.store = store;
+  }
+
+  private Entry access(String key) {
+    Entry entry = get(key);
+    if (entry != null) {
+      touch(entry);
+    }
+    return entry;
+  }
+
+  private void checkBudget() {
+    if (budget <= 0) {
+      return;
+    }
+
+    long bytes = getEstimatedBytes();
+
+    while (bytes > budget && !entries.isEmpty()) {
+      String lru = null;
+      long min = Long.MAX_VALUE;
+
+      for (Map.Entry<String, Entry> item : entries.entrySet()) {
+        if (item.getValue().lastAccess < min) {
+          lru = item.getKey();
+          min = item.getValue().lastAccess;
+        }
+      }
+
+      Entry entry = entries.remove(lru);
+      bytes -= entry.getBytes();
+
+      entry.invalidate();
+      evictions++;
+
+      logger.info("Cache", entry.getViewName(), "evicted, estimated bytes", bytes, "budget",
+          budget);
+    }
   }
 
   private boolean contains(String key) {
@@ -511,6 +656,27 @@ public class CacheManager implements HandlesAllDataEvents {
     }
   }
 
+  private void touch(Entry entry) {
+    entry.lastAccess = ++clock;
+  }
+
+  static long estimateSize(BeeRow row) {
+    long size = ROW_OVERHEAD;
+
+    for (int i = 0; i < row.getNumberOfCells(); i++) {
+      String value = row.getString(i);
+      size += (value == null) ? NULL_CELL : CELL_OVERHEAD + 2L * value.length();
+    }
+
+    if (row.getProperties() != null) {
+      for (Map.Entry<String, String> property : row.getProperties().entrySet()) {
+        size += CELL_OVERHEAD * 2 + 2L * (BeeUtils.length(property.getKey())
+            + BeeUtils.length(property.getValue()));
+      }
+    }
+    return size;
+  }
+
   private static String normalizeKey(String key) {
     return BeeUtils.normalize(key);
   }
@@ -0,0 +1,24 @@
+package com.butent.bee.shared.data.cache;
+
+import com.butent.bee.shared.data.BeeRowSet;
+
+/**
+ * Keeps complete row sets of cached views outside of memory, so that they survive a reload.
+ */
+
+public interface CacheStore {
+
+  void clear();
+
+  void put(BeeRowSet rowSet);
+
+  void remove(String viewName);
+
+  /**
+   * Adds the stored row set of the view to the cache.
+   *
+   * @return false if the store is not available yet or does not keep the view, otherwise
+   *         {@code callback} is run asynchronously, whether the row set was restored or not
+   */
+  boolean restore(String viewName, Runnable callback);
+}
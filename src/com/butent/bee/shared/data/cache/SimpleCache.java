@@ -119,6 +119,10 @@ public class SimpleCache<K, V> implements HasInfo {
     return missCount;
   }
 
+  public int getSize() {
+    return impl.getSize();
+  }
+
   public boolean isEmpty() {
     return impl.isEmpty();
   }
@@ -6,6 +6,8 @@ import com.google.web.bindery.event.shared.Event;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.BeeSerializable;
 import com.butent.bee.shared.Locality;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.BeeUtils;
@@ -84,6 +86,21 @@ public abstract class ModificationEvent<H> extends Event<H> implements DataEvent
     return event;
   }
 
+  public static ModificationEvent<?> read(WireReader reader) {
+    String value = reader.readValue();
+
+    Kind kind = Codec.unpack(Kind.class, value);
+    if (kind == null) {
+      logger.severe("cannot read modification event kind", value);
+      return null;
+    }
+
+    ModificationEvent<?> event = kind.createEvent();
+    event.readValues(reader);
+
+    return event;
+  }
+
   private transient Locality locality;
 
   public String brief() {
@@ -121,4 +138,20 @@ public abstract class ModificationEvent<H> extends Event<H> implements DataEvent
 
   @Override
   public abstract String toString();
+
+  public void write(WireWriter writer) {
+    writer.writeValue(Codec.pack(getKind()));
+    writeValues(writer);
+  }
+
+  /**
+   * Reads the event written by {@link #writeValues}, by default as a single serialized value.
+   */
+  protected void readValues(WireReader reader) {
+    deserialize(reader.readValue());
+  }
+
+  protected void writeValues(WireWriter writer) {
+    writer.writeValue(serialize());
+  }
 }
@@ -6,6 +6,8 @@ import com.google.web.bindery.event.shared.HandlerRegistration;
 import com.butent.bee.shared.Assert;
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.Locality;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.data.BeeRow;
 import com.butent.bee.shared.data.HasRowId;
 import com.butent.bee.shared.data.HasViewName;
@@ -140,4 +142,18 @@ public class RowUpdateEvent extends ModificationEvent<RowUpdateEvent.Handler> im
   protected void dispatch(Handler handler) {
     handler.onRowUpdate(this);
   }
+
+  @Override
+  protected void readValues(WireReader reader) {
+    this.viewName = reader.readValue();
+    this.refreshChildren = Codec.unpack(reader.readValue());
+    this.row = BeeRow.read(reader);
+  }
+
+  @Override
+  protected void writeValues(WireWriter writer) {
+    writer.writeValue(getViewName());
+    writer.writeValue(Codec.pack(refreshChildren()));
+    getRow().write(writer);
+  }
 }
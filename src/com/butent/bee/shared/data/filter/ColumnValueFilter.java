@@ -1,6 +1,7 @@
 package com.butent.bee.shared.data.filter;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
 
 import com.butent.bee.shared.BeeConst;
 import com.butent.bee.shared.data.IsColumn;
@@ -12,7 +13,9 @@ import com.butent.bee.shared.utils.Codec;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Enables to compare column data against given value (for example quantity > 10).
@@ -35,6 +38,57 @@ public class ColumnValueFilter extends ComparisonFilter {
     super(column, Operator.IN, values);
   }
 
+  @Override
+  public Set<Long> findMatches(List<? extends IsColumn> columns, FilterIndex index) {
+    int columnIndex = getColumnIndex(getColumn(), columns);
+    if (columnIndex < 0) {
+      return null;
+    }
+
+    Set<Long> result = null;
+
+    for (Value value : getValue()) {
+      Set<Long> ids;
+
+      switch (getOperator()) {
+        case EQ:
+        case IN:
+          ids = index.getEqual(columnIndex, value);
+          break;
+        case LT:
+          ids = index.getInRange(columnIndex, Range.lessThan(value));
+          break;
+        case GT:
+          ids = index.getInRange(columnIndex, Range.greaterThan(value));
+          break;
+        case LE:
+          ids = index.getInRange(columnIndex, Range.atMost(value));
+          break;
+        case GE:
+          ids = index.getInRange(columnIndex, Range.atLeast(value));
+          break;
+        case STARTS:
+          ids = index.getStartingWith(columnIndex, value.toString());
+          break;
+        default:
+          ids = null;
+      }
+
+      if (ids == null) {
+        return null;
+      }
+
+      if (result == null) {
+        result = new HashSet<>(ids);
+      } else if (EnumSet.of(Operator.IN, Operator.EQ).contains(getOperator())) {
+        result.addAll(ids);
+      } else {
+        result.retainAll(ids);
+      }
+    }
+    return result;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public List<Value> getValue() {
@@ -10,7 +10,9 @@ import com.butent.bee.shared.utils.BeeUtils;
 import com.butent.bee.shared.utils.Codec;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Implements complex filters, containing more than one condition.
@@ -103,6 +105,58 @@ public class CompoundFilter extends Filter {
     return true;
   }
 
+  @Override
+  public Set<Long> findMatches(List<? extends IsColumn> columns, FilterIndex index) {
+    if (isEmpty()) {
+      return new HashSet<>(index.getIds());
+    }
+
+    Set<Long> result = null;
+    List<Filter> unresolved = new ArrayList<>();
+
+    for (Filter subFilter : subFilters) {
+      Set<Long> ids = subFilter.findMatches(columns, index);
+
+      switch (type) {
+        case NOT:
+          if (ids == null) {
+            return null;
+          }
+          result = new HashSet<>(index.getIds());
+          result.removeAll(ids);
+          return result;
+
+        case OR:
+          if (ids == null) {
+            return null;
+          }
+          if (result == null) {
+            result = ids;
+          } else {
+            result.addAll(ids);
+          }
+          break;
+
+        case AND:
+          if (ids == null) {
+            unresolved.add(subFilter);
+          } else if (result == null) {
+            result = ids;
+          } else {
+            result.retainAll(ids);
+          }
+          break;
+      }
+    }
+
+    if (result != null && !unresolved.isEmpty()) {
+      for (Filter subFilter : unresolved) {
+        result.removeIf(id -> !subFilter.isMatch(columns, index.getRow(id)));
+      }
+    }
+    return result;
+  }
+
   public List<Filter> getSubFilters() {
     return ImmutableList.copyOf(subFilters);
   }
@@ -34,6 +34,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Is an abstract class for all specific filter applying classes, determines which type of filter to
@@ -645,6 +646,14 @@ public abstract class Filter implements BeeSerializable, RowFilter {
     }
   }
 
+  /**
+   * @return new set of ids of matching rows, looked up in the index, or {@code null}, if the filter
+   *         can not be evaluated that way
+   */
+  public Set<Long> findMatches(List<? extends IsColumn> columns, FilterIndex index) {
+    return null;
+  }
+
   @Override
   public int hashCode() {
     return toString().hashCode();
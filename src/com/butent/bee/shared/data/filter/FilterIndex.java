@@ -0,0 +1,28 @@
+package com.butent.bee.shared.data.filter;
+
+import com.google.common.collect.Range;
+
+import com.butent.bee.shared.data.IsRow;
+import com.butent.bee.shared.data.value.Value;
+
+import java.util.Set;
+
+/**
+ * Gives filters access to column indexes of an in-memory table.
+ * <p>
+ * Lookup methods return {@code null}, if the column can not be indexed. Returned sets belong to
+ * the index and must not be modified.
+ */
+
+public interface FilterIndex {
+
+  Set<Long> getEqual(int colIndex, Value value);
+
+  Set<Long> getIds();
+
+  Set<Long> getInRange(int colIndex, Range<Value> range);
+
+  IsRow getRow(long id);
+
+  Set<Long> getStartingWith(int colIndex, String prefix);
+}
@@ -31,6 +31,17 @@ public class IdFilter extends ComparisonFilter {
     super(DataUtils.ID_TAG, Operator.IN, Sets.newHashSet(values));
   }
 
+  @Override
+  public Set<Long> findMatches(List<? extends IsColumn> columns, FilterIndex index) {
+    if (getOperator() == Operator.IN || getOperator() == Operator.EQ) {
+      Set<Long> result = new HashSet<>(getValue());
+      result.retainAll(index.getIds());
+      return result;
+    } else {
+      return null;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Set<Long> getValue() {
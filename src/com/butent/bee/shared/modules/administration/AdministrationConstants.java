@@ -233,6 +233,8 @@ public final class AdministrationConstants {
 
   public static final String TBL_EVENT_HISTORY = "EventHistory";
 
+  public static final String TBL_CLUSTER_EVENTS = "ClusterEvents";
+
   public static final String TBL_DICTIONARY = "Dictionary";
 
   public static final String VIEW_USERS = "Users";
@@ -447,6 +449,11 @@ public final class AdministrationConstants {
   public static final String COL_EVENT_ENDED = "Ended";
   public static final String COL_EVENT_RESULT = "Result";
 
+  public static final String COL_CLUSTER_NODE = "Node";
+  public static final String COL_CLUSTER_CHANNEL = "Channel";
+  public static final String COL_CLUSTER_PAYLOAD = "Payload";
+  public static final String COL_CLUSTER_PUBLISHED = "Published";
+
   public static final String COL_SUBSTITUTE = "Substitute";
   public static final String COL_SUBSTITUTE_FROM = "SubstituteFrom";
   public static final String COL_SUBSTITUTION = "Substitution";
@@ -220,35 +220,47 @@ public final class Codec {
    * @return a deserialized String array.
    */
   public static String[] beeDeserializeCollection(String data) {
-    String[] res = null;
     String s = beeDeserialize(data);
 
-    if (!BeeUtils.isEmpty(s) && s.startsWith(SERIALIZATION_COLLECTION)) {
-      s = beeDeserialize(s.substring(1));
-      int pos = 0;
-      int n = BeeUtils.toInt(s.substring(pos, ++pos));
+    if (BeeUtils.isEmpty(s) || !s.startsWith(SERIALIZATION_COLLECTION)) {
+      return null;
+    }
 
-      if (n > 0) {
-        int l = BeeUtils.toInt(s.substring(pos, pos + n));
-        pos += n;
-        res = new String[l];
+    int pos = SERIALIZATION_COLLECTION.length();
+    int n = digitAt(s, pos++);
+    if (n <= 0) {
+      return null;
+    }
 
-        for (int i = 0; i < l; i++) {
-          int start = pos;
-          if (s.substring(start, start + 1).equals(SERIALIZATION_COLLECTION)) {
-            pos++;
-          }
-          n = BeeUtils.toInt(s.substring(pos, ++pos));
+    int end = pos + n + numberAt(s, pos, n);
+    pos += n;
+    if (end != s.length() || pos >= end) {
+      return null;
+    }
 
-          if (n > 0) {
-            int c = BeeUtils.toInt(s.substring(pos, pos + n));
-            pos += n + c;
-          }
-          res[i] = beeDeserialize(s.substring(start, pos));
+    String[] res = null;
+    n = digitAt(s, pos++);
+
+    if (n > 0) {
+      int l = numberAt(s, pos, n);
+      pos += n;
+      res = new String[l];
+
+      for (int i = 0; i < l; i++) {
+        int start = pos;
+        if (s.startsWith(SERIALIZATION_COLLECTION, start)) {
+          pos++;
         }
-        if (pos < s.length()) {
-          res = null;
+        n = digitAt(s, pos++);
+
+        if (n > 0) {
+          int c = numberAt(s, pos, n);
+          pos += n + c;
         }
+        res[i] = itemAt(s, start, pos);
+      }
+      if (pos < end) {
+        res = null;
       }
     }
     return res;
@@ -956,6 +968,37 @@ public final class Codec {
     Assert.isPositive(arr.length);
   }
 
+  private static int digitAt(String s, int index) {
+    char ch = s.charAt(index);
+    return (ch >= BeeConst.CHAR_ZERO && ch <= BeeConst.CHAR_NINE) ? ch - BeeConst.CHAR_ZERO : 0;
+  }
+
+  /**
+   * Restores a collection item, which occupies {@code s} from {@code start} to {@code end}, without
+   * copying it to an intermediate string.
+   */
+  private static String itemAt(String s, int start, int end) {
+    if (s.startsWith(SERIALIZATION_COLLECTION, start)) {
+      return s.substring(start, end);
+    }
+
+    int n = digitAt(s, start);
+    if (n <= 0) {
+      return null;
+    }
+
+    int pos = start + 1 + n;
+    return (pos < end) ? s.substring(pos, end) : BeeConst.STRING_EMPTY;
+  }
+
+  private static int numberAt(String s, int start, int digits) {
+    int number = 0;
+    for (int i = start; i < start + digits; i++) {
+      number = number * 10 + digitAt(s, i);
+    }
+    return number;
+  }
+
   private Codec() {
   }
 }
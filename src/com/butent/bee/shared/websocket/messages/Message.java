@@ -2,6 +2,9 @@ package com.butent.bee.shared.websocket.messages;
 
 import com.google.common.collect.Lists;
 
+import com.butent.bee.shared.Assert;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.logging.BeeLogger;
 import com.butent.bee.shared.logging.LogUtils;
 import com.butent.bee.shared.utils.BeeUtils;
@@ -127,6 +130,10 @@ public abstract class Message {
   private static BeeLogger logger = LogUtils.getLogger(Message.class);
 
   public static Message decode(String s) {
+    if (WireReader.isWire(s)) {
+      return readMessage(new WireReader(s));
+    }
+
     String[] arr = Codec.beeDeserializeCollection(s);
     if (arr == null || arr.length != 2) {
       logger.severe("cannot decode message", s);
@@ -145,6 +152,21 @@ public abstract class Message {
     return message;
   }
 
+  private static Message readMessage(WireReader reader) {
+    String value = reader.readValue();
+
+    Type messageType = Codec.unpack(Type.class, value);
+    if (messageType == null) {
+      logger.severe("cannot read message type", value);
+      return null;
+    }
+
+    Message message = messageType.createMessage();
+    message.read(reader);
+
+    return message;
+  }
+
   private final Type type;
 
   protected Message(Type type) {
@@ -153,7 +175,21 @@ public abstract class Message {
 
   public abstract String brief();
 
+  /**
+   * Messages, which support it, are encoded in the flat wire format, see {@link WireReader}.
+   */
   public String encode() {
+    if (isStreamable()) {
+      StringBuilder sb = new StringBuilder();
+      WireWriter writer = new WireWriter(sb::append);
+
+      writer.writePrefix().writeValue(Codec.pack(getType()));
+      write(writer);
+      writer.flush();
+
+      return sb.toString();
+    }
+
     List<String> data = Lists.newArrayList(Codec.pack(getType()), serialize());
     return Codec.beeSerialize(data);
   }
@@ -173,8 +209,20 @@ public abstract class Message {
 
   protected abstract void deserialize(String s);
 
+  protected boolean isStreamable() {
+    return false;
+  }
+
+  protected void read(WireReader reader) {
+    Assert.unsupported();
+  }
+
   protected abstract String serialize();
 
+  protected void write(WireWriter writer) {
+    Assert.unsupported();
+  }
+
   protected static String string(Double d) {
     return (d == null) ? null : BeeUtils.toString(d, 6);
   }
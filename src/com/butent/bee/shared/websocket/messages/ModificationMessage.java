@@ -1,15 +1,32 @@
 package com.butent.bee.shared.websocket.messages;
 
 import com.butent.bee.shared.BeeConst;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.data.event.ModificationEvent;
+import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.Codec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class ModificationMessage extends Message {
 
-  private ModificationEvent<?> event;
+  private final List<ModificationEvent<?>> events = new ArrayList<>();
 
   public ModificationMessage(ModificationEvent<?> event) {
     this();
-    this.event = event;
+    if (event != null) {
+      events.add(event);
+    }
+  }
+
+  public ModificationMessage(Collection<? extends ModificationEvent<?>> events) {
+    this();
+    if (events != null) {
+      this.events.addAll(events);
+    }
   }
 
   ModificationMessage() {
@@ -18,42 +35,87 @@ public class ModificationMessage extends Message {
 
   @Override
   public String brief() {
-    if (getEvent() == null) {
+    if (events.isEmpty()) {
       return BeeConst.NULL;
+    } else if (events.size() == 1) {
+      return events.get(0).brief();
     } else {
-      return getEvent().brief();
+      return BeeUtils.joinWords(events.get(0).brief(), "and", events.size() - 1, "more");
     }
   }
 
-  public ModificationEvent<?> getEvent() {
-    return event;
+  public List<ModificationEvent<?>> getEvents() {
+    return events;
   }
 
   @Override
   public boolean isValid() {
-    return getEvent() != null;
+    return !events.isEmpty();
   }
 
   @Override
   public String toString() {
-    if (getEvent() == null) {
+    if (events.isEmpty()) {
       return BeeConst.NULL;
+    } else if (events.size() == 1) {
+      return events.get(0).toString();
     } else {
-      return getEvent().toString();
+      return BeeUtils.joinWords(events.size(), "events", brief());
     }
   }
 
   @Override
   protected void deserialize(String s) {
-    setEvent(ModificationEvent.decode(s));
+    events.clear();
+
+    String[] arr = Codec.beeDeserializeCollection(s);
+    if (arr != null) {
+      for (String item : arr) {
+        ModificationEvent<?> event = ModificationEvent.decode(item);
+        if (event != null) {
+          events.add(event);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected boolean isStreamable() {
+    return true;
+  }
+
+  @Override
+  protected void read(WireReader reader) {
+    events.clear();
+
+    int count = reader.readCount();
+    for (int i = 0; i < count; i++) {
+      ModificationEvent<?> event = ModificationEvent.read(reader);
+      if (event != null) {
+        events.add(event);
+      }
+    }
   }
 
   @Override
   protected String serialize() {
-    return (getEvent() == null) ? null : getEvent().encode();
+    if (events.isEmpty()) {
+      return null;
+    }
+
+    List<String> data = new ArrayList<>();
+    for (ModificationEvent<?> event : events) {
+      data.add(event.encode());
+    }
+    return Codec.beeSerialize(data);
   }
 
-  private void setEvent(ModificationEvent<?> event) {
-    this.event = event;
+  @Override
+  protected void write(WireWriter writer) {
+    writer.writeCount(events.size());
+
+    for (ModificationEvent<?> event : events) {
+      event.write(writer);
+    }
   }
 }
@@ -1,7 +1,10 @@
 package com.butent.bee.shared.websocket.messages;
 
 import com.butent.bee.shared.communication.Presence;
+import com.butent.bee.shared.communication.WireReader;
+import com.butent.bee.shared.communication.WireWriter;
 import com.butent.bee.shared.utils.BeeUtils;
+import com.butent.bee.shared.utils.Codec;
 import com.butent.bee.shared.utils.EnumUtils;
 import com.butent.bee.shared.websocket.SessionUser;
 
@@ -53,8 +56,29 @@ public class PresenceMessage extends Message {
     this.sessionUser = SessionUser.restore(s);
   }
 
+  @Override
+  protected boolean isStreamable() {
+    return getSessionUser() != null;
+  }
+
+  @Override
+  protected void read(WireReader reader) {
+    String sessionId = reader.readValue();
+    long userId = reader.readLong();
+    Presence presence = Codec.unpack(Presence.class, reader.readValue());
+
+    this.sessionUser = new SessionUser(sessionId, userId, presence);
+  }
+
   @Override
   protected String serialize() {
     return (getSessionUser() == null) ? null : getSessionUser().serialize();
   }
+
+  @Override
+  protected void write(WireWriter writer) {
+    writer.writeValue(getSessionUser().getSessionId());
+    writer.writeValue(getSessionUser().getUserId());
+    writer.writeValue(Codec.pack(getSessionUser().getPresence()));
+  }
 }
@@ -1,5 +1,11 @@
 package com.butent.bee;
 
+import com.butent.bee.client.data.TestTableIndex;
+import com.butent.bee.server.TestDispatcherBean;
+import com.butent.bee.server.data.TestQueryCache;
+import com.butent.bee.server.data.TestSqlCursor;
+import com.butent.bee.server.jdbc.TestJdbcUtils;
+import com.butent.bee.server.jdbc.TestStatementCache;
 import com.butent.bee.server.sql.TestHasFrom;
 import com.butent.bee.server.sql.TestIsCondition;
 import com.butent.bee.server.sql.TestIsExpression;
@@ -7,6 +13,7 @@ import com.butent.bee.server.sql.TestSqlCreate;
 import com.butent.bee.server.sql.TestSqlDelete;
 import com.butent.bee.server.sql.TestSqlInsert;
 import com.butent.bee.server.sql.TestSqlSelect;
+import com.butent.bee.server.sql.TestSqlStatement;
 import com.butent.bee.server.sql.TestSqlUpdate;
 import com.butent.bee.server.sql.TestSqlUtilsIsQuery;
 import com.butent.bee.shared.TestBeeConst;
@@ -15,7 +22,11 @@ import com.butent.bee.shared.TestPair;
 import com.butent.bee.shared.TestResource;
 import com.butent.bee.shared.TestService;
 import com.butent.bee.shared.TestStringArray;
+import com.butent.bee.shared.communication.TestBatchPart;
+import com.butent.bee.shared.communication.TestWireReader;
 import com.butent.bee.shared.data.TestDataUtils;
+import com.butent.bee.shared.data.cache.TestCacheManager;
+import com.butent.bee.shared.data.filter.TestFilterIndex;
 import com.butent.bee.shared.data.value.TestBooleanValue;
 import com.butent.bee.shared.data.value.TestDateTimeValue;
 import com.butent.bee.shared.data.value.TestDateValue;
@@ -49,8 +60,9 @@ import org.junit.runners.Suite.SuiteClasses;
     TestTimeUtils.class,
     TestIsExpression.class, TestIsCondition.class,
     TestSqlCreate.class, TestSqlUtilsIsQuery.class, TestSqlInsert.class,
-    TestSqlUpdate.class, TestSqlDelete.class, TestSqlSelect.class,
-    TestHasFrom.class, TestWildcards.class,
+    TestSqlUpdate.class, TestSqlDelete.class, TestSqlSelect.class, TestSqlStatement.class,
+    TestHasFrom.class, TestWildcards.class, TestSqlCursor.class, TestQueryCache.class,
+    TestJdbcUtils.class, TestStatementCache.class,
     TestDateTime.class, TestJustDate.class, TestPair.class, TestBeeConst.class,
     TestResource.class, TestIntValue.class,
     TestLongValue.class, TestListSequence.class, TestValueType.class,
@@ -58,9 +70,10 @@ import org.junit.runners.Suite.SuiteClasses;
     TestBooleanValue.class, TestDateTimeValue.class,
     TestDateValue.class, TestNumberValue.class, TestTextValue.class,
     TestTimeOfDayValue.class,
-    TestDataUtils.class,
+    TestDataUtils.class, TestFilterIndex.class, TestCacheManager.class, TestTableIndex.class,
     TestBuilder.class,
     TestDateOrdering.class,
-    TestBeeUtils.class, TestCodec.class, TestIntRangeSet.class})
+    TestBeeUtils.class, TestCodec.class, TestIntRangeSet.class,
+    TestWireReader.class, TestBatchPart.class, TestDispatcherBean.class})
 public class AllTests {
 }
@@ -0,0 +1,124 @@
+package com.butent.bee.client.data;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.filter.Filter;
+import com.butent.bee.shared.data.value.DecimalValue;
+import com.butent.bee.shared.data.value.IntegerValue;
+import com.butent.bee.shared.data.value.LongValue;
+import com.butent.bee.shared.data.value.TextValue;
+import com.butent.bee.shared.data.value.Value;
+import com.butent.bee.shared.data.value.ValueType;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests {@link com.butent.bee.client.data.TableIndex}.
+ */
+public class TestTableIndex {
+
+  private BeeRowSet rowSet;
+  private TableIndex index;
+
+  @Before
+  public void setUp() {
+    rowSet = new BeeRowSet("Items", Arrays.asList(new BeeColumn(ValueType.TEXT, "Name", "Name"),
+        new BeeColumn(ValueType.DECIMAL, "Price", "Price"),
+        new BeeColumn(ValueType.INTEGER, "Qty", "Qty")));
+
+    rowSet.addRow(1, 1, new String[] {"first", "10.00", "10"});
+    rowSet.addRow(2, 1, new String[] {"second", "10", "20"});
+    rowSet.addRow(3, 1, new String[] {"Fourth", "2.5", "5"});
+    rowSet.addRow(4, 1, new String[] {null, null, null});
+    rowSet.addRow(5, 1, new String[] {"fifth", "10.5", "10"});
+
+    index = new TableIndex(rowSet);
+  }
+
+  @Test
+  public final void testDecimal() {
+    assertEquals(Sets.newHashSet(1L, 2L), index.getEqual(1, decimal("10")));
+    assertEquals(Sets.newHashSet(1L, 2L), index.getEqual(1, decimal("10.000")));
+    assertEquals(Sets.newHashSet(3L), index.getEqual(1, decimal("2.50")));
+    assertTrue(index.getEqual(1, decimal("3")).isEmpty());
+
+    assertEquals(Sets.newHashSet(1L, 2L), check(Filter.isEqual("Price", decimal("10.0"))));
+    assertEquals(Sets.newHashSet(3L, 4L, 5L),
+        check(Filter.isNot(Filter.isEqual("Price", decimal("10")))));
+    assertEquals(Sets.newHashSet(5L), check(Filter.isMore("Price", decimal("10.00"))));
+  }
+
+  @Test
+  public final void testEqual() {
+    assertEquals(Sets.newHashSet(1L, 5L), index.getEqual(2, new IntegerValue(10)));
+    assertEquals(Sets.newHashSet(1L, 5L), index.getEqual(2, new LongValue(10L)));
+    assertEquals(Sets.newHashSet(3L), index.getEqual(0, new TextValue("Fourth")));
+
+    assertTrue(index.getEqual(2, new IntegerValue(7)).isEmpty());
+    assertTrue(index.getEqual(2, IntegerValue.getNullValue()).isEmpty());
+    assertNull(index.getEqual(3, new IntegerValue(10)));
+
+    assertEquals(Sets.newHashSet(1L, 5L), check(Filter.isEqual("Qty", new IntegerValue(10))));
+  }
+
+  @Test
+  public final void testInvalidate() {
+    assertEquals(Sets.newHashSet(1L, 5L), index.getEqual(2, new IntegerValue(10)));
+    assertEquals(5, index.getIds().size());
+
+    rowSet.addRow(6, 1, new String[] {"sixth", "10.0", "10"});
+    assertEquals(Sets.newHashSet(1L, 5L, 6L), index.getEqual(2, new IntegerValue(10)));
+    assertEquals(Sets.newHashSet(1L, 2L, 6L), index.getEqual(1, decimal("10")));
+    assertNotNull(index.getRow(6));
+
+    rowSet.getRowById(6).setValue(2, "20");
+    index.invalidateColumns();
+    assertEquals(Sets.newHashSet(2L, 6L), index.getEqual(2, new IntegerValue(20)));
+  }
+
+  @Test
+  public final void testRange() {
+    assertEquals(Sets.newHashSet(1L, 3L, 5L),
+        index.getInRange(2, Range.atMost(new IntegerValue(10))));
+    assertEquals(Sets.newHashSet(2L),
+        index.getInRange(2, Range.greaterThan(new IntegerValue(10))));
+    assertEquals(Sets.newHashSet(1L, 2L, 5L),
+        index.getInRange(1, Range.closed(decimal("10"), decimal("10.5"))));
+
+    assertEquals(Sets.newHashSet(1L, 3L, 5L), index.getStartingWith(0, "f"));
+    assertEquals(Sets.newHashSet(3L), index.getStartingWith(0, "FO"));
+
+    assertEquals(Sets.newHashSet(1L, 3L, 5L), check(Filter.startsWith("Name", "F")));
+    assertEquals(Sets.newHashSet(2L, 3L), check(Filter.or(
+        Filter.isMore("Qty", new IntegerValue(10)), Filter.startsWith("Name", "fo"))));
+  }
+
+  private static Value decimal(String value) {
+    return new DecimalValue(new BigDecimal(value));
+  }
+
+  private Set<Long> check(Filter filter) {
+    Set<Long> expected = new HashSet<>();
+    for (BeeRow row : rowSet) {
+      if (filter.isMatch(rowSet.getColumns(), row)) {
+        expected.add(row.getId());
+      }
+    }
+
+    Set<Long> found = filter.findMatches(rowSet.getColumns(), index);
+    assertEquals(expected, found);
+    return found;
+  }
+}
@@ -0,0 +1,147 @@
+package com.butent.bee.server;
+
+import com.butent.bee.server.http.RequestInfo;
+import com.butent.bee.server.jdbc.SqlProfile;
+import com.butent.bee.shared.Service;
+import com.butent.bee.shared.communication.ResponseObject;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Tests {@link com.butent.bee.server.DispatcherBean#doBatch}. Parts must be executed through the
+ * container view of the bean, which is faked by a second instance.
+ */
+public class TestDispatcherBean {
+
+  private static final String READ = Service.GET_DATA;
+  private static final String WRITE = Service.UPDATE_ROW;
+
+  private static final String SUBMIT = "submit";
+
+  /**
+   * Creates a request without content, which carries {@code id} and {@code service} as query
+   * parameters.
+   */
+  private static RequestInfo request(String id, String service) {
+    Map<String, String[]> params = new HashMap<>();
+    params.put(Service.RPC_VAR_QID, new String[] {id});
+    params.put(Service.RPC_VAR_SVC, new String[] {service});
+
+    HttpServletRequest req = (HttpServletRequest) Proxy.newProxyInstance(
+        TestDispatcherBean.class.getClassLoader(), new Class<?>[] {HttpServletRequest.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getMethod":
+              return "POST";
+            case "getParameterMap":
+              return params;
+            case "getContentLength":
+              return 0;
+            default:
+              return null;
+          }
+        });
+
+    return new RequestInfo(req, false);
+  }
+
+  private final List<String> events = new ArrayList<>();
+
+  private DispatcherBean bean;
+  private DispatcherBean proxy;
+
+  @Before
+  public void setUp() {
+    bean = new DispatcherBean() {
+      @Override
+      public ResponseObject doService(String svc, RequestInfo reqInfo) {
+        throw new AssertionError("called directly");
+      }
+
+      @Override
+      DispatcherBean getProxy() {
+        return proxy;
+      }
+    };
+
+    proxy = new DispatcherBean() {
+      @Override
+      public ResponseObject doService(String svc, RequestInfo reqInfo) {
+        events.add(reqInfo.getId());
+        SqlProfile.record("select " + svc, 1L, 1);
+
+        return ResponseObject.response(reqInfo.getId());
+      }
+    };
+
+    bean.executor = (ManagedExecutorService) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {ManagedExecutorService.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("submit")) {
+            events.add(SUBMIT);
+
+            Callable<?> task = (Callable<?>) args[0];
+
+            return new FutureTask<Object>(task::call) {
+              @Override
+              public Object get() throws InterruptedException, ExecutionException {
+                run();
+                return super.get();
+              }
+            };
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  @Test
+  public final void testOrder() {
+    List<ResponseObject> responses = bean.doBatch(Arrays.asList(request("1", READ),
+        request("2", READ), request("3", WRITE), request("4", READ), request("5", READ)));
+
+    assertEquals(Arrays.asList(SUBMIT, SUBMIT, "1", "2", "3", SUBMIT, SUBMIT, "4", "5"), events);
+
+    assertEquals(5, responses.size());
+    for (int i = 0; i < responses.size(); i++) {
+      assertEquals(Integer.toString(i + 1), responses.get(i).getResponse());
+    }
+  }
+
+  @Test
+  public final void testSequential() {
+    List<ResponseObject> responses = bean.doBatch(Arrays.asList(request("1", WRITE),
+        request("2", READ), request("3", WRITE)));
+
+    assertEquals(Arrays.asList("1", "2", "3"), events);
+    assertEquals(3, responses.size());
+    assertEquals("2", responses.get(1).getResponse());
+  }
+
+  @Test
+  public final void testProfiles() {
+    SqlProfile.start("0", Service.BATCH);
+    bean.doBatch(Arrays.asList(request("1", READ), request("2", READ), request("3", WRITE)));
+
+    SqlProfile profile = SqlProfile.finish();
+    assertNotNull(profile);
+    assertEquals(0, profile.getCount());
+
+    assertNull(SqlProfile.finish());
+  }
+}
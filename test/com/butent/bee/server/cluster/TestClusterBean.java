@@ -0,0 +1,239 @@
+package com.butent.bee.server.cluster;
+
+import static com.butent.bee.shared.modules.administration.AdministrationConstants.*;
+
+import com.butent.bee.server.data.QueryServiceBean;
+import com.butent.bee.server.data.SystemBean;
+import com.butent.bee.server.data.UserServiceBean;
+import com.butent.bee.server.i18n.LocalizationBean;
+import com.butent.bee.server.sql.IsQuery;
+import com.butent.bee.server.sql.SqlBuilderFactory;
+import com.butent.bee.server.sql.SqlInsert;
+import com.butent.bee.server.ui.UiHolderBean;
+import com.butent.bee.shared.BeeConst.SqlEngine;
+import com.butent.bee.shared.data.SimpleRowSet;
+import com.butent.bee.shared.utils.BeeUtils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.ejb.Timer;
+import javax.ejb.TimerService;
+
+/**
+ * Tests {@link com.butent.bee.server.cluster.ClusterBean}.
+ */
+public class TestClusterBean {
+
+  private static final String ID_NAME = "ClusterEventID";
+
+  private static final Pattern LOWER_BOUND = Pattern.compile(">=\\s*(\\d+)");
+
+  private final List<SqlInsert> inserts = new ArrayList<>();
+  private final List<IsQuery> reads = new ArrayList<>();
+
+  private final List<String[]> events = new ArrayList<>();
+  private final List<String> received = new ArrayList<>();
+  private final List<String> handled = new ArrayList<>();
+
+  private ClusterBean bean;
+  private long started;
+
+  @Before
+  public void setUp() {
+    bean = new ClusterBean();
+
+    bean.qs = new QueryServiceBean() {
+      @Override
+      public SimpleRowSet getData(IsQuery query) {
+        reads.add(query);
+
+        SimpleRowSet data = new SimpleRowSet(new String[] {
+            ID_NAME, COL_CLUSTER_CHANNEL, COL_CLUSTER_PAYLOAD, COL_CLUSTER_PUBLISHED});
+        events.forEach(data::addRow);
+        return data;
+      }
+
+      @Override
+      public long insertData(SqlInsert si) {
+        inserts.add(si);
+        return inserts.size();
+      }
+
+      @Override
+      public int updateData(IsQuery query) {
+        return 0;
+      }
+    };
+
+    bean.sys = new SystemBean() {
+      @Override
+      public String getIdName(String tblName) {
+        return ID_NAME;
+      }
+
+      @Override
+      public void postRemoteEvent(String tblName) {
+        handled.add(Cluster.CHANNEL_DATA + tblName);
+      }
+    };
+
+    bean.usr = new UserServiceBean() {
+      @Override
+      public void reloadRights() {
+        handled.add(Cluster.CHANNEL_RIGHTS);
+      }
+
+      @Override
+      public void reloadUsers() {
+        handled.add(Cluster.CHANNEL_USERS);
+      }
+    };
+
+    bean.ui = new UiHolderBean() {
+      @Override
+      public void reload(String objName) {
+        handled.add(Cluster.CHANNEL_UI + objName);
+      }
+    };
+
+    bean.loc = new LocalizationBean() {
+      @Override
+      public void reloadGlossary(String language) {
+        handled.add(Cluster.CHANNEL_BOOTSTRAP + language);
+      }
+    };
+
+    Timer timer = (Timer) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {Timer.class}, (proxy, method, args) -> null);
+
+    bean.timerService = (TimerService) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {TimerService.class}, (proxy, method, args) -> timer);
+
+    started = System.currentTimeMillis();
+    bean.start((channel, payload) -> received.add(channel + payload), 500);
+  }
+
+  @Test
+  public final void testChannels() {
+    LoopbackBus node = new LoopbackBus();
+
+    bean.subscribe();
+    Cluster.connect(node.join());
+
+    try {
+      node.publish(Cluster.CHANNEL_BOOTSTRAP, "lt");
+      node.publish(Cluster.CHANNEL_DATA, TBL_USERS);
+      node.publish(Cluster.CHANNEL_RIGHTS, TBL_RIGHTS);
+      node.publish(Cluster.CHANNEL_UI, "GRID");
+      node.publish(Cluster.CHANNEL_USERS, TBL_USER_ROLES);
+    } finally {
+      Cluster.disconnect();
+    }
+
+    assertEquals(Arrays.asList(Cluster.CHANNEL_BOOTSTRAP + "lt", Cluster.CHANNEL_DATA + TBL_USERS,
+        Cluster.CHANNEL_RIGHTS, Cluster.CHANNEL_UI + "GRID", Cluster.CHANNEL_USERS), handled);
+  }
+
+  @Test
+  public final void testDeduplication() {
+    long now = System.currentTimeMillis();
+
+    addEvent(1, Cluster.CHANNEL_CACHE, "Users", now - 100);
+    bean.ejbTimeout(null);
+    assertEquals(1, received.size());
+
+    addEvent(2, Cluster.CHANNEL_CACHE, "Users", now - 50);
+    addEvent(3, Cluster.CHANNEL_WEBSOCKET, "x", now - 5000);
+    bean.ejbTimeout(null);
+
+    assertEquals(3, received.size());
+    assertEquals(Cluster.CHANNEL_CACHE + "Users", received.get(1));
+    assertEquals(Cluster.CHANNEL_WEBSOCKET + "x", received.get(2));
+
+    bean.ejbTimeout(null);
+    assertEquals(3, received.size());
+  }
+
+  @Test
+  public final void testPublish() {
+    bean.publish(Cluster.CHANNEL_CACHE, "Users");
+    bean.publish(Cluster.CHANNEL_CACHE, "Users");
+    bean.publish(Cluster.CHANNEL_WEBSOCKET, "x");
+    assertTrue(inserts.isEmpty());
+
+    bean.ejbTimeout(null);
+    assertEquals(3, inserts.size());
+    assertTrue(received.isEmpty());
+
+    bean.ejbTimeout(null);
+    assertEquals(3, inserts.size());
+
+    bean.stop();
+    bean.publish(Cluster.CHANNEL_CACHE, "Users");
+    bean.ejbTimeout(null);
+    assertEquals(3, inserts.size());
+  }
+
+  @Test
+  public final void testPublishOnCommit() {
+    LoopbackBus node = new LoopbackBus();
+    node.start((channel, payload) -> received.add(channel + payload));
+
+    Cluster.connect(node.join());
+
+    try {
+      bean.qs.publishOnCommit(Cluster.CHANNEL_RIGHTS, TBL_RIGHTS);
+    } finally {
+      Cluster.disconnect();
+    }
+    bean.qs.publishOnCommit(Cluster.CHANNEL_RIGHTS, TBL_RIGHTS);
+
+    assertEquals(Arrays.asList(Cluster.CHANNEL_RIGHTS + TBL_RIGHTS), received);
+  }
+
+  @Test
+  public final void testReadOverlap() {
+    bean.ejbTimeout(null);
+    long first = System.currentTimeMillis();
+
+    bean.ejbTimeout(null);
+    long second = System.currentTimeMillis();
+
+    bean.ejbTimeout(null);
+    assertEquals(3, reads.size());
+
+    long overlap = ClusterBean.READ_OVERLAP_MILLIS;
+
+    assertBetween(started - overlap, first - overlap, getLowerBound(reads.get(0)));
+    assertBetween(started - overlap, first - overlap, getLowerBound(reads.get(1)));
+    assertBetween(first - overlap, second - overlap, getLowerBound(reads.get(2)));
+  }
+
+  private static void assertBetween(long min, long max, long value) {
+    assertTrue(value + " < " + min, value >= min);
+    assertTrue(value + " > " + max, value <= max);
+  }
+
+  private static long getLowerBound(IsQuery query) {
+    Matcher matcher = LOWER_BOUND.matcher(
+        query.getSqlString(SqlBuilderFactory.getBuilder(SqlEngine.GENERIC)));
+
+    assertTrue(matcher.find());
+    return BeeUtils.toLong(matcher.group(1));
+  }
+
+  private void addEvent(long id, String channel, String payload, long published) {
+    events.add(new String[] {BeeUtils.toString(id), channel, payload,
+        BeeUtils.toString(published)});
+  }
+}
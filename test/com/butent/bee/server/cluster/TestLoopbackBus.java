@@ -0,0 +1,48 @@
+package com.butent.bee.server.cluster;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.server.cluster.LoopbackBus}.
+ */
+public class TestLoopbackBus {
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testPublish() {
+    List<String> first = new ArrayList<>();
+    List<String> second = new ArrayList<>();
+    List<String> third = new ArrayList<>();
+
+    LoopbackBus a = new LoopbackBus();
+    LoopbackBus b = a.join();
+    LoopbackBus c = b.join();
+
+    assertNotEquals(a.getNodeId(), b.getNodeId());
+
+    a.start((channel, payload) -> first.add(channel + payload));
+    b.start((channel, payload) -> second.add(channel + payload));
+    c.start((channel, payload) -> third.add(channel + payload));
+
+    a.publish(Cluster.CHANNEL_CACHE, "Users");
+    assertTrue(first.isEmpty());
+    assertEquals(1, second.size());
+    assertEquals(Cluster.CHANNEL_CACHE + "Users", third.get(0));
+
+    c.stop();
+    b.publish(Cluster.CHANNEL_WEBSOCKET, "x");
+
+    assertEquals(1, first.size());
+    assertEquals(1, second.size());
+    assertEquals(1, third.size());
+
+    LoopbackBus other = new LoopbackBus();
+    other.publish(Cluster.CHANNEL_CACHE, "Users");
+    assertEquals(1, first.size());
+  }
+}
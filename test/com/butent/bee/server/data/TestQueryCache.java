@@ -0,0 +1,35 @@
+package com.butent.bee.server.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link com.butent.bee.server.data.QueryCache#getWriteTarget}.
+ */
+@SuppressWarnings("static-method")
+public class TestQueryCache {
+
+  @Test
+  public final void testTarget() {
+    assertEquals("Users", QueryCache.getWriteTarget("insert into Users (Login) values ('a')"));
+    assertEquals("Users", QueryCache.getWriteTarget(" UPDATE \"Users\" SET Login = 'b'"));
+    assertEquals("Users", QueryCache.getWriteTarget("delete from dbo.[Users] where ID = 1"));
+    assertEquals("Users", QueryCache.getWriteTarget("truncate table public.Users"));
+    assertEquals("Users",
+        QueryCache.getWriteTarget("INSERT\n INTO Users (Login) SELECT Login FROM Persons"));
+  }
+
+  @Test
+  public final void testUnknown() {
+    assertEquals(QueryCache.ALL_TABLES, QueryCache.getWriteTarget(null));
+    assertEquals(QueryCache.ALL_TABLES, QueryCache.getWriteTarget("vacuum"));
+    assertEquals(QueryCache.ALL_TABLES, QueryCache.getWriteTarget("create table Users (ID int)"));
+    assertEquals(QueryCache.ALL_TABLES,
+        QueryCache.getWriteTarget("update Users set Login = 'a'; delete from Persons"));
+    assertEquals(QueryCache.ALL_TABLES,
+        QueryCache.getWriteTarget("update Users set Login = p.Name from Persons p"));
+    assertEquals(QueryCache.ALL_TABLES,
+        QueryCache.getWriteTarget("delete from Users using Persons where Persons.ID = 1"));
+  }
+}
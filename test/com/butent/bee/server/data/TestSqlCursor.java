@@ -0,0 +1,226 @@
+package com.butent.bee.server.data;
+
+import com.butent.bee.server.jdbc.SqlProfile;
+import com.butent.bee.server.sql.SqlStatement;
+import com.butent.bee.shared.data.SimpleRowSet.SimpleRow;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.server.data.SqlCursor}.
+ */
+public class TestSqlCursor {
+
+  private static final String SQL = "select Code, Name from Items";
+
+  private static final String[][] ROWS = new String[][] {
+      {"1", "first"}, {"2", null}, {"3", "third"}, {"4", "fourth"}, {"5", "fifth"}};
+
+  private static List<SimpleRow> readAll(SqlCursor cursor) throws SQLException {
+    List<SimpleRow> rows = new ArrayList<>();
+    for (SimpleRow row = cursor.next(); row != null; row = cursor.next()) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private final List<String> events = new ArrayList<>();
+
+  private boolean autoCommit;
+  private boolean failing;
+
+  private int fetched;
+
+  @Before
+  public void setUp() {
+    events.clear();
+
+    autoCommit = true;
+    failing = false;
+
+    fetched = 0;
+  }
+
+  @Test
+  public final void testAutoCommit() throws SQLException {
+    try (SqlCursor cursor = SqlCursor.open(connection(), SqlStatement.of(SQL), 2)) {
+      assertEquals(Arrays.asList("setAutoCommit false", "prepareStatement", "setFetchSize 2",
+          "executeQuery"), events);
+      events.clear();
+
+      assertEquals(ROWS.length, readAll(cursor).size());
+    }
+    assertEquals(Arrays.asList("rs close", "stmt close", "commit", "setAutoCommit true",
+        "con close"), events);
+  }
+
+  @Test
+  public final void testChunks() throws SQLException {
+    SqlProfile.start("1", "test");
+
+    try (SqlCursor cursor = SqlCursor.open(connection(), SqlStatement.of(SQL), 2)) {
+      SimpleRow row = cursor.next();
+      assertEquals("1", row.getValue("Code"));
+      assertEquals("first", row.getValue("Name"));
+      assertEquals(2, fetched);
+
+      row = cursor.next();
+      assertNull(row.getValue("Name"));
+      assertEquals(2, fetched);
+
+      assertEquals("3", cursor.next().getValue(0));
+      assertEquals(4, fetched);
+
+      List<SimpleRow> rest = readAll(cursor);
+      assertEquals(2, rest.size());
+      assertEquals("fifth", rest.get(1).getValue("Name"));
+
+      assertNull(cursor.next());
+      assertNull(cursor.next());
+    }
+
+    SqlProfile profile = SqlProfile.finish();
+    assertEquals(1, profile.getCount());
+    assertTrue(profile.toString(), profile.toString().endsWith("rows " + ROWS.length));
+  }
+
+  @Test
+  public final void testFailure() {
+    failing = true;
+
+    try {
+      SqlCursor.open(connection(), SqlStatement.of(SQL), 10);
+      fail("query error not reported");
+    } catch (SQLException ex) {
+      assertEquals("executeQuery", ex.getMessage());
+    }
+    assertEquals(Arrays.asList("setAutoCommit false", "prepareStatement", "setFetchSize 10",
+        "stmt close", "rollback", "setAutoCommit true", "con close"), events);
+  }
+
+  @Test
+  public final void testTransaction() throws SQLException {
+    autoCommit = false;
+
+    try (SqlCursor cursor = SqlCursor.open(connection(), SqlStatement.of(SQL), 100)) {
+      assertEquals(ROWS.length, readAll(cursor).size());
+      assertEquals(ROWS.length, fetched);
+    }
+    assertEquals(Arrays.asList("prepareStatement", "setFetchSize 100", "executeQuery",
+        "rs close", "stmt close", "con close"), events);
+  }
+
+  /**
+   * Creates a connection, which records calls in {@code events} and returns a forward only
+   * statement over {@code ROWS}.
+   */
+  private Connection connection() {
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getAutoCommit":
+              return autoCommit;
+            case "setAutoCommit":
+              events.add("setAutoCommit " + args[0]);
+              return null;
+            case "prepareStatement":
+              assertEquals(SQL, args[0]);
+              assertEquals(ResultSet.TYPE_FORWARD_ONLY, args[1]);
+              assertEquals(ResultSet.CONCUR_READ_ONLY, args[2]);
+
+              events.add(method.getName());
+              return statement();
+            case "commit":
+            case "rollback":
+              events.add(method.getName());
+              return null;
+            case "close":
+              events.add("con close");
+              return null;
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+  }
+
+  private ResultSet resultSet() {
+    ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getColumnCount":
+              return 2;
+            case "getColumnLabel":
+            case "getColumnName":
+              return ((Integer) args[0] == 1) ? "Code" : "Name";
+            case "getColumnType":
+              return Types.VARCHAR;
+            case "getPrecision":
+            case "getScale":
+            case "isNullable":
+              return 0;
+            case "isReadOnly":
+              return true;
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+
+    return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "next":
+              if (fetched < ROWS.length) {
+                fetched++;
+                return true;
+              }
+              return false;
+            case "getMetaData":
+              return metaData;
+            case "getString":
+              return ROWS[fetched - 1][(Integer) args[0] - 1];
+            case "close":
+              events.add("rs close");
+              return null;
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+  }
+
+  private PreparedStatement statement() {
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "setFetchSize":
+              events.add("setFetchSize " + args[0]);
+              return null;
+            case "executeQuery":
+              if (failing) {
+                throw new SQLException(method.getName());
+              }
+              events.add(method.getName());
+              return resultSet();
+            case "close":
+              events.add("stmt close");
+              return null;
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+  }
+}
@@ -0,0 +1,110 @@
+package com.butent.bee.server.jdbc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.server.jdbc.JdbcUtils#bindParameters}.
+ */
+public class TestJdbcUtils {
+
+  private static final int[] PARAMETER_TYPES = new int[] {Types.BIGINT, Types.VARBINARY};
+
+  private final List<String> calls = new ArrayList<>();
+
+  private boolean describes;
+
+  @Before
+  public void setUp() {
+    calls.clear();
+    describes = true;
+  }
+
+  @Test
+  public final void testBindNulls() throws SQLException {
+    JdbcUtils.bindParameters(statement(), Arrays.<Object> asList(null, "abc", null), false);
+
+    assertEquals(Arrays.asList("getParameterMetaData", "setNull 1 " + Types.BIGINT,
+        "setObject 2 abc", "setNull 3 " + Types.VARCHAR), calls);
+  }
+
+  @Test
+  public final void testBindUntyped() throws SQLException {
+    JdbcUtils.bindParameters(statement(), Arrays.<Object> asList(5L, "abc", null), true);
+
+    assertEquals(Arrays.asList("setObject 1 5", "setObject 2 abc " + Types.OTHER,
+        "setNull 3 " + Types.OTHER), calls);
+  }
+
+  @Test
+  public final void testParameterTypes() throws SQLException {
+    PreparedStatement stmt = statement();
+    assertArrayEquals(new Object[] {Types.BIGINT, Types.VARBINARY},
+        Arrays.stream(JdbcUtils.getParameterTypes(stmt)).boxed().toArray());
+
+    JdbcUtils.bindParameters(stmt, Arrays.<Object> asList("a", "b"), false);
+    assertEquals(Arrays.asList("getParameterMetaData", "setObject 1 a", "setObject 2 b"), calls);
+
+    describes = false;
+    calls.clear();
+
+    assertNull(JdbcUtils.getParameterTypes(stmt));
+
+    JdbcUtils.bindParameters(stmt, Arrays.<Object> asList(null, null), false, null);
+    assertEquals(Arrays.asList("getParameterMetaData", "setNull 1 " + Types.VARCHAR,
+        "setNull 2 " + Types.VARCHAR), calls);
+  }
+
+  /**
+   * Creates a statement, which records setter calls in {@code calls} and describes its
+   * parameters with {@code PARAMETER_TYPES}, if {@code describes} is set.
+   */
+  private PreparedStatement statement() {
+    ParameterMetaData metaData = (ParameterMetaData) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {ParameterMetaData.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getParameterCount":
+              return PARAMETER_TYPES.length;
+            case "getParameterType":
+              return PARAMETER_TYPES[(Integer) args[0] - 1];
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+          if (method.getName().equals("getParameterMetaData")) {
+            calls.add(method.getName());
+
+            if (describes) {
+              return metaData;
+            }
+            throw new SQLFeatureNotSupportedException(method.getName());
+          }
+
+          if (method.getName().startsWith("set")) {
+            StringBuilder sb = new StringBuilder(method.getName());
+            for (Object arg : args) {
+              sb.append(' ').append(arg);
+            }
+            calls.add(sb.toString());
+            return null;
+          }
+          throw new SQLException(method.getName());
+        });
+  }
+}
@@ -0,0 +1,94 @@
+package com.butent.bee.server.jdbc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.server.jdbc.StatementCache}.
+ */
+public class TestStatementCache {
+
+  private final List<PreparedStatement> prepared = new ArrayList<>();
+  private final List<PreparedStatement> closed = new ArrayList<>();
+
+  private StatementCache cache;
+
+  @Before
+  public void setUp() {
+    Connection con = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          if (method.getName().equals("prepareStatement")) {
+            PreparedStatement stmt = statement();
+            prepared.add(stmt);
+            return stmt;
+          }
+          throw new SQLException(method.getName());
+        });
+
+    cache = new StatementCache(con, 2);
+  }
+
+  @Test
+  public final void testEviction() throws SQLException {
+    PreparedStatement a = cache.prepare("a");
+    cache.prepare("b");
+    cache.prepare("c");
+
+    assertTrue(closed.isEmpty());
+
+    cache.release(a);
+    assertEquals(1, closed.size());
+    assertSame(a, closed.get(0));
+
+    assertNotSame(a, cache.prepare("a"));
+  }
+
+  @Test
+  public final void testNested() throws SQLException {
+    PreparedStatement outer = cache.prepare("select 1");
+    PreparedStatement inner = cache.prepare("select 1");
+
+    assertNotSame(outer, inner);
+    assertEquals(2, prepared.size());
+
+    cache.release(inner);
+    assertEquals(1, closed.size());
+    assertSame(inner, closed.get(0));
+
+    cache.release(outer);
+    assertEquals(1, closed.size());
+
+    assertSame(outer, cache.prepare("select 1"));
+    assertEquals(2, prepared.size());
+  }
+
+  private PreparedStatement statement() {
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "close":
+              closed.add((PreparedStatement) proxy);
+              return null;
+            case "isClosed":
+              return closed.contains(proxy);
+            case "clearParameters":
+              return null;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              throw new SQLException(method.getName());
+          }
+        });
+  }
+}
@@ -0,0 +1,123 @@
+package com.butent.bee.server.sql;
+
+import com.butent.bee.shared.BeeConst.SqlEngine;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests {@link com.butent.bee.server.sql.SqlStatement}.
+ */
+public class TestSqlStatement {
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testSelect() {
+    SqlBuilder builder = SqlBuilderFactory.getBuilder(SqlEngine.GENERIC);
+
+    SqlSelect select = new SqlSelect()
+        .addFields("Table1", "field1")
+        .addConstant("const", "alias1")
+        .addFrom("Table1")
+        .setWhere(SqlUtils.and(SqlUtils.equals("Table1", "field2", "val"),
+            SqlUtils.more("Table1", "field3", 5),
+            SqlUtils.startsWith(SqlUtils.name("field4"), "pre")));
+
+    SqlStatement statement = builder.getStatement(select);
+
+    assertEquals("SELECT Table1.field1, 'const' AS alias1 FROM Table1 WHERE Table1.field2 = ?"
+        + " AND Table1.field3 > ? AND field4 LIKE 'pre%' ESCAPE '|'", statement.getSql());
+    assertEquals(Arrays.asList("val", 5), statement.getParameters());
+
+    assertEquals("SELECT Table1.field1, 'const' AS alias1 FROM Table1 WHERE Table1.field2 = 'val'"
+        + " AND Table1.field3 > 5 AND field4 LIKE 'pre%' ESCAPE '|'", select.getSqlString(builder));
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testFromTemplate() {
+    SqlBuilder builder = SqlBuilderFactory.getBuilder(SqlEngine.GENERIC);
+
+    SqlSelect base = new SqlSelect()
+        .addFields("Table1", "field1")
+        .addFrom("Table1")
+        .addFromInner("Table2", SqlUtils.and(SqlUtils.join("Table1", "id", "Table2", "ref"),
+            SqlUtils.equals("Table2", "kind", 3)));
+
+    FromTemplate template = new FromTemplate(base.getFrom());
+    base.setFromTemplate(template);
+
+    for (String value : new String[] {"a", "b"}) {
+      SqlSelect select = base.copyOf().setWhere(SqlUtils.equals("Table1", "field2", value));
+      SqlStatement statement = builder.getStatement(select);
+
+      assertEquals(builder.getStatement(select.copyOf().setFromTemplate(null)).getSql(),
+          statement.getSql());
+      assertEquals(Arrays.asList(3, value), statement.getParameters());
+    }
+    assertNotNull(template.get(SqlEngine.GENERIC, true));
+
+    SqlSelect union = new SqlSelect()
+        .addFields("Table3", "field1")
+        .addFrom("Table3")
+        .setWhere(SqlUtils.equals("Table3", "field2", 5L))
+        .addUnion(base.copyOf().setWhere(SqlUtils.equals("Table1", "field2", "c")));
+
+    SqlStatement statement = builder.getStatement(union);
+    assertEquals(Arrays.asList(5L, 3, "c"), statement.getParameters());
+
+    SqlSelect joined = base.copyOf().addFromLeft("Table3", SqlUtils.equals("Table3", "f", 7));
+    assertEquals(Arrays.asList(3, 7), builder.getStatement(joined).getParameters());
+
+    assertEquals(base.copyOf().setFromTemplate(null).getSqlString(builder),
+        base.getSqlString(builder));
+    assertTrue(base.getSqlString(builder).contains("= 3"));
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testInsertAndUpdate() {
+    SqlBuilder builder = SqlBuilderFactory.getBuilder(SqlEngine.GENERIC);
+
+    SqlInsert insert = new SqlInsert("Table1")
+        .addConstant("field1", "val")
+        .addConstant("field2", null)
+        .addConstant("field3", true);
+
+    SqlStatement statement = builder.getStatement(insert);
+
+    assertEquals("INSERT INTO Table1 (field1,field2,field3) VALUES (?,null,?)",
+        statement.getSql());
+    assertEquals(Arrays.asList("val", 1), statement.getParameters());
+
+    SqlUpdate update = new SqlUpdate("Table1")
+        .addConstant("field1", 10L)
+        .setWhere(SqlUtils.equals("Table1", "field2", "it's"));
+
+    statement = builder.getStatement(update);
+
+    assertEquals("UPDATE Table1 SET field1=? WHERE Table1.field2 = ?", statement.getSql());
+    assertEquals(Arrays.asList(10L, "it's"), statement.getParameters());
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testLimitOffset() {
+    SqlBuilder builder = SqlBuilderFactory.getBuilder(SqlEngine.POSTGRESQL);
+
+    SqlSelect select = new SqlSelect()
+        .addFields("t", "f")
+        .addFrom("t")
+        .setLimit(20)
+        .setOffset(40);
+
+    SqlStatement statement = builder.getStatement(select);
+
+    assertEquals("SELECT \"t\".\"f\" FROM \"t\" LIMIT ? OFFSET ?", statement.getSql());
+    assertEquals(Arrays.asList(20, 40), statement.getParameters());
+    assertEquals(SqlEngine.POSTGRESQL, statement.getEngine());
+  }
+}
@@ -0,0 +1,96 @@
+package com.butent.bee.shared.communication;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.butent.bee.shared.Service;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link com.butent.bee.shared.communication.BatchPart}.
+ */
+@SuppressWarnings("static-method")
+public class TestBatchPart {
+
+  private static List<BatchPart> roundTrip(BatchPart... parts) {
+    StringBuilder sb = new StringBuilder();
+    WireWriter writer = new WireWriter(sb::append);
+
+    writer.writePrefix();
+    writer.writeCount(parts.length);
+    for (BatchPart part : parts) {
+      part.write(writer);
+    }
+    writer.flush();
+
+    assertTrue(WireReader.isWire(sb.toString()));
+
+    WireReader reader = new WireReader(sb.toString());
+    int count = reader.readCount();
+
+    List<BatchPart> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(BatchPart.read(reader));
+    }
+
+    assertFalse(reader.hasMore());
+    return result;
+  }
+
+  @Test
+  public final void testEmptyParts() {
+    List<BatchPart> parts = roundTrip(new BatchPart("3", "GET", null, null, null, null),
+        new BatchPart("", "", new HashMap<>(), new HashMap<>(), "", ""));
+
+    assertEquals(2, parts.size());
+
+    assertEquals("3", parts.get(0).getId());
+    assertEquals("GET", parts.get(0).getMethod());
+    assertTrue(parts.get(0).getQuery().isEmpty());
+    assertTrue(parts.get(0).getHeaders().isEmpty());
+    assertNull(parts.get(0).getContentType());
+    assertNull(parts.get(0).getContent());
+
+    assertEquals("", parts.get(1).getId());
+    assertEquals("", parts.get(1).getContentType());
+    assertEquals("", parts.get(1).getContent());
+  }
+
+  @Test
+  public final void testLayout() {
+    Map<String, String> query = ImmutableMap.of(Service.RPC_VAR_SVC, Service.GET_DATA,
+        "view", "Users");
+    Map<String, String> headers = ImmutableMap.of(Service.RPC_VAR_SUB, "sub 1",
+        "x", "10" + "w1" + "3abc");
+
+    String content = "{\"a\": [1, 2]}\n" + "12345678901234567890";
+
+    List<BatchPart> parts = roundTrip(
+        new BatchPart("17", "POST", query, headers, ContentType.TEXT.name(), content),
+        new BatchPart("18", "GET", ImmutableMap.of(Service.RPC_VAR_SVC, Service.COUNT_ROWS),
+            null, null, null));
+
+    assertEquals(2, parts.size());
+    BatchPart part = parts.get(0);
+
+    assertEquals("17", part.getId());
+    assertEquals("POST", part.getMethod());
+    assertEquals(query, part.getQuery());
+    assertEquals(headers, part.getHeaders());
+    assertEquals(ContentType.TEXT.name(), part.getContentType());
+    assertEquals(content, part.getContent());
+
+    assertEquals("18", parts.get(1).getId());
+    assertEquals(Arrays.asList(Service.COUNT_ROWS),
+        new ArrayList<>(parts.get(1).getQuery().values()));
+    assertNull(parts.get(1).getContent());
+  }
+}
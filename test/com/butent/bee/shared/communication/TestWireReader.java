@@ -0,0 +1,141 @@
+package com.butent.bee.shared.communication;
+
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.SimpleRowSet;
+import com.butent.bee.shared.data.event.ModificationEvent;
+import com.butent.bee.shared.data.event.RowUpdateEvent;
+import com.butent.bee.shared.data.value.ValueType;
+import com.butent.bee.shared.websocket.messages.Message;
+import com.butent.bee.shared.websocket.messages.ModificationMessage;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.shared.communication.WireReader}.
+ */
+public class TestWireReader {
+
+  private static String write(WireSerializable data) {
+    StringBuilder sb = new StringBuilder();
+    WireWriter writer = new WireWriter(sb::append);
+
+    data.write(writer);
+    writer.flush();
+
+    assertEquals(sb.length(), writer.getLength());
+    return sb.toString();
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testValues() {
+    StringBuilder sb = new StringBuilder();
+
+    new WireWriter(sb::append).writePrefix().writeValue("abc").writeValue(null).writeValue("")
+        .writeCount(12).writeTrimmed("x  ").writeValue(-5L).flush();
+
+    assertEquals("w113abc01021212" + "11x12-5", sb.toString());
+
+    WireReader reader = new WireReader(sb.toString());
+
+    assertEquals("abc", reader.readValue());
+    assertNull(reader.readValue());
+    assertEquals("", reader.readValue());
+    assertEquals(12, reader.readCount());
+    assertEquals("x", reader.readValue());
+    assertEquals(-5L, reader.readLong());
+    assertFalse(reader.hasMore());
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testSimpleRowSet() {
+    SimpleRowSet rs = new SimpleRowSet(new String[] {"Name", "Value"});
+    rs.addRow(new String[] {"a", null});
+    rs.addRow(new String[] {"", "b c"});
+
+    String wire = write(rs);
+    assertTrue(WireReader.isWire(wire));
+
+    SimpleRowSet restored = SimpleRowSet.restore(wire);
+
+    assertEquals(2, restored.getNumberOfColumns());
+    assertEquals(2, restored.getNumberOfRows());
+    assertEquals("a", restored.getValue(0, "name"));
+    assertNull(restored.getValue(0, "Value"));
+    assertEquals("", restored.getValue(1, 0));
+    assertEquals("b c", restored.getValue(1, 1));
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testModificationMessage() {
+    List<ModificationEvent<?>> events = new ArrayList<>();
+
+    RowUpdateEvent.fire((event, locality) -> events.add(event), "Items",
+        new BeeRow(7, 9, new String[] {"x", null}));
+    RowUpdateEvent.fire((event, locality) -> events.add(event), "Items",
+        new BeeRow(8, 10, new String[] {"y", "2"}), true);
+
+    String text = new ModificationMessage(events).encode();
+    assertTrue(WireReader.isWire(text));
+
+    Message message = Message.decode(text);
+    assertTrue(message instanceof ModificationMessage);
+
+    List<ModificationEvent<?>> restored = ((ModificationMessage) message).getEvents();
+    assertEquals(2, restored.size());
+
+    RowUpdateEvent first = (RowUpdateEvent) restored.get(0);
+    assertEquals("Items", first.getViewName());
+    assertEquals(7, first.getRowId());
+    assertEquals(9, first.getRow().getVersion());
+    assertNull(first.getRow().getString(1));
+    assertFalse(first.refreshChildren());
+
+    RowUpdateEvent second = (RowUpdateEvent) restored.get(1);
+    assertEquals("2", second.getRow().getString(1));
+    assertTrue(second.refreshChildren());
+  }
+
+  @SuppressWarnings("static-method")
+  @Test
+  public final void testResponseObject() {
+    BeeRowSet rs = new BeeRowSet("Items", new BeeColumn(ValueType.TEXT, "Name", "Name"),
+        new BeeColumn(ValueType.INTEGER, "Qty", "Qty"));
+    rs.addRow(1, 3, new String[] {"first", "10"});
+    rs.addRow(2, 4, new String[] {null, "20"});
+    rs.getRow(1).setProperty("color", "red");
+
+    ResponseObject response = ResponseObject.response(rs).addWarning("slow");
+    assertTrue(response.isStreamable());
+
+    StringBuilder sb = new StringBuilder();
+    response.write(new WireWriter(sb::append));
+
+    ResponseObject restored = ResponseObject.restore(sb.toString());
+
+    assertTrue(restored.hasResponse(BeeRowSet.class));
+    assertArrayEquals(new String[] {"slow"}, restored.getWarnings());
+
+    BeeRowSet data = BeeRowSet.restore(restored.getResponseAsString());
+
+    assertEquals("Items", data.getViewName());
+    assertEquals(2, data.getNumberOfColumns());
+    assertEquals(2, data.getNumberOfRows());
+    assertEquals(3, data.getRow(0).getVersion());
+    assertEquals("first", data.getString(0, 0));
+    assertNull(data.getString(1, 0));
+    assertEquals("20", data.getString(1, "Qty"));
+    assertEquals("red", data.getRow(1).getProperty("color"));
+
+    assertEquals(rs.serialize(), data.serialize());
+  }
+}
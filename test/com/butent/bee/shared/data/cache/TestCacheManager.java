@@ -0,0 +1,155 @@
+package com.butent.bee.shared.data.cache;
+
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.value.ValueType;
+import com.butent.bee.shared.data.view.DataInfo;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link com.butent.bee.shared.data.cache.CacheManager}.
+ */
+public class TestCacheManager {
+
+  private static final List<BeeColumn> COLUMNS = Arrays.asList(
+      new BeeColumn(ValueType.TEXT, "Code"), new BeeColumn(ValueType.TEXT, "Name"));
+
+  /** {@code ROW_OVERHEAD + 2 * (CELL_OVERHEAD + 2 * 2)} for two cells of two characters. */
+  private static final long ROW_BYTES = 120L;
+
+  private static final int ROW_COUNT = 10;
+
+  private static DataInfo dataInfo(String viewName) {
+    return new DataInfo(null, viewName, viewName, "ID", "Version", null, null, null, null, null,
+        null, null, null, COLUMNS, null, null);
+  }
+
+  private static BeeRowSet rowSet(String viewName) {
+    List<BeeRow> rows = new ArrayList<>();
+    for (int i = 1; i <= ROW_COUNT; i++) {
+      rows.add(new BeeRow(i, 1L, new String[] {"ab", "cd"}));
+    }
+    return new BeeRowSet(viewName, COLUMNS, rows);
+  }
+
+  private final List<String> stored = new ArrayList<>();
+  private final List<String> restored = new ArrayList<>();
+
+  private CacheManager cache;
+
+  @Before
+  public void setUp() {
+    cache = new CacheManager();
+  }
+
+  @Test
+  public final void testBudget() {
+    add("A");
+    assertEquals(ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+
+    add("B");
+    assertEquals(2 * ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+
+    cache.setBudget(ROW_COUNT * ROW_BYTES);
+    assertEquals(ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+    assertNull(cache.getRowSet("A"));
+    assertNotNull(cache.getRowSet("B"));
+
+    cache.setBudget(0L);
+    add("A");
+    add("C");
+    assertEquals(3 * ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+
+    cache.remove("b");
+    assertEquals(2 * ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+  }
+
+  @Test
+  public final void testEstimateSize() {
+    assertEquals(ROW_BYTES, CacheManager.estimateSize(new BeeRow(1, new String[] {"ab", "cd"})));
+    assertEquals(64L + 8L + 24L, CacheManager.estimateSize(new BeeRow(1, new String[] {null, ""})));
+
+    BeeRow row = new BeeRow(1, new String[] {"ab", "cd"});
+    row.setProperty("k", "xyz");
+    assertEquals(ROW_BYTES + 2 * 24 + 2 * 4, CacheManager.estimateSize(row));
+  }
+
+  @Test
+  public final void testLeastRecentlyUsed() {
+    cache.setBudget(3 * ROW_COUNT * ROW_BYTES);
+
+    add("A");
+    add("B");
+    add("C");
+    assertNotNull(cache.getRowSet("A"));
+
+    add("D");
+    assertEquals(3 * ROW_COUNT * ROW_BYTES, cache.getEstimatedBytes());
+
+    assertNotNull(cache.getRowSet("A"));
+    assertNull(cache.getRowSet("B"));
+    assertNotNull(cache.getRowSet("C"));
+    assertNotNull(cache.getRowSet("D"));
+
+    assertTrue(cache.containsRange("C", null, null, 0, ROW_COUNT));
+    add("E");
+    assertNull(cache.getRowSet("A"));
+    assertNotNull(cache.getRowSet("C"));
+  }
+
+  @Test
+  public final void testRestore() {
+    assertFalse(cache.restore("A", () -> { }));
+
+    cache.setStore(new CacheStore() {
+      @Override
+      public void clear() {
+        stored.clear();
+      }
+
+      @Override
+      public void put(BeeRowSet rs) {
+        stored.add(rs.getViewName());
+      }
+
+      @Override
+      public void remove(String viewName) {
+        stored.remove(viewName);
+      }
+
+      @Override
+      public boolean restore(String viewName, Runnable callback) {
+        restored.add(viewName);
+        return !viewName.equals("C");
+      }
+    });
+
+    add("A");
+    assertEquals(Arrays.asList("A"), stored);
+    assertFalse(cache.restore("A", () -> { }));
+
+    assertTrue(cache.restore("B", () -> { }));
+    assertFalse(cache.restore("b", () -> { }));
+
+    assertFalse(cache.restore("C", () -> { }));
+    assertFalse(cache.restore("C", () -> { }));
+    assertEquals(Arrays.asList("B", "C", "C"), restored);
+
+    cache.clear();
+    assertTrue(stored.isEmpty());
+    assertTrue(cache.restore("B", () -> { }));
+  }
+
+  private void add(String viewName) {
+    cache.add(dataInfo(viewName), rowSet(viewName));
+  }
+}
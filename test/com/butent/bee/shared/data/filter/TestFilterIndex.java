@@ -0,0 +1,139 @@
+package com.butent.bee.shared.data.filter;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+
+import com.butent.bee.shared.data.BeeColumn;
+import com.butent.bee.shared.data.BeeRow;
+import com.butent.bee.shared.data.BeeRowSet;
+import com.butent.bee.shared.data.IsRow;
+import com.butent.bee.shared.data.value.IntegerValue;
+import com.butent.bee.shared.data.value.Value;
+import com.butent.bee.shared.data.value.ValueType;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Tests {@link com.butent.bee.shared.data.filter.Filter#findMatches}.
+ */
+public class TestFilterIndex {
+
+  private static final class ScanIndex implements FilterIndex {
+
+    private final BeeRowSet rowSet;
+
+    private ScanIndex(BeeRowSet rowSet) {
+      this.rowSet = rowSet;
+    }
+
+    @Override
+    public Set<Long> getEqual(int colIndex, Value value) {
+      return scan(colIndex, v -> v.compareTo(value) == 0);
+    }
+
+    @Override
+    public Set<Long> getIds() {
+      return new HashSet<>(rowSet.getRowIds());
+    }
+
+    @Override
+    public Set<Long> getInRange(int colIndex, Range<Value> range) {
+      return scan(colIndex, range::contains);
+    }
+
+    @Override
+    public IsRow getRow(long id) {
+      return rowSet.getRowById(id);
+    }
+
+    @Override
+    public Set<Long> getStartingWith(int colIndex, String prefix) {
+      return scan(colIndex, v -> v.toString().toLowerCase().startsWith(prefix.toLowerCase()));
+    }
+
+    private Set<Long> scan(int colIndex, Predicate<Value> predicate) {
+      Set<Long> ids = new HashSet<>();
+      ValueType type = rowSet.getColumnType(colIndex);
+
+      for (BeeRow row : rowSet) {
+        Value value = row.getValue(colIndex, type);
+        if (!value.isNull() && predicate.test(value)) {
+          ids.add(row.getId());
+        }
+      }
+      return ids;
+    }
+  }
+
+  private BeeRowSet rowSet;
+  private FilterIndex index;
+
+  @Before
+  public void setUp() {
+    rowSet = new BeeRowSet("Items", Arrays.asList(new BeeColumn(ValueType.TEXT, "Name", "Name"),
+        new BeeColumn(ValueType.INTEGER, "Qty", "Qty")));
+
+    rowSet.addRow(1, 1, new String[] {"first", "10"});
+    rowSet.addRow(2, 1, new String[] {"second", "20"});
+    rowSet.addRow(3, 1, new String[] {"Fourth", "5"});
+    rowSet.addRow(4, 1, new String[] {null, null});
+    rowSet.addRow(5, 1, new String[] {"fifth", "10"});
+
+    index = new ScanIndex(rowSet);
+  }
+
+  @Test
+  public final void testColumnValue() {
+    assertEquals(Sets.newHashSet(1L, 5L), check(Filter.isEqual("Qty", new IntegerValue(10))));
+    assertEquals(Sets.newHashSet(2L), check(Filter.isMore("Qty", new IntegerValue(10))));
+    assertEquals(Sets.newHashSet(1L, 3L, 5L),
+        check(Filter.isLessEqual("Qty", new IntegerValue(10))));
+    assertEquals(Sets.newHashSet(1L, 3L, 5L), check(Filter.startsWith("Name", "F")));
+
+    assertNull(Filter.contains("Name", "i").findMatches(rowSet.getColumns(), index));
+    assertNull(Filter.isEqual("Missing", new IntegerValue(1))
+        .findMatches(rowSet.getColumns(), index));
+  }
+
+  @Test
+  public final void testCompound() {
+    assertEquals(Sets.newHashSet(1L, 5L), check(Filter.and(
+        Filter.isMoreEqual("Qty", new IntegerValue(10)), Filter.contains("Name", "f"))));
+
+    assertEquals(Sets.newHashSet(2L, 3L, 4L),
+        check(Filter.isNot(Filter.isEqual("Qty", new IntegerValue(10)))));
+
+    assertEquals(Sets.newHashSet(2L, 3L), check(Filter.or(
+        Filter.isMore("Qty", new IntegerValue(10)), Filter.startsWith("Name", "fo"))));
+
+    assertNull(Filter.or(Filter.isMore("Qty", new IntegerValue(10)),
+        Filter.contains("Name", "o")).findMatches(rowSet.getColumns(), index));
+  }
+
+  @Test
+  public final void testId() {
+    assertEquals(Sets.newHashSet(1L, 3L), check(Filter.idIn(Arrays.asList(1L, 3L, 99L))));
+    assertNull(Filter.compareId(Operator.GT, 2).findMatches(rowSet.getColumns(), index));
+  }
+
+  private Set<Long> check(Filter filter) {
+    Set<Long> expected = new HashSet<>();
+    for (BeeRow row : rowSet) {
+      if (filter.isMatch(rowSet.getColumns(), row)) {
+        expected.add(row.getId());
+      }
+    }
+
+    Set<Long> found = filter.findMatches(rowSet.getColumns(), index);
+    assertEquals(expected, found);
+    return found;
+  }
+}
@@ -34,6 +34,8 @@ var BeeSettings = {
   "dataSelectorInputDelayMillis": "500, 500, 400, 300, 200",
   "dataSelectorInstantSearchMaxRows": 1000,
   "dataSelectorCachingMaxRows": 1000,
+  "cacheBudgetMegabytes": 64,
+  "rpcBatchMaxSize": 30,
   "showGridFilterCommand": false,
   "gridEditWindow": "on-top",
   "gridNewRowWindow": "on-top",